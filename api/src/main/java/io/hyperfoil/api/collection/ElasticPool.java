@@ -7,12 +7,23 @@ package io.hyperfoil.api.collection;
  */
 public interface ElasticPool<T> {
    /**
-    * This can be called by single thread only.
+    * Implementations that split the pool between executors must be invoked from one of the executors;
+    * these prefer objects from its share but take objects from other executors' share when this is depleted.
     *
     * @return pooled or new object.
     */
    T acquire();
 
+   /**
+    * Acquire an object bound to the executor this is invoked from, without looking into other executors' share.
+    * Returns <code>null</code> when the share is used up even if other executors have idle objects.
+    *
+    * @return pooled or new object.
+    */
+   default T acquireLocal() {
+      return acquire();
+   }
+
    /**
     * Can be called by any thread.
     *
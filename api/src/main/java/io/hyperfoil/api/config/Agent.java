@@ -24,6 +24,8 @@ import java.util.Map;
 
 public class Agent implements Serializable {
    private static final String THREADS = "threads";
+   private static final String TRANSPORT = "transport";
+   private static final String REUSE_PORT = "reusePort";
 
    public final String name;
    public final String inlineConfig;
@@ -46,4 +48,15 @@ public class Agent implements Serializable {
          throw new BenchmarkDefinitionException("Cannot parse number of threads for agent " + name + ": " + threadsProperty);
       }
    }
+
+   /**
+    * @return Name of the Netty transport (nio, epoll, io_uring or auto) or <code>null</code> if not set.
+    */
+   public String transport() {
+      return properties.get(TRANSPORT);
+   }
+
+   public boolean reusePort() {
+      return Boolean.parseBoolean(properties.get(REUSE_PORT));
+   }
 }
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -41,10 +42,13 @@ public class Benchmark implements Serializable {
    private final String originalSource;
    @Visitor.Ignore
    private final Map<String, byte[]> files;
+   private final Set<String> agentFiles;
    private final Agent[] agents;
    private final int defaultThreads;
    private final int totalThreads;
    private final Ergonomics ergonomics;
+   private final Scheduling scheduling;
+   private final HistogramSpec histogram;
    private final Map<String, Http> http;
    @Visitor.Ignore
    private final Http defaultHttp;
@@ -54,21 +58,26 @@ public class Benchmark implements Serializable {
    private final String triggerUrl;
    private final List<RunHook> preHooks;
    private final List<RunHook> postHooks;
+   @Visitor.Ignore
+   private transient BenchmarkData localData;
 
    public static Benchmark forTesting() {
       return BenchmarkBuilder.builder().http("http://localhost:8080").endHttp().build();
    }
 
-   public Benchmark(String name, String originalSource, Map<String, byte[]> files, Agent[] agents, int defaultThreads, Ergonomics ergonomics,
-                    Map<String, Http> http, Collection<Phase> phases,
+   public Benchmark(String name, String originalSource, Map<String, byte[]> files, Set<String> agentFiles, Agent[] agents, int defaultThreads, Ergonomics ergonomics, Scheduling scheduling,
+                    HistogramSpec histogram, Map<String, Http> http, Collection<Phase> phases,
                     Map<String, Object> tags, long statisticsCollectionPeriod, String triggerUrl, List<RunHook> preHooks, List<RunHook> postHooks) {
       this.name = name;
       this.originalSource = originalSource;
       this.files = files;
+      this.agentFiles = agentFiles;
       this.agents = agents;
       this.defaultThreads = defaultThreads;
       this.totalThreads = agents.length == 0 ? defaultThreads : Stream.of(agents).mapToInt(Agent::threads).map(n -> n <= 0 ? defaultThreads : n).sum();
       this.ergonomics = ergonomics;
+      this.scheduling = scheduling;
+      this.histogram = histogram;
       this.http = http;
       this.defaultHttp = http.values().stream().filter(Http::isDefault).findFirst().orElse(null);
       this.phases = phases;
@@ -106,6 +115,28 @@ public class Benchmark implements Serializable {
       return files;
    }
 
+   /**
+    * Files that are not delivered to agents inside the benchmark; agents fetch these from the controller
+    * in chunks before the run.
+    *
+    * @return Names of the files (keys in {@link #files()}).
+    */
+   public Set<String> agentFiles() {
+      return agentFiles;
+   }
+
+   /**
+    * @return Files available on this node outside of the benchmark, e.g. the {@link #agentFiles() agent files}
+    * an agent has fetched after receiving the benchmark in serialized form.
+    */
+   public BenchmarkData localData() {
+      return localData == null ? BenchmarkData.EMPTY : localData;
+   }
+
+   public void setLocalData(BenchmarkData localData) {
+      this.localData = localData;
+   }
+
    public int defaultThreads() {
       return defaultThreads;
    }
@@ -146,6 +177,17 @@ public class Benchmark implements Serializable {
       return ergonomics;
    }
 
+   public Scheduling scheduling() {
+      return scheduling;
+   }
+
+   /**
+    * @return Default range and precision of response time histograms.
+    */
+   public HistogramSpec histogram() {
+      return histogram;
+   }
+
    @Override
    public String toString() {
       return "Benchmark{name='" + name + '\'' +
@@ -28,6 +28,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -41,10 +42,13 @@ public class BenchmarkBuilder {
 
    private final String originalSource;
    private BenchmarkData data;
+   private final Set<String> agentFiles = new HashSet<>();
    private String name;
    private Map<String, String> defaultAgentProperties = Collections.emptyMap();
    private Collection<Agent> agents = new ArrayList<>();
    private ErgonomicsBuilder ergonomics = new ErgonomicsBuilder(this);
+   private SchedulingBuilder scheduling = new SchedulingBuilder(this);
+   private HistogramSpecBuilder<BenchmarkBuilder> histogram = new HistogramSpecBuilder<>(this);
    private HttpBuilder defaultHttp;
    private List<HttpBuilder> httpList = new ArrayList<>();
    private int threads = 1;
@@ -53,6 +57,7 @@ public class BenchmarkBuilder {
    private String triggerUrl;
    private List<RunHook> preHooks = new ArrayList<>();
    private List<RunHook> postHooks = new ArrayList<>();
+   private int lastStatisticsStepId;
 
    public static Collection<PhaseBuilder<?>> phasesForTesting(BenchmarkBuilder builder) {
       return builder.phaseBuilders.values();
@@ -105,6 +110,14 @@ public class BenchmarkBuilder {
       return ergonomics;
    }
 
+   public SchedulingBuilder scheduling() {
+      return scheduling;
+   }
+
+   public HistogramSpecBuilder<BenchmarkBuilder> histogram() {
+      return histogram;
+   }
+
    public HttpBuilder http() {
       if (defaultHttp == null) {
          defaultHttp = new HttpBuilder(this);
@@ -210,7 +223,7 @@ public class BenchmarkBuilder {
          properties.putAll(a.properties);
          return new Agent(a.name, a.inlineConfig, properties);
       }).toArray(Agent[]::new);
-      Benchmark benchmark = new Benchmark(name, originalSource, files, agents, threads, ergonomics.build(),
+      Benchmark benchmark = new Benchmark(name, originalSource, files, new HashSet<>(agentFiles), agents, threads, ergonomics.build(), scheduling.build(), histogram.build(),
             httpMap, new ArrayList<>(phases.values()), tags, statisticsCollectionPeriod, triggerUrl, preHooks, postHooks);
       bs.set(benchmark);
       return benchmark;
@@ -289,6 +302,29 @@ public class BenchmarkBuilder {
       return this;
    }
 
+   /**
+    * Marks file read through {@link #data()} as too big to be sent to agents inside the benchmark;
+    * agents will fetch it separately.
+    *
+    * @param file File name.
+    * @return Self.
+    */
+   public BenchmarkBuilder addAgentFile(String file) {
+      agentFiles.add(file);
+      return this;
+   }
+
+   /**
+    * Identifiers of steps recording statistics are assigned per benchmark rather than per JVM: agents build
+    * the benchmark from its source and must arrive at the same identifiers as the controller.
+    * Identifier 0 is never returned (it is reserved).
+    *
+    * @return Next identifier.
+    */
+   public int nextStatisticsStepId() {
+      return ++lastStatisticsStepId;
+   }
+
    public BenchmarkBuilder setDefaultAgentProperties(Map<String, String> properties) {
       this.defaultAgentProperties = properties;
       return this;
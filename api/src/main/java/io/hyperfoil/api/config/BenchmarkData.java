@@ -1,6 +1,7 @@
 package io.hyperfoil.api.config;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 
@@ -20,4 +21,12 @@ public interface BenchmarkData {
    InputStream readFile(String file);
 
    Map<String, byte[]> files();
+
+   /**
+    * @param file File name.
+    * @return Path to a local copy of the file that can be memory-mapped or <code>null</code> if there is none.
+    */
+   default Path localPath(String file) {
+      return null;
+   }
 }
@@ -0,0 +1,77 @@
+package io.hyperfoil.api.config;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+
+/**
+ * Range and precision of the histograms recording response times of a metric.
+ */
+public class HistogramSpec implements Serializable {
+   public static final HistogramSpec DEFAULT = new HistogramSpec(TimeUnit.MINUTES.toNanos(1), 2, false, false);
+
+   private final long highestTrackableValue;
+   private final int significantDigits;
+   private final boolean autoResize;
+   private final boolean packed;
+
+   public HistogramSpec(long highestTrackableValue, int significantDigits, boolean autoResize, boolean packed) {
+      this.highestTrackableValue = highestTrackableValue;
+      this.significantDigits = significantDigits;
+      this.autoResize = autoResize;
+      this.packed = packed;
+   }
+
+   /**
+    * @return Highest response time in nanoseconds that can be recorded (unless {@link #autoResize()} is set).
+    */
+   public long highestTrackableValue() {
+      return highestTrackableValue;
+   }
+
+   public int significantDigits() {
+      return significantDigits;
+   }
+
+   public boolean autoResize() {
+      return autoResize;
+   }
+
+   public boolean packed() {
+      return packed;
+   }
+
+   public Histogram create() {
+      Histogram histogram = packed ? new PackedHistogram(highestTrackableValue, significantDigits) :
+            new Histogram(highestTrackableValue, significantDigits);
+      histogram.setAutoResize(autoResize);
+      return histogram;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+         return false;
+      }
+      HistogramSpec that = (HistogramSpec) o;
+      return highestTrackableValue == that.highestTrackableValue && significantDigits == that.significantDigits &&
+            autoResize == that.autoResize && packed == that.packed;
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hash(highestTrackableValue, significantDigits, autoResize, packed);
+   }
+
+   @Override
+   public String toString() {
+      return "HistogramSpec{highestTrackableValue=" + highestTrackableValue + ", significantDigits=" + significantDigits +
+            ", autoResize=" + autoResize + ", packed=" + packed + '}';
+   }
+}
@@ -0,0 +1,91 @@
+package io.hyperfoil.api.config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.util.Util;
+
+/**
+ * Range and precision of response time histograms.
+ */
+public class HistogramSpecBuilder<P> implements BuilderBase<HistogramSpecBuilder<P>> {
+   private final P parent;
+   private long highestTrackableValue = HistogramSpec.DEFAULT.highestTrackableValue();
+   private int significantDigits = HistogramSpec.DEFAULT.significantDigits();
+   private boolean autoResize = HistogramSpec.DEFAULT.autoResize();
+   private boolean packed = HistogramSpec.DEFAULT.packed();
+
+   public HistogramSpecBuilder() {
+      this(null);
+   }
+
+   public HistogramSpecBuilder(P parent) {
+      this.parent = parent;
+   }
+
+   /**
+    * Highest response time that can be recorded. Longer response times are recorded as this value
+    * unless <code>autoResize</code> is enabled. Default is <code>1m</code>.
+    *
+    * @param value Duration with appropriate suffix (e.g. <code>5s</code> or <code>10m</code>).
+    * @return Self.
+    */
+   public HistogramSpecBuilder<P> highestTrackableValue(String value) {
+      return highestTrackableValue(Util.parseToNanos(value), TimeUnit.NANOSECONDS);
+   }
+
+   public HistogramSpecBuilder<P> highestTrackableValue(long value, TimeUnit timeUnit) {
+      this.highestTrackableValue = timeUnit.toNanos(value);
+      return this;
+   }
+
+   /**
+    * Number of significant decimal digits the histogram keeps for each value (0 - 5). Memory footprint
+    * of the histogram grows by an order of magnitude with each digit. Default is <code>2</code>.
+    *
+    * @param significantDigits Number of digits.
+    * @return Self.
+    */
+   public HistogramSpecBuilder<P> significantDigits(int significantDigits) {
+      this.significantDigits = significantDigits;
+      return this;
+   }
+
+   /**
+    * Grow the histogram range when a longer response time is recorded instead of clamping it. Default is <code>false</code>.
+    *
+    * @param autoResize Enable resizing.
+    * @return Self.
+    */
+   public HistogramSpecBuilder<P> autoResize(boolean autoResize) {
+      this.autoResize = autoResize;
+      return this;
+   }
+
+   /**
+    * Store the counts in a packed (sparse) array. This considerably reduces memory footprint of histograms
+    * with few distinct values at the cost of slower recording. Default is <code>false</code>.
+    *
+    * @param packed Use packed histograms.
+    * @return Self.
+    */
+   public HistogramSpecBuilder<P> packed(boolean packed) {
+      this.packed = packed;
+      return this;
+   }
+
+   public P end() {
+      return parent;
+   }
+
+   public HistogramSpec build() {
+      if (significantDigits < 0 || significantDigits > 5) {
+         throw new BenchmarkDefinitionException("Histogram significant digits must be between 0 and 5, got " + significantDigits);
+      }
+      // HdrHistogram requires highest value >= 2 * lowest discernible value (1 ns)
+      if (highestTrackableValue < 2) {
+         throw new BenchmarkDefinitionException("Histogram highest trackable value is too low: " + highestTrackableValue + " ns");
+      }
+      HistogramSpec spec = new HistogramSpec(highestTrackableValue, significantDigits, autoResize, packed);
+      return spec.equals(HistogramSpec.DEFAULT) ? HistogramSpec.DEFAULT : spec;
+   }
+}
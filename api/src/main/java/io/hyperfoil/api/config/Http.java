@@ -37,6 +37,7 @@ public class Http implements Serializable {
    private final HttpVersion[] versions;
    private final int maxHttp2Streams;
    private final int pipeliningLimit;
+   private final int maxRequestsPerFlush;
    private final int sharedConnections;
    private final boolean directHttp2;
    private final long requestTimeout;
@@ -45,7 +46,7 @@ public class Http implements Serializable {
    private final TrustManager trustManager;
 
    public Http(boolean isDefault, Protocol protocol, String host, int port, String[] addresses,
-               HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit, int sharedConnections,
+               HttpVersion[] versions, int maxHttp2Streams, int pipeliningLimit, int maxRequestsPerFlush, int sharedConnections,
                boolean directHttp2, long requestTimeout, boolean rawBytesHandlers,
                KeyManager keyManager, TrustManager trustManager) {
       this.isDefault = isDefault;
@@ -56,6 +57,7 @@ public class Http implements Serializable {
       this.versions = versions;
       this.maxHttp2Streams = maxHttp2Streams;
       this.pipeliningLimit = pipeliningLimit;
+      this.maxRequestsPerFlush = maxRequestsPerFlush;
       this.sharedConnections = sharedConnections;
       this.directHttp2 = directHttp2;
       this.requestTimeout = requestTimeout;
@@ -88,6 +90,14 @@ public class Http implements Serializable {
       return pipeliningLimit;
    }
 
+   /**
+    * @return Maximum number of HTTP 1.x requests written before the connection is flushed; <code>0</code> means
+    * that the connection is flushed only once all requests issued in current event loop iteration are written.
+    */
+   public int maxRequestsPerFlush() {
+      return maxRequestsPerFlush;
+   }
+
    public int sharedConnections() {
       return sharedConnections;
    }
@@ -47,6 +47,7 @@ public class HttpBuilder implements Rewritable<HttpBuilder> {
    private int sharedConnections = 1;
    private int maxHttp2Streams = 100;
    private int pipeliningLimit = 1;
+   private int maxRequestsPerFlush = 1;
    private boolean directHttp2 = false;
    private long requestTimeout = 30000;
    private boolean rawBytesHandlers = true;
@@ -135,6 +136,11 @@ public class HttpBuilder implements Rewritable<HttpBuilder> {
       return this;
    }
 
+   public HttpBuilder maxRequestsPerFlush(int maxRequestsPerFlush) {
+      this.maxRequestsPerFlush = maxRequestsPerFlush;
+      return this;
+   }
+
    public HttpBuilder directHttp2(boolean directHttp2) {
       this.directHttp2 = directHttp2;
       return this;
@@ -198,9 +204,12 @@ public class HttpBuilder implements Rewritable<HttpBuilder> {
       if (directHttp2) {
          throw new UnsupportedOperationException("Direct HTTP/2 not implemented");
       }
+      if (maxRequestsPerFlush < 0) {
+         throw new BenchmarkDefinitionException("maxRequestsPerFlush must not be negative.");
+      }
       Protocol protocol = this.protocol != null ? this.protocol : Protocol.fromPort(port);
       return http = new Http(isDefault, protocol, host, protocol.portOrDefault(port), addresses.toArray(new String[0]),
-            httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams, pipeliningLimit,
+            httpVersions.toArray(new HttpVersion[0]), maxHttp2Streams, pipeliningLimit, maxRequestsPerFlush,
             sharedConnections, directHttp2, requestTimeout, rawBytesHandlers, keyManager.build(), trustManager.build());
    }
 
@@ -215,6 +224,7 @@ public class HttpBuilder implements Rewritable<HttpBuilder> {
       this.sharedConnections = other.sharedConnections;
       this.maxHttp2Streams = other.maxHttp2Streams;
       this.pipeliningLimit = other.pipeliningLimit;
+      this.maxRequestsPerFlush = other.maxRequestsPerFlush;
       this.directHttp2 = other.directHttp2;
       this.requestTimeout = other.requestTimeout;
       this.rawBytesHandlers = other.rawBytesHandlers;
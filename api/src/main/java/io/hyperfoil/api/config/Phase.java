@@ -161,16 +161,30 @@ public abstract class Phase implements Serializable {
       CONTINUE
    }
 
+   public enum Pacing {
+      /**
+       * Arrivals are checked by a single task hopping between executors with millisecond precision.
+       */
+      MILLIS,
+      /**
+       * The rate is split between executors and each of them schedules its share of arrivals
+       * using {@link System#nanoTime()}.
+       */
+      NANOS
+   }
+
    public abstract static class OpenModelPhase extends Phase {
       public final boolean variance;
       public final int maxSessions;
       public final SessionLimitPolicy sessionLimitPolicy;
+      public final Pacing pacing;
 
-      public OpenModelPhase(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime, Collection<String> startAfter, Collection<String> startAfterStrict, Collection<String> terminateAfterStrict, long duration, long maxDuration, String sharedResources, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
+      public OpenModelPhase(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime, Collection<String> startAfter, Collection<String> startAfterStrict, Collection<String> terminateAfterStrict, long duration, long maxDuration, String sharedResources, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, Pacing pacing) {
          super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources);
          this.variance = variance;
          this.maxSessions = maxSessions;
          this.sessionLimitPolicy = sessionLimitPolicy;
+         this.pacing = pacing;
          if (duration < 0) {
             throw new BenchmarkDefinitionException("Duration was not set for phase '" + name + "'");
          }
@@ -186,8 +200,8 @@ public abstract class Phase implements Serializable {
                       Collection<String> terminateAfterStrict,
                       long duration, long maxDuration,
                       String sharedResources, double initialUsersPerSec, double targetUsersPerSec,
-                      boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy);
+                      boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, Pacing pacing) {
+         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy, pacing);
          this.initialUsersPerSec = initialUsersPerSec;
          this.targetUsersPerSec = targetUsersPerSec;
       }
@@ -204,8 +218,8 @@ public abstract class Phase implements Serializable {
       public ConstantRate(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime,
                           Collection<String> startAfter, Collection<String> startAfterStrict,
                           Collection<String> terminateAfterStrict,
-                          long duration, long maxDuration, String sharedResources, double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy) {
-         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy);
+                          long duration, long maxDuration, String sharedResources, double usersPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, Pacing pacing) {
+         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy, pacing);
          this.usersPerSec = usersPerSec;
       }
 
@@ -215,6 +229,64 @@ public abstract class Phase implements Serializable {
       }
    }
 
+   /**
+    * Open-model phase that schedules arrivals of requests rather than users: the sessions are long-lived
+    * slots that are reused for each arrival without returning them to the session pool. This is suitable
+    * for scenarios that consist of a single request.
+    */
+   public static class RequestRate extends OpenModelPhase {
+      public final double requestsPerSec;
+
+      public RequestRate(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime,
+                         Collection<String> startAfter, Collection<String> startAfterStrict,
+                         Collection<String> terminateAfterStrict,
+                         long duration, long maxDuration, String sharedResources, double requestsPerSec, boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, Pacing pacing) {
+         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy, pacing);
+         this.requestsPerSec = requestsPerSec;
+      }
+
+      @Override
+      public String description() {
+         return String.format("%.2f requests per second", requestsPerSec);
+      }
+   }
+
+   /**
+    * Open-model phase that searches for the maximum rate of users the system under test can sustain.
+    * The controller starts the phase at {@link #initialUsersPerSec}, evaluates statistics from each step
+    * of {@link #stepDuration} (ignoring {@link #warmup} after each rate change) against {@link #sla}
+    * and adjusts the rate on all agents: doubling it until the SLA is broken and then bisecting the interval
+    * until its width drops under {@link #precision} relative to the rate. {@link #duration} limits the search.
+    */
+   public static class CapacitySearch extends OpenModelPhase {
+      public final double initialUsersPerSec;
+      public final double maxUsersPerSec;
+      public final long stepDuration;
+      public final long warmup;
+      public final double precision;
+      public final SLA[] sla;
+
+      public CapacitySearch(SerializableSupplier<Benchmark> benchmark, int id, int iteration, String name, Scenario scenario, long startTime,
+                            Collection<String> startAfter, Collection<String> startAfterStrict,
+                            Collection<String> terminateAfterStrict,
+                            long duration, long maxDuration, String sharedResources, double initialUsersPerSec, double maxUsersPerSec,
+                            long stepDuration, long warmup, double precision, SLA[] sla,
+                            boolean variance, int maxSessions, SessionLimitPolicy sessionLimitPolicy, Pacing pacing) {
+         super(benchmark, id, iteration, name, scenario, startTime, startAfter, startAfterStrict, terminateAfterStrict, duration, maxDuration, sharedResources, variance, maxSessions, sessionLimitPolicy, pacing);
+         this.initialUsersPerSec = initialUsersPerSec;
+         this.maxUsersPerSec = maxUsersPerSec;
+         this.stepDuration = stepDuration;
+         this.warmup = warmup;
+         this.precision = precision;
+         this.sla = sla;
+      }
+
+      @Override
+      public String description() {
+         return String.format("search %.2f - %.2f users per second", initialUsersPerSec, maxUsersPerSec);
+      }
+   }
+
    public static class Sequentially extends Phase {
       public final int repeats;
 
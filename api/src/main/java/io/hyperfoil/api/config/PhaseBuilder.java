@@ -10,6 +10,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.function.SerializableSupplier;
 import io.hyperfoil.impl.FutureSupplier;
 import io.hyperfoil.util.Util;
@@ -329,6 +330,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       protected int maxSessions;
       protected boolean variance = true;
       protected Phase.SessionLimitPolicy sessionLimitPolicy = Phase.SessionLimitPolicy.FAIL;
+      protected Phase.Pacing pacing = Phase.Pacing.MILLIS;
 
       protected OpenModel(BenchmarkBuilder parent, String name) {
          super(parent, name);
@@ -351,6 +353,12 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          this.sessionLimitPolicy = sessionLimitPolicy;
          return (P) this;
       }
+
+      @SuppressWarnings("unchecked")
+      public P pacing(Phase.Pacing pacing) {
+         this.pacing = pacing;
+         return (P) this;
+      }
    }
 
    public static class RampRate extends OpenModel<RampRate> {
@@ -392,7 +400,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
                iterationReferences(terminateAfterStrict, i, false), duration, maxDuration,
                sharedResources(f),
                (initialUsersPerSec + initialUsersPerSecIncrement * i) * f.weight,
-               (targetUsersPerSec + targetUsersPerSecIncrement * i) * f.weight, variance, maxSessions, sessionLimitPolicy);
+               (targetUsersPerSec + targetUsersPerSecIncrement * i) * f.weight, variance, maxSessions, sessionLimitPolicy, pacing);
          if (constraint != null && !constraint.test(rampRate)) {
             throw new BenchmarkDefinitionException("Phase " + name + " failed constraints: " + constraintMessage);
          }
@@ -454,7 +462,7 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
                iterationStartTime(i), iterationReferences(startAfter, i, false),
                iterationReferences(startAfterStrict, i, true), iterationReferences(terminateAfterStrict, i, false), duration,
                maxDuration,
-               sharedResources(f), (usersPerSec + usersPerSecIncrement * i) * f.weight, variance, maxSessions, sessionLimitPolicy);
+               sharedResources(f), (usersPerSec + usersPerSecIncrement * i) * f.weight, variance, maxSessions, sessionLimitPolicy, pacing);
       }
 
       public ConstantRate usersPerSec(double usersPerSec) {
@@ -469,6 +477,142 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
       }
    }
 
+   public static class RequestRate extends OpenModel<RequestRate> {
+      private double requestsPerSec;
+      private double requestsPerSecIncrement;
+
+      RequestRate(BenchmarkBuilder parent, String name, double requestsPerSec) {
+         super(parent, name);
+         this.requestsPerSec = requestsPerSec;
+      }
+
+      @Override
+      public Phase.RequestRate buildPhase(SerializableSupplier<Benchmark> benchmark, SerializableSupplier<Phase> phase, int id, int i, PhaseForkBuilder f) {
+         int maxSessions;
+         if (this.maxSessions <= 0) {
+            maxSessions = (int) Math.ceil(f.weight * (requestsPerSec + requestsPerSecIncrement * (maxIterations - 1)));
+         } else {
+            maxSessions = (int) Math.round(this.maxSessions * f.weight);
+         }
+         if (requestsPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".requestsPerSec must be positive.");
+         }
+         return new Phase.RequestRate(benchmark, id, i, iterationName(i, f.name), f.scenario.build(phase),
+               iterationStartTime(i), iterationReferences(startAfter, i, false),
+               iterationReferences(startAfterStrict, i, true), iterationReferences(terminateAfterStrict, i, false), duration,
+               maxDuration,
+               sharedResources(f), (requestsPerSec + requestsPerSecIncrement * i) * f.weight, variance, maxSessions, sessionLimitPolicy, pacing);
+      }
+
+      public RequestRate requestsPerSec(double requestsPerSec) {
+         this.requestsPerSec = requestsPerSec;
+         return this;
+      }
+
+      public RequestRate requestsPerSec(double base, double increment) {
+         this.requestsPerSec = base;
+         this.requestsPerSecIncrement = increment;
+         return this;
+      }
+   }
+
+   public static class CapacitySearch extends OpenModel<CapacitySearch> {
+      private double initialUsersPerSec = 1;
+      private double maxUsersPerSec;
+      private long stepDuration = 10000;
+      private long warmup = 2000;
+      private double precision = 0.05;
+      private SLABuilder.ListBuilder<CapacitySearch> sla;
+
+      CapacitySearch(BenchmarkBuilder parent, String name, double maxUsersPerSec) {
+         super(parent, name);
+         this.maxUsersPerSec = maxUsersPerSec;
+         // Exceeding the session limit is a sign of reaching the capacity, not a reason to fail the phase
+         this.sessionLimitPolicy = Phase.SessionLimitPolicy.CONTINUE;
+      }
+
+      @Override
+      public Phase.CapacitySearch buildPhase(SerializableSupplier<Benchmark> benchmark, SerializableSupplier<Phase> phase, int id, int i, PhaseForkBuilder f) {
+         if (initialUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".initialUsersPerSec must be positive.");
+         }
+         if (maxUsersPerSec <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxUsersPerSec must be positive.");
+         }
+         if (maxUsersPerSec < initialUsersPerSec) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".maxUsersPerSec must be greater or equal to initialUsersPerSec.");
+         }
+         if (stepDuration <= 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".stepDuration must be positive.");
+         }
+         if (warmup < 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".warmup must be non-negative.");
+         }
+         if (stepDuration - warmup < 2 * Statistics.SAMPLING_PERIOD_MILLIS) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".stepDuration must exceed warmup by at least "
+                  + 2 * Statistics.SAMPLING_PERIOD_MILLIS + " ms to collect statistics.");
+         }
+         if (precision <= 0 || precision >= 1) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".precision must be between 0 and 1 (exclusive).");
+         }
+         if (duration < 0) {
+            throw new BenchmarkDefinitionException("Phase " + name + ".duration must be set to limit the search.");
+         }
+         int maxSessions;
+         if (this.maxSessions <= 0) {
+            maxSessions = (int) Math.ceil(f.weight * maxUsersPerSec);
+         } else {
+            maxSessions = (int) Math.round(this.maxSessions * f.weight);
+         }
+         SLA[] sla = this.sla == null ? SLA.DEFAULT : this.sla.build();
+         return new Phase.CapacitySearch(benchmark, id, i, iterationName(i, f.name), f.scenario.build(phase),
+               iterationStartTime(i), iterationReferences(startAfter, i, false),
+               iterationReferences(startAfterStrict, i, true), iterationReferences(terminateAfterStrict, i, false), duration,
+               maxDuration, sharedResources(f), initialUsersPerSec * f.weight, maxUsersPerSec * f.weight,
+               stepDuration, warmup, precision, sla, variance, maxSessions, sessionLimitPolicy, pacing);
+      }
+
+      public CapacitySearch initialUsersPerSec(double initialUsersPerSec) {
+         this.initialUsersPerSec = initialUsersPerSec;
+         return this;
+      }
+
+      public CapacitySearch maxUsersPerSec(double maxUsersPerSec) {
+         this.maxUsersPerSec = maxUsersPerSec;
+         return this;
+      }
+
+      public CapacitySearch stepDuration(long stepDuration) {
+         this.stepDuration = stepDuration;
+         return this;
+      }
+
+      public CapacitySearch stepDuration(String stepDuration) {
+         return stepDuration(Util.parseToMillis(stepDuration));
+      }
+
+      public CapacitySearch warmup(long warmup) {
+         this.warmup = warmup;
+         return this;
+      }
+
+      public CapacitySearch warmup(String warmup) {
+         return warmup(Util.parseToMillis(warmup));
+      }
+
+      public CapacitySearch precision(double precision) {
+         this.precision = precision;
+         return this;
+      }
+
+      public SLABuilder.ListBuilder<CapacitySearch> sla() {
+         if (sla == null) {
+            sla = new SLABuilder.ListBuilder<>(this);
+         }
+         return sla;
+      }
+   }
+
    public static class Sequentially extends PhaseBuilder<Sequentially> {
       private int repeats;
 
@@ -514,6 +658,14 @@ public abstract class PhaseBuilder<PB extends PhaseBuilder<PB>> {
          return new ConstantRate(parent, name, usersPerSec);
       }
 
+      public RequestRate requestRate(double requestsPerSec) {
+         return new RequestRate(parent, name, requestsPerSec);
+      }
+
+      public CapacitySearch capacitySearch(double maxUsersPerSec) {
+         return new CapacitySearch(parent, name, maxUsersPerSec);
+      }
+
       public Sequentially sequentially(int repeats) {
          return new Sequentially(parent, name, repeats);
       }
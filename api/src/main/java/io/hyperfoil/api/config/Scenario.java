@@ -24,21 +24,30 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import io.hyperfoil.api.session.VariableSlots;
+
 public class Scenario implements Serializable {
    private final Sequence[] initialSequences;
    private final Sequence[] sequences;
    private final String[] objectVars;
    private final String[] intVars;
+   private final VariableSlots variableSlots;
    private final Map<String, Sequence> sequenceMap;
    private final int maxRequests;
    private final int maxSequences;
    private final int sumConcurrency;
 
    public Scenario(Sequence[] initialSequences, Sequence[] sequences, String[] objectVars, String[] intVars, int maxRequests, int maxSequences) {
+      this(initialSequences, sequences, objectVars, intVars, new VariableSlots(), maxRequests, maxSequences);
+   }
+
+   public Scenario(Sequence[] initialSequences, Sequence[] sequences, String[] objectVars, String[] intVars,
+                   VariableSlots variableSlots, int maxRequests, int maxSequences) {
       this.initialSequences = initialSequences;
       this.sequences = sequences;
       this.objectVars = objectVars;
       this.intVars = intVars;
+      this.variableSlots = variableSlots;
       this.maxRequests = maxRequests;
       this.maxSequences = maxSequences;
       sequenceMap = Stream.of(sequences).collect(Collectors.toMap(Sequence::name, Function.identity()));
@@ -61,6 +70,13 @@ public class Scenario implements Serializable {
       return intVars;
    }
 
+   /**
+    * @return Slots of the variables accessed in this scenario.
+    */
+   public VariableSlots variableSlots() {
+      return variableSlots;
+   }
+
    public int maxRequests() {
       return maxRequests;
    }
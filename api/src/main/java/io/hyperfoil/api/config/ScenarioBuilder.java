@@ -20,6 +20,7 @@
 
 package io.hyperfoil.api.config;
 
+import io.hyperfoil.api.session.VariableSlots;
 import io.hyperfoil.function.SerializableSupplier;
 
 import java.util.ArrayList;
@@ -38,6 +39,7 @@ public class ScenarioBuilder implements Rewritable<ScenarioBuilder> {
    private List<SequenceBuilder> sequences = new ArrayList<>();
    private Collection<String> objectVars = new ArrayList<>();
    private Collection<String> intVars = new ArrayList<>();
+   private final VariableSlots variableSlots = new VariableSlots();
    private Scenario scenario;
    private int maxRequests = 16;
    // We don't use sum of concurrency because that could be excessively high
@@ -113,6 +115,15 @@ public class ScenarioBuilder implements Rewritable<ScenarioBuilder> {
       return this;
    }
 
+   /**
+    * Session variables accessed in this scenario should get their slot here while the scenario is being built.
+    *
+    * @return Variable slots.
+    */
+   public VariableSlots variableSlots() {
+      return variableSlots;
+   }
+
    public void prepareBuild() {
       new ArrayList<>(sequences).forEach(SequenceBuilder::prepareBuild);
    }
@@ -143,11 +154,14 @@ public class ScenarioBuilder implements Rewritable<ScenarioBuilder> {
          boolean isInitial = Stream.of(initialSequences).anyMatch(s -> s == sequence);
          return isInitial ? sequence.concurrency() : sequence.concurrency() + 1;
       }).max().orElse(1), this.maxSequences);
+      objectVars.forEach(variableSlots::assign);
+      intVars.forEach(variableSlots::assign);
       return scenario = new Scenario(
             initialSequences,
             sequences,
             objectVars.toArray(new String[0]),
             intVars.toArray(new String[0]),
+            variableSlots,
             maxRequests,
             maxSequences);
    }
@@ -0,0 +1,41 @@
+package io.hyperfoil.api.config;
+
+import java.io.Serializable;
+
+/**
+ * Configuration of the scheduler used for request timeouts, delays and other timed events in agents.
+ */
+public class Scheduling implements Serializable {
+   private final Type type;
+   private final long tickDurationNanos;
+   private final int wheelSize;
+
+   public Scheduling(Type type, long tickDurationNanos, int wheelSize) {
+      this.type = type;
+      this.tickDurationNanos = tickDurationNanos;
+      this.wheelSize = wheelSize;
+   }
+
+   public Type type() {
+      return type;
+   }
+
+   public long tickDurationNanos() {
+      return tickDurationNanos;
+   }
+
+   public int wheelSize() {
+      return wheelSize;
+   }
+
+   public enum Type {
+      /**
+       * Every scheduled task is submitted to the event loop as a separate task.
+       */
+      EXECUTOR,
+      /**
+       * Tasks are kept in a per-event-loop hashed timing wheel with fixed tick duration.
+       */
+      WHEEL
+   }
+}
@@ -0,0 +1,67 @@
+package io.hyperfoil.api.config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.util.Util;
+
+public class SchedulingBuilder {
+   private final BenchmarkBuilder parent;
+   private Scheduling.Type type = Scheduling.Type.WHEEL;
+   private long tickDurationNanos = TimeUnit.MILLISECONDS.toNanos(1);
+   private int wheelSize = 512;
+
+   public SchedulingBuilder(BenchmarkBuilder parent) {
+      this.parent = parent;
+   }
+
+   /**
+    * Scheduler implementation; default is <code>wheel</code>.
+    *
+    * @param type Scheduler type.
+    * @return Self.
+    */
+   public SchedulingBuilder type(Scheduling.Type type) {
+      this.type = type;
+      return this;
+   }
+
+   /**
+    * Precision of the timing wheel. Tasks are never executed before their deadline but can be delayed by up to one tick.
+    *
+    * @param tickDuration Tick duration with appropriate suffix (e.g. <code>500us</code> or <code>1ms</code>).
+    * @return Self.
+    */
+   public SchedulingBuilder tickDuration(String tickDuration) {
+      return tickDuration(Util.parseToNanos(tickDuration), TimeUnit.NANOSECONDS);
+   }
+
+   public SchedulingBuilder tickDuration(long tickDuration, TimeUnit timeUnit) {
+      this.tickDurationNanos = timeUnit.toNanos(tickDuration);
+      return this;
+   }
+
+   /**
+    * Number of slots in the timing wheel; this is rounded up to a power of two.
+    *
+    * @param wheelSize Number of slots.
+    * @return Self.
+    */
+   public SchedulingBuilder wheelSize(int wheelSize) {
+      this.wheelSize = wheelSize;
+      return this;
+   }
+
+   public BenchmarkBuilder endScheduling() {
+      return parent;
+   }
+
+   public Scheduling build() {
+      if (tickDurationNanos <= 0) {
+         throw new BenchmarkDefinitionException("Scheduling tick duration must be positive.");
+      }
+      if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+         throw new BenchmarkDefinitionException("Invalid wheel size: " + wheelSize);
+      }
+      return new Scheduling(type, tickDurationNanos, wheelSize);
+   }
+}
@@ -1,5 +1,7 @@
 package io.hyperfoil.api.connection;
 
+import java.nio.charset.StandardCharsets;
+
 import io.hyperfoil.api.http.CacheControl;
 import io.hyperfoil.api.http.HttpMethod;
 import io.hyperfoil.api.http.HttpResponseHandlers;
@@ -7,6 +9,9 @@ import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.statistics.Statistics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -16,7 +21,12 @@ public class HttpRequest extends Request {
    public HttpResponseHandlers handlers;
    public HttpMethod method;
    public String authority;
-   public String path;
+   /**
+    * Path (including query) in UTF-8 between reader and writer index, as rendered by the request step.
+    * The buffer is reused for all requests executed through this instance.
+    */
+   public final ByteBuf pathBytes = Unpooled.buffer(64);
+   private String path;
    public CacheControl cacheControl = new CacheControl();
 
    public HttpRequest(Session session) {
@@ -40,9 +50,28 @@ public class HttpRequest extends Request {
       this.method = null;
       this.authority = null;
       this.path = null;
+      this.pathBytes.clear();
       cacheControl.reset();
    }
 
+   /**
+    * The string is created only when this is called for the first time in this request.
+    *
+    * @return Request path or <code>null</code> if the path was not set.
+    */
+   public String path() {
+      if (path == null && pathBytes.isReadable()) {
+         path = pathBytes.toString(StandardCharsets.UTF_8);
+      }
+      return path;
+   }
+
+   public void setPath(String path) {
+      this.path = path;
+      pathBytes.clear();
+      ByteBufUtil.writeUtf8(pathBytes, path);
+   }
+
    public HttpResponseHandlers handlers() {
       return handlers;
    }
@@ -60,7 +89,7 @@ public class HttpRequest extends Request {
 
    @Override
    public String toString() {
-      return "(" + status() + ") " + method + " " + authority + path;
+      return "(" + status() + ") " + method + " " + authority + path();
    }
 
    @Override
@@ -4,24 +4,19 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import io.hyperfoil.api.session.Scheduler;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.statistics.Statistics;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
-import io.netty.util.concurrent.ScheduledFuture;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
 public abstract class Request implements Callable<Void>, GenericFutureListener<Future<Void>> {
    private static final Logger log = LoggerFactory.getLogger(Request.class);
    private static final TimeoutException TIMEOUT_EXCEPTION = new TimeoutException();
-   private static final GenericFutureListener<Future<Object>> FAILURE_LISTENER = future -> {
-      if (!future.isSuccess() && !future.isCancelled()) {
-         log.error("Timeout task failed", future.cause());
-      }
-   };
 
    public final Session session;
    private long startTimestampMillis;
@@ -30,7 +25,7 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    private SequenceInstance sequence;
    private SequenceInstance completionSequence;
    private Statistics statistics;
-   private ScheduledFuture<?> timeoutFuture;
+   private Scheduler.Timeout timeout;
    private Connection connection;
    private Status status = Status.IDLE;
    private Result result = Result.VALID;
@@ -46,7 +41,6 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    public Void call() {
       int uniqueId = session == null ? -1 : session.uniqueId();
       log.warn("#{} Request timeout on connection {}", uniqueId, connection);
-      timeoutFuture = null;
       if (status != Status.COMPLETED) {
          result = Result.TIMED_OUT;
          statistics.incrementTimeouts(startTimestampMillis);
@@ -112,9 +106,8 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setCompleted() {
-      if (timeoutFuture != null) {
-         timeoutFuture.cancel(false);
-         timeoutFuture = null;
+      if (timeout != null) {
+         timeout.cancel();
       }
       connection = null;
       sequence = null;
@@ -139,7 +132,8 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void recordResponse(long endTimestampNanos) {
-      statistics.recordResponse(startTimestampMillis, sendTimestampNanos - startTimestampNanos, endTimestampNanos - startTimestampNanos);
+      statistics.recordResponse(startTimestampMillis, sendTimestampNanos - startTimestampNanos,
+            endTimestampNanos - startTimestampNanos, session.startDelay());
    }
 
    public long startTimestampMillis() {
@@ -155,8 +149,11 @@ public abstract class Request implements Callable<Void>, GenericFutureListener<F
    }
 
    public void setTimeout(long timeout, TimeUnit timeUnit) {
-      timeoutFuture = session.executor().schedule(this, timeout, timeUnit);
-      timeoutFuture.addListener(FAILURE_LISTENER);
+      if (this.timeout == null) {
+         // The scheduler is not available yet when the request is constructed
+         this.timeout = session.scheduler().newTimeout(this::call);
+      }
+      this.timeout.schedule(timeout, timeUnit);
    }
 
    @Override
@@ -9,6 +9,19 @@ public interface HttpResponseHandlers extends ResponseHandlers<HttpRequest> {
 
    void handleHeader(HttpRequest request, CharSequence header, CharSequence value);
 
+   /**
+    * Parsers may use this to skip decoding of headers that would be ignored by {@link #handleHeader(HttpRequest, CharSequence, CharSequence)}.
+    *
+    * @param request Request.
+    * @param buf     Buffer with the header name.
+    * @param offset  Start of the header name.
+    * @param length  Length of the header name.
+    * @return False if the header can be skipped.
+    */
+   default boolean requiresHeader(HttpRequest request, ByteBuf buf, int offset, int length) {
+      return true;
+   }
+
    void handleBodyPart(HttpRequest request, ByteBuf data, int offset, int length, boolean isLastPart);
 
    void handleRawRequest(HttpRequest request, ByteBuf data, int offset, int length);
@@ -15,7 +15,12 @@ public interface PhaseInstance {
 
    long absoluteStartTime();
 
-   void start(EventExecutorGroup executorGroup);
+   /**
+    * @param executorGroup     Executors running the sessions.
+    * @param absoluteStartTime Wall-clock time the phase schedule and statistics periods are relative to;
+    *                          this can be slightly in the past when the start was scheduled by the controller.
+    */
+   void start(EventExecutorGroup executorGroup, long absoluteStartTime);
 
    void finish();
 
@@ -0,0 +1,36 @@
+package io.hyperfoil.api.session;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules delayed tasks on a single executor. Instances are bound to the executor thread
+ * and all methods (including those on {@link Timeout}) must be invoked from that thread.
+ */
+public interface Scheduler {
+   /**
+    * Create a reusable handle for the task. This allocates; call it when reserving resources
+    * rather than on each invocation.
+    *
+    * @param task Task executed when the timeout expires.
+    * @return Timeout handle.
+    */
+   Timeout newTimeout(Runnable task);
+
+   interface Timeout {
+      /**
+       * Schedule the task; if the timeout is already scheduled it is rescheduled.
+       * The task is never executed before the delay elapses.
+       *
+       * @param delay    Delay.
+       * @param timeUnit Unit of the delay.
+       */
+      void schedule(long delay, TimeUnit timeUnit);
+
+      /**
+       * @return True if the timeout was scheduled and now it is cancelled.
+       */
+      boolean cancel();
+
+      boolean isScheduled();
+   }
+}
@@ -16,11 +16,20 @@ import io.hyperfoil.api.collection.LimitedPool;
 import io.hyperfoil.api.connection.HttpConnectionPool;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.HistogramSpec;
 
 public interface Session extends Callable<Void> {
 
    void reserve(Scenario scenario);
 
+   /**
+    * Run the session on current thread; this is invoked when the session is scheduled.
+    *
+    * @return Nothing.
+    */
+   @Override
+   Void call();
+
    /**
     * @return int &gt;= 0 that's unique across whole simulation
     */
@@ -43,14 +52,30 @@ public interface Session extends Callable<Void> {
 
    EventExecutor executor();
 
+   Scheduler scheduler();
+
    SharedData sharedData();
 
    Phase phase();
 
    long phaseStartTimestamp();
 
+   /**
+    * @param stepId Step ID.
+    * @param name Metric name.
+    * @return Statistics using the benchmark's default histogram range and precision.
+    */
    Statistics statistics(int stepId, String name);
 
+   /**
+    * @param stepId Step ID.
+    * @param name Metric name.
+    * @param histogramSpec Range and precision of the histogram if the statistics are not created yet;
+    *                      <code>null</code> means benchmark default.
+    * @return Statistics for given step and metric.
+    */
+   Statistics statistics(int stepId, String name, HistogramSpec histogramSpec);
+
    void pruneStats(Phase phase);
 
    // Resources
@@ -84,10 +109,23 @@ public interface Session extends Callable<Void> {
 
    SequenceInstance currentSequence();
 
-   void attach(EventExecutor executor, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics);
+   void attach(EventExecutor executor, Scheduler scheduler, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics);
 
    void start(PhaseInstance phase);
 
+   /**
+    * Start the session that should have started at given moment according to the phase schedule.
+    *
+    * @param phase              Phase the session belongs to.
+    * @param intendedStartNanos Intended start time, from {@link System#nanoTime()}.
+    */
+   void start(PhaseInstance phase, long intendedStartNanos);
+
+   /**
+    * @return Nanoseconds between the intended and actual start of this session; 0 when the session started on time.
+    */
+   long startDelay();
+
    /**
     * Run anything that can be executed.
     */
@@ -1,7 +1,9 @@
 package io.hyperfoil.api.session;
 
 /**
- * Data shared among sessions bound to the same {@link Session#executor() executor thread}.
+ * Data shared among sessions bound to the same {@link Session#executor() executor thread},
+ * or among all sessions in the agent for maps {@link #reserveAgentMap(String, int, int, Eviction) reserved}
+ * with {@link Scope#AGENT}.
  */
 public interface SharedData {
    SharedMap newMap(String key);
@@ -16,6 +18,39 @@ public interface SharedData {
 
    void reserveMap(String key, Access match, int entries);
 
+   /**
+    * Makes maps for this key available to sessions on all executors. Such maps cannot be pulled by matching
+    * value of a variable.
+    *
+    * @param key      Identifier.
+    * @param entries  Maximum number of entries in each map.
+    * @param capacity Number of maps held for each executor.
+    * @param eviction What to do when the maps for all executors are at capacity.
+    */
+   void reserveAgentMap(String key, int entries, int capacity, Eviction eviction);
+
+   enum Scope {
+      /**
+       * Maps are available only to sessions running on the same executor.
+       */
+      EXECUTOR,
+      /**
+       * Maps are available to sessions on all executors; sessions prefer maps from their own executor.
+       */
+      AGENT
+   }
+
+   enum Eviction {
+      /**
+       * The map that is being pushed is dropped.
+       */
+      DROP_NEW,
+      /**
+       * A random map pushed previously is dropped to make room.
+       */
+      DROP_RANDOM
+   }
+
    interface SharedMap {
       void put(Access key, Object value);
 
@@ -0,0 +1,35 @@
+package io.hyperfoil.api.session;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns indices into session's variable table to variable keys. The slots are assigned while the scenario
+ * is being built; when the benchmark runs the table is read-only and can be shared by all sessions.
+ */
+public final class VariableSlots implements Serializable {
+   private final Map<Object, Integer> slots = new HashMap<>();
+
+   public int assign(Object key) {
+      Integer index = slots.get(key);
+      if (index == null) {
+         index = slots.size();
+         slots.put(key, index);
+      }
+      return index;
+   }
+
+   /**
+    * @param key Variable key.
+    * @return Slot index or <code>-1</code> if this key has no slot.
+    */
+   public int indexOf(Object key) {
+      Integer index = slots.get(key);
+      return index == null ? -1 : index;
+   }
+
+   public int size() {
+      return slots.size();
+   }
+}
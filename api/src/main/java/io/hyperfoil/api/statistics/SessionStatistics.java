@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.session.Session;
 
@@ -25,12 +26,12 @@ public class SessionStatistics {
       maps = new Map[4];
    }
 
-   public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime) {
+   public Statistics getOrCreate(Phase phase, int stepId, String name, long startTime, HistogramSpec histogramSpec) {
       for (int i = 0; i < size; ++i) {
          if (stepIds[i] == stepId && phases[i] == phase) {
             Statistics s = maps[i].get(name);
             if (s == null) {
-               s = new Statistics(startTime);
+               s = new Statistics(startTime, histogramSpec);
                maps[i].put(name, s);
             }
             return s;
@@ -44,7 +45,7 @@ public class SessionStatistics {
 
       phases[size] = phase;
       stepIds[size] = stepId;
-      Statistics s = new Statistics(startTime);
+      Statistics s = new Statistics(startTime, histogramSpec);
       HashMap<String, Statistics> map = new HashMap<>();
       map.put(name, s);
       maps[size] = map;
@@ -1,300 +1,283 @@
 package io.hyperfoil.api.statistics;
 
+import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import org.HdrHistogram.SingleWriterRecorder;
-import org.HdrHistogram.WriterReaderPhaser;
-
+import io.hyperfoil.api.config.HistogramSpec;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
 /**
- * This is a copy/subset of {@link SingleWriterRecorder} but uses {@link StatisticsSnapshot} instead of only
- * the histogram.
+ * Single-writer recorder of {@link StatisticsSnapshot snapshots}, one per second of the phase.
+ * <p>
+ * All recording methods, {@link #start(long)} and {@link #end(long)} must be invoked by the thread owning
+ * this instance (the executor driving the {@link SessionStatistics}). These use plain writes only.
+ * When a record for a later period arrives the writer hands off the snapshots of all previous periods
+ * to the collector through a ring buffer, publishing them with a single release store. The collector
+ * ({@link #visitSnapshots(Consumer)}) may run on any thread, but only one at a time; it resets the snapshots
+ * and returns them to the writer through the same ring. Therefore once the ring warms up the writer
+ * does not allocate any new snapshots.
+ * <p>
+ * As the requests are accounted to the period when they started, late responses might open an older period
+ * again; such snapshot is handed off with the next period change and the collector merges it by
+ * {@link StatisticsSnapshot#sequenceId}. The last period is handed off only when the statistics {@link #end(long) end}.
  */
 public class Statistics {
    private static final Logger log = LoggerFactory.getLogger(Statistics.class);
-   private static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
+   public static final long SAMPLING_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(1);
+   // The collector usually runs once per period so the ring should not need to grow
+   private static final int INITIAL_RING_SIZE = 16;
+   private static final int MAX_LATE_PERIODS = 4;
 
-   private static final AtomicIntegerFieldUpdater<Statistics> LU1 =
-         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive1");
-   private static final AtomicIntegerFieldUpdater<Statistics> LU2 =
-         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "lowestActive2");
+   private static final AtomicIntegerFieldUpdater<Statistics> PRODUCED =
+         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "produced");
+   private static final AtomicIntegerFieldUpdater<Statistics> CONSUMED =
+         AtomicIntegerFieldUpdater.newUpdater(Statistics.class, "consumed");
 
-   private final WriterReaderPhaser recordingPhaser = new WriterReaderPhaser();
+   private final HistogramSpec histogramSpec;
    private final long highestTrackableValue;
-   // We'll start making space 4 samples (seconds) ahead; in case the readers fall behind the schedule
-   // this will help to keep the active array always big enough.
-   private int numSamples = 4;
-
+   // Written only when the ring grows
+   private volatile StatisticsSnapshot[] ring = new StatisticsSnapshot[INITIAL_RING_SIZE];
    @SuppressWarnings("unused")
-   private volatile int lowestActive1;
-   @SuppressWarnings("unused")
-   private volatile int lowestActive2;
-   private volatile int highestActive;
-   private volatile AtomicIntegerFieldUpdater<Statistics> lowestActiveUpdater = LU1;
-   private volatile AtomicReferenceArray<StatisticsSnapshot> active;
-   private AtomicReferenceArray<StatisticsSnapshot> inactive;
-
+   private volatile int produced;
+   private volatile int consumed;
+
+   // Following fields are accessed only by the writer
+   private StatisticsSnapshot current;
+   private final StatisticsSnapshot[] late = new StatisticsSnapshot[MAX_LATE_PERIODS];
+   private int lateCount;
+   private final ArrayDeque<StatisticsSnapshot> spare = new ArrayDeque<>();
+   private StatisticsSnapshot[] writerRing = ring;
+   private int writerProduced;
+   private int writerConsumed;
    private long startTimestamp;
    private long endTimestamp = Long.MAX_VALUE;
-   private int lastLowestIndex;
 
    public Statistics(long startTimestamp) {
+      this(startTimestamp, HistogramSpec.DEFAULT);
+   }
+
+   public Statistics(long startTimestamp, HistogramSpec histogramSpec) {
       this.startTimestamp = startTimestamp;
-      active = new AtomicReferenceArray<>(16);
-      inactive = new AtomicReferenceArray<>(16);
-      StatisticsSnapshot first = new StatisticsSnapshot();
-      first.sequenceId = 0;
-      active.set(0, first);
-      highestTrackableValue = first.histogram.getHighestTrackableValue();
+      this.histogramSpec = histogramSpec;
+      current = new StatisticsSnapshot(histogramSpec);
+      current.sequenceId = 0;
+      highestTrackableValue = histogramSpec.autoResize() ? Long.MAX_VALUE : current.histogram.getHighestTrackableValue();
    }
 
    public void recordResponse(long startTimestamp, long sendTime, long responseTime) {
+      recordResponse(startTimestamp, sendTime, responseTime, 0);
+   }
+
+   /**
+    * @param startTimestamp Wall-clock time when the request started, in milliseconds.
+    * @param sendTime Time spent sending the request, in nanoseconds.
+    * @param responseTime Time between starting the request and receiving the response, in nanoseconds.
+    * @param startDelay How late the session started compared to its schedule, in nanoseconds. Non-zero delay
+    *                   is added to the response time in {@link StatisticsSnapshot#correctedHistogram()}.
+    */
+   public void recordResponse(long startTimestamp, long sendTime, long responseTime, long startDelay) {
       if (responseTime > highestTrackableValue) {
-         // we don't use auto-resize histograms
+         // the histogram is not auto-resizing
          log.warn("Response time {} exceeded maximum trackable response time {}", responseTime, highestTrackableValue);
          responseTime = highestTrackableValue;
       }
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(startTimestamp);
-         active.histogram.recordValue(responseTime);
-         active.totalSendTime += sendTime;
-         active.responseCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      if (startDelay > highestTrackableValue - responseTime) {
+         startDelay = highestTrackableValue - responseTime;
       }
+      StatisticsSnapshot active = active(startTimestamp);
+      active.recordResponseTime(responseTime, startDelay);
+      active.totalSendTime += sendTime;
+      active.responseCount++;
    }
 
    public void incrementRequests(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.requestCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).requestCount++;
+   }
+
+   public void incrementFlushes(long timestamp) {
+      active(timestamp).flushCount++;
    }
 
    public void incrementTimeouts(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.timeouts++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).timeouts++;
    }
 
    public void incrementResets(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.resetCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).resetCount++;
    }
 
    public void incrementInternalErrors(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.internalErrors++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).internalErrors++;
    }
 
    public void incrementBlockedCount(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.blockedCount++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).blockedCount++;
    }
 
    public void incrementBlockedTime(long timestamp, long blockedTime) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.blockedTime += blockedTime;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).blockedTime += blockedTime;
    }
 
    public void addStatus(long timestamp, int code) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         switch (code / 100) {
-            case 2:
-               active.status_2xx++;
-               break;
-            case 3:
-               active.status_3xx++;
-               break;
-            case 4:
-               active.status_4xx++;
-               break;
-            case 5:
-               active.status_5xx++;
-               break;
-            default:
-               active.status_other++;
-         }
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      StatisticsSnapshot active = active(timestamp);
+      switch (code / 100) {
+         case 2:
+            active.status_2xx++;
+            break;
+         case 3:
+            active.status_3xx++;
+            break;
+         case 4:
+            active.status_4xx++;
+            break;
+         case 5:
+            active.status_5xx++;
+            break;
+         default:
+            active.status_other++;
       }
    }
 
    @SuppressWarnings("unchecked")
    public <T extends CustomValue> T getCustom(long timestamp, Object key, Supplier<T> identitySupplier) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         CustomValue custom = active.custom.get(key);
-         if (custom == null) {
-            custom = identitySupplier.get();
-            active.custom.put(key, custom);
-         }
-         return (T) custom;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
+      StatisticsSnapshot active = active(timestamp);
+      CustomValue custom = active.custom.get(key);
+      if (custom == null) {
+         custom = identitySupplier.get();
+         active.custom.put(key, custom);
       }
+      return (T) custom;
    }
 
    public void addInvalid(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.invalid++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).invalid++;
    }
 
    public void addCacheHit(long timestamp) {
-      long criticalValueAtEnter = recordingPhaser.writerCriticalSectionEnter();
-      try {
-         StatisticsSnapshot active = active(timestamp);
-         active.cacheHits++;
-      } finally {
-         recordingPhaser.writerCriticalSectionExit(criticalValueAtEnter);
-      }
+      active(timestamp).cacheHits++;
    }
 
    public void visitSnapshots(Consumer<StatisticsSnapshot> consumer) {
-      try {
-         recordingPhaser.readerLock();
-
-         if (++numSamples >= inactive.length()) {
-            AtomicReferenceArray<StatisticsSnapshot> temp = new AtomicReferenceArray<>(inactive.length() * 2);
-            for (int i = lastLowestIndex; i < inactive.length(); ++i) {
-               temp.set(i, inactive.get(i));
-            }
-            inactive = temp;
-         }
-
-         // Swap active and inactive histograms:
-         final AtomicReferenceArray<StatisticsSnapshot> tempHistogram = inactive;
-         inactive = active;
-         active = tempHistogram;
-
-         AtomicIntegerFieldUpdater<Statistics> inactiveUpdater = lowestActiveUpdater;
-         lowestActiveUpdater = inactiveUpdater == LU1 ? LU2 : LU1;
-
-         // Make sure we are not in the middle of recording a value on the previously active histogram:
-
-         // Flip phase to make sure no recordings that were in flight pre-flip are still active:
-         recordingPhaser.flipPhase(500000L /* yield in 0.5 msec units if needed */);
-
-         lastLowestIndex = Math.min(LU1.get(this), LU2.get(this));
-
-         int maxSamples;
-         // If the statistics is not finished don't publish the last timestamp
-         // as this might be shortened be the termination of the phase.
-         if (endTimestamp != Long.MAX_VALUE) {
-            maxSamples = Math.min(inactive.length(), highestActive + 1);
-         } else {
-            maxSamples = Math.min(inactive.length() - 1, highestActive);
-         }
-         // Make sure that few flips later we'll fetch the stats
-         inactiveUpdater.set(this, maxSamples);
-         publish(inactive, maxSamples, consumer);
-         if (endTimestamp != Long.MAX_VALUE) {
-            // all requests must be complete, let's scan the 'active' as well
-            publish(active, maxSamples, consumer);
-         }
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
-   }
-
-   private void publish(AtomicReferenceArray<StatisticsSnapshot> array, int limit, Consumer<StatisticsSnapshot> consumer) {
-      for (int i = lastLowestIndex; i < limit; ++i) {
-         StatisticsSnapshot snapshot = array.get(i);
-         if (snapshot == null) {
-            // nothing to do
-         } else if (snapshot.isEmpty()) {
-            array.set(i, null);
-         } else {
-            snapshot.histogram.setStartTimeStamp(startTimestamp + i * SAMPLING_PERIOD_MILLIS);
-            snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (i + 1) * SAMPLING_PERIOD_MILLIS));
+      // acquire: all writes into handed off snapshots are visible
+      int produced = this.produced;
+      int consumed = this.consumed;
+      StatisticsSnapshot[] ring = this.ring;
+      for (; consumed != produced; ++consumed) {
+         StatisticsSnapshot snapshot = ring[consumed & (ring.length - 1)];
+         if (!snapshot.isEmpty()) {
             consumer.accept(snapshot);
-            snapshot.reset();
          }
+         snapshot.reset();
       }
+      // release: the writer can reuse the snapshots
+      CONSUMED.lazySet(this, consumed);
    }
 
    public void start(long now) {
-      recordingPhaser.readerLock();
-      try {
-         startTimestamp = now;
-         endTimestamp = Long.MAX_VALUE;
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
+      startTimestamp = now;
+      endTimestamp = Long.MAX_VALUE;
    }
 
    public void end(long now) {
-      recordingPhaser.readerLock();
-      try {
-         endTimestamp = now;
-      } finally {
-         recordingPhaser.readerUnlock();
-      }
+      endTimestamp = now;
+      // No more records are expected; hand off the last period, too.
+      handoffLate();
+      handoff(current);
+      current = spare();
+      current.sequenceId = 0;
+      publish();
    }
 
    private StatisticsSnapshot active(long timestamp) {
       int index = (int) ((timestamp - startTimestamp) / SAMPLING_PERIOD_MILLIS);
-      AtomicReferenceArray<StatisticsSnapshot> active = this.active;
-      if (index >= active.length()) {
-         index = active.length() - 1;
+      StatisticsSnapshot current = this.current;
+      if (index == current.sequenceId) {
+         return current;
+      } else if (index > current.sequenceId) {
+         handoffLate();
+         handoff(current);
+         publish();
+         current = this.current = spare();
+         current.sequenceId = index;
+         return current;
       } else if (index < 0) {
          log.error("Record start timestamp {} predates statistics start {}", timestamp, startTimestamp);
-         index = 0;
+         return active(startTimestamp);
+      } else {
+         return late(index);
       }
-      StatisticsSnapshot snapshot = active.get(index);
-      if (snapshot == null) {
-         snapshot = new StatisticsSnapshot();
-         snapshot.sequenceId = index;
-         active.set(index, snapshot);
+   }
+
+   private StatisticsSnapshot late(int index) {
+      for (int i = 0; i < lateCount; ++i) {
+         if (late[i].sequenceId == index) {
+            return late[i];
+         }
       }
-      lowestActiveUpdater.accumulateAndGet(this, index, Math::min);
-      // Highest active is increasing monotonically and it is updated only by the event-loop thread;
-      // therefore we don't have to use CAS operation
-      if (index > highestActive) {
-         highestActive = index;
+      if (lateCount == late.length) {
+         handoffLate();
+         publish();
       }
+      StatisticsSnapshot snapshot = spare();
+      snapshot.sequenceId = index;
+      late[lateCount++] = snapshot;
       return snapshot;
    }
+
+   private StatisticsSnapshot spare() {
+      StatisticsSnapshot snapshot = spare.poll();
+      return snapshot != null ? snapshot : new StatisticsSnapshot(histogramSpec);
+   }
+
+   private void handoffLate() {
+      for (int i = 0; i < lateCount; ++i) {
+         handoff(late[i]);
+         late[i] = null;
+      }
+      lateCount = 0;
+   }
+
+   private void handoff(StatisticsSnapshot snapshot) {
+      if (snapshot.isEmpty()) {
+         spare.push(snapshot);
+         return;
+      }
+      int index = snapshot.sequenceId;
+      snapshot.histogram.setStartTimeStamp(startTimestamp + index * SAMPLING_PERIOD_MILLIS);
+      snapshot.histogram.setEndTimeStamp(Math.min(endTimestamp, startTimestamp + (index + 1) * SAMPLING_PERIOD_MILLIS));
+      if (writerProduced - writerConsumed == writerRing.length) {
+         // acquire: the collector has reset the snapshots it has consumed
+         writerConsumed = consumed;
+         if (writerProduced - writerConsumed == writerRing.length) {
+            grow();
+         }
+      }
+      int slot = writerProduced & (writerRing.length - 1);
+      StatisticsSnapshot recycled = writerRing[slot];
+      if (recycled != null) {
+         spare.push(recycled);
+      }
+      writerRing[slot] = snapshot;
+      ++writerProduced;
+   }
+
+   private void grow() {
+      // The collector fell behind; it might be still reading the old ring but it will find
+      // the same snapshots on the same (unconsumed) positions in the new one.
+      StatisticsSnapshot[] newRing = new StatisticsSnapshot[writerRing.length * 2];
+      for (int i = writerConsumed; i != writerProduced; ++i) {
+         newRing[i & (newRing.length - 1)] = writerRing[i & (writerRing.length - 1)];
+      }
+      writerRing = newRing;
+      ring = newRing;
+   }
+
+   private void publish() {
+      // release: single store makes all snapshots handed off since last publish visible to the collector
+      PRODUCED.lazySet(this, writerProduced);
+   }
 }
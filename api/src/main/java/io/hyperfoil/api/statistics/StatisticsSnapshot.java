@@ -4,17 +4,23 @@ import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.DoubleStream;
 
 import org.HdrHistogram.Histogram;
 
+import io.hyperfoil.api.config.HistogramSpec;
+
 /**
  * Non-thread safe mutable set of values.
  */
 public class StatisticsSnapshot implements Serializable {
    public int sequenceId = -1;
-   public final Histogram histogram = new Histogram(TimeUnit.MINUTES.toNanos(1), 2);
+   public final HistogramSpec histogramSpec;
+   public final Histogram histogram;
+   // Response times measured from the intended start of the session; we allocate and fill this only
+   // after a session started late for the first time, until then it would be equal to the histogram.
+   private Histogram corrected;
+   private boolean hasCorrected;
    public long totalSendTime;
    public int connectFailureCount;
    public int requestCount;
@@ -31,8 +37,63 @@ public class StatisticsSnapshot implements Serializable {
    public int internalErrors;
    public int blockedCount;
    public long blockedTime;
+   /**
+    * Number of flushes of the connection that carried at least one request of this metric. A flush of batched
+    * requests from several metrics is counted in each of them.
+    */
+   public int flushCount;
    public final Map<Object, CustomValue> custom = new HashMap<>();
 
+   public StatisticsSnapshot() {
+      this(HistogramSpec.DEFAULT);
+   }
+
+   public StatisticsSnapshot(HistogramSpec histogramSpec) {
+      this(histogramSpec, histogramSpec.create());
+   }
+
+   StatisticsSnapshot(HistogramSpec histogramSpec, Histogram histogram) {
+      this.histogramSpec = histogramSpec;
+      this.histogram = histogram;
+   }
+
+   /**
+    * Response times including the delay between the moment the session should have started according
+    * to the phase schedule and when it actually started (coordinated omission correction).
+    *
+    * @return Corrected histogram, or {@link #histogram} if no session in this snapshot started late.
+    */
+   public Histogram correctedHistogram() {
+      return hasCorrected ? corrected : histogram;
+   }
+
+   public boolean hasCorrected() {
+      return hasCorrected;
+   }
+
+   void recordResponseTime(long responseTime, long startDelay) {
+      if (startDelay > 0 && !hasCorrected) {
+         startCorrected();
+      }
+      histogram.recordValue(responseTime);
+      if (hasCorrected) {
+         corrected.recordValue(responseTime + startDelay);
+      }
+   }
+
+   private void startCorrected() {
+      if (corrected == null) {
+         corrected = histogramSpec.create();
+      }
+      histogram.copyInto(corrected);
+      hasCorrected = true;
+   }
+
+   void setCorrected(Histogram corrected) {
+      this.corrected = corrected;
+      this.hasCorrected = true;
+   }
+
    public int[] statuses() {
       return new int[]{ status_2xx, status_3xx, status_4xx, status_5xx, status_other };
    }
@@ -40,12 +101,26 @@ public class StatisticsSnapshot implements Serializable {
    public boolean isEmpty() {
       return connectFailureCount + requestCount + responseCount +
             status_2xx + status_3xx + status_4xx + status_5xx + status_other +
-            invalid + cacheHits + resetCount + timeouts + internalErrors + blockedCount == 0 &&
-            custom.values().stream().allMatch(CustomValue::isNull);
+            invalid + cacheHits + resetCount + timeouts + internalErrors + blockedCount + flushCount == 0 &&
+            isCustomNull();
+   }
+
+   private boolean isCustomNull() {
+      // This is invoked by the recording thread, avoid allocating a stream
+      for (CustomValue value : custom.values()) {
+         if (value != null && !value.isNull()) {
+            return false;
+         }
+      }
+      return true;
    }
 
    public void reset() {
       histogram.reset();
+      if (corrected != null) {
+         corrected.reset();
+      }
+      hasCorrected = false;
       totalSendTime = 0;
       connectFailureCount = 0;
       requestCount = 0;
@@ -62,6 +137,7 @@ public class StatisticsSnapshot implements Serializable {
       internalErrors = 0;
       blockedCount = 0;
       blockedTime = 0;
+      flushCount = 0;
       for (CustomValue value : custom.values()) {
          if (value != null) {
             value.reset();
@@ -70,7 +146,7 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public StatisticsSnapshot clone() {
-      StatisticsSnapshot copy = new StatisticsSnapshot();
+      StatisticsSnapshot copy = new StatisticsSnapshot(histogramSpec);
       copyInto(copy);
       return copy;
    }
@@ -78,6 +154,12 @@ public class StatisticsSnapshot implements Serializable {
    public void copyInto(StatisticsSnapshot target) {
       copySequenceId(target);
       histogram.copyInto(target.histogram);
+      if (hasCorrected) {
+         target.startCorrected();
+         corrected.copyInto(target.corrected);
+      } else {
+         target.hasCorrected = false;
+      }
       target.totalSendTime = totalSendTime;
       target.connectFailureCount = connectFailureCount;
       target.requestCount = requestCount;
@@ -94,6 +176,7 @@ public class StatisticsSnapshot implements Serializable {
       target.internalErrors = internalErrors;
       target.blockedCount = blockedCount;
       target.blockedTime = blockedTime;
+      target.flushCount = flushCount;
       for (Object key : custom.keySet()) {
          CustomValue a = custom.get(key);
          // We must make sure that the key is serializable
@@ -113,6 +196,12 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public void addInto(StatisticsSnapshot target) {
+      if (hasCorrected || target.hasCorrected) {
+         if (!target.hasCorrected) {
+            target.startCorrected();
+         }
+         target.corrected.add(correctedHistogram());
+      }
       target.histogram.add(histogram);
       target.totalSendTime += totalSendTime;
       target.connectFailureCount += connectFailureCount;
@@ -130,6 +219,7 @@ public class StatisticsSnapshot implements Serializable {
       target.internalErrors += internalErrors;
       target.blockedCount += blockedCount;
       target.blockedTime += blockedTime;
+      target.flushCount += flushCount;
       for (Object key : custom.keySet()) {
          CustomValue a = custom.get(key);
          // We must make sure that the key is serializable
@@ -155,6 +245,12 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public void subtractFrom(StatisticsSnapshot target) {
+      if (hasCorrected || target.hasCorrected) {
+         if (!target.hasCorrected) {
+            target.startCorrected();
+         }
+         target.corrected.subtract(correctedHistogram());
+      }
       target.histogram.subtract(histogram);
       target.totalSendTime -= totalSendTime;
       target.connectFailureCount -= connectFailureCount;
@@ -172,6 +268,7 @@ public class StatisticsSnapshot implements Serializable {
       target.internalErrors -= internalErrors;
       target.blockedCount -= blockedCount;
       target.blockedTime -= blockedTime;
+      target.flushCount -= flushCount;
       for (Object key : custom.keySet()) {
          CustomValue a = custom.get(key);
          // We must make sure that the key is serializable
@@ -191,13 +288,19 @@ public class StatisticsSnapshot implements Serializable {
    }
 
    public StatisticsSummary summary(double[] percentiles) {
-      TreeMap<Double, Long> percentilesMap = DoubleStream.of(percentiles).collect(TreeMap::new,
-            (map, p) -> map.put(p * 100, histogram.getValueAtPercentile(p * 100)), TreeMap::putAll);
+      TreeMap<Double, Long> percentilesMap = percentiles(histogram, percentiles);
+      Histogram corrected = correctedHistogram();
+      TreeMap<Double, Long> correctedPercentilesMap = hasCorrected ? percentiles(corrected, percentiles) : percentilesMap;
       return new StatisticsSummary(histogram.getStartTimeStamp(), histogram.getEndTimeStamp(),
             histogram.getMinValue(), (long) histogram.getMean(), histogram.getMaxValue(),
             responseCount > 0 ? totalSendTime / responseCount : resetCount,
-            percentilesMap, connectFailureCount, requestCount, responseCount,
-            status_2xx, status_3xx, status_4xx, status_5xx, status_other, invalid, cacheHits, resetCount, timeouts, internalErrors, blockedCount, blockedTime);
+            percentilesMap, (long) corrected.getMean(), corrected.getMaxValue(), correctedPercentilesMap, connectFailureCount, requestCount, responseCount,
+            status_2xx, status_3xx, status_4xx, status_5xx, status_other, invalid, cacheHits, resetCount, timeouts, internalErrors, blockedCount, blockedTime, flushCount);
+   }
+
+   private static TreeMap<Double, Long> percentiles(Histogram histogram, double[] percentiles) {
+      return DoubleStream.of(percentiles).collect(TreeMap::new,
+            (map, p) -> map.put(p * 100, histogram.getValueAtPercentile(p * 100)), TreeMap::putAll);
    }
 
    public long errors() {
@@ -226,6 +329,7 @@ public class StatisticsSnapshot implements Serializable {
             ", internalErros=" + internalErrors +
             ", blockedCount=" + blockedCount +
             ", blockedTime=" + blockedTime +
+            ", flushCount=" + flushCount +
             ", custom=" + custom +
             '}';
    }
@@ -0,0 +1,261 @@
+package io.hyperfoil.api.statistics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+
+import io.hyperfoil.api.config.HistogramSpec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Compact binary form of {@link StatisticsSnapshot} used when shipping the statistics from agents to the controller.
+ * <p>
+ * Counters are written as ZigZag LEB128 varints (most of them are small or zero), the histogram uses
+ * the HdrHistogram V2 encoding which stores the counts as varints, too. Custom values are keyed by their
+ * string representation (as in {@link StatisticsSnapshot#addInto(StatisticsSnapshot)}); unknown implementations
+ * of {@link CustomValue} fall back to Java serialization.
+ */
+public final class StatisticsSnapshotCodec {
+   private static final byte AUTO_RESIZE = 1;
+   private static final byte PACKED = 2;
+   private static final byte CORRECTED = 4;
+
+   private static final byte CUSTOM_INT = 1;
+   private static final byte CUSTOM_LONG = 2;
+   private static final byte CUSTOM_SERIALIZED = 3;
+
+   private StatisticsSnapshotCodec() {}
+
+   public static void encode(StatisticsSnapshot snapshot, ByteBuf buf) {
+      writeVarLong(buf, snapshot.sequenceId);
+      HistogramSpec spec = snapshot.histogramSpec;
+      writeVarLong(buf, spec.highestTrackableValue());
+      buf.writeByte(spec.significantDigits());
+      buf.writeByte((spec.autoResize() ? AUTO_RESIZE : 0) | (spec.packed() ? PACKED : 0) | (snapshot.hasCorrected() ? CORRECTED : 0));
+      writeVarLong(buf, snapshot.histogram.getStartTimeStamp());
+      writeVarLong(buf, snapshot.histogram.getEndTimeStamp());
+
+      writeVarLong(buf, snapshot.totalSendTime);
+      writeVarLong(buf, snapshot.connectFailureCount);
+      writeVarLong(buf, snapshot.requestCount);
+      writeVarLong(buf, snapshot.responseCount);
+      writeVarLong(buf, snapshot.status_2xx);
+      writeVarLong(buf, snapshot.status_3xx);
+      writeVarLong(buf, snapshot.status_4xx);
+      writeVarLong(buf, snapshot.status_5xx);
+      writeVarLong(buf, snapshot.status_other);
+      writeVarLong(buf, snapshot.invalid);
+      writeVarLong(buf, snapshot.cacheHits);
+      writeVarLong(buf, snapshot.resetCount);
+      writeVarLong(buf, snapshot.timeouts);
+      writeVarLong(buf, snapshot.internalErrors);
+      writeVarLong(buf, snapshot.blockedCount);
+      writeVarLong(buf, snapshot.blockedTime);
+      writeVarLong(buf, snapshot.flushCount);
+
+      int customCount = 0;
+      for (CustomValue value : snapshot.custom.values()) {
+         if (value != null) {
+            ++customCount;
+         }
+      }
+      writeVarLong(buf, customCount);
+      for (Map.Entry<Object, CustomValue> entry : snapshot.custom.entrySet()) {
+         CustomValue value = entry.getValue();
+         if (value == null) {
+            continue;
+         }
+         writeString(buf, entry.getKey().toString());
+         if (value instanceof IntValue) {
+            buf.writeByte(CUSTOM_INT);
+            writeVarLong(buf, ((IntValue) value).value());
+         } else if (value instanceof LongValue) {
+            buf.writeByte(CUSTOM_LONG);
+            writeVarLong(buf, ((LongValue) value).value());
+         } else {
+            buf.writeByte(CUSTOM_SERIALIZED);
+            byte[] bytes = serialize(value);
+            writeVarLong(buf, bytes.length);
+            buf.writeBytes(bytes);
+         }
+      }
+
+      encodeHistogram(snapshot.histogram, buf);
+      if (snapshot.hasCorrected()) {
+         encodeHistogram(snapshot.correctedHistogram(), buf);
+      }
+   }
+
+   private static void encodeHistogram(Histogram histogram, ByteBuf buf) {
+      // Let the histogram encode itself directly into the target buffer
+      int capacity = histogram.getNeededByteBufferCapacity();
+      int lengthIndex = buf.writerIndex();
+      buf.writeInt(0);
+      buf.ensureWritable(capacity);
+      int written = histogram.encodeIntoByteBuffer(buf.nioBuffer(buf.writerIndex(), capacity));
+      buf.setInt(lengthIndex, written);
+      buf.writerIndex(buf.writerIndex() + written);
+   }
+
+   private static Histogram decodeHistogram(HistogramSpec spec, ByteBuf buf) {
+      int length = buf.readInt();
+      ByteBuffer histogramBuffer = buf.nioBuffer(buf.readerIndex(), length);
+      Histogram histogram = spec.packed() ? PackedHistogram.decodeFromByteBuffer(histogramBuffer, 0) :
+            Histogram.decodeFromByteBuffer(histogramBuffer, 0);
+      buf.skipBytes(length);
+      histogram.setAutoResize(spec.autoResize());
+      return histogram;
+   }
+
+   public static StatisticsSnapshot decode(ByteBuf buf) {
+      int sequenceId = (int) readVarLong(buf);
+      long highestTrackableValue = readVarLong(buf);
+      int significantDigits = buf.readByte();
+      byte flags = buf.readByte();
+      HistogramSpec spec = new HistogramSpec(highestTrackableValue, significantDigits,
+            (flags & AUTO_RESIZE) != 0, (flags & PACKED) != 0);
+      if (spec.equals(HistogramSpec.DEFAULT)) {
+         spec = HistogramSpec.DEFAULT;
+      }
+      long startTimestamp = readVarLong(buf);
+      long endTimestamp = readVarLong(buf);
+
+      long totalSendTime = readVarLong(buf);
+      int connectFailureCount = (int) readVarLong(buf);
+      int requestCount = (int) readVarLong(buf);
+      int responseCount = (int) readVarLong(buf);
+      int status_2xx = (int) readVarLong(buf);
+      int status_3xx = (int) readVarLong(buf);
+      int status_4xx = (int) readVarLong(buf);
+      int status_5xx = (int) readVarLong(buf);
+      int status_other = (int) readVarLong(buf);
+      int invalid = (int) readVarLong(buf);
+      int cacheHits = (int) readVarLong(buf);
+      int resetCount = (int) readVarLong(buf);
+      int timeouts = (int) readVarLong(buf);
+      int internalErrors = (int) readVarLong(buf);
+      int blockedCount = (int) readVarLong(buf);
+      long blockedTime = readVarLong(buf);
+      int flushCount = (int) readVarLong(buf);
+
+      int customCount = (int) readVarLong(buf);
+      Object[] customKeys = new Object[customCount];
+      CustomValue[] customValues = new CustomValue[customCount];
+      for (int i = 0; i < customCount; ++i) {
+         customKeys[i] = readString(buf);
+         byte type = buf.readByte();
+         switch (type) {
+            case CUSTOM_INT:
+               IntValue intValue = new IntValue();
+               intValue.add((int) readVarLong(buf));
+               customValues[i] = intValue;
+               break;
+            case CUSTOM_LONG:
+               LongValue longValue = new LongValue();
+               longValue.add(readVarLong(buf));
+               customValues[i] = longValue;
+               break;
+            case CUSTOM_SERIALIZED:
+               byte[] bytes = new byte[(int) readVarLong(buf)];
+               buf.readBytes(bytes);
+               customValues[i] = deserialize(bytes);
+               break;
+            default:
+               throw new IllegalStateException("Unknown custom value type " + type);
+         }
+      }
+
+      Histogram histogram = decodeHistogram(spec, buf);
+      histogram.setStartTimeStamp(startTimestamp);
+      histogram.setEndTimeStamp(endTimestamp);
+
+      StatisticsSnapshot snapshot = new StatisticsSnapshot(spec, histogram);
+      if ((flags & CORRECTED) != 0) {
+         snapshot.setCorrected(decodeHistogram(spec, buf));
+      }
+      snapshot.sequenceId = sequenceId;
+      snapshot.totalSendTime = totalSendTime;
+      snapshot.connectFailureCount = connectFailureCount;
+      snapshot.requestCount = requestCount;
+      snapshot.responseCount = responseCount;
+      snapshot.status_2xx = status_2xx;
+      snapshot.status_3xx = status_3xx;
+      snapshot.status_4xx = status_4xx;
+      snapshot.status_5xx = status_5xx;
+      snapshot.status_other = status_other;
+      snapshot.invalid = invalid;
+      snapshot.cacheHits = cacheHits;
+      snapshot.resetCount = resetCount;
+      snapshot.timeouts = timeouts;
+      snapshot.internalErrors = internalErrors;
+      snapshot.blockedCount = blockedCount;
+      snapshot.blockedTime = blockedTime;
+      snapshot.flushCount = flushCount;
+      for (int i = 0; i < customCount; ++i) {
+         snapshot.custom.put(customKeys[i], customValues[i]);
+      }
+      return snapshot;
+   }
+
+   public static void writeString(ByteBuf buf, String string) {
+      int length = ByteBufUtil.utf8Bytes(string);
+      writeVarLong(buf, length);
+      ByteBufUtil.reserveAndWriteUtf8(buf, string, length);
+   }
+
+   public static String readString(ByteBuf buf) {
+      int length = (int) readVarLong(buf);
+      return buf.readCharSequence(length, StandardCharsets.UTF_8).toString();
+   }
+
+   public static void writeVarLong(ByteBuf buf, long value) {
+      // ZigZag: small negative values are encoded in few bytes, too
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+         buf.writeByte((int) ((zigZag & 0x7F) | 0x80));
+         zigZag >>>= 7;
+      }
+      buf.writeByte((int) zigZag);
+   }
+
+   public static long readVarLong(ByteBuf buf) {
+      long zigZag = 0;
+      for (int shift = 0; ; shift += 7) {
+         byte b = buf.readByte();
+         zigZag |= (long) (b & 0x7F) << shift;
+         if (b >= 0) {
+            break;
+         } else if (shift >= 63) {
+            throw new IllegalStateException("Malformed varint");
+         }
+      }
+      return (zigZag >>> 1) ^ -(zigZag & 1);
+   }
+
+   private static byte[] serialize(CustomValue value) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+         out.writeObject(value);
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot serialize " + value, e);
+      }
+      return bos.toByteArray();
+   }
+
+   private static CustomValue deserialize(byte[] bytes) {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+         return (CustomValue) in.readObject();
+      } catch (IOException | ClassNotFoundException e) {
+         throw new IllegalStateException("Cannot deserialize custom value", e);
+      }
+   }
+}
@@ -14,6 +14,10 @@ public class StatisticsSummary {
    public final long maxResponseTime;
    public final long meanSendTime;
    public final SortedMap<Double, Long> percentileResponseTime; // the percentiles depend on configuration
+   // Response times measured from the intended start of the session, see StatisticsSnapshot.correctedHistogram()
+   public final long meanCorrectedResponseTime;
+   public final long maxCorrectedResponseTime;
+   public final SortedMap<Double, Long> percentileCorrectedResponseTime;
    public final int connectFailureCount;
    public final int requestCount;
    public final int responseCount;
@@ -29,6 +33,7 @@ public class StatisticsSummary {
    public final int internalErrors;
    public final int blockedCount;
    public final long blockedTime;
+   public final int flushCount;
 
    @JsonCreator
    public StatisticsSummary(@JsonProperty("startTime") long startTime,
@@ -38,6 +43,9 @@ public class StatisticsSummary {
                             @JsonProperty("maxResponseTime") long maxResponseTime,
                             @JsonProperty("meanSendTime") long meanSendTime,
                             @JsonProperty("percentileResponseTime") SortedMap<Double, Long> percentileResponseTime,
+                            @JsonProperty("meanCorrectedResponseTime") long meanCorrectedResponseTime,
+                            @JsonProperty("maxCorrectedResponseTime") long maxCorrectedResponseTime,
+                            @JsonProperty("percentileCorrectedResponseTime") SortedMap<Double, Long> percentileCorrectedResponseTime,
                             @JsonProperty("connectFailureCount") int connectFailureCount,
                             @JsonProperty("requestCount") int requestCount,
                             @JsonProperty("responseCount") int responseCount,
@@ -52,7 +60,8 @@ public class StatisticsSummary {
                             @JsonProperty("timeouts") int timeouts,
                             @JsonProperty("internalErrors") int internalErrors,
                             @JsonProperty("blockedCount") int blockedCount,
-                            @JsonProperty("blockedTime") long blockedTime) {
+                            @JsonProperty("blockedTime") long blockedTime,
+                            @JsonProperty("flushCount") int flushCount) {
       this.startTime = startTime;
       this.endTime = endTime;
       this.minResponseTime = minResponseTime;
@@ -60,6 +69,9 @@ public class StatisticsSummary {
       this.maxResponseTime = maxResponseTime;
       this.meanSendTime = meanSendTime;
       this.percentileResponseTime = percentileResponseTime;
+      this.meanCorrectedResponseTime = meanCorrectedResponseTime;
+      this.maxCorrectedResponseTime = maxCorrectedResponseTime;
+      this.percentileCorrectedResponseTime = percentileCorrectedResponseTime;
       this.connectFailureCount = connectFailureCount;
       this.requestCount = requestCount;
       this.responseCount = responseCount;
@@ -75,6 +87,7 @@ public class StatisticsSummary {
       this.internalErrors = internalErrors;
       this.blockedCount = blockedCount;
       this.blockedTime = blockedTime;
+      this.flushCount = flushCount;
    }
 
    public static void printHeader(PrintWriter writer, double[] percentiles) {
@@ -84,7 +97,13 @@ public class StatisticsSummary {
          writer.print(p * 100);
          writer.print(',');
       }
-      writer.print("Max,MeanSendTime,ConnFailure,Reset,Timeouts,2xx,3xx,4xx,5xx,Other,Invalid,CacheHits,BlockedCount,BlockedTime,InternalErrors");
+      writer.print("Max,MeanSendTime,CorrectedMean,");
+      for (double p : percentiles) {
+         writer.print("CorrectedP");
+         writer.print(p * 100);
+         writer.print(',');
+      }
+      writer.print("CorrectedMax,ConnFailure,Reset,Timeouts,2xx,3xx,4xx,5xx,Other,Invalid,CacheHits,BlockedCount,BlockedTime,InternalErrors,Flushes");
    }
 
    public void printTo(PrintWriter writer) {
@@ -104,6 +123,14 @@ public class StatisticsSummary {
       writer.print(',');
       writer.print(meanSendTime);
       writer.print(',');
+      writer.print(meanCorrectedResponseTime);
+      writer.print(',');
+      for (long prt : percentileCorrectedResponseTime.values()) {
+         writer.print(prt);
+         writer.print(',');
+      }
+      writer.print(maxCorrectedResponseTime);
+      writer.print(',');
       writer.print(connectFailureCount);
       writer.print(',');
       writer.print(resetCount);
@@ -129,5 +156,7 @@ public class StatisticsSummary {
       writer.print(blockedTime);
       writer.print(',');
       writer.print(internalErrors);
+      writer.print(',');
+      writer.print(flushCount);
    }
 }
@@ -5,7 +5,10 @@ import java.util.function.Function;
 public interface Properties {
    String AGENT_DEBUG_PORT = "io.hyperfoil.agent.debug.port";
    String AGENT_DEBUG_SUSPEND = "io.hyperfoil.agent.debug.suspend";
+   String AGENT_FILE_CACHE = "io.hyperfoil.agent.file.cache";
    String AGENT_NAME = "io.hyperfoil.agent.name";
+   String AGENT_STATS_MAX_IN_FLIGHT = "io.hyperfoil.agent.stats.max.inflight";
+   String AGENT_TRANSPORT = "io.hyperfoil.agent.transport";
    String BENCHMARK_DIR = "io.hyperfoil.benchmarkdir";
    String CONTROLLER_CLUSTER_IP = "io.hyperfoil.controller.cluster.ip";
    String CONTROLLER_CLUSTER_PORT = "io.hyperfoil.controller.cluster.port";
@@ -15,6 +18,7 @@ public interface Properties {
    String CONTROLLER_KEYSTORE_PASSWORD = "io.hyperfoil.controller.keystore.password";
    String CONTROLLER_PEM_KEYS = "io.hyperfoil.controller.pem.keys";
    String CONTROLLER_PEM_CERTS = "io.hyperfoil.controller.pem.certs";
+   String CONTROLLER_PHASE_START_DELAY = "io.hyperfoil.controller.phase.start.delay";
    String CONTROLLER_SECURED_VIA_PROXY = "io.hyperfoil.controller.secured.via.proxy";
    String CONTROLLER_PASSWORD = "io.hyperfoil.controller.password";
    String CONTROLLER_LOG = "io.hyperfoil.controller.log.file";
@@ -22,9 +26,11 @@ public interface Properties {
    String CONTROLLER_PORT = "io.hyperfoil.controller.port";
    String DEPLOYER = "io.hyperfoil.deployer";
    String DEPLOY_TIMEOUT = "io.hyperfoil.deploy.timeout";
+   String HTTP1X_PARSER = "io.hyperfoil.http1x.parser";
    String JITTER_WATCHDOG_PERIOD = "io.hyperfoil.jitter.watchdog.period";
    String JITTER_WATCHDOG_THRESHOLD = "io.hyperfoil.jitter.watchdog.threshold";
    String LOG4J2_CONFIGURATION_FILE = "log4j.configurationFile";
+   String METRIC_CACHE_SIZE = "io.hyperfoil.metric.cache.size";
    String ROOT_DIR = "io.hyperfoil.rootdir";
    String RUN_DIR = "io.hyperfoil.rundir";
    String RUN_ID = "io.hyperfoil.runid";
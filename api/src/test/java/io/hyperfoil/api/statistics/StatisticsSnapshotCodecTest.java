@@ -0,0 +1,101 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.PackedHistogram;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.HistogramSpec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class StatisticsSnapshotCodecTest {
+   @Test
+   public void testRoundTrip() {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = 42;
+      snapshot.histogram.setStartTimeStamp(1_000_000);
+      snapshot.histogram.setEndTimeStamp(1_001_000);
+      for (int i = 1; i <= 1000; ++i) {
+         snapshot.histogram.recordValue(TimeUnit.MICROSECONDS.toNanos(i));
+      }
+      snapshot.totalSendTime = 123_456_789_000L;
+      snapshot.requestCount = 1001;
+      snapshot.responseCount = 1000;
+      snapshot.status_2xx = 990;
+      snapshot.status_5xx = 10;
+      snapshot.timeouts = 1;
+      snapshot.blockedTime = Long.MAX_VALUE;
+      // negative values might appear in differences
+      snapshot.invalid = -3;
+      IntValue intValue = new IntValue();
+      intValue.add(7);
+      snapshot.custom.put("int", intValue);
+      LongValue longValue = new LongValue();
+      longValue.add(1L << 40);
+      snapshot.custom.put("long", longValue);
+
+      ByteBuf buf = Unpooled.buffer();
+      StatisticsSnapshotCodec.encode(snapshot, buf);
+      StatisticsSnapshotCodec.writeString(buf, "trailer");
+      StatisticsSnapshot decoded = StatisticsSnapshotCodec.decode(buf);
+      assertEquals("trailer", StatisticsSnapshotCodec.readString(buf));
+      assertEquals(0, buf.readableBytes());
+
+      assertEquals(snapshot.toString(), decoded.toString());
+      assertEquals(HistogramSpec.DEFAULT, decoded.histogramSpec);
+      assertEquals(snapshot.histogram, decoded.histogram);
+      assertEquals(snapshot.histogram.getValueAtPercentile(99), decoded.histogram.getValueAtPercentile(99));
+   }
+
+   @Test
+   public void testHistogramSpec() {
+      HistogramSpec spec = new HistogramSpec(TimeUnit.SECONDS.toNanos(1), 3, true, true);
+      StatisticsSnapshot snapshot = new StatisticsSnapshot(spec);
+      snapshot.histogram.recordValue(TimeUnit.MINUTES.toNanos(10));
+      snapshot.responseCount = 1;
+
+      ByteBuf buf = Unpooled.buffer();
+      StatisticsSnapshotCodec.encode(snapshot, buf);
+      StatisticsSnapshot decoded = StatisticsSnapshotCodec.decode(buf);
+      assertEquals(spec, decoded.histogramSpec);
+      assertTrue(decoded.histogram instanceof PackedHistogram);
+      assertTrue(decoded.histogram.isAutoResize());
+      assertEquals(1, decoded.histogram.getTotalCount());
+      // the decoded snapshot must be usable as an aggregate
+      decoded.histogram.recordValue(TimeUnit.MINUTES.toNanos(20));
+      assertEquals(2, decoded.histogram.getTotalCount());
+   }
+
+   @Test
+   public void testCorrected() {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.recordResponseTime(TimeUnit.MILLISECONDS.toNanos(1), 0);
+      snapshot.recordResponseTime(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(10));
+      snapshot.responseCount = 2;
+
+      ByteBuf buf = Unpooled.buffer();
+      StatisticsSnapshotCodec.encode(snapshot, buf);
+      StatisticsSnapshot decoded = StatisticsSnapshotCodec.decode(buf);
+      assertEquals(0, buf.readableBytes());
+      assertTrue(decoded.hasCorrected());
+      assertEquals(snapshot.histogram, decoded.histogram);
+      assertEquals(snapshot.correctedHistogram(), decoded.correctedHistogram());
+   }
+
+   @Test
+   public void testVarLong() {
+      ByteBuf buf = Unpooled.buffer();
+      long[] values = { 0, 1, -1, 63, 64, -64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+      for (long value : values) {
+         StatisticsSnapshotCodec.writeVarLong(buf, value);
+      }
+      for (long value : values) {
+         assertEquals(value, StatisticsSnapshotCodec.readVarLong(buf));
+      }
+      assertEquals(0, buf.readableBytes());
+   }
+}
@@ -0,0 +1,177 @@
+package io.hyperfoil.api.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.HdrHistogram.PackedHistogram;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.HistogramSpec;
+
+public class StatisticsTest {
+   private static final long START = 1_000_000;
+
+   @Test
+   public void testPeriods() {
+      Statistics statistics = new Statistics(START);
+      Map<Integer, StatisticsSnapshot> collected = new HashMap<>();
+      statistics.incrementRequests(START);
+      statistics.recordResponse(START + 10, 0, 1000);
+      // current period is not handed off until a later period starts
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      assertTrue(collected.isEmpty());
+
+      statistics.incrementRequests(START + 1500);
+      // late response for the first period
+      statistics.recordResponse(START + 20, 0, 2000);
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      assertEquals(1, collected.size());
+      assertEquals(1, collected.get(0).requestCount);
+      assertEquals(1, collected.get(0).responseCount);
+      assertEquals(START, collected.get(0).histogram.getStartTimeStamp());
+      assertEquals(START + 1000, collected.get(0).histogram.getEndTimeStamp());
+
+      statistics.addStatus(START + 2100, 200);
+      statistics.end(START + 2500);
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      assertEquals(3, collected.size());
+      assertEquals(2, collected.get(0).responseCount);
+      assertEquals(1, collected.get(1).requestCount);
+      assertEquals(1, collected.get(2).status_2xx);
+      assertEquals(START + 2500, collected.get(2).histogram.getEndTimeStamp());
+   }
+
+   @Test
+   public void testCollectorFallingBehind() {
+      Statistics statistics = new Statistics(START);
+      int periods = 100;
+      for (int i = 0; i < periods; ++i) {
+         statistics.incrementRequests(START + i * 1000);
+         // some late records, too
+         statistics.addInvalid(START + i / 2 * 1000);
+      }
+      statistics.end(START + periods * 1000);
+      Map<Integer, StatisticsSnapshot> collected = new HashMap<>();
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+      assertEquals(periods, collected.size());
+      int invalid = 0;
+      for (int i = 0; i < periods; ++i) {
+         assertEquals(1, collected.get(i).requestCount);
+         invalid += collected.get(i).invalid;
+      }
+      assertEquals(periods, invalid);
+   }
+
+   @Test
+   public void testConcurrentCollector() throws InterruptedException {
+      Statistics statistics = new Statistics(START);
+      int records = 1_000_000;
+      AtomicBoolean done = new AtomicBoolean();
+      Map<Integer, StatisticsSnapshot> collected = new HashMap<>();
+      Thread collector = new Thread(() -> {
+         while (!done.get()) {
+            statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+         }
+      });
+      collector.start();
+      Thread writer = new Thread(() -> {
+         ThreadLocalRandom random = ThreadLocalRandom.current();
+         for (int i = 0; i < records; ++i) {
+            long timestamp = START + i / 10;
+            statistics.incrementRequests(timestamp);
+            // the response might be accounted to a slightly older period
+            statistics.recordResponse(Math.max(START, timestamp - random.nextInt(3000)), 0, TimeUnit.MILLISECONDS.toNanos(1));
+         }
+         statistics.end(START + records / 10);
+      });
+      writer.start();
+      writer.join();
+      done.set(true);
+      collector.join();
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+
+      int requests = 0;
+      long responses = 0;
+      for (StatisticsSnapshot snapshot : collected.values()) {
+         assertFalse(snapshot.isEmpty());
+         requests += snapshot.requestCount;
+         responses += snapshot.histogram.getTotalCount();
+      }
+      assertEquals(records, requests);
+      assertEquals(records, responses);
+      assertEquals(records / 10_000, collected.size());
+   }
+
+   @Test
+   public void testHistogramSpec() {
+      HistogramSpec spec = new HistogramSpec(TimeUnit.SECONDS.toNanos(1), 3, true, true);
+      Statistics statistics = new Statistics(START, spec);
+      // this would be clamped in a fixed-range histogram
+      statistics.recordResponse(START, 0, TimeUnit.MINUTES.toNanos(10));
+      statistics.recordResponse(START, 0, TimeUnit.MILLISECONDS.toNanos(1));
+      statistics.end(START + 1000);
+      Map<Integer, StatisticsSnapshot> collected = new HashMap<>();
+      statistics.visitSnapshots(snapshot -> {
+         assertEquals(spec, snapshot.histogramSpec);
+         assertTrue(snapshot.histogram instanceof PackedHistogram);
+         collect(collected, snapshot.clone());
+      });
+      StatisticsSnapshot snapshot = collected.get(0);
+      assertEquals(spec, snapshot.histogramSpec);
+      assertEquals(2, snapshot.histogram.getTotalCount());
+      assertTrue(snapshot.histogram.getMaxValue() >= TimeUnit.MINUTES.toNanos(10));
+   }
+
+   @Test
+   public void testStartDelay() {
+      Statistics statistics = new Statistics(START);
+      statistics.recordResponse(START, 0, TimeUnit.MILLISECONDS.toNanos(1));
+      statistics.recordResponse(START, 0, TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(99));
+      statistics.recordResponse(START + 1000, 0, TimeUnit.MILLISECONDS.toNanos(1));
+      statistics.end(START + 2000);
+      Map<Integer, StatisticsSnapshot> collected = new HashMap<>();
+      statistics.visitSnapshots(snapshot -> collect(collected, snapshot));
+
+      StatisticsSnapshot delayed = collected.get(0);
+      assertTrue(delayed.hasCorrected());
+      assertEquals(2, delayed.correctedHistogram().getTotalCount());
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(100), delayed.correctedHistogram().getMaxValue(), TimeUnit.MILLISECONDS.toNanos(1));
+      assertTrue(delayed.histogram.getMaxValue() < TimeUnit.MILLISECONDS.toNanos(2));
+      // in the second period no session started late
+      StatisticsSnapshot onTime = collected.get(1);
+      assertFalse(onTime.hasCorrected());
+      assertTrue(onTime.correctedHistogram() == onTime.histogram);
+
+      StatisticsSnapshot total = new StatisticsSnapshot();
+      onTime.addInto(total);
+      delayed.addInto(total);
+      assertEquals(3, total.histogram.getTotalCount());
+      assertEquals(3, total.correctedHistogram().getTotalCount());
+      StatisticsSummary summary = total.summary(new double[]{ 0.5, 0.99 });
+      assertTrue(summary.maxCorrectedResponseTime > summary.maxResponseTime);
+      assertTrue(summary.percentileCorrectedResponseTime.get(99d) > summary.percentileResponseTime.get(99d));
+
+      delayed.subtractFrom(total);
+      assertEquals(1, total.correctedHistogram().getTotalCount());
+   }
+
+   private static void collect(Map<Integer, StatisticsSnapshot> collected, StatisticsSnapshot snapshot) {
+      StatisticsSnapshot existing = collected.computeIfAbsent(snapshot.sequenceId, id -> {
+         StatisticsSnapshot s = new StatisticsSnapshot(snapshot.histogramSpec);
+         s.sequenceId = id;
+         s.histogram.setStartTimeStamp(snapshot.histogram.getStartTimeStamp());
+         return s;
+      });
+      snapshot.addInto(existing);
+      existing.histogram.setEndTimeStamp(snapshot.histogram.getEndTimeStamp());
+   }
+}
@@ -1,6 +1,7 @@
 package io.hyperfoil.cli.commands;
 
 import java.util.Collection;
+import java.util.Map;
 
 import org.aesh.command.CommandDefinition;
 import org.aesh.command.CommandException;
@@ -18,27 +19,8 @@ import io.hyperfoil.controller.model.RequestStats;
 
 @CommandDefinition(name = "stats", description = "Show run statistics")
 public class Stats extends BaseRunIdCommand {
-   private static final Table<RequestStats> REQUEST_STATS_TABLE = new Table<RequestStats>()
-         .rowPrefix(r -> r.failedSLAs.isEmpty() ? null : ANSI.RED_TEXT)
-         .rowSuffix(r -> ANSI.RESET)
-         .column("PHASE", r -> r.phase)
-         .column("METRIC", r -> r.metric)
-         .column("THROUGHPUT", Stats::throughput, Table.Align.RIGHT)
-         .columnInt("REQUESTS", r -> r.summary.requestCount)
-         .columnNanos("MEAN", r -> r.summary.meanResponseTime)
-         .columnNanos("p50", r -> r.summary.percentileResponseTime.get(50d))
-         .columnNanos("p90", r -> r.summary.percentileResponseTime.get(90d))
-         .columnNanos("p99", r -> r.summary.percentileResponseTime.get(99d))
-         .columnNanos("p99.9", r -> r.summary.percentileResponseTime.get(99.9))
-         .columnNanos("p99.99", r -> r.summary.percentileResponseTime.get(99.99))
-         .columnInt("2xx", r -> r.summary.status_2xx)
-         .columnInt("3xx", r -> r.summary.status_3xx)
-         .columnInt("4xx", r -> r.summary.status_4xx)
-         .columnInt("5xx", r -> r.summary.status_5xx)
-         .columnInt("CACHE", r -> r.summary.cacheHits)
-         .columnInt("TIMEOUTS", r -> r.summary.timeouts)
-         .columnInt("ERRORS", r -> r.summary.resetCount + r.summary.connectFailureCount + r.summary.status_other + r.summary.internalErrors)
-         .columnNanos("BLOCKED", r -> r.summary.blockedTime);
+   private static final Table<RequestStats> REQUEST_STATS_TABLE = requestStatsTable(false);
+   private static final Table<RequestStats> CORRECTED_REQUEST_STATS_TABLE = requestStatsTable(true);
 
    private static final Table<CustomStats> CUSTOM_STATS_TABLE = new Table<CustomStats>()
          .column("PHASE", c -> c.phase)
@@ -53,6 +35,37 @@ public class Stats extends BaseRunIdCommand {
    @Option(name = "custom", shortName = 'c', description = "Show custom stats (total only)", hasValue = false)
    private boolean custom;
 
+   @Option(name = "corrected", description = "Show response times corrected for sessions that started late (coordinated omission).", hasValue = false)
+   private boolean corrected;
+
+   private static Table<RequestStats> requestStatsTable(boolean corrected) {
+      return new Table<RequestStats>()
+            .rowPrefix(r -> r.failedSLAs.isEmpty() ? null : ANSI.RED_TEXT)
+            .rowSuffix(r -> ANSI.RESET)
+            .column("PHASE", r -> r.phase)
+            .column("METRIC", r -> r.metric)
+            .column("THROUGHPUT", Stats::throughput, Table.Align.RIGHT)
+            .columnInt("REQUESTS", r -> r.summary.requestCount)
+            .columnNanos("MEAN", r -> corrected ? r.summary.meanCorrectedResponseTime : r.summary.meanResponseTime)
+            .columnNanos("p50", r -> percentiles(r, corrected).get(50d))
+            .columnNanos("p90", r -> percentiles(r, corrected).get(90d))
+            .columnNanos("p99", r -> percentiles(r, corrected).get(99d))
+            .columnNanos("p99.9", r -> percentiles(r, corrected).get(99.9))
+            .columnNanos("p99.99", r -> percentiles(r, corrected).get(99.99))
+            .columnInt("2xx", r -> r.summary.status_2xx)
+            .columnInt("3xx", r -> r.summary.status_3xx)
+            .columnInt("4xx", r -> r.summary.status_4xx)
+            .columnInt("5xx", r -> r.summary.status_5xx)
+            .columnInt("CACHE", r -> r.summary.cacheHits)
+            .columnInt("TIMEOUTS", r -> r.summary.timeouts)
+            .columnInt("ERRORS", r -> r.summary.resetCount + r.summary.connectFailureCount + r.summary.status_other + r.summary.internalErrors)
+            .columnNanos("BLOCKED", r -> r.summary.blockedTime);
+   }
+
+   private static Map<Double, Long> percentiles(RequestStats r, boolean corrected) {
+      return corrected ? r.summary.percentileCorrectedResponseTime : r.summary.percentileResponseTime;
+   }
+
    private static String throughput(RequestStats r) {
       if (r.summary.endTime <= r.summary.startTime) {
          return "<none>";
@@ -106,7 +119,7 @@ public class Stats extends BaseRunIdCommand {
          } else {
             invocation.println("Recent stats from run " + runRef.id());
          }
-         invocation.println(REQUEST_STATS_TABLE.print(stats.statistics.stream()));
+         invocation.println((corrected ? CORRECTED_REQUEST_STATS_TABLE : REQUEST_STATS_TABLE).print(stats.statistics.stream()));
          prevLines = stats.statistics.size() + 2;
          for (RequestStats rs : stats.statistics) {
             for (String msg : rs.failedSLAs) {
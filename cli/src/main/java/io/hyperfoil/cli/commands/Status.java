@@ -46,7 +46,7 @@ public class Status extends BaseRunIdCommand {
       for (; ; ) {
          if (run.agents != null && !run.agents.isEmpty()) {
             invocation.print("Agents: ");
-            invocation.println(String.join(", ", run.agents.stream().map(a -> a.name + "[" + a.status + "]").toArray(String[]::new)));
+            invocation.println(String.join(", ", run.agents.stream().map(a -> a.name + "[" + a.status + (a.transport == null ? "" : "/" + a.transport) + "]").toArray(String[]::new)));
          }
          if (run.started != null) {
             invocation.print("Started: " + DATE_FORMATTER.format(run.started) + "    ");
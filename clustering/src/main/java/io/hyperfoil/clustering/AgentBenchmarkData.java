@@ -0,0 +1,53 @@
+package io.hyperfoil.clustering;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import io.hyperfoil.api.config.BenchmarkData;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.clustering.util.PersistedBenchmarkData;
+
+/**
+ * Files the agent has fetched from the controller before building the benchmark from source
+ * or before running a benchmark received in serialized form.
+ * The contents are read on demand and are not kept in the benchmark: only the controller needs them.
+ */
+class AgentBenchmarkData implements BenchmarkData {
+   private final Map<String, Path> files;
+
+   AgentBenchmarkData(Map<String, Path> files) {
+      this.files = files;
+   }
+
+   @Override
+   public InputStream readFile(String file) {
+      Path path = localPath(file);
+      if (path == null) {
+         throw new BenchmarkDefinitionException("File " + file + " was not fetched, available files are: " + files.keySet());
+      }
+      try {
+         return new FileInputStream(path.toFile());
+      } catch (FileNotFoundException e) {
+         throw new BenchmarkDefinitionException("Cannot load file " + file + " from " + path, e);
+      }
+   }
+
+   @Override
+   public Path localPath(String file) {
+      Path path = files.get(file);
+      if (path == null) {
+         // Files stored on the controller are listed with sanitized names
+         path = files.get(PersistedBenchmarkData.sanitize(file));
+      }
+      return path;
+   }
+
+   @Override
+   public Map<String, byte[]> files() {
+      return Collections.emptyMap();
+   }
+}
@@ -0,0 +1,193 @@
+package io.hyperfoil.clustering;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.hyperfoil.clustering.messages.AgentFileRequest;
+import io.hyperfoil.internal.Properties;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.CopyOptions;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Downloads benchmark files from the controller, chunk by chunk, into a content-addressed cache where steps
+ * can map them. The files are identified by SHA-256 of their content and the cache survives across runs,
+ * so unchanged files are not transferred again. Missing files are fetched concurrently.
+ */
+class AgentFileFetcher {
+   private static final Logger log = LoggerFactory.getLogger(AgentFileFetcher.class);
+   static final int CHUNK_SIZE = 4 * 1024 * 1024;
+   private static final Path CACHE_DIR = Paths.get(Properties.get(Properties.AGENT_FILE_CACHE,
+         System.getProperty("java.io.tmpdir") + File.separator + "hyperfoil-agent-cache"));
+
+   private final Vertx vertx;
+   private final String runId;
+   private final Map<String, Path> files = new HashMap<>();
+
+   AgentFileFetcher(Vertx vertx, String runId) {
+      this.vertx = vertx;
+      this.runId = runId;
+   }
+
+   static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   static String hex(byte[] digest) {
+      StringBuilder sb = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+         sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * @param manifest Map of file names to SHA-256 of their content.
+    * @param handler  Invoked when all files are available locally and listed in {@link #files()}.
+    */
+   void fetch(Map<String, String> manifest, Handler<AsyncResult<Void>> handler) {
+      if (manifest.isEmpty()) {
+         handler.handle(Future.succeededFuture());
+         return;
+      }
+      long startTime = System.currentTimeMillis();
+      vertx.fileSystem().mkdirs(CACHE_DIR.toString(), dirResult -> {
+         if (dirResult.failed()) {
+            handler.handle(Future.failedFuture(dirResult.cause()));
+            return;
+         }
+         AtomicInteger cached = new AtomicInteger();
+         AtomicLong fetchedBytes = new AtomicLong();
+         @SuppressWarnings("rawtypes")
+         List<Future> futures = new ArrayList<>();
+         for (String hash : new HashSet<>(manifest.values())) {
+            Path path = CACHE_DIR.resolve(hash);
+            Promise<Void> promise = Promise.promise();
+            futures.add(promise.future());
+            vertx.fileSystem().exists(path.toString(), exists -> {
+               if (exists.failed()) {
+                  promise.fail(exists.cause());
+               } else if (exists.result()) {
+                  cached.incrementAndGet();
+                  promise.complete();
+               } else {
+                  download(hash, path, fetchedBytes, promise);
+               }
+            });
+         }
+         CompositeFuture.all(futures).onComplete(result -> {
+            if (result.failed()) {
+               handler.handle(Future.failedFuture(result.cause()));
+               return;
+            }
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+               files.put(entry.getKey(), CACHE_DIR.resolve(entry.getValue()));
+            }
+            log.info("Benchmark files ready in {} ms: {} fetched from controller ({} bytes), {} found in cache {}",
+                  System.currentTimeMillis() - startTime, futures.size() - cached.get(), fetchedBytes.get(), cached.get(), CACHE_DIR);
+            handler.handle(Future.succeededFuture());
+         });
+      });
+   }
+
+   private void download(String hash, Path path, AtomicLong fetchedBytes, Promise<Void> promise) {
+      // Another agent on this machine might be downloading the same file
+      Path tempPath = CACHE_DIR.resolve(hash + "." + UUID.randomUUID() + ".part");
+      vertx.fileSystem().open(tempPath.toString(), new OpenOptions().setWrite(true).setCreateNew(true), result -> {
+         if (result.failed()) {
+            promise.fail(result.cause());
+         } else {
+            log.debug("Fetching file {} from controller", hash);
+            fetchChunk(hash, path, tempPath, result.result(), 0, sha256(), fetchedBytes, promise);
+         }
+      });
+   }
+
+   private void fetchChunk(String hash, Path path, Path tempPath, AsyncFile file, long offset, MessageDigest digest,
+                           AtomicLong fetchedBytes, Promise<Void> promise) {
+      vertx.eventBus().request(Feeds.FILES, new AgentFileRequest(runId, hash, offset, CHUNK_SIZE), reply -> {
+         if (reply.failed()) {
+            discard(file, tempPath);
+            promise.fail(reply.cause());
+            return;
+         }
+         Buffer chunk = (Buffer) reply.result().body();
+         digest.update(chunk.getByteBuf().nioBuffer());
+         file.write(chunk, offset, written -> {
+            if (written.failed()) {
+               discard(file, tempPath);
+               promise.fail(written.cause());
+            } else if (chunk.length() == CHUNK_SIZE) {
+               fetchChunk(hash, path, tempPath, file, offset + CHUNK_SIZE, digest, fetchedBytes, promise);
+            } else {
+               long size = offset + chunk.length();
+               String actualHash = hex(digest.digest());
+               if (!hash.equals(actualHash)) {
+                  discard(file, tempPath);
+                  promise.fail(new IllegalStateException("File " + hash + " was corrupted in transfer, received content has hash " + actualHash));
+                  return;
+               }
+               file.close(closed -> {
+                  if (closed.failed()) {
+                     promise.fail(closed.cause());
+                     return;
+                  }
+                  vertx.fileSystem().move(tempPath.toString(), path.toString(),
+                        new CopyOptions().setReplaceExisting(true).setAtomicMove(true), moved -> {
+                           if (moved.failed()) {
+                              promise.fail(moved.cause());
+                           } else {
+                              log.debug("Fetched file {} ({} bytes)", hash, size);
+                              fetchedBytes.addAndGet(size);
+                              promise.complete();
+                           }
+                        });
+               });
+            }
+         });
+      });
+   }
+
+   private void discard(AsyncFile file, Path tempPath) {
+      file.close(closed -> vertx.fileSystem().delete(tempPath.toString(), deleted -> {
+         if (deleted.failed()) {
+            log.warn("Cannot delete {}", deleted.cause(), tempPath);
+         }
+      }));
+   }
+
+   Map<String, Path> files() {
+      return files;
+   }
+
+   /**
+    * Forgets the files; these are kept in the cache for subsequent runs.
+    */
+   void cleanup() {
+      files.clear();
+   }
+}
@@ -14,6 +14,10 @@ class AgentInfo {
    Status status = Status.STARTING;
    Map<String, PhaseInstance.Status> phases = new HashMap<>();
    DeployedAgent deployedAgent;
+   String transport;
+   long initializeTime = Long.MIN_VALUE;
+   // milliseconds between sending the benchmark and agent becoming ready
+   Long startupTime;
 
    public AgentInfo(String name, int id) {
       this.name = name;
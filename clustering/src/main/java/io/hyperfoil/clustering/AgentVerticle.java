@@ -3,6 +3,7 @@ package io.hyperfoil.clustering;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import io.hyperfoil.Hyperfoil;
 import io.hyperfoil.api.config.Benchmark;
@@ -10,15 +11,21 @@ import io.hyperfoil.api.session.PhaseInstance;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
+import io.hyperfoil.clustering.messages.BenchmarkManifest;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.SimulationRunnerImpl;
+import io.hyperfoil.core.parser.BenchmarkParser;
+import io.hyperfoil.core.parser.ParserException;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
 import io.hyperfoil.core.util.Util;
 import io.hyperfoil.internal.Properties;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
@@ -43,6 +50,8 @@ public class AgentVerticle extends AbstractVerticle {
    private RequestStatsSender requestStatsSender;
    private CountDown statisticsCountDown;
    private SessionStatsSender sessionStatsSender;
+   private AgentFileFetcher fileFetcher;
+   private ClockSync clockSync;
 
    @Override
    public void start() {
@@ -111,13 +120,31 @@ public class AgentVerticle extends AbstractVerticle {
       switch (controlMessage.command()) {
          case INITIALIZE:
             log.info("Initializing agent");
-            try {
-               initBenchmark(controlMessage.benchmark(), controlMessage.agentId());
-               message.reply("OK");
-            } catch (Throwable e) {
-               log.error("Failed to initialize agent", e);
-               message.fail(1, e.getMessage());
+            BenchmarkManifest manifest = controlMessage.manifest();
+            if (fileFetcher == null) {
+               fileFetcher = new AgentFileFetcher(vertx, runId);
             }
+            fileFetcher.fetch(manifest.files(), result -> {
+               if (result.failed()) {
+                  log.error("Failed to fetch benchmark files", result.cause());
+                  message.fail(1, "Failed to fetch benchmark files: " + result.cause().getMessage());
+                  return;
+               }
+               loadBenchmark(manifest, loaded -> {
+                  if (loaded.failed()) {
+                     log.error("Failed to build benchmark", loaded.cause());
+                     message.fail(1, "Failed to build benchmark: " + loaded.cause().getMessage());
+                     return;
+                  }
+                  try {
+                     initBenchmark(loaded.result(), controlMessage.agentId());
+                     message.reply("OK");
+                  } catch (Throwable e) {
+                     log.error("Failed to initialize agent", e);
+                     message.fail(1, e.getMessage());
+                  }
+               });
+            });
             break;
          case STOP:
             // collect stats one last time before acknowledging termination
@@ -137,7 +164,7 @@ public class AgentVerticle extends AbstractVerticle {
             if (runner != null) {
                // TODO: why do we have to visit&send stats here?
                runner.visitStatistics(requestStatsSender);
-               requestStatsSender.send(completion);
+               requestStatsSender.flush(completion);
                requestStatsSender.sendPhaseComplete(null, completion);
                runner.shutdown();
             }
@@ -146,6 +173,10 @@ public class AgentVerticle extends AbstractVerticle {
             }
             controlFeedConsumer = null;
             runner = null;
+            if (fileFetcher != null) {
+               fileFetcher.cleanup();
+               fileFetcher = null;
+            }
             requestStatsSender = null;
             if (statisticsCountDown != null) {
                statisticsCountDown.setHandler(result -> completion.countDown());
@@ -177,7 +208,7 @@ public class AgentVerticle extends AbstractVerticle {
          PhaseControlMessage controlMessage = (PhaseControlMessage) message.body();
          switch (controlMessage.command()) {
             case RUN:
-               runner.startPhase(controlMessage.phase());
+               startPhase(controlMessage.phase(), controlMessage.startTime());
                break;
             case FINISH:
                runner.finishPhase(controlMessage.phase());
@@ -188,15 +219,78 @@ public class AgentVerticle extends AbstractVerticle {
             case TERMINATE:
                runner.terminatePhase(controlMessage.phase());
                break;
+            case ADJUST_RATE:
+               adjustRate(controlMessage.phase(), controlMessage.usersPerSec(), controlMessage.startTime());
+               break;
          }
       });
    }
 
+   private void startPhase(String phase, long controllerStartTime) {
+      if (controllerStartTime == Long.MIN_VALUE) {
+         runner.startPhase(phase);
+         return;
+      }
+      // Even if the message arrived late the phase uses the common start time as its reference
+      // so that the statistics periods of all agents are aligned.
+      long startTime = clockSync.toLocal(controllerStartTime);
+      long delay = startTime - System.currentTimeMillis();
+      if (delay > 0) {
+         vertx.setTimer(delay, timerId -> {
+            if (runner != null) {
+               runner.startPhase(phase, startTime);
+            }
+         });
+      } else {
+         runner.startPhase(phase, startTime);
+      }
+   }
+
+   private void adjustRate(String phase, double usersPerSec, long controllerTime) {
+      long delay = clockSync.toLocal(controllerTime) - System.currentTimeMillis();
+      if (delay > 0) {
+         vertx.setTimer(delay, timerId -> {
+            if (runner != null) {
+               runner.adjustRate(phase, usersPerSec);
+            }
+         });
+      } else if (runner != null) {
+         runner.adjustRate(phase, usersPerSec);
+      }
+   }
+
    @Override
    public void stop() {
       if (runner != null) {
          runner.shutdown();
       }
+      if (fileFetcher != null) {
+         fileFetcher.cleanup();
+      }
+   }
+
+   private void loadBenchmark(BenchmarkManifest manifest, Handler<AsyncResult<Benchmark>> handler) {
+      AgentBenchmarkData data = new AgentBenchmarkData(new HashMap<>(fileFetcher.files()));
+      if (manifest.source() == null) {
+         Benchmark benchmark = manifest.benchmark();
+         // In-VM agents might receive the controller's instance which still holds all the files
+         if (!benchmark.files().keySet().containsAll(benchmark.agentFiles())) {
+            benchmark.setLocalData(data);
+         }
+         handler.handle(Future.succeededFuture(benchmark));
+         return;
+      }
+      // Building large benchmarks takes a while; don't block the event loop
+      vertx.executeBlocking(future -> {
+         long startTime = System.currentTimeMillis();
+         try {
+            Benchmark benchmark = BenchmarkParser.instance().buildBenchmark(manifest.source(), data);
+            log.info("Built benchmark {} from source in {} ms", manifest.name(), System.currentTimeMillis() - startTime);
+            future.complete(benchmark);
+         } catch (ParserException e) {
+            future.fail(e);
+         }
+      }, false, handler);
    }
 
    private void initBenchmark(Benchmark benchmark, int agentId) {
@@ -220,7 +314,7 @@ public class AgentVerticle extends AbstractVerticle {
                if (runner != null) {
                   runner.visitStatistics(phase, requestStatsSender);
                }
-               requestStatsSender.send(statisticsCountDown);
+               requestStatsSender.flush(statisticsCountDown);
                requestStatsSender.sendPhaseComplete(phase, statisticsCountDown);
             });
          }
@@ -239,9 +333,16 @@ public class AgentVerticle extends AbstractVerticle {
          sessionStatsSender.send();
       });
 
+      clockSync = new ClockSync(eb, deploymentId);
       runner.openConnections(result -> {
          if (result.succeeded()) {
-            eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId));
+            clockSync.sync(syncResult -> {
+               if (syncResult.failed()) {
+                  log.warn("{} Failed to synchronize clock with controller, assuming no offset.", syncResult.cause(), deploymentId);
+               }
+               eb.send(Feeds.RESPONSE, new AgentReadyMessage(deploymentID(), runId, runner.transport().name().toLowerCase(),
+                     clockSync.offset(), clockSync.roundTripMillis()));
+            });
          } else {
             eb.send(Feeds.RESPONSE, new ErrorMessage(deploymentID(), runId, result.cause(), true));
          }
@@ -0,0 +1,76 @@
+package io.hyperfoil.clustering;
+
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Estimates the offset between controller's and agent's wall-clock using NTP-style exchanges
+ * over the event bus. The agent notes its time when sending the request and receiving the reply,
+ * and assumes that the controller's timestamp was taken in the middle of the round trip.
+ * The exchange with the shortest round trip is least affected by queuing so that one wins.
+ */
+class ClockSync {
+   private static final Logger log = LoggerFactory.getLogger(ClockSync.class);
+   private static final int EXCHANGES = 8;
+
+   private final EventBus eb;
+   private final String deploymentId;
+   private long offset;
+   private long roundTripNanos = Long.MAX_VALUE;
+
+   ClockSync(EventBus eb, String deploymentId) {
+      this.eb = eb;
+      this.deploymentId = deploymentId;
+   }
+
+   void sync(Handler<AsyncResult<Void>> handler) {
+      exchange(EXCHANGES, handler);
+   }
+
+   private void exchange(int remaining, Handler<AsyncResult<Void>> handler) {
+      long sendMillis = System.currentTimeMillis();
+      long sendNanos = System.nanoTime();
+      eb.request(Feeds.CLOCK, deploymentId, reply -> {
+         long roundTrip = System.nanoTime() - sendNanos;
+         if (reply.failed()) {
+            handler.handle(Future.failedFuture(reply.cause()));
+            return;
+         }
+         if (roundTrip < roundTripNanos) {
+            roundTripNanos = roundTrip;
+            offset = (Long) reply.result().body() - sendMillis - TimeUnit.NANOSECONDS.toMillis(roundTrip / 2);
+         }
+         if (remaining > 1) {
+            exchange(remaining - 1, handler);
+         } else {
+            log.info("{} Clock offset to controller is {} ms (round trip {} us)", deploymentId, offset, TimeUnit.NANOSECONDS.toMicros(roundTripNanos));
+            handler.handle(Future.succeededFuture());
+         }
+      });
+   }
+
+   /**
+    * @return Controller's time minus agent's time, in milliseconds.
+    */
+   long offset() {
+      return offset;
+   }
+
+   long roundTripMillis() {
+      return roundTripNanos == Long.MAX_VALUE ? -1 : TimeUnit.NANOSECONDS.toMillis(roundTripNanos);
+   }
+
+   /**
+    * @param controllerTimestamp Wall-clock time on the controller.
+    * @return Corresponding wall-clock time on this agent.
+    */
+   long toLocal(long controllerTimestamp) {
+      return controllerTimestamp - offset;
+   }
+}
@@ -3,12 +3,14 @@ package io.hyperfoil.clustering;
 import java.util.ArrayList;
 
 import io.hyperfoil.clustering.messages.AgentControlMessage;
+import io.hyperfoil.clustering.messages.AgentFileRequest;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.clustering.messages.ObjectCodec;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.vertx.core.Vertx;
@@ -27,6 +29,8 @@ public final class Codecs {
       eb.registerDefaultCodec(PhaseChangeMessage.class, new PhaseChangeMessage.Codec());
       eb.registerDefaultCodec(PhaseControlMessage.class, new PhaseControlMessage.Codec());
       eb.registerDefaultCodec(RequestStatsMessage.class, new RequestStatsMessage.Codec());
+      eb.registerDefaultCodec(PhaseStatsCompleteMessage.class, new PhaseStatsCompleteMessage.Codec());
+      eb.registerDefaultCodec(AgentFileRequest.class, new AgentFileRequest.Codec());
       eb.registerDefaultCodec(ArrayList.class, new ObjectCodec.ArrayList());
       eb.registerDefaultCodec(SessionStatsMessage.class, new SessionStatsMessage.Codec());
    }
@@ -1,6 +1,7 @@
 package io.hyperfoil.clustering;
 
 import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.core.impl.statistics.CapacitySearch;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -12,6 +13,7 @@ public class ControllerPhase {
    private long absoluteStartTime = Long.MIN_VALUE;
    private long absoluteCompletionTime = Long.MIN_VALUE;
    private boolean failed;
+   private CapacitySearch capacitySearch;
 
    public ControllerPhase(Phase definition) {
       this.definition = definition;
@@ -56,6 +58,14 @@ public class ControllerPhase {
       return failed;
    }
 
+   public CapacitySearch capacitySearch() {
+      return capacitySearch;
+   }
+
+   public void capacitySearch(CapacitySearch capacitySearch) {
+      this.capacitySearch = capacitySearch;
+   }
+
    enum Status {
       NOT_STARTED,
       STARTING,
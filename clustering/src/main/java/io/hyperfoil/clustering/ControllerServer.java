@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -37,6 +38,7 @@ import io.hyperfoil.controller.model.CustomStats;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.controller.router.ApiRouter;
+import io.hyperfoil.core.impl.statistics.OpenMetricsWriter;
 import io.hyperfoil.core.impl.statistics.StatisticsStore;
 import io.hyperfoil.core.parser.BenchmarkParser;
 import io.hyperfoil.core.parser.ParserException;
@@ -465,11 +467,12 @@ class ControllerServer implements ApiService {
                   return new io.hyperfoil.controller.model.Phase(phase.definition().name(), phase.status().toString(), type,
                         phaseStarted, remaining == null ? null : remaining.toString(),
                         phaseTerminated, phase.isFailed(), totalDuration == null ? null : totalDuration.toString(),
-                        phase.definition().description());
+                        phase.definition().description(),
+                        phase.capacitySearch() == null ? null : phase.capacitySearch().knee());
                }).collect(Collectors.toList());
       }
       List<io.hyperfoil.controller.model.Agent> agents = run.agents.stream()
-            .map(ai -> new io.hyperfoil.controller.model.Agent(ai.name, ai.deploymentId, ai.status.toString()))
+            .map(ai -> new io.hyperfoil.controller.model.Agent(ai.name, ai.deploymentId, ai.status.toString(), ai.transport, ai.startupTime))
             .collect(Collectors.toList());
       return new io.hyperfoil.controller.model.Run(run.id, benchmark, started, terminated, run.cancelled, run.completed, run.description, phases, agents,
             run.errors.stream().map(Run.Error::toString).collect(Collectors.toList()));
@@ -551,14 +554,17 @@ class ControllerServer implements ApiService {
             JsonObject phaseStats = new JsonObject();
             reply.put(phase, phaseStats);
             addressStats.forEach((address, lowHigh) -> {
-               String agent = run.agents.stream().filter(a -> a.deploymentId.equals(address)).map(a -> a.name).findFirst().orElse("unknown");
-               phaseStats.put(agent, new JsonObject().put("min", lowHigh.low).put("max", lowHigh.high));
+               phaseStats.put(agentName(run, address), new JsonObject().put("min", lowHigh.low).put("max", lowHigh.high));
             });
          }
          ctx.response().end(reply.encodePrettily());
       });
    }
 
+   private static String agentName(Run run, String address) {
+      return run.agents.stream().filter(a -> a.deploymentId.equals(address)).map(a -> a.name).findFirst().orElse("unknown");
+   }
+
 
    @Override
    public void listConnections(RoutingContext ctx, String runId) {
@@ -624,6 +630,55 @@ class ControllerServer implements ApiService {
       });
    }
 
+   @Override
+   public void getMetrics(RoutingContext ctx, String runId) {
+      withStats(ctx, runId, run -> {
+         StringBuilder sb = new StringBuilder();
+         OpenMetricsWriter.writeMetrics(sb, run.id, run.statisticsStore, address -> agentName(run, address));
+         ctx.response().putHeader(HttpHeaders.CONTENT_TYPE, OpenMetricsWriter.CONTENT_TYPE).end(sb.toString());
+      });
+   }
+
+   @Override
+   public void streamStats(RoutingContext ctx, String runId) {
+      withStats(ctx, runId, run -> {
+         StatisticsStore store = run.statisticsStore;
+         HttpServerResponse response = ctx.response().setChunked(true)
+               .putHeader(HttpHeaders.CONTENT_TYPE, "text/event-stream")
+               .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+         // The listener is invoked when a period is completed; there's no polling involved.
+         // A slow client must not make us buffer events without bounds: while the write queue is full
+         // the events are dropped and the client is told how many it missed once the queue drains.
+         AtomicInteger dropped = new AtomicInteger();
+         response.drainHandler(nil -> {
+            int count = dropped.getAndSet(0);
+            if (count > 0 && !response.closed() && !response.ended()) {
+               response.write("event: dropped\ndata: {\"count\":" + count + "}\n\n");
+            }
+         });
+         Consumer<RequestStats> listener = stats -> {
+            if (response.closed() || response.ended()) {
+               return;
+            }
+            if (response.writeQueueFull()) {
+               dropped.incrementAndGet();
+               return;
+            }
+            response.write("event: stats\ndata: " + Json.encode(stats) + "\n\n");
+         };
+         store.addRecentListener(listener);
+         // Send the headers right away
+         response.write(": connected\n\n");
+         response.closeHandler(nil -> store.removeRecentListener(listener));
+         run.terminateTime.future().onComplete(result -> {
+            store.removeRecentListener(listener);
+            if (!response.closed() && !response.ended()) {
+               response.end("event: terminated\ndata: {}\n\n");
+            }
+         });
+      });
+   }
+
    @Override
    public void getHistogramStats(RoutingContext ctx, String runId, String phase, int stepId, String metric) {
       withStats(ctx, runId, run -> {
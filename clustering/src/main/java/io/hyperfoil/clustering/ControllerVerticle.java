@@ -13,29 +13,38 @@ import io.hyperfoil.api.config.RunHook;
 import io.hyperfoil.api.deployment.DeployedAgent;
 import io.hyperfoil.api.deployment.Deployer;
 import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.clustering.messages.AgentControlMessage;
+import io.hyperfoil.clustering.messages.AgentFileRequest;
 import io.hyperfoil.clustering.messages.AgentHello;
 import io.hyperfoil.clustering.messages.AgentReadyMessage;
 import io.hyperfoil.clustering.messages.AgentStatusMessage;
+import io.hyperfoil.clustering.messages.BenchmarkManifest;
 import io.hyperfoil.clustering.messages.ErrorMessage;
 import io.hyperfoil.clustering.messages.PhaseChangeMessage;
 import io.hyperfoil.clustering.messages.PhaseControlMessage;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
 import io.hyperfoil.clustering.messages.SessionStatsMessage;
 import io.hyperfoil.clustering.messages.StatsMessage;
 import io.hyperfoil.clustering.util.PersistenceUtil;
 import io.hyperfoil.core.hooks.ExecRunHook;
+import io.hyperfoil.core.impl.statistics.CapacitySearch;
 import io.hyperfoil.core.impl.statistics.CsvWriter;
 import io.hyperfoil.core.impl.statistics.JsonWriter;
 import io.hyperfoil.core.impl.statistics.StatisticsStore;
+import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.internal.Controller;
+import io.hyperfoil.internal.Properties;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.impl.VertxInternal;
@@ -70,6 +79,10 @@ import java.util.stream.Collectors;
 
 public class ControllerVerticle extends AbstractVerticle implements NodeListener {
    private static final Logger log = LoggerFactory.getLogger(ControllerVerticle.class);
+   // Phases are scheduled to start this many milliseconds after the controller decides to start them;
+   // the delay must cover delivery of the control message to all agents, otherwise these start as soon as
+   // the message arrives and the phase does not start synchronously.
+   private static final long PHASE_START_DELAY = Properties.getLong(Properties.CONTROLLER_PHASE_START_DELAY, 250);
 
    private EventBus eb;
    private ControllerServer server;
@@ -156,7 +169,12 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                stopSimulation(run);
             }
          } else if (msg instanceof AgentReadyMessage) {
+            AgentReadyMessage readyMessage = (AgentReadyMessage) msg;
             agent.status = AgentInfo.Status.READY;
+            agent.transport = readyMessage.transport();
+            agent.startupTime = System.currentTimeMillis() - agent.initializeTime;
+            log.info("{} Agent {} is ready after {} ms, clock offset {} ms (round trip {} ms)", run.id, agent.name,
+                  agent.startupTime, readyMessage.clockOffset(), readyMessage.roundTrip());
             if (run.agents.stream().allMatch(a -> a.status == AgentInfo.Status.READY)) {
                startSimulation(run);
             }
@@ -177,31 +195,38 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             if (run.statisticsStore != null) {
                if (statsMessage instanceof RequestStatsMessage) {
                   RequestStatsMessage requestStatsMessage = (RequestStatsMessage) statsMessage;
-                  String phase = run.phase(requestStatsMessage.phaseId);
-                  if (requestStatsMessage.statistics != null) {
+                  requestStatsMessage.forEach((phaseId, stepId, metric, statistics) -> {
                      log.debug("Run {}: Received stats from {}: {}/{}/{}:{} ({} requests)",
                            requestStatsMessage.runId, requestStatsMessage.address,
-                           phase, requestStatsMessage.stepId, requestStatsMessage.metric,
-                           requestStatsMessage.statistics.sequenceId, requestStatsMessage.statistics.requestCount);
-                     run.statisticsStore.record(requestStatsMessage.address, requestStatsMessage.phaseId, requestStatsMessage.stepId,
-                           requestStatsMessage.metric, requestStatsMessage.statistics);
-                  }
-                  if (requestStatsMessage.isPhaseComplete) {
-                     log.debug("Run {}: Received stats completion for phase {} from {}", requestStatsMessage.runId, phase, requestStatsMessage.address);
-                     AgentInfo agent = run.agents.stream().filter(a -> a.deploymentId.equals(requestStatsMessage.address)).findFirst().orElse(null);
-                     if (agent == null) {
-                        log.error("Cannot find agent {}", requestStatsMessage.address);
-                     } else {
-                        agent.phases.put(phase, PhaseInstance.Status.STATS_COMPLETE);
-                        if (run.agents.stream().map(a -> a.phases.get(phase)).allMatch(s -> s == PhaseInstance.Status.STATS_COMPLETE)) {
-                           log.info("Run {}: completed stats for phase {}", run.id, phase);
-                           run.statisticsStore.completePhase(phase);
-                           if (!run.statisticsStore.validateSlas()) {
-                              log.info("SLA validation failed for {}", phase);
-                              ControllerPhase controllerPhase = run.phases.get(phase);
-                              controllerPhase.setFailed();
-                              failNotStartedPhases(run, controllerPhase);
-                           }
+                           run.phase(phaseId), stepId, metric, statistics.sequenceId, statistics.requestCount);
+                     run.statisticsStore.record(requestStatsMessage.address, phaseId, stepId, metric, statistics);
+                     ControllerPhase controllerPhase = run.phases.get(run.phase(phaseId));
+                     if (controllerPhase != null && controllerPhase.capacitySearch() != null) {
+                        if (stepId == StatisticsStep.PACING_ID) {
+                           // pacing lag is not a request metric and must not be validated against the SLA
+                           controllerPhase.capacitySearch().recordStarts(statistics);
+                        } else {
+                           controllerPhase.capacitySearch().record(metric, statistics);
+                        }
+                     }
+                  });
+               } else if (statsMessage instanceof PhaseStatsCompleteMessage) {
+                  PhaseStatsCompleteMessage phaseStatsCompleteMessage = (PhaseStatsCompleteMessage) statsMessage;
+                  String phase = run.phase(phaseStatsCompleteMessage.phaseId);
+                  log.debug("Run {}: Received stats completion for phase {} from {}", run.id, phase, phaseStatsCompleteMessage.address);
+                  AgentInfo agent = run.agents.stream().filter(a -> a.deploymentId.equals(phaseStatsCompleteMessage.address)).findFirst().orElse(null);
+                  if (agent == null) {
+                     log.error("Cannot find agent {}", phaseStatsCompleteMessage.address);
+                  } else {
+                     agent.phases.put(phase, PhaseInstance.Status.STATS_COMPLETE);
+                     if (run.agents.stream().map(a -> a.phases.get(phase)).allMatch(s -> s == PhaseInstance.Status.STATS_COMPLETE)) {
+                        log.info("Run {}: completed stats for phase {}", run.id, phase);
+                        run.statisticsStore.completePhase(phase);
+                        if (!run.statisticsStore.validateSlas()) {
+                           log.info("SLA validation failed for {}", phase);
+                           ControllerPhase controllerPhase = run.phases.get(phase);
+                           controllerPhase.setFailed();
+                           failNotStartedPhases(run, controllerPhase);
                         }
                      }
                   }
@@ -220,6 +245,23 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          message.reply("OK");
       });
 
+      // Agents estimate offset of their clock from the request and reply timestamps
+      eb.consumer(Feeds.CLOCK, message -> message.reply(System.currentTimeMillis()));
+
+      eb.consumer(Feeds.FILES, message -> {
+         AgentFileRequest request = (AgentFileRequest) message.body();
+         Run run = runs.get(request.runId());
+         byte[] bytes = run == null ? null : run.filesByHash.get(request.hash());
+         if (bytes == null) {
+            log.error("Run {}: cannot send unknown file {}", request.runId(), request.hash());
+            message.fail(1, "Unknown file " + request.hash());
+            return;
+         }
+         int offset = (int) Math.min(request.offset(), bytes.length);
+         int length = Math.min(request.length(), bytes.length - offset);
+         message.reply(Buffer.buffer(Unpooled.wrappedBuffer(bytes, offset, length)));
+      });
+
       if (vertx.isClustered()) {
          for (Deployer.Factory deployerFactory : ServiceLoader.load(Deployer.Factory.class)) {
             log.debug("Found deployer {}", deployerFactory.name());
@@ -317,7 +359,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
          }
       }
       Benchmark benchmark = new Benchmark(info.getString("benchmark", "<unknown>"), null,
-            Collections.emptyMap(), new Agent[0], 0, null, Collections.emptyMap(), Collections.emptyList(),
+            Collections.emptyMap(), Collections.emptySet(), new Agent[0], 0, null, null, null, Collections.emptyMap(), Collections.emptyList(),
             Collections.emptyMap(), 0, null, Collections.emptyList(), Collections.emptyList());
       Run run = new Run(runId, runDir, benchmark);
       run.completed = true;
@@ -332,6 +374,18 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                .collect(Collectors.toList()));
       }
       run.cancelled = info.getBoolean("cancelled", Boolean.FALSE);
+      Path seriesDir = runDir.resolve("series");
+      Path statsDir = runDir.resolve("stats");
+      // Statistics are written to the stats directory when the run completes; when the controller crashed
+      // we can still provide the series that were persisted during the run.
+      if (seriesDir.toFile().isDirectory() && !statsDir.toFile().exists()) {
+         try {
+            CsvWriter.writeRecoveredCsv(statsDir, seriesDir);
+            log.info("Recovered statistics series for run {}", runId);
+         } catch (IOException | RuntimeException e) {
+            log.error("Cannot recover statistics series for run {}", e, runId);
+         }
+      }
       runs.put(runId, run);
    }
 
@@ -340,6 +394,12 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       if (deployer != null) {
          deployer.close();
       }
+      for (Run run : runs.values()) {
+         // Release the series of runs that did not complete
+         if (run.statisticsStore != null) {
+            run.statisticsStore.close();
+         }
+      }
       server.stop(stopFuture);
    }
 
@@ -391,7 +451,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       runDir.toFile().mkdirs();
       Run run = new Run(runId, runDir, benchmark);
       run.description = description;
-      run.statisticsStore = new StatisticsStore(run.benchmark, failure -> {
+      run.statisticsStore = new StatisticsStore(run.benchmark, runDir.resolve("series"), failure -> {
          log.warn("Failed verify SLA(s) for {}/{}: {}", failure.phase(), failure.metric(), failure.message());
       });
       runs.put(run.id, run);
@@ -467,11 +527,47 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
 
       log.info("Starting benchmark {} - run {}", run.benchmark.name(), run.id);
 
+      Map<String, byte[]> filesByHash = new HashMap<>();
+      // Hashing large files takes a while
+      vertx.executeBlocking(future -> future.complete(createManifest(run.benchmark, filesByHash)), false, result -> {
+         if (result.failed()) {
+            log.error("{} Failed to prepare benchmark for agents", result.cause(), run.id);
+            run.errors.add(new Run.Error(null, result.cause()));
+            stopSimulation(run);
+            return;
+         }
+         run.filesByHash = filesByHash;
+         initializeAgents(run, (BenchmarkManifest) result.result());
+      });
+   }
+
+   private static BenchmarkManifest createManifest(Benchmark benchmark, Map<String, byte[]> filesByHash) {
+      // Agents build the benchmark from source; only benchmarks uploaded in serialized form are sent as such
+      Collection<String> names = benchmark.source() == null ? benchmark.agentFiles() : benchmark.files().keySet();
+      Map<String, String> files = new HashMap<>();
+      for (String name : names) {
+         byte[] bytes = benchmark.files().get(name);
+         if (bytes == null) {
+            throw new IllegalStateException("Missing file " + name);
+         }
+         String hash = AgentFileFetcher.hex(AgentFileFetcher.sha256().digest(bytes));
+         files.put(name, hash);
+         filesByHash.put(hash, bytes);
+      }
+      if (benchmark.source() == null) {
+         return BenchmarkManifest.serialized(benchmark, files);
+      } else {
+         return BenchmarkManifest.fromSource(benchmark.name(), benchmark.source(), files);
+      }
+   }
+
+   private void initializeAgents(Run run, BenchmarkManifest manifest) {
       for (AgentInfo agent : run.agents) {
          if (agent.status != AgentInfo.Status.REGISTERED) {
             log.error("{} Already initializing {}, status is {}!", run.id, agent.deploymentId, agent.status);
          } else {
-            eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, run.benchmark), reply -> {
+            agent.initializeTime = System.currentTimeMillis();
+            eb.request(agent.deploymentId, new AgentControlMessage(AgentControlMessage.Command.INITIALIZE, agent.id, manifest), reply -> {
                if (!reply.succeeded()) {
                   agent.status = AgentInfo.Status.FAILED;
                   log.error("{} Agent {}({}) failed to initialize", reply.cause(), run.id, agent.name, agent.deploymentId);
@@ -540,9 +636,15 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
       ControllerPhase[] availablePhases = run.getAvailablePhases();
       for (ControllerPhase phase : availablePhases) {
-         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.RUN, phase.definition().name));
-         phase.absoluteStartTime(now);
+         // Agents translate the start time to their own clock
+         long startTime = now + PHASE_START_DELAY;
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.RUN, phase.definition().name, startTime));
+         phase.absoluteStartTime(startTime);
          phase.status(run.id, ControllerPhase.Status.STARTING);
+         if (phase.definition() instanceof Phase.CapacitySearch) {
+            phase.capacitySearch(new CapacitySearch((Phase.CapacitySearch) phase.definition(), startTime));
+            scheduleCapacityEvaluation(run, phase);
+         }
       }
 
       if (run.phases.values().stream().allMatch(phase -> phase.status().isTerminated())) {
@@ -566,6 +668,40 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
       }
    }
 
+   private void scheduleCapacityEvaluation(Run run, ControllerPhase phase) {
+      long delay = Math.max(1, phase.capacitySearch().evaluationTime() - System.currentTimeMillis());
+      vertx.setTimer(delay, timerId -> evaluateCapacity(run, phase));
+   }
+
+   private void evaluateCapacity(Run run, ControllerPhase phase) {
+      if (phase.status() == ControllerPhase.Status.STARTING) {
+         // Some agents did not confirm the start yet, check again later
+         vertx.setTimer(Statistics.SAMPLING_PERIOD_MILLIS, timerId -> evaluateCapacity(run, phase));
+         return;
+      } else if (phase.status() != ControllerPhase.Status.RUNNING) {
+         // The phase was finished because its duration elapsed, or cancelled
+         log.info("{} Phase {} stopped searching; sustained {} users per second", run.id, phase.definition().name,
+               phase.capacitySearch().knee());
+         return;
+      }
+      CapacitySearch search = phase.capacitySearch();
+      long nextStepStart = System.currentTimeMillis() + PHASE_START_DELAY;
+      if (search.evaluate(nextStepStart)) {
+         log.info("{} Phase {} adjusting rate to {} users per second", run.id, phase.definition().name, search.usersPerSec());
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.ADJUST_RATE,
+               phase.definition().name, nextStepStart, search.usersPerSec()));
+         scheduleCapacityEvaluation(run, phase);
+      } else {
+         log.info("{} Phase {} found capacity of {} users per second", run.id, phase.definition().name, search.knee());
+         if (search.knee() == 0) {
+            run.statisticsStore.addFailure(phase.definition().name, null, phase.absoluteStartTime(), System.currentTimeMillis(),
+                  "No rate satisfied the SLA; last failure: " + search.lastFailure());
+         }
+         eb.publish(Feeds.CONTROL, new PhaseControlMessage(PhaseControlMessage.Command.FINISH, phase.definition().name));
+         phase.status(run.id, ControllerPhase.Status.FINISHING);
+      }
+   }
+
    private void stopSimulation(Run run) {
       if (run.terminateTime.future().isComplete()) {
          log.warn("Run {} already completed.", run.id);
@@ -622,6 +758,9 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                .put("terminateTime", run.terminateTime.future().result())
                .put("cancelled", run.cancelled)
                .put("description", run.description)
+               .put("agents", new JsonArray(run.agents.stream()
+                     .map(a -> new JsonObject().put("name", a.name).put("transport", a.transport).put("startupTime", a.startupTime))
+                     .collect(Collectors.toList())))
                .put("errors", new JsonArray(run.errors.stream()
                      .map(e -> {
                         JsonObject json = new JsonObject();
@@ -631,6 +770,15 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
                         return json.put("msg", e.error.getMessage());
                      })
                      .collect(Collectors.toList())));
+         JsonObject capacity = new JsonObject();
+         for (ControllerPhase phase : run.phases.values()) {
+            if (phase.capacitySearch() != null) {
+               capacity.put(phase.definition().name, phase.capacitySearch().knee());
+            }
+         }
+         if (!capacity.isEmpty()) {
+            info.put("capacity", capacity);
+         }
 
          try {
             Files.write(run.dir.resolve("info.json"), info.encodePrettily().getBytes(StandardCharsets.UTF_8));
@@ -650,6 +798,7 @@ public class ControllerVerticle extends AbstractVerticle implements NodeListener
             log.error("Cannot write all.json file", e);
             future.fail(e);
          }
+         run.statisticsStore.close();
          // combine shared and benchmark-private hooks
          List<RunHook> hooks = loadHooks("post");
          hooks.addAll(run.benchmark.postHooks());
@@ -5,4 +5,6 @@ public final class Feeds {
    public static final String CONTROL = "control-feed";
    public static final String RESPONSE = "response-feed";
    public static final String STATS = "stats-feed";
+   public static final String FILES = "files-feed";
+   public static final String CLOCK = "clock-feed";
 }
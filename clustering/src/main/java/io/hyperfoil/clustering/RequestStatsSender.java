@@ -1,46 +1,121 @@
 package io.hyperfoil.clustering;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.core.util.CountDown;
 import io.hyperfoil.core.impl.statistics.StatisticsCollector;
+import io.hyperfoil.clustering.messages.PhaseStatsCompleteMessage;
 import io.hyperfoil.clustering.messages.RequestStatsMessage;
+import io.hyperfoil.internal.Properties;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+/**
+ * Sends all snapshots collected in one period as a single batch. When there are too many batches that were not
+ * acknowledged by the controller yet the snapshots are merged into a backlog (one snapshot per phase, step and metric)
+ * that is sent as soon as the controller catches up.
+ */
 public class RequestStatsSender extends StatisticsCollector {
    private static final Logger log = LoggerFactory.getLogger(RequestStatsSender.class);
+   private static final int MAX_IN_FLIGHT = Properties.getInt(Properties.AGENT_STATS_MAX_IN_FLIGHT, 2);
 
    private final String address;
    private final String runId;
    private final EventBus eb;
+   private final RequestStatsMessage.Builder batch;
    private final StatisticsConsumer sendStats = this::sendStats;
+   private final StatisticsConsumer mergeStats = this::mergeStats;
+   private final IntObjectMap<Map<String, StatisticsSnapshot>> backlog = new IntObjectHashMap<>();
+   private boolean hasBacklog;
+   private int inFlight;
 
    public RequestStatsSender(Benchmark benchmark, EventBus eb, String address, String runId) {
       super(benchmark);
       this.eb = eb;
       this.address = address;
       this.runId = runId;
+      this.batch = new RequestStatsMessage.Builder(address, runId);
    }
 
-   public void send(CountDown completion) {
-      visitStatistics(sendStats, completion);
+   /**
+    * Sends collected statistics unless the controller is falling behind; in that case these are merged locally.
+    */
+   public void send(CountDown countDown) {
+      if (inFlight >= MAX_IN_FLIGHT) {
+         log.debug("{} batches of statistics were not acknowledged yet, merging the statistics locally.", inFlight);
+         visitStatistics(mergeStats, countDown);
+      } else {
+         flush(countDown);
+      }
+   }
+
+   /**
+    * Sends the backlog and collected statistics regardless of batches in flight. This must precede
+    * {@link #sendPhaseComplete(Phase, CountDown)} as the controller would not accept statistics after that.
+    */
+   public void flush(CountDown countDown) {
+      if (hasBacklog) {
+         sendBacklog();
+      }
+      visitStatistics(sendStats, countDown);
+      if (!batch.isEmpty()) {
+         countDown.increment();
+         ++inFlight;
+         eb.request(Feeds.STATS, batch.build(), reply -> {
+            --inFlight;
+            countDown.countDown();
+         });
+      }
    }
 
    private void sendStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
       if (statistics.histogram.getEndTimeStamp() >= statistics.histogram.getStartTimeStamp()) {
          log.debug("Sending stats for {} {}/{}, id {}: {} requests, {} responses", phase.name(), stepId, metric,
                statistics.sequenceId, statistics.requestCount, statistics.responseCount);
-         // On clustered eventbus, ObjectCodec is not called synchronously so we *must* do a copy here.
-         // (on a local eventbus we'd have to do a copy in transform() anyway)
-         StatisticsSnapshot copy = new StatisticsSnapshot();
-         statistics.copyInto(copy);
-         countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phase.id(), false, stepId, metric, copy),
-               reply -> countDown.countDown());
+         // The snapshot is encoded right away (before the collector resets it) so we don't need a copy
+         batch.add(phase.id(), stepId, metric, statistics);
+      }
+   }
+
+   private void mergeStats(Phase phase, int stepId, String metric, StatisticsSnapshot statistics, CountDown countDown) {
+      if (statistics.histogram.getEndTimeStamp() < statistics.histogram.getStartTimeStamp()) {
+         return;
+      }
+      int phaseAndStepId = (phase.id() << 16) + stepId;
+      Map<String, StatisticsSnapshot> metricMap = backlog.get(phaseAndStepId);
+      if (metricMap == null) {
+         metricMap = new HashMap<>();
+         backlog.put(phaseAndStepId, metricMap);
+      }
+      StatisticsSnapshot merged = metricMap.computeIfAbsent(metric, m -> new StatisticsSnapshot(statistics.histogramSpec));
+      statistics.addInto(merged);
+      // The merged snapshot is reported as the last period it covers
+      merged.sequenceId = Math.max(merged.sequenceId, statistics.sequenceId);
+      hasBacklog = true;
+   }
+
+   private void sendBacklog() {
+      for (IntObjectMap.PrimitiveEntry<Map<String, StatisticsSnapshot>> entry : backlog.entries()) {
+         int phaseAndStepId = entry.key();
+         for (Map.Entry<String, StatisticsSnapshot> metricEntry : entry.value().entrySet()) {
+            StatisticsSnapshot merged = metricEntry.getValue();
+            if (merged.isEmpty()) {
+               continue;
+            }
+            batch.add(phaseAndStepId >> 16, phaseAndStepId & 0xFFFF, metricEntry.getKey(), merged);
+            // keep the instance for the next backlog
+            merged.reset();
+            merged.sequenceId = -1;
+         }
       }
+      hasBacklog = false;
    }
 
    public void sendPhaseComplete(Phase phase, CountDown countDown) {
@@ -50,7 +125,7 @@ public class RequestStatsSender extends StatisticsCollector {
          }
 
          countDown.increment();
-         eb.request(Feeds.STATS, new RequestStatsMessage(address, runId, phaseAndStepId >> 16, true, -1, null, null),
+         eb.request(Feeds.STATS, new PhaseStatsCompleteMessage(address, runId, phaseAndStepId >> 16),
                reply -> countDown.countDown());
       }
    }
@@ -2,6 +2,7 @@ package io.hyperfoil.clustering;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,8 @@ class Run {
    final Map<String, ControllerPhase> phases = new HashMap<>();
    final List<AgentInfo> agents = new ArrayList<>();
    final Phase[] phasesById;
+   // contents of files listed in the manifest sent to agents, by SHA-256
+   Map<String, byte[]> filesByHash = Collections.emptyMap();
    final List<Error> errors = new ArrayList<>();
    final List<RunHookOutput> hookResults = new ArrayList<>();
    long deployTimerId;
@@ -1,6 +1,11 @@
 package io.hyperfoil.clustering.messages;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 import io.hyperfoil.api.config.Benchmark;
 
@@ -19,8 +24,8 @@ public class AgentControlMessage implements Serializable {
       return command;
    }
 
-   public Benchmark benchmark() {
-      return (Benchmark) param;
+   public BenchmarkManifest manifest() {
+      return (BenchmarkManifest) param;
    }
 
    public boolean includeInactive() {
@@ -38,5 +43,30 @@ public class AgentControlMessage implements Serializable {
       LIST_CONNECTIONS
    }
 
-   public static class Codec extends ObjectCodec<AgentControlMessage> {}
+   public static class Codec extends ObjectCodec<AgentControlMessage> {
+      @Override
+      protected ObjectOutputStream createOutput(OutputStream stream, AgentControlMessage message) throws IOException {
+         if (message.command != Command.INITIALIZE) {
+            return super.createOutput(stream, message);
+         }
+         Benchmark benchmark = message.manifest().benchmark();
+         if (benchmark == null || benchmark.agentFiles().isEmpty()) {
+            return super.createOutput(stream, message);
+         }
+         // Agents fetch these files separately
+         Map<String, byte[]> files = benchmark.files();
+         Map<String, byte[]> inlineFiles = new HashMap<>(files);
+         inlineFiles.keySet().removeAll(benchmark.agentFiles());
+         return new ObjectOutputStream(stream) {
+            {
+               enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object obj) {
+               return obj == files ? inlineFiles : obj;
+            }
+         };
+      }
+   }
 }
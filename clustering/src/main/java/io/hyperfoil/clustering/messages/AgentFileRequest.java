@@ -0,0 +1,39 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.Serializable;
+
+/**
+ * Request for a chunk of benchmark file identified by SHA-256 of its content; the controller replies
+ * with a buffer that is shorter than the requested length only at the end of file.
+ */
+public class AgentFileRequest implements Serializable {
+   private final String runId;
+   private final String hash;
+   private final long offset;
+   private final int length;
+
+   public AgentFileRequest(String runId, String hash, long offset, int length) {
+      this.runId = runId;
+      this.hash = hash;
+      this.offset = offset;
+      this.length = length;
+   }
+
+   public String runId() {
+      return runId;
+   }
+
+   public String hash() {
+      return hash;
+   }
+
+   public long offset() {
+      return offset;
+   }
+
+   public int length() {
+      return length;
+   }
+
+   public static class Codec extends ObjectCodec<AgentFileRequest> {}
+}
@@ -1,8 +1,27 @@
 package io.hyperfoil.clustering.messages;
 
 public class AgentReadyMessage extends AgentStatusMessage {
-   public AgentReadyMessage(String senderId, String runId) {
+   private final String transport;
+   private final long clockOffset;
+   private final long roundTrip;
+
+   public AgentReadyMessage(String senderId, String runId, String transport, long clockOffset, long roundTrip) {
       super(senderId, runId);
+      this.transport = transport;
+      this.clockOffset = clockOffset;
+      this.roundTrip = roundTrip;
+   }
+
+   public String transport() {
+      return transport;
+   }
+
+   public long clockOffset() {
+      return clockOffset;
+   }
+
+   public long roundTrip() {
+      return roundTrip;
    }
 
    public static class Codec extends ObjectCodec<AgentReadyMessage> {}
@@ -0,0 +1,61 @@
+package io.hyperfoil.clustering.messages;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import io.hyperfoil.api.config.Benchmark;
+
+/**
+ * Everything the agent needs to build the benchmark locally: the YAML source and content-addressed list of files.
+ * Agents fetch (or find in their cache) the files by hash and parse the source themselves, so the controller
+ * does not need to ship the serialized object graph.
+ * <p>
+ * Benchmarks that were uploaded in serialized form have no source; these are still sent serialized,
+ * with only the {@link Benchmark#agentFiles() agent files} listed in the manifest.
+ */
+public class BenchmarkManifest implements Serializable {
+   private final String name;
+   private final String source;
+   private final Benchmark benchmark;
+   private final Map<String, String> files;
+
+   private BenchmarkManifest(String name, String source, Benchmark benchmark, Map<String, String> files) {
+      this.name = name;
+      this.source = source;
+      this.benchmark = benchmark;
+      this.files = files;
+   }
+
+   public static BenchmarkManifest fromSource(String name, String source, Map<String, String> files) {
+      return new BenchmarkManifest(name, source, null, files);
+   }
+
+   public static BenchmarkManifest serialized(Benchmark benchmark, Map<String, String> files) {
+      return new BenchmarkManifest(benchmark.name(), null, benchmark, files);
+   }
+
+   public String name() {
+      return name;
+   }
+
+   /**
+    * @return YAML source or <code>null</code> if the benchmark is sent serialized.
+    */
+   public String source() {
+      return source;
+   }
+
+   /**
+    * @return Serialized benchmark or <code>null</code> if the agent should build it from {@link #source()}.
+    */
+   public Benchmark benchmark() {
+      return benchmark;
+   }
+
+   /**
+    * @return Map of file names to SHA-256 (hex) of their content.
+    */
+   public Map<String, String> files() {
+      return files;
+   }
+}
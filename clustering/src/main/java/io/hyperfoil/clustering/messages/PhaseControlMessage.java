@@ -5,10 +5,30 @@ import java.io.Serializable;
 public class PhaseControlMessage implements Serializable {
    private final Command command;
    private final String phase;
+   private final long startTime;
+   private final double usersPerSec;
 
    public PhaseControlMessage(Command command, String phase) {
+      this(command, phase, Long.MIN_VALUE);
+   }
+
+   /**
+    * @param startTime Controller's wall-clock time when the phase should start; used only with {@link Command#RUN}.
+    */
+   public PhaseControlMessage(Command command, String phase, long startTime) {
+      this(command, phase, startTime, Double.NaN);
+   }
+
+   /**
+    * @param startTime   Controller's wall-clock time when the phase should start ({@link Command#RUN})
+    *                    or when the new rate applies ({@link Command#ADJUST_RATE}).
+    * @param usersPerSec Total rate of users for all agents; used only with {@link Command#ADJUST_RATE}.
+    */
+   public PhaseControlMessage(Command command, String phase, long startTime, double usersPerSec) {
       this.command = command;
       this.phase = phase;
+      this.startTime = startTime;
+      this.usersPerSec = usersPerSec;
    }
 
    public Command command() {
@@ -19,11 +39,20 @@ public class PhaseControlMessage implements Serializable {
       return phase;
    }
 
+   public long startTime() {
+      return startTime;
+   }
+
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
    public enum Command {
       RUN,
       FINISH,
       TRY_TERMINATE,
-      TERMINATE
+      TERMINATE,
+      ADJUST_RATE
    }
 
    public static class Codec extends ObjectCodec<PhaseControlMessage> {}
@@ -0,0 +1,12 @@
+package io.hyperfoil.clustering.messages;
+
+public class PhaseStatsCompleteMessage extends StatsMessage {
+   public final int phaseId;
+
+   public PhaseStatsCompleteMessage(String address, String runId, int phaseId) {
+      super(address, runId);
+      this.phaseId = phaseId;
+   }
+
+   public static class Codec extends ObjectCodec<PhaseStatsCompleteMessage> {}
+}
@@ -1,22 +1,128 @@
 package io.hyperfoil.clustering.messages;
 
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSnapshotCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
 
+/**
+ * Batch of statistics snapshots (for any phase, step and metric) sent from an agent in one collection period.
+ * Snapshots are kept in the {@link StatisticsSnapshotCodec encoded form} until the receiver iterates them.
+ */
 public class RequestStatsMessage extends StatsMessage {
-   public final int phaseId;
-   public final boolean isPhaseComplete;
-   public final int stepId;
-   public final String metric;
-   public final StatisticsSnapshot statistics;
+   public final int count;
+   private final Buffer stats;
 
-   public RequestStatsMessage(String address, String runId, int phaseId, boolean isPhaseComplete, int stepId, String metric, StatisticsSnapshot statistics) {
+   private RequestStatsMessage(String address, String runId, int count, Buffer stats) {
       super(address, runId);
-      this.phaseId = phaseId;
-      this.isPhaseComplete = isPhaseComplete;
-      this.stepId = stepId;
-      this.metric = metric;
-      this.statistics = statistics;
+      this.count = count;
+      this.stats = stats;
    }
 
-   public static class Codec extends ObjectCodec<RequestStatsMessage> {}
+   public void forEach(StatsConsumer consumer) {
+      // getByteBuf() returns a duplicate with its own reader index
+      ByteBuf buf = stats.getByteBuf();
+      for (int i = 0; i < count; ++i) {
+         int phaseId = (int) StatisticsSnapshotCodec.readVarLong(buf);
+         int stepId = (int) StatisticsSnapshotCodec.readVarLong(buf);
+         String metric = StatisticsSnapshotCodec.readString(buf);
+         StatisticsSnapshot snapshot = StatisticsSnapshotCodec.decode(buf);
+         consumer.accept(phaseId, stepId, metric, snapshot);
+      }
+   }
+
+   public interface StatsConsumer {
+      void accept(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot);
+   }
+
+   public static class Builder {
+      private final String address;
+      private final String runId;
+      private ByteBuf buf;
+      private int count;
+
+      public Builder(String address, String runId) {
+         this.address = address;
+         this.runId = runId;
+      }
+
+      /**
+       * Encodes the snapshot immediately; the caller is free to reset or reuse it afterwards.
+       */
+      public Builder add(int phaseId, int stepId, String metric, StatisticsSnapshot snapshot) {
+         if (buf == null) {
+            buf = Unpooled.buffer();
+         }
+         StatisticsSnapshotCodec.writeVarLong(buf, phaseId);
+         StatisticsSnapshotCodec.writeVarLong(buf, stepId);
+         StatisticsSnapshotCodec.writeString(buf, metric);
+         StatisticsSnapshotCodec.encode(snapshot, buf);
+         ++count;
+         return this;
+      }
+
+      public boolean isEmpty() {
+         return count == 0;
+      }
+
+      /**
+       * Creates the message and resets the builder.
+       */
+      public RequestStatsMessage build() {
+         RequestStatsMessage message = new RequestStatsMessage(address, runId, count, Buffer.buffer(buf == null ? Unpooled.EMPTY_BUFFER : buf));
+         buf = null;
+         count = 0;
+         return message;
+      }
+   }
+
+   public static class Codec implements MessageCodec<RequestStatsMessage, RequestStatsMessage> {
+      @Override
+      public void encodeToWire(Buffer buffer, RequestStatsMessage message) {
+         appendString(buffer, message.address);
+         appendString(buffer, message.runId);
+         buffer.appendInt(message.count);
+         buffer.appendInt(message.stats.length());
+         buffer.appendBuffer(message.stats);
+      }
+
+      @Override
+      public RequestStatsMessage decodeFromWire(int pos, Buffer buffer) {
+         int length = buffer.getInt(pos);
+         String address = buffer.getString(pos + 4, pos + 4 + length);
+         pos += 4 + length;
+         length = buffer.getInt(pos);
+         String runId = buffer.getString(pos + 4, pos + 4 + length);
+         pos += 4 + length;
+         int count = buffer.getInt(pos);
+         length = buffer.getInt(pos + 4);
+         pos += 8;
+         return new RequestStatsMessage(address, runId, count, buffer.getBuffer(pos, pos + length));
+      }
+
+      @Override
+      public RequestStatsMessage transform(RequestStatsMessage message) {
+         // The message is immutable: snapshots have been encoded when the message was built
+         return message;
+      }
+
+      @Override
+      public String name() {
+         return RequestStatsMessage.class.getName();
+      }
+
+      @Override
+      public byte systemCodecID() {
+         return -1;
+      }
+
+      private static void appendString(Buffer buffer, String string) {
+         int lengthPos = buffer.length();
+         buffer.appendInt(0);
+         buffer.appendString(string);
+         buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
+      }
+   }
 }
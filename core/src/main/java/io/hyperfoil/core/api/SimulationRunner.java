@@ -16,8 +16,22 @@ public interface SimulationRunner {
 
    void startPhase(String phase);
 
+   /**
+    * @param phase     Phase name.
+    * @param startTime Wall-clock time on this node when the phase should have started.
+    */
+   void startPhase(String phase, long startTime);
+
    void finishPhase(String phase);
 
+   /**
+    * Changes the rate of an open-model phase that is controlled at runtime (e.g. capacity search) effective immediately.
+    *
+    * @param phase       Phase name.
+    * @param usersPerSec Total rate of users for all agents.
+    */
+   void adjustRate(String phase, double usersPerSec);
+
    void tryTerminatePhase(String phase);
 
    void terminatePhase(String phase);
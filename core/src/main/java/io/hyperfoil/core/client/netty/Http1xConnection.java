@@ -3,6 +3,8 @@ package io.hyperfoil.core.client.netty;
 import io.hyperfoil.api.connection.HttpRequest;
 import io.hyperfoil.api.http.HttpVersion;
 import io.hyperfoil.api.session.SessionStopException;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.core.http.HttpUtil;
 import io.hyperfoil.core.util.Util;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelPromise;
@@ -20,6 +22,7 @@ import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -35,6 +38,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private final Deque<HttpRequest> inflights;
    private final BiConsumer<HttpConnection, Throwable> activationHandler;
    private final boolean secure;
+   private final int maxRequestsPerFlush;
+   private final Runnable flushTask = this::flushPending;
 
    private HttpConnectionPool pool;
    private ChannelHandlerContext ctx;
@@ -42,11 +47,19 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
    private int size;
    private boolean activated;
    private Status status = Status.OPEN;
+   // requests written since last flush
+   private int unflushed;
+   private boolean flushScheduled;
+   // each distinct metric in the batch is credited with one flush, at the time of its first request
+   private Statistics[] flushStatistics = new Statistics[4];
+   private long[] flushTimestamps = new long[4];
+   private int flushMetrics;
 
    Http1xConnection(HttpClientPoolImpl client, BiConsumer<HttpConnection, Throwable> handler) {
       this.activationHandler = handler;
       this.inflights = new ArrayDeque<>(client.http.pipeliningLimit());
       this.secure = client.isSecure();
+      this.maxRequestsPerFlush = client.http.maxRequestsPerFlush();
    }
 
    @Override
@@ -113,32 +126,18 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       ByteBuf buf = ctx.alloc().buffer();
       buf.writeBytes(request.method.netty.asciiName().array());
       buf.writeByte(' ');
-      boolean beforeQuestion = true;
-      for (int i = 0; i < request.path.length(); ++i) {
-         if (request.path.charAt(i) == ' ') {
-             if (beforeQuestion) {
-                 buf.writeByte(0xFF & '%');
-                 buf.writeByte(0xFF & '2');
-                 buf.writeByte(0xFF & '0');
-             } else {
-                 buf.writeByte(0xFF & '+');
-             }
-         } else {
-             if (request.path.charAt(i) == '?') {
-                 beforeQuestion = false;
-             }
-             buf.writeByte(0xFF & request.path.charAt(i));
-         }
-      }
+      HttpUtil.writeEscapedPath(request.pathBytes, buf);
       buf.writeBytes(HTTP1_1);
 
       if (injectHostHeader) {
          writeHeader(buf, HttpHeaderNames.HOST.array(), pool.clientPool().authorityBytes());
       }
-      // TODO: adjust interface - we can't send static buffers anyway
       ByteBuf body = bodyGenerator != null ? bodyGenerator.apply(request.session, request.connection()) : null;
       if (body == null) {
          body = Unpooled.EMPTY_BUFFER;
+      } else if (!body.isReadable()) {
+         body.release();
+         body = Unpooled.EMPTY_BUFFER;
       }
       if (body.readableBytes() > 0) {
          buf.writeBytes(HttpHeaderNames.CONTENT_LENGTH.array()).writeByte(':').writeByte(' ');
@@ -161,6 +160,8 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
+         buf.release();
+         body.release();
          --size;
          request.handleCached();
          releasePoolAndPulse();
@@ -169,11 +170,74 @@ class Http1xConnection extends ChannelDuplexHandler implements HttpConnection {
       inflights.add(request);
       ChannelPromise writePromise = ctx.newPromise();
       writePromise.addListener(request);
+      if (maxRequestsPerFlush == 1) {
+         if (body.isReadable()) {
+            ctx.write(buf);
+            ctx.writeAndFlush(body, writePromise);
+         } else {
+            ctx.writeAndFlush(buf, writePromise);
+         }
+         recordFlush(request.statistics(), request.startTimestampMillis());
+         return;
+      }
+      // Headers and body of all requests written before the flush end up in a single gathering write
       if (body.isReadable()) {
-         ctx.write(buf);
-         ctx.writeAndFlush(body, writePromise);
+         ctx.write(buf, ctx.voidPromise());
+         ctx.write(body, writePromise);
       } else {
-         ctx.writeAndFlush(buf, writePromise);
+         ctx.write(buf, writePromise);
+      }
+      ++unflushed;
+      addFlushStatistics(request.statistics(), request.startTimestampMillis());
+      if (maxRequestsPerFlush > 0 && unflushed >= maxRequestsPerFlush) {
+         flush();
+      } else if (!flushScheduled) {
+         // Other sessions running in this event loop iteration can add their requests before this task is executed
+         flushScheduled = true;
+         ctx.executor().execute(flushTask);
+      }
+   }
+
+   private void flushPending() {
+      flushScheduled = false;
+      if (unflushed > 0) {
+         flush();
+      }
+   }
+
+   private void addFlushStatistics(Statistics statistics, long timestamp) {
+      if (statistics == null) {
+         return;
+      }
+      for (int i = 0; i < flushMetrics; ++i) {
+         if (flushStatistics[i] == statistics) {
+            return;
+         }
+      }
+      if (flushMetrics == flushStatistics.length) {
+         flushStatistics = Arrays.copyOf(flushStatistics, flushMetrics * 2);
+         flushTimestamps = Arrays.copyOf(flushTimestamps, flushMetrics * 2);
+      }
+      flushStatistics[flushMetrics] = statistics;
+      flushTimestamps[flushMetrics] = timestamp;
+      ++flushMetrics;
+   }
+
+   private void flush() {
+      ctx.flush();
+      // When the batch mixes metrics each of them counts the flush; the sum over metrics can exceed
+      // the number of actual flushes on the connection.
+      for (int i = 0; i < flushMetrics; ++i) {
+         recordFlush(flushStatistics[i], flushTimestamps[i]);
+         flushStatistics[i] = null;
+      }
+      flushMetrics = 0;
+      unflushed = 0;
+   }
+
+   private void recordFlush(Statistics statistics, long timestamp) {
+      if (statistics != null) {
+         statistics.incrementFlushes(timestamp);
       }
    }
 
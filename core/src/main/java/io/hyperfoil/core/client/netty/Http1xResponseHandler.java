@@ -18,19 +18,19 @@ import io.vertx.core.logging.LoggerFactory;
 public class Http1xResponseHandler extends BaseResponseHandler {
    private static final Logger log = LoggerFactory.getLogger(Http1xResponseHandler.class);
    private static final boolean trace = log.isTraceEnabled();
-   private static final byte CR = 13;
-   private static final byte LF = 10;
+   static final byte CR = 13;
+   static final byte LF = 10;
    private static final int MAX_LINE_LENGTH = 4096;
 
-   private State state = State.STATUS;
-   private boolean crRead = false;
-   private int contentLength = -1;
-   private ByteBuf lastLine;
-   private int status = 0;
-   private boolean chunked = false;
-   private int skipChunkBytes;
+   State state = State.STATUS;
+   boolean crRead = false;
+   int contentLength = -1;
+   ByteBuf lastLine;
+   int status = 0;
+   boolean chunked = false;
+   int skipChunkBytes;
 
-   private enum State {
+   enum State {
       STATUS,
       HEADERS,
       BODY,
@@ -101,7 +101,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
    }
 
 
-   private int readStatus(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+   int readStatus(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
       int lineStartIndex = buf.readerIndex();
       for (; readerIndex < buf.writerIndex(); ++readerIndex) {
          byte val = buf.getByte(readerIndex);
@@ -109,28 +109,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
             crRead = true;
          } else if (val == LF && crRead) {
             crRead = false;
-            ByteBuf lineBuf = buf;
-            if (lastLine.isReadable()) {
-               assert lineStartIndex == buf.readerIndex();
-               copyLastLine(buf, lineStartIndex, readerIndex);
-               lineBuf = lastLine;
-               lineStartIndex = 0;
-            }
-            // skip HTTP version
-            int j = lineStartIndex;
-            for (; j < lineBuf.writerIndex(); ++j) {
-               if (lineBuf.getByte(j) == ' ') {
-                  break;
-               }
-            }
-            status = readDecNumber(lineBuf, j);
-            if (status >= 100 && status < 200 || status == 204 || status == 304) {
-               contentLength = 0;
-            }
-            onStatus(status);
-            state = State.HEADERS;
-            lastLine.writerIndex(0);
-            return readerIndex + 1;
+            return statusLine(buf, lineStartIndex, readerIndex);
          } else {
             crRead = false;
          }
@@ -140,64 +119,48 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       return -1;
    }
 
-   private int readHeaders(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+   /**
+    * @param buf            Current buffer.
+    * @param lineStartIndex Start of the line in current buffer; ignored when part of the line is in {@link #lastLine}.
+    * @param lfIndex        Index of the terminating LF in current buffer.
+    * @return Index where the headers start.
+    */
+   int statusLine(ByteBuf buf, int lineStartIndex, int lfIndex) {
+      ByteBuf lineBuf = buf;
+      if (lastLine.isReadable()) {
+         assert lineStartIndex == buf.readerIndex();
+         copyLastLine(buf, lineStartIndex, lfIndex);
+         lineBuf = lastLine;
+         lineStartIndex = 0;
+      }
+      // skip HTTP version
+      int j = lineStartIndex;
+      for (; j < lineBuf.writerIndex(); ++j) {
+         if (lineBuf.getByte(j) == ' ') {
+            break;
+         }
+      }
+      status = readDecNumber(lineBuf, j);
+      if (status >= 100 && status < 200 || status == 204 || status == 304) {
+         contentLength = 0;
+      }
+      onStatus(status);
+      state = State.HEADERS;
+      lastLine.writerIndex(0);
+      return lfIndex + 1;
+   }
+
+   int readHeaders(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
       int lineStartIndex = readerIndex;
-      int lineEndIndex;
       for (; readerIndex < buf.writerIndex(); ++readerIndex) {
          byte val = buf.getByte(readerIndex);
          if (val == CR) {
             crRead = true;
          } else if (val == LF && crRead) {
             crRead = false;
-            ByteBuf lineBuf;
-            // lineStartIndex is valid only if lastLine is empty - otherwise we would ignore an incomplete line
-            // in the buffer
-            if (readerIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
-                  || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
-               // empty line ends the headers
-               HttpRequest httpRequest = connection.peekRequest(0);
-               // Unsolicited response 408 may not have a matching request
-               if (httpRequest != null) {
-                  switch (httpRequest.method) {
-                     case HEAD:
-                     case CONNECT:
-                        contentLength = 0;
-                        chunked = false;
-                  }
-               }
-               state = State.BODY;
-               lastLine.writerIndex(0);
-               if (contentLength >= 0) {
-                  responseBytes = readerIndex - buf.readerIndex() + contentLength + 1;
-               }
+            if (headerLine(buf, lineStartIndex, readerIndex)) {
                return readerIndex + 1;
-            } else if (lastLine.isReadable()) {
-               copyLastLine(buf, lineStartIndex, readerIndex);
-               lineBuf = lastLine;
-               lineEndIndex = lastLine.readableBytes() + readerIndex - lineStartIndex - 1; // account the CR
-               lineStartIndex = 0;
-            } else {
-               lineBuf = buf;
-               lineEndIndex = readerIndex - 1; // account the CR
             }
-            if (matches(lineBuf, lineStartIndex, HttpHeaderNames.CONTENT_LENGTH)) {
-               contentLength = readDecNumber(lineBuf, lineStartIndex + HttpHeaderNames.CONTENT_LENGTH.length() + 1);
-            } else if (matches(lineBuf, lineStartIndex, HttpHeaderNames.TRANSFER_ENCODING)) {
-               chunked = matches(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1, HttpHeaderValues.CHUNKED);
-               skipChunkBytes = 0;
-            }
-            int endOfNameIndex = lineStartIndex, startOfValueIndex = lineStartIndex;
-            for (int i = lineStartIndex + 1; i < lineEndIndex; ++i) {
-               if (lineBuf.getByte(i) == ':') {
-                  for (endOfNameIndex = i - 1; endOfNameIndex >= lineStartIndex && lineBuf.getByte(endOfNameIndex) == ' '; --endOfNameIndex)
-                     ;
-                  for (startOfValueIndex = i + 1; startOfValueIndex < lineEndIndex && lineBuf.getByte(startOfValueIndex) == ' '; ++startOfValueIndex)
-                     ;
-                  break;
-               }
-            }
-            onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
-            lastLine.writerIndex(0);
             lineStartIndex = readerIndex + 1;
          } else {
             crRead = false;
@@ -208,7 +171,79 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       return -1;
    }
 
-   private int readBody(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+   /**
+    * @param buf            Current buffer.
+    * @param lineStartIndex Start of the line in current buffer (when {@link #lastLine} is not empty this is the
+    *                       reader index of the buffer).
+    * @param lfIndex        Index of the terminating LF in current buffer.
+    * @return True if this was the empty line ending the headers.
+    */
+   boolean headerLine(ByteBuf buf, int lineStartIndex, int lfIndex) {
+      ByteBuf lineBuf;
+      int lineEndIndex;
+      // lineStartIndex is valid only if lastLine is empty - otherwise we would ignore an incomplete line
+      // in the buffer
+      if (lfIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+            || lastLine.writerIndex() == 1 && lfIndex == buf.readerIndex()) {
+         // empty line ends the headers
+         HttpRequest httpRequest = connection.peekRequest(0);
+         // Unsolicited response 408 may not have a matching request
+         if (httpRequest != null) {
+            switch (httpRequest.method) {
+               case HEAD:
+               case CONNECT:
+                  contentLength = 0;
+                  chunked = false;
+            }
+         }
+         state = State.BODY;
+         lastLine.writerIndex(0);
+         if (contentLength >= 0) {
+            responseBytes = lfIndex - buf.readerIndex() + contentLength + 1;
+         }
+         return true;
+      } else if (lastLine.isReadable()) {
+         copyLastLine(buf, lineStartIndex, lfIndex);
+         lineBuf = lastLine;
+         lineEndIndex = lastLine.readableBytes() - 1; // account the CR
+         lineStartIndex = 0;
+      } else {
+         lineBuf = buf;
+         lineEndIndex = lfIndex - 1; // account the CR
+      }
+      if (matches(lineBuf, lineStartIndex, HttpHeaderNames.CONTENT_LENGTH)) {
+         contentLength = readDecNumber(lineBuf, lineStartIndex + HttpHeaderNames.CONTENT_LENGTH.length() + 1);
+      } else if (matches(lineBuf, lineStartIndex, HttpHeaderNames.TRANSFER_ENCODING)) {
+         chunked = matches(lineBuf, lineStartIndex + HttpHeaderNames.TRANSFER_ENCODING.length() + 1, HttpHeaderValues.CHUNKED);
+         skipChunkBytes = 0;
+      }
+      header(lineBuf, lineStartIndex, lineEndIndex);
+      lastLine.writerIndex(0);
+      return false;
+   }
+
+   /**
+    * Split the header line into name and value.
+    *
+    * @param lineBuf        Buffer holding the complete line.
+    * @param lineStartIndex Start of the line.
+    * @param lineEndIndex   Index of the terminating CR.
+    */
+   void header(ByteBuf lineBuf, int lineStartIndex, int lineEndIndex) {
+      int endOfNameIndex = lineStartIndex, startOfValueIndex = lineStartIndex;
+      for (int i = lineStartIndex + 1; i < lineEndIndex; ++i) {
+         if (lineBuf.getByte(i) == ':') {
+            for (endOfNameIndex = i - 1; endOfNameIndex >= lineStartIndex && lineBuf.getByte(endOfNameIndex) == ' '; --endOfNameIndex)
+               ;
+            for (startOfValueIndex = i + 1; startOfValueIndex < lineEndIndex && lineBuf.getByte(startOfValueIndex) == ' '; ++startOfValueIndex)
+               ;
+            break;
+         }
+      }
+      onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex + 1, startOfValueIndex, lineEndIndex);
+   }
+
+   int readBody(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
       if (chunked) {
          int readable = buf.writerIndex() - readerIndex;
          if (skipChunkBytes > readable) {
@@ -241,44 +276,20 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       }
    }
 
-   private int readChunks(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+   int readChunks(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
       int lineStartOffset = readerIndex;
       for (; readerIndex < buf.writerIndex(); ++readerIndex) {
          byte val = buf.getByte(readerIndex);
          if (val == CR) {
             crRead = true;
          } else if (val == LF && crRead) {
-            try {
-               ByteBuf lineBuf = buf;
-               if (lastLine.isReadable()) {
-                  copyLastLine(buf, lineStartOffset, readerIndex);
-                  lineBuf = lastLine;
-                  lineStartOffset = 0;
-               }
-               int partSize = readHexNumber(lineBuf, lineStartOffset);
-               if (partSize == 0) {
-                  onBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
-                  chunked = false;
-                  state = State.TRAILERS;
-                  return readerIndex + 1;
-               } else if (readerIndex + 3 + partSize < buf.writerIndex()) {
-                  onBodyPart(buf, readerIndex + 1, partSize, false);
-                  readerIndex += partSize; // + 1 from for loop, +2 below
-                  if (buf.getByte(++readerIndex) != CR || buf.getByte(++readerIndex) != LF) {
-                     throw new IllegalStateException("Chunk must end with CRLF!");
-                  }
-                  lineStartOffset = readerIndex + 1;
-                  assert skipChunkBytes == 0;
-               } else {
-                  onBodyPart(buf, readerIndex + 1, Math.min(buf.writerIndex() - readerIndex - 1, partSize), false);
-                  skipChunkBytes = readerIndex + 3 + partSize - buf.writerIndex();
-                  passFullBuffer(ctx, buf);
-                  return -1;
-               }
-            } finally {
-               crRead = false;
-               lastLine.writerIndex(0);
+            crRead = false;
+            int nextIndex = chunkLine(ctx, buf, lineStartOffset, readerIndex);
+            if (nextIndex < 0 || !chunked) {
+               return nextIndex;
             }
+            lineStartOffset = nextIndex;
+            readerIndex = nextIndex - 1;
          } else {
             crRead = false;
          }
@@ -288,18 +299,54 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       return -1;
    }
 
-   private int readTrailers(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+   /**
+    * Process the line with chunk size and the chunk data, if these are present in current buffer.
+    *
+    * @return Index of next chunk size line, index after the last chunk (with {@link #chunked} set to false)
+    * or -1 if the buffer has been consumed.
+    */
+   int chunkLine(ChannelHandlerContext ctx, ByteBuf buf, int lineStartOffset, int lfIndex) {
+      try {
+         ByteBuf lineBuf = buf;
+         if (lastLine.isReadable()) {
+            copyLastLine(buf, lineStartOffset, lfIndex);
+            lineBuf = lastLine;
+            lineStartOffset = 0;
+         }
+         int partSize = readHexNumber(lineBuf, lineStartOffset);
+         if (partSize == 0) {
+            onBodyPart(Unpooled.EMPTY_BUFFER, 0, 0, true);
+            chunked = false;
+            state = State.TRAILERS;
+            return lfIndex + 1;
+         } else if (lfIndex + 3 + partSize < buf.writerIndex()) {
+            onBodyPart(buf, lfIndex + 1, partSize, false);
+            int crIndex = lfIndex + 1 + partSize;
+            if (buf.getByte(crIndex) != CR || buf.getByte(crIndex + 1) != LF) {
+               throw new IllegalStateException("Chunk must end with CRLF!");
+            }
+            assert skipChunkBytes == 0;
+            return crIndex + 2;
+         } else {
+            onBodyPart(buf, lfIndex + 1, Math.min(buf.writerIndex() - lfIndex - 1, partSize), false);
+            skipChunkBytes = lfIndex + 3 + partSize - buf.writerIndex();
+            passFullBuffer(ctx, buf);
+            return -1;
+         }
+      } finally {
+         crRead = false;
+         lastLine.writerIndex(0);
+      }
+   }
+
+   int readTrailers(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
       int lineStartIndex = readerIndex;
       for (; readerIndex < buf.writerIndex(); ++readerIndex) {
          byte val = buf.getByte(readerIndex);
          if (val == CR) {
             crRead = true;
          } else if (val == LF && crRead) {
-            if (readerIndex - lineStartIndex == 1 || lastLine.writerIndex() == 1 && readerIndex == buf.readerIndex()) {
-               // empty line ends the trailers and whole message
-               responseBytes = readerIndex + 1 - buf.readerIndex();
-               reset();
-               handleBuffer(ctx, buf, 0);
+            if (trailerLine(ctx, buf, lineStartIndex, readerIndex)) {
                return -1;
             }
             lineStartIndex = readerIndex + 1;
@@ -312,7 +359,24 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       return -1;
    }
 
-   private void reset() {
+   /**
+    * @return True if this was the empty line that ends the trailers and the whole message.
+    */
+   boolean trailerLine(ChannelHandlerContext ctx, ByteBuf buf, int lineStartIndex, int lfIndex) throws Exception {
+      // as with headers, CRLF terminating a trailer split across buffers must not be mistaken for an empty line
+      if (lfIndex - lineStartIndex == 1 && lastLine.writerIndex() == 0
+            || lastLine.writerIndex() == 1 && lfIndex == buf.readerIndex()) {
+         // empty line ends the trailers and whole message
+         responseBytes = lfIndex + 1 - buf.readerIndex();
+         reset();
+         handleBuffer(ctx, buf, 0);
+         return true;
+      }
+      lastLine.writerIndex(0);
+      return false;
+   }
+
+   void reset() {
       state = State.STATUS;
       status = 0;
       chunked = false;
@@ -322,7 +386,7 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       crRead = false;
    }
 
-   private void copyLastLine(ByteBuf buf, int lineStartOffset, int readerIndex) {
+   void copyLastLine(ByteBuf buf, int lineStartOffset, int readerIndex) {
       // copy last line (incomplete) to lastLine
       int lineBytes = readerIndex - lineStartOffset;
       if (lastLine.writerIndex() + lineBytes > lastLine.capacity()) {
@@ -333,14 +397,14 @@ public class Http1xResponseHandler extends BaseResponseHandler {
       }
    }
 
-   private void passFullBuffer(ChannelHandlerContext ctx, ByteBuf buf) {
+   void passFullBuffer(ChannelHandlerContext ctx, ByteBuf buf) {
       HttpRequest request = connection.peekRequest(0);
       // Note: we cannot reliably know if this is the last part as the body might be delimited by closing the connection.
       onRawData(request, buf, false);
       onData(ctx, buf);
    }
 
-   private boolean matches(ByteBuf buf, int bufOffset, AsciiString string) {
+   boolean matches(ByteBuf buf, int bufOffset, AsciiString string) {
       bufOffset = skipWhitespaces(buf, bufOffset);
       if (bufOffset + string.length() > buf.writerIndex()) {
          return false;
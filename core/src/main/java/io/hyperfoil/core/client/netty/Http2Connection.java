@@ -11,7 +11,6 @@ import io.hyperfoil.api.http.HttpVersion;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.HttpHeaderNames;
-import io.netty.handler.codec.http2.DefaultHttp2Headers;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.connection.HttpClientPool;
 import io.hyperfoil.api.connection.HttpConnection;
@@ -27,9 +26,10 @@ import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Settings;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.IntObjectMap;
-import io.netty.util.internal.AppendableCharSequence;
+import io.netty.util.AsciiString;
 import io.hyperfoil.api.http.HttpResponseHandlers;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.http.HttpUtil;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -52,6 +52,13 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    private long maxStreams;
    private Status status = Status.OPEN;
    private HttpRequest dispatchedRequest;
+   // Headers are encoded synchronously in encoder.writeHeaders() so we can reuse these for all requests
+   private final Http2RequestHeaders headers = new Http2RequestHeaders();
+   private final HttpRequestWriterImpl writer = new HttpRequestWriterImpl(headers);
+   private final ByteBuf pathBuffer = Unpooled.buffer(64);
+   private AsciiString lastPath = AsciiString.EMPTY_STRING;
+   private int lastContentLength = -1;
+   private AsciiString lastContentLengthString;
 
    Http2Connection(ChannelHandlerContext context,
                    io.netty.handler.codec.http2.Http2Connection connection,
@@ -132,40 +139,17 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
 
       ByteBuf buf = bodyGenerator != null ? bodyGenerator.apply(request.session, this) : null;
 
-      if (request.path.contains(" ")) {
-          int length = request.path.length();
-          AppendableCharSequence temp = new AppendableCharSequence(length);
-          boolean beforeQuestion = true;
-          for (int i = 0; i < length; ++i) {
-              if (request.path.charAt(i) == ' ') {
-                  if (beforeQuestion) {
-                      temp.append('%');
-                      temp.append('2');
-                      temp.append('0');
-                  } else {
-                      temp.append('+');
-                  }
-              } else {
-                  if (request.path.charAt(i) == '?') {
-                      beforeQuestion = false;
-                  }
-                  temp.append(request.path.charAt(i));
-              }
-           }
-          request.path = temp.toString();
-      }
-
-      Http2Headers headers = new DefaultHttp2Headers().method(request.method.name()).scheme(httpClientPool.scheme())
-            .path(request.path).authority(httpClientPool.authority());
+      Http2Headers headers = this.headers.clear().method(request.method.name()).scheme(httpClientPool.scheme())
+            .path(path(request)).authority(httpClientPool.authority());
       // HTTPS selects host via SNI headers, duplicate Host header could confuse the server/proxy
       if (injectHostHeader && !pool.clientPool().config().protocol().secure()) {
          headers.add(HttpHeaderNames.HOST, httpClientPool.authority());
       }
       if (buf != null && buf.readableBytes() > 0) {
-         headers.add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buf.readableBytes()));
+         headers.add(HttpHeaderNames.CONTENT_LENGTH, contentLength(buf.readableBytes()));
       }
 
-      HttpRequestWriterImpl writer = new HttpRequestWriterImpl(request, headers);
+      writer.request = request;
       if (headerAppenders != null) {
          for (BiConsumer<Session, HttpRequestWriter> headerAppender : headerAppenders) {
             headerAppender.accept(request.session, writer);
@@ -175,6 +159,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
          if (trace) {
             log.trace("#{} Request is completed from cache", request.session.uniqueId());
          }
+         if (buf != null) {
+            buf.release();
+         }
+         writer.request = null;
          --numStreams;
          request.handleCached();
          tryReleaseToPool();
@@ -194,6 +182,38 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
       writePromise.addListener(request);
       context.flush();
       dispatchedRequest = null;
+      writer.request = null;
+   }
+
+   /**
+    * Requests often repeat the same path; in that case we don't allocate a new string.
+    */
+   private AsciiString path(HttpRequest request) {
+      pathBuffer.clear();
+      HttpUtil.writeEscapedPath(request.pathBytes, pathBuffer);
+      int length = pathBuffer.readableBytes();
+      if (length == lastPath.length()) {
+         byte[] lastBytes = lastPath.array();
+         int offset = lastPath.arrayOffset();
+         int i = 0;
+         while (i < length && lastBytes[offset + i] == pathBuffer.getByte(i)) {
+            ++i;
+         }
+         if (i == length) {
+            return lastPath;
+         }
+      }
+      byte[] path = new byte[length];
+      pathBuffer.getBytes(0, path);
+      return lastPath = new AsciiString(path, false);
+   }
+
+   private AsciiString contentLength(int length) {
+      if (length != lastContentLength) {
+         lastContentLength = length;
+         lastContentLengthString = AsciiString.of(String.valueOf(length));
+      }
+      return lastContentLengthString;
    }
 
    @Override
@@ -368,11 +388,10 @@ class Http2Connection extends Http2EventAdapter implements HttpConnection {
    }
 
    private class HttpRequestWriterImpl implements HttpRequestWriter {
-      private final HttpRequest request;
       private final Http2Headers headers;
+      private HttpRequest request;
 
-      HttpRequestWriterImpl(HttpRequest request, Http2Headers headers) {
-         this.request = request;
+      HttpRequestWriterImpl(Http2Headers headers) {
          this.headers = headers;
       }
 
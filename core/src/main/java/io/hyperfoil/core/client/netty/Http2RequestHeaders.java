@@ -0,0 +1,758 @@
+package io.hyperfoil.core.client.netty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import io.netty.handler.codec.EmptyHeaders;
+import io.netty.handler.codec.Headers;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+/**
+ * Mutable headers reused for all requests on one connection. {@link io.netty.handler.codec.http2.DefaultHttp2Headers}
+ * allocate an entry for each header and an iterator whenever these are encoded; this implementation keeps the headers
+ * in arrays and returns the same iterator (and entry) on each invocation of {@link #iterator()}, therefore the caller
+ * must not hold the entry after moving to the next one. That is fine for the HPACK encoder which encodes the headers
+ * synchronously when the request is written.
+ * <p>
+ * Header names are validated as in {@link io.netty.handler.codec.http2.DefaultHttp2Headers}: these must be lower-case
+ * and only the request pseudo-headers are accepted. Operations that are not needed to send a request (e.g. typed getters
+ * and setters) throw {@link UnsupportedOperationException}.
+ */
+class Http2RequestHeaders extends EmptyHeaders<CharSequence, CharSequence, Http2Headers> implements Http2Headers {
+   private static final int PSEUDO_HEADERS = 5;
+   private static final CharSequence[] PSEUDO_NAMES = {
+         PseudoHeaderName.METHOD.value(), PseudoHeaderName.SCHEME.value(), PseudoHeaderName.AUTHORITY.value(),
+         PseudoHeaderName.PATH.value(), PseudoHeaderName.STATUS.value()
+   };
+   private static final int METHOD = 0;
+   private static final int SCHEME = 1;
+   private static final int AUTHORITY = 2;
+   private static final int PATH = 3;
+   private static final int STATUS = 4;
+
+   private final CharSequence[] pseudoValues = new CharSequence[PSEUDO_HEADERS];
+   private CharSequence[] names = new CharSequence[8];
+   private CharSequence[] values = new CharSequence[8];
+   private int size;
+   private final It iterator = new It();
+
+   @Override
+   public Iterator<Map.Entry<CharSequence, CharSequence>> iterator() {
+      iterator.index = -1;
+      iterator.next = -1;
+      iterator.advance();
+      return iterator;
+   }
+
+   @Override
+   public Iterator<CharSequence> valueIterator(CharSequence name) {
+      return getAll(name).iterator();
+   }
+
+   @Override
+   public Http2Headers method(CharSequence value) {
+      pseudoValues[METHOD] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers scheme(CharSequence value) {
+      pseudoValues[SCHEME] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers authority(CharSequence value) {
+      pseudoValues[AUTHORITY] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers path(CharSequence value) {
+      pseudoValues[PATH] = value;
+      return this;
+   }
+
+   @Override
+   public Http2Headers status(CharSequence value) {
+      pseudoValues[STATUS] = value;
+      return this;
+   }
+
+   @Override
+   public CharSequence method() {
+      return pseudoValues[METHOD];
+   }
+
+   @Override
+   public CharSequence scheme() {
+      return pseudoValues[SCHEME];
+   }
+
+   @Override
+   public CharSequence authority() {
+      return pseudoValues[AUTHORITY];
+   }
+
+   @Override
+   public CharSequence path() {
+      return pseudoValues[PATH];
+   }
+
+   @Override
+   public CharSequence status() {
+      return pseudoValues[STATUS];
+   }
+
+   @Override
+   public CharSequence get(CharSequence name) {
+      int pseudo = pseudoIndex(name);
+      if (pseudo >= 0) {
+         return pseudoValues[pseudo];
+      }
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            return values[i];
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public CharSequence get(CharSequence name, CharSequence defaultValue) {
+      CharSequence value = get(name);
+      return value == null ? defaultValue : value;
+   }
+
+   @Override
+   public List<CharSequence> getAll(CharSequence name) {
+      List<CharSequence> all = new ArrayList<>();
+      int pseudo = pseudoIndex(name);
+      if (pseudo >= 0) {
+         if (pseudoValues[pseudo] != null) {
+            all.add(pseudoValues[pseudo]);
+         }
+         return all;
+      }
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            all.add(values[i]);
+         }
+      }
+      return all;
+   }
+
+   @Override
+   public boolean contains(CharSequence name) {
+      return get(name) != null;
+   }
+
+   @Override
+   public boolean contains(CharSequence name, CharSequence value) {
+      return contains(name, value, false);
+   }
+
+   @Override
+   public boolean contains(CharSequence name, CharSequence value, boolean caseInsensitive) {
+      int pseudo = pseudoIndex(name);
+      if (pseudo >= 0) {
+         return pseudoValues[pseudo] != null && contentEquals(pseudoValues[pseudo], value, caseInsensitive);
+      }
+      for (int i = 0; i < size; ++i) {
+         if (AsciiString.contentEqualsIgnoreCase(names[i], name) && contentEquals(values[i], value, caseInsensitive)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public int size() {
+      int size = this.size;
+      for (CharSequence value : pseudoValues) {
+         if (value != null) {
+            ++size;
+         }
+      }
+      return size;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      return size() == 0;
+   }
+
+   @Override
+   public Set<CharSequence> names() {
+      Set<CharSequence> names = new LinkedHashSet<>();
+      for (int i = 0; i < PSEUDO_HEADERS; ++i) {
+         if (pseudoValues[i] != null) {
+            names.add(PSEUDO_NAMES[i]);
+         }
+      }
+      names.addAll(Arrays.asList(this.names).subList(0, size));
+      return names;
+   }
+
+   @Override
+   public Http2Headers add(CharSequence name, CharSequence value) {
+      int pseudo = pseudoIndex(name);
+      if (pseudo >= 0) {
+         pseudoValues[pseudo] = value;
+         return this;
+      }
+      validateName(name);
+      if (size == names.length) {
+         names = Arrays.copyOf(names, size * 2);
+         values = Arrays.copyOf(values, size * 2);
+      }
+      names[size] = name;
+      values[size] = value;
+      ++size;
+      return this;
+   }
+
+   @Override
+   public Http2Headers set(CharSequence name, CharSequence value) {
+      remove(name);
+      return add(name, value);
+   }
+
+   @Override
+   public boolean remove(CharSequence name) {
+      int pseudo = pseudoIndex(name);
+      if (pseudo >= 0) {
+         boolean removed = pseudoValues[pseudo] != null;
+         pseudoValues[pseudo] = null;
+         return removed;
+      }
+      int retained = 0;
+      for (int i = 0; i < size; ++i) {
+         if (!AsciiString.contentEqualsIgnoreCase(names[i], name)) {
+            names[retained] = names[i];
+            values[retained] = values[i];
+            ++retained;
+         }
+      }
+      boolean removed = retained < size;
+      Arrays.fill(names, retained, size, null);
+      Arrays.fill(values, retained, size, null);
+      size = retained;
+      return removed;
+   }
+
+   @Override
+   public Http2Headers clear() {
+      Arrays.fill(pseudoValues, null);
+      Arrays.fill(names, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+      return this;
+   }
+
+   @Override
+   public CharSequence getAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public CharSequence getAndRemove(CharSequence name, CharSequence defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Boolean getBoolean(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean getBoolean(CharSequence name, boolean defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Boolean getBooleanAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean getBooleanAndRemove(CharSequence name, boolean defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Byte getByte(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public byte getByte(CharSequence name, byte defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Byte getByteAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public byte getByteAndRemove(CharSequence name, byte defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Character getChar(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public char getChar(CharSequence name, char defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Character getCharAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public char getCharAndRemove(CharSequence name, char defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Short getShort(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public short getShort(CharSequence name, short defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Short getShortAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public short getShortAndRemove(CharSequence name, short defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Integer getInt(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public int getInt(CharSequence name, int defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Integer getIntAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public int getIntAndRemove(CharSequence name, int defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Long getLong(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public long getLong(CharSequence name, long defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Long getLongAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public long getLongAndRemove(CharSequence name, long defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Float getFloat(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public float getFloat(CharSequence name, float defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Float getFloatAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public float getFloatAndRemove(CharSequence name, float defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Double getDouble(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public double getDouble(CharSequence name, double defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Double getDoubleAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public double getDoubleAndRemove(CharSequence name, double defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Long getTimeMillis(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public long getTimeMillis(CharSequence name, long defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public Long getTimeMillisAndRemove(CharSequence name) {
+      throw unsupported();
+   }
+
+   @Override
+   public long getTimeMillisAndRemove(CharSequence name, long defaultValue) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsObject(CharSequence name, Object value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsBoolean(CharSequence name, boolean value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsByte(CharSequence name, byte value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsChar(CharSequence name, char value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsShort(CharSequence name, short value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsInt(CharSequence name, int value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsLong(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsFloat(CharSequence name, float value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsDouble(CharSequence name, double value) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean containsTimeMillis(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers add(CharSequence name, Iterable<? extends CharSequence> values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers add(CharSequence name, CharSequence... values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addObject(CharSequence name, Object value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addObject(CharSequence name, Iterable<?> values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addObject(CharSequence name, Object... values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addBoolean(CharSequence name, boolean value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addByte(CharSequence name, byte value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addChar(CharSequence name, char value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addShort(CharSequence name, short value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addInt(CharSequence name, int value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addLong(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addFloat(CharSequence name, float value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addDouble(CharSequence name, double value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers addTimeMillis(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers add(Headers<? extends CharSequence, ? extends CharSequence, ?> headers) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers set(CharSequence name, Iterable<? extends CharSequence> values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers set(CharSequence name, CharSequence... values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setObject(CharSequence name, Object value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setObject(CharSequence name, Iterable<?> values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setObject(CharSequence name, Object... values) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setBoolean(CharSequence name, boolean value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setByte(CharSequence name, byte value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setChar(CharSequence name, char value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setShort(CharSequence name, short value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setInt(CharSequence name, int value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setLong(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setFloat(CharSequence name, float value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setDouble(CharSequence name, double value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setTimeMillis(CharSequence name, long value) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers set(Headers<? extends CharSequence, ? extends CharSequence, ?> headers) {
+      throw unsupported();
+   }
+
+   @Override
+   public Http2Headers setAll(Headers<? extends CharSequence, ? extends CharSequence, ?> headers) {
+      throw unsupported();
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      return this == o;
+   }
+
+   @Override
+   public int hashCode() {
+      return System.identityHashCode(this);
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("Http2RequestHeaders[");
+      for (int i = 0; i < PSEUDO_HEADERS; ++i) {
+         if (pseudoValues[i] != null) {
+            sb.append(PSEUDO_NAMES[i]).append(": ").append(pseudoValues[i]).append(", ");
+         }
+      }
+      for (int i = 0; i < size; ++i) {
+         sb.append(names[i]).append(": ").append(values[i]).append(", ");
+      }
+      return sb.append(']').toString();
+   }
+
+   private static UnsupportedOperationException unsupported() {
+      return new UnsupportedOperationException("Http2RequestHeaders support only operations needed to send a request.");
+   }
+
+   private static void validateName(CharSequence name) {
+      if (name.length() == 0) {
+         throw new IllegalArgumentException("Empty header names are not allowed.");
+      }
+      if (name.charAt(0) == ':') {
+         throw new IllegalArgumentException("Invalid pseudo-header " + name);
+      }
+      for (int i = 0; i < name.length(); ++i) {
+         if (AsciiString.isUpperCase(name.charAt(i))) {
+            throw new IllegalArgumentException("HTTP/2 header names must be lower-case: " + name);
+         }
+      }
+   }
+
+   private static int pseudoIndex(CharSequence name) {
+      if (name.length() == 0 || name.charAt(0) != ':') {
+         return -1;
+      }
+      for (int i = 0; i < PSEUDO_HEADERS; ++i) {
+         if (AsciiString.contentEquals(PSEUDO_NAMES[i], name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private static boolean contentEquals(CharSequence a, CharSequence b, boolean caseInsensitive) {
+      return caseInsensitive ? AsciiString.contentEqualsIgnoreCase(a, b) : AsciiString.contentEquals(a, b);
+   }
+
+   /**
+    * Iterates over the pseudo-headers first (as these must precede other headers) and then the other headers,
+    * using indices {@link #PSEUDO_HEADERS} and above.
+    */
+   private class It implements Iterator<Map.Entry<CharSequence, CharSequence>>, Map.Entry<CharSequence, CharSequence> {
+      private int index;
+      private int next;
+
+      private void advance() {
+         ++next;
+         while (next < PSEUDO_HEADERS && pseudoValues[next] == null) {
+            ++next;
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next < PSEUDO_HEADERS + size;
+      }
+
+      @Override
+      public Map.Entry<CharSequence, CharSequence> next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         index = next;
+         advance();
+         return this;
+      }
+
+      @Override
+      public CharSequence getKey() {
+         return index < PSEUDO_HEADERS ? PSEUDO_NAMES[index] : names[index - PSEUDO_HEADERS];
+      }
+
+      @Override
+      public CharSequence getValue() {
+         return index < PSEUDO_HEADERS ? pseudoValues[index] : values[index - PSEUDO_HEADERS];
+      }
+
+      @Override
+      public CharSequence setValue(CharSequence value) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
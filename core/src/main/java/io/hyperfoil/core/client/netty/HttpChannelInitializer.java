@@ -20,8 +20,12 @@ import io.netty.handler.codec.http2.Http2ClientUpgradeCodec;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
 import io.hyperfoil.api.connection.HttpConnection;
+import io.hyperfoil.internal.Properties;
 
 class HttpChannelInitializer extends ChannelInitializer<Channel> {
+   // The byte-by-byte parser is kept for comparison, e.g. in case of suspected parsing issues
+   private static final boolean LEGACY_HTTP1X_PARSER = "legacy".equalsIgnoreCase(Properties.get(Properties.HTTP1X_PARSER, "swar"));
+
    private final HttpClientPoolImpl clientPool;
    private final BiConsumer<HttpConnection, Throwable> handler;
    private final Http2ConnectionHandlerBuilder http2ConnectionHandlerBuilder;
@@ -87,7 +91,7 @@ class HttpChannelInitializer extends ChannelInitializer<Channel> {
    private void initHttp1xConnection(ChannelPipeline pipeline) {
       Http1xConnection connection = new Http1xConnection(clientPool, handler);
       if (clientPool.http.rawBytesHandlers()) {
-         pipeline.addLast(new Http1xResponseHandler(connection));
+         pipeline.addLast(LEGACY_HTTP1X_PARSER ? new Http1xResponseHandler(connection) : new SwarHttp1xResponseHandler(connection));
          pipeline.addLast(new RawRequestHandler(connection));
       }
       pipeline.addLast("handler", connection);
@@ -2,13 +2,14 @@ package io.hyperfoil.core.client.netty;
 
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.session.Scheduler;
+import io.hyperfoil.core.impl.ExecutorScheduler;
+import io.hyperfoil.core.impl.Transport;
 import io.hyperfoil.util.Util;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoop;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.EventLoopGroup;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
@@ -69,15 +70,18 @@ public class HttpClientPoolImpl implements HttpClientPool {
    final byte[] authorityBytes;
    final SslContext sslContext;
    final boolean forceH2c;
+   private final Transport transport;
+   private final boolean reusePort;
    private final HttpConnectionPoolImpl[] children;
    private final AtomicInteger idx = new AtomicInteger();
    private final Supplier<HttpConnectionPool> nextSupplier;
 
    public static HttpClientPoolImpl forTesting(Http http, int threads) throws SSLException {
-      NioEventLoopGroup eventLoopGroup = new NioEventLoopGroup(threads);
+      EventLoopGroup eventLoopGroup = Transport.NIO.createEventLoopGroup(threads);
       EventLoop[] executors = StreamSupport.stream(eventLoopGroup.spliterator(), false)
             .map(EventLoop.class::cast).toArray(EventLoop[]::new);
-      return new HttpClientPoolImpl(http, executors, Benchmark.forTesting(), 0) {
+      Scheduler[] schedulers = Stream.of(executors).map(ExecutorScheduler::new).toArray(Scheduler[]::new);
+      return new HttpClientPoolImpl(http, executors, schedulers, Transport.NIO, Benchmark.forTesting(), 0) {
          @Override
          public void shutdown() {
             super.shutdown();
@@ -86,8 +90,10 @@ public class HttpClientPoolImpl implements HttpClientPool {
       };
    }
 
-   public HttpClientPoolImpl(Http http, EventLoop[] executors, Benchmark benchmark, int agentId) throws SSLException {
+   public HttpClientPoolImpl(Http http, EventLoop[] executors, Scheduler[] schedulers, Transport transport, Benchmark benchmark, int agentId) throws SSLException {
       this.http = http;
+      this.transport = transport;
+      this.reusePort = benchmark.agents().length > 0 && benchmark.agents()[agentId].reusePort();
       this.sslContext = http.protocol().secure() ? createSslContext() : null;
       this.host = http.host();
       this.port = http.port();
@@ -110,7 +116,7 @@ public class HttpClientPoolImpl implements HttpClientPool {
       int remainder = sharedConnections - share * executors.length;
       for (int i = 0; i < executors.length; ++i) {
          int childSize = share + (i < remainder ? 1 : 0);
-         children[i] = new HttpConnectionPoolImpl(this, executors[i], childSize);
+         children[i] = new HttpConnectionPoolImpl(this, executors[i], schedulers[i], childSize);
       }
 
       if (Integer.bitCount(children.length) == 1) {
@@ -265,10 +271,8 @@ public class HttpClientPoolImpl implements HttpClientPool {
 
    void connect(final HttpConnectionPool pool, BiConsumer<HttpConnection, Throwable> handler) {
       Bootstrap bootstrap = new Bootstrap();
-      bootstrap.channel(NioSocketChannel.class);
       bootstrap.group(pool.executor());
-      bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
-      bootstrap.option(ChannelOption.SO_REUSEADDR, true);
+      transport.configure(bootstrap, reusePort);
 
       bootstrap.handler(new HttpChannelInitializer(this, handler));
 
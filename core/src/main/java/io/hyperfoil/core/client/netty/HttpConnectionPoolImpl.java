@@ -13,12 +13,12 @@ import io.hyperfoil.api.connection.HttpRequest;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoop;
-import io.netty.util.concurrent.ScheduledFuture;
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.connection.HttpClientPool;
 import io.hyperfoil.api.connection.HttpConnection;
 import io.hyperfoil.api.connection.HttpConnectionPool;
 import io.hyperfoil.api.connection.HttpRequestWriter;
+import io.hyperfoil.api.session.Scheduler;
 import io.hyperfoil.api.session.Session;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
@@ -48,14 +48,15 @@ class HttpConnectionPoolImpl implements HttpConnectionPool {
    private Handler<AsyncResult<Void>> startedHandler;
    private boolean shutdown;
    private Deque<Session> waitingSessions = new ArrayDeque<>();
-   private ScheduledFuture<?> pulseFuture;
+   private final Scheduler.Timeout pulseTimeout;
 
-   HttpConnectionPoolImpl(HttpClientPoolImpl clientPool, EventLoop eventLoop, int size) {
+   HttpConnectionPoolImpl(HttpClientPoolImpl clientPool, EventLoop eventLoop, Scheduler scheduler, int size) {
       this.clientPool = clientPool;
       this.size = size;
       this.eventLoop = eventLoop;
       this.available = new ArrayDeque<>(size);
       this.temporaryInFlight = new ArrayList<>(size);
+      this.pulseTimeout = scheduler.newTimeout(this::pulse);
    }
 
    @Override
@@ -151,18 +152,11 @@ class HttpConnectionPoolImpl implements HttpConnectionPool {
       }
       // The session might not use the connection (e.g. when it's terminated) and call pulse() again
       // We don't want to activate all the sessions, though so we need to schedule another pulse
-      if (pulseFuture == null && !waitingSessions.isEmpty()) {
-         pulseFuture = executor().schedule(this::scheduledPulse, 1, TimeUnit.MILLISECONDS);
+      if (!pulseTimeout.isScheduled() && !waitingSessions.isEmpty()) {
+         pulseTimeout.schedule(1, TimeUnit.MILLISECONDS);
       }
    }
 
-   // signature to match Callable
-   private Object scheduledPulse() {
-      pulseFuture = null;
-      pulse();
-      return null;
-   }
-
    @Override
    public Collection<HttpConnection> connections() {
       return connections;
@@ -0,0 +1,167 @@
+package io.hyperfoil.core.client.netty;
+
+import io.hyperfoil.api.connection.HttpConnection;
+import io.hyperfoil.api.connection.HttpRequest;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * HTTP 1.x response parser that looks up line terminators (and header name delimiters) eight bytes at a time
+ * (SIMD within a register) rather than inspecting each byte. Processing of the lines is shared with
+ * {@link Http1xResponseHandler}; besides the scanning this parser does not split headers that the request
+ * handlers are not interested in.
+ */
+class SwarHttp1xResponseHandler extends Http1xResponseHandler {
+   private static final long LF_PATTERN = pattern(LF);
+   private static final long COLON_PATTERN = pattern((byte) ':');
+   private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+   SwarHttp1xResponseHandler(HttpConnection connection) {
+      super(connection);
+   }
+
+   private static long pattern(byte b) {
+      return (b & 0xFFL) * 0x0101010101010101L;
+   }
+
+   /**
+    * Find first occurrence of the byte in given range.
+    *
+    * @param buf     Searched buffer.
+    * @param from    Start index (inclusive).
+    * @param to      End index (exclusive).
+    * @param pattern The searched byte repeated in all eight bytes of a long.
+    * @return Index of the byte or <code>-1</code> if not found.
+    */
+   static int indexOf(ByteBuf buf, int from, int to, long pattern) {
+      int index = from;
+      for (; index <= to - Long.BYTES; index += Long.BYTES) {
+         long word = buf.getLongLE(index) ^ pattern;
+         // The highest bit is set in every byte that was zero (matching the pattern) and only in those;
+         // unlike the common (x - 0x01..) & ~x & 0x80.. this does not produce false positives
+         long zeros = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+         if (zeros != 0) {
+            return index + (Long.numberOfTrailingZeros(zeros) >>> 3);
+         }
+      }
+      byte value = (byte) pattern;
+      for (; index < to; ++index) {
+         if (buf.getByte(index) == value) {
+            return index;
+         }
+      }
+      return -1;
+   }
+
+   private boolean isPrecededByCr(ByteBuf buf, int lfIndex) {
+      if (lfIndex > buf.readerIndex()) {
+         return buf.getByte(lfIndex - 1) == CR;
+      }
+      // The CR could be the last byte of previous buffer
+      return lastLine.isReadable() && lastLine.getByte(lastLine.writerIndex() - 1) == CR;
+   }
+
+   @Override
+   int readStatus(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+      int lineStartIndex = buf.readerIndex();
+      int writerIndex = buf.writerIndex();
+      int lfIndex;
+      while ((lfIndex = indexOf(buf, readerIndex, writerIndex, LF_PATTERN)) >= 0) {
+         if (isPrecededByCr(buf, lfIndex)) {
+            return statusLine(buf, lineStartIndex, lfIndex);
+         }
+         readerIndex = lfIndex + 1;
+      }
+      copyLastLine(buf, lineStartIndex, writerIndex);
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   @Override
+   int readHeaders(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+      int lineStartIndex = readerIndex;
+      int writerIndex = buf.writerIndex();
+      int lfIndex;
+      while ((lfIndex = indexOf(buf, readerIndex, writerIndex, LF_PATTERN)) >= 0) {
+         readerIndex = lfIndex + 1;
+         if (isPrecededByCr(buf, lfIndex)) {
+            if (headerLine(buf, lineStartIndex, lfIndex)) {
+               return readerIndex;
+            }
+            lineStartIndex = readerIndex;
+         }
+      }
+      copyLastLine(buf, lineStartIndex, writerIndex);
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   @Override
+   void header(ByteBuf lineBuf, int lineStartIndex, int lineEndIndex) {
+      int colonIndex = indexOf(lineBuf, lineStartIndex + 1, lineEndIndex, COLON_PATTERN);
+      if (colonIndex < 0) {
+         // Malformed header; let the default implementation deal with that
+         super.header(lineBuf, lineStartIndex, lineEndIndex);
+         return;
+      }
+      int endOfNameIndex = colonIndex;
+      while (endOfNameIndex > lineStartIndex && lineBuf.getByte(endOfNameIndex - 1) == ' ') {
+         --endOfNameIndex;
+      }
+      if (!isHeaderRequired(lineBuf, lineStartIndex, endOfNameIndex)) {
+         return;
+      }
+      int startOfValueIndex = colonIndex + 1;
+      while (startOfValueIndex < lineEndIndex && lineBuf.getByte(startOfValueIndex) == ' ') {
+         ++startOfValueIndex;
+      }
+      onHeaderRead(lineBuf, lineStartIndex, endOfNameIndex, startOfValueIndex, lineEndIndex);
+   }
+
+   boolean isHeaderRequired(ByteBuf buf, int startOfName, int endOfName) {
+      HttpRequest request = connection.peekRequest(0);
+      // Without request or on completed request the header would be ignored anyway
+      return request != null && !request.isCompleted()
+            && request.handlers().requiresHeader(request, buf, startOfName, endOfName - startOfName);
+   }
+
+   @Override
+   int readChunks(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) {
+      int lineStartOffset = readerIndex;
+      int writerIndex = buf.writerIndex();
+      int lfIndex;
+      while ((lfIndex = indexOf(buf, readerIndex, writerIndex, LF_PATTERN)) >= 0) {
+         if (isPrecededByCr(buf, lfIndex)) {
+            int nextIndex = chunkLine(ctx, buf, lineStartOffset, lfIndex);
+            if (nextIndex < 0 || !chunked) {
+               return nextIndex;
+            }
+            lineStartOffset = readerIndex = nextIndex;
+         } else {
+            readerIndex = lfIndex + 1;
+         }
+      }
+      copyLastLine(buf, lineStartOffset, writerIndex);
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+
+   @Override
+   int readTrailers(ChannelHandlerContext ctx, ByteBuf buf, int readerIndex) throws Exception {
+      int lineStartIndex = readerIndex;
+      int writerIndex = buf.writerIndex();
+      int lfIndex;
+      while ((lfIndex = indexOf(buf, readerIndex, writerIndex, LF_PATTERN)) >= 0) {
+         readerIndex = lfIndex + 1;
+         if (isPrecededByCr(buf, lfIndex)) {
+            if (trailerLine(ctx, buf, lineStartIndex, lfIndex)) {
+               return -1;
+            }
+            lineStartIndex = readerIndex;
+         }
+      }
+      copyLastLine(buf, lineStartIndex, writerIndex);
+      passFullBuffer(ctx, buf);
+      return -1;
+   }
+}
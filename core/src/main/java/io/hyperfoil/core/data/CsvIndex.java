@@ -0,0 +1,191 @@
+package io.hyperfoil.core.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+
+/**
+ * Index of rows in a CSV-formatted file. The contents are not copied to heap: the file is memory-mapped
+ * and the heap holds only the offsets of row starts. Columns are exposed as {@link CharSequence} views
+ * that are decoded only when something reads them.
+ * <p>
+ * Files larger than 2 GB are mapped in several regions; the regions overlap by {@link #MAX_ROW_LENGTH}
+ * so that each row is contained in the region where it starts.
+ * <p>
+ * The index is immutable and can be shared by all threads.
+ */
+public final class CsvIndex {
+   public static final int MAX_ROW_LENGTH = 1024 * 1024;
+   private static final int REGION_SIZE = 1 << 30;
+
+   private final ByteBuffer[] regions;
+   private final int regionSize;
+   private final boolean removeQuotes;
+   private long[] rowStarts = new long[1024];
+   private int rows;
+
+   private CsvIndex(ByteBuffer[] regions, int regionSize, boolean removeQuotes) {
+      this.regions = regions;
+      this.regionSize = regionSize;
+      this.removeQuotes = removeQuotes;
+   }
+
+   public static CsvIndex map(Path file, boolean skipComments, boolean removeQuotes) {
+      return map(file, skipComments, removeQuotes, REGION_SIZE);
+   }
+
+   static CsvIndex map(Path file, boolean skipComments, boolean removeQuotes, int regionSize) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         long size = channel.size();
+         ByteBuffer[] regions = new ByteBuffer[(int) Math.max(1, (size + regionSize - 1) / regionSize)];
+         for (int i = 0; i < regions.length; ++i) {
+            long start = (long) i * regionSize;
+            // The mapping stays valid after the channel is closed
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, (long) regionSize + MAX_ROW_LENGTH));
+         }
+         CsvIndex index = new CsvIndex(regions, regionSize, removeQuotes);
+         index.build(size, skipComments);
+         return index;
+      } catch (IOException e) {
+         throw new BenchmarkDefinitionException("Cannot map file " + file, e);
+      }
+   }
+
+   /**
+    * Index rows in data that are already loaded to heap.
+    */
+   public static CsvIndex wrap(byte[] bytes, boolean skipComments, boolean removeQuotes) {
+      CsvIndex index = new CsvIndex(new ByteBuffer[]{ ByteBuffer.wrap(bytes) }, Integer.MAX_VALUE, removeQuotes);
+      index.build(bytes.length, skipComments);
+      return index;
+   }
+
+   private void build(long size, boolean skipComments) {
+      long position = 0;
+      while (position < size) {
+         ByteBuffer region = regions[(int) (position / regionSize)];
+         int offset = (int) (position % regionSize);
+         int end = lineEnd(region, offset);
+         if (end - offset > MAX_ROW_LENGTH) {
+            throw new BenchmarkDefinitionException("Row starting at " + position + " is longer than " + MAX_ROW_LENGTH + " bytes.");
+         }
+         int first = offset;
+         while (first < end && (region.get(first) == ' ' || region.get(first) == '\t' || region.get(first) == '\r')) {
+            ++first;
+         }
+         if (first < end && !(skipComments && region.get(first) == '#')) {
+            if (rows == rowStarts.length) {
+               rowStarts = Arrays.copyOf(rowStarts, rows * 2);
+            }
+            rowStarts[rows++] = position;
+         }
+         position += end - offset + 1;
+      }
+      rowStarts = Arrays.copyOf(rowStarts, rows);
+   }
+
+   private static int lineEnd(ByteBuffer region, int offset) {
+      int limit = region.limit();
+      for (int i = offset; i < limit; ++i) {
+         if (region.get(i) == '\n') {
+            return i;
+         }
+      }
+      return limit;
+   }
+
+   public int rows() {
+      return rows;
+   }
+
+   /**
+    * Points views of selected columns to given row. The views are reused, therefore the caller should keep
+    * them per session (or thread) rather than allocating new ones for each row.
+    *
+    * @param row Row index.
+    * @param columns Ascending indices of columns in the row.
+    * @param values Views to update, with the same length as <code>columns</code>.
+    *               Columns that are missing in the row are set to empty string.
+    */
+   public void read(int row, int[] columns, Value[] values) {
+      long position = rowStarts[row];
+      ByteBuffer region = regions[(int) (position / regionSize)];
+      int offset = (int) (position % regionSize);
+      int end = lineEnd(region, offset);
+      if (end > offset && region.get(end - 1) == '\r') {
+         --end;
+      }
+      int column = 0;
+      int next = 0;
+      int start = offset;
+      for (int i = offset; i <= end && next < columns.length; ++i) {
+         if (i == end || region.get(i) == ',') {
+            if (column == columns[next]) {
+               values[next++].set(region, start, i - start, removeQuotes);
+            }
+            ++column;
+            start = i + 1;
+         }
+      }
+      while (next < columns.length) {
+         values[next++].set(null, 0, 0, false);
+      }
+   }
+
+   /**
+    * Column view; the bytes are decoded as UTF-8 on first access.
+    */
+   public static final class Value implements CharSequence {
+      private ByteBuffer region;
+      private int offset;
+      private int length;
+      private boolean removeQuotes;
+      private String string;
+
+      private void set(ByteBuffer region, int offset, int length, boolean removeQuotes) {
+         this.region = region;
+         this.offset = offset;
+         this.length = length;
+         this.removeQuotes = removeQuotes;
+         this.string = region == null ? "" : null;
+      }
+
+      @Override
+      public int length() {
+         return toString().length();
+      }
+
+      @Override
+      public char charAt(int index) {
+         return toString().charAt(index);
+      }
+
+      @Override
+      public CharSequence subSequence(int start, int end) {
+         return toString().subSequence(start, end);
+      }
+
+      @Override
+      public String toString() {
+         String string = this.string;
+         if (string == null) {
+            byte[] bytes = new byte[length];
+            int size = 0;
+            for (int i = 0; i < length; ++i) {
+               byte b = region.get(offset + i);
+               if (!removeQuotes || b != '"') {
+                  bytes[size++] = b;
+               }
+            }
+            this.string = string = new String(bytes, 0, size, StandardCharsets.UTF_8);
+         }
+         return string;
+      }
+   }
+}
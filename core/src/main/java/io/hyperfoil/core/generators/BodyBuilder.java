@@ -11,6 +11,7 @@ import io.hyperfoil.core.session.SessionFactory;
 import io.hyperfoil.core.steps.HttpRequestStep;
 import io.hyperfoil.core.util.ConstantBytesGenerator;
 import io.hyperfoil.core.util.FromVarBytesGenerator;
+import io.hyperfoil.core.util.SharedBytes;
 
 /**
  * Allows building HTTP request body from session variables.
@@ -31,7 +32,7 @@ public class BodyBuilder {
    public BodyBuilder fromVar(String var) {
       parent.body(() -> {
          Access access = SessionFactory.access(var);
-         return new FromVarBytesGenerator(access);
+         return new FromVarBytesGenerator(access, SharedBytes.companionAccess(var));
       });
       return this;
    }
@@ -0,0 +1,300 @@
+package io.hyperfoil.core.generators;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.kohsuke.MetaInfServices;
+
+import io.hyperfoil.api.BenchmarkExecutionException;
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.Name;
+import io.hyperfoil.api.config.PairBuilder;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.ResourceUtilizer;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.builders.BaseStepBuilder;
+import io.hyperfoil.core.data.CsvIndex;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.util.Util;
+
+/**
+ * Selects a row from CSV-formatted file and exposes chosen columns in session variables.
+ * <p>
+ * The file is not part of the serialized step: agents fetch it from the controller and memory-map it.
+ * When the benchmark runs in the same JVM where it was built the index built for validation is reused;
+ * an agent that builds the benchmark from source maps the local copy already in the builder.
+ */
+public class CsvRowStep implements Step, ResourceUtilizer, Session.ResourceKey<CsvRowStep.Values> {
+   private final String file;
+   private final boolean skipComments;
+   private final boolean removeQuotes;
+   private final int[] columns;
+   private final Access[] columnVars;
+   private final Selection selection;
+   private final boolean sliceByAgent;
+   private transient volatile CsvIndex index;
+   private transient AtomicLong next;
+
+   public CsvRowStep(String file, boolean skipComments, boolean removeQuotes, int[] columns, Access[] columnVars,
+                     Selection selection, boolean sliceByAgent, CsvIndex index) {
+      this.file = file;
+      this.skipComments = skipComments;
+      this.removeQuotes = removeQuotes;
+      this.columns = columns;
+      this.columnVars = columnVars;
+      this.selection = selection;
+      this.sliceByAgent = sliceByAgent;
+      this.index = index;
+      this.next = new AtomicLong();
+   }
+
+   @Override
+   public boolean invoke(Session session) {
+      CsvIndex index = this.index;
+      if (index == null) {
+         index = mapLocalCopy(session.phase().benchmark());
+      }
+      int first = 0;
+      int count = index.rows();
+      if (sliceByAgent) {
+         int agents = Math.max(1, session.phase().benchmark().agents().length);
+         first = (int) ((long) count * session.agentId() / agents);
+         count = (int) ((long) count * (session.agentId() + 1) / agents) - first;
+         if (count == 0) {
+            session.fail(new BenchmarkExecutionException("File " + file + " has fewer rows than there are agents."));
+            return false;
+         }
+      }
+      int row;
+      switch (selection) {
+         case RANDOM:
+            row = ThreadLocalRandom.current().nextInt(count);
+            break;
+         case SEQUENTIAL:
+            row = (int) (next.getAndIncrement() % count);
+            break;
+         case PER_SESSION:
+            row = session.uniqueId() % count;
+            break;
+         default:
+            throw new IllegalStateException();
+      }
+      CsvIndex.Value[] values = session.getResource(this).values;
+      index.read(first + row, columns, values);
+      for (int i = 0; i < columnVars.length; ++i) {
+         // The views are overwritten by the next row; variables can be pushed to shared maps or compared
+         // to strings so these must hold an immutable value.
+         columnVars[i].setObject(session, values[i].toString());
+      }
+      return true;
+   }
+
+   @Override
+   public void reserve(Session session) {
+      for (Access var : columnVars) {
+         var.declareObject(session);
+      }
+      session.declareResource(this, () -> new Values(columns.length));
+   }
+
+   private synchronized CsvIndex mapLocalCopy(Benchmark benchmark) {
+      // The step was received in serialized form
+      CsvIndex index = this.index;
+      if (index == null) {
+         Path path = benchmark.localData().localPath(file);
+         if (path == null) {
+            throw new IllegalStateException("File " + file + " was not fetched to this agent.");
+         }
+         next = new AtomicLong();
+         this.index = index = CsvIndex.map(path, skipComments, removeQuotes);
+      }
+      return index;
+   }
+
+   /**
+    * Views of the columns are reused for decoding the row; variables receive the decoded strings.
+    */
+   static final class Values implements Session.Resource {
+      private final CsvIndex.Value[] values;
+
+      Values(int columns) {
+         values = new CsvIndex.Value[columns];
+         for (int i = 0; i < columns; ++i) {
+            values[i] = new CsvIndex.Value();
+         }
+      }
+   }
+
+   public enum Selection {
+      /**
+       * Each invocation selects random row.
+       */
+      RANDOM,
+      /**
+       * Rows are read in the order these appear in the file, wrapping around at the end.
+       * The position is shared by all sessions in the agent.
+       */
+      SEQUENTIAL,
+      /**
+       * The row is chosen by session's unique ID; concurrent sessions read different rows as long as
+       * the file has enough rows and the session reads the same row in each invocation.
+       */
+      PER_SESSION
+   }
+
+   /**
+    * Stores a row from a CSV-formatted file to variables.
+    */
+   @MetaInfServices(StepBuilder.class)
+   @Name("csvRow")
+   public static class Builder extends BaseBuilder<Builder> {
+      /**
+       * How is the row selected. Default is random.
+       *
+       * @param selection Selection mode.
+       * @return Self.
+       */
+      public Builder selection(Selection selection) {
+         this.selection = selection;
+         return this;
+      }
+   }
+
+   public abstract static class BaseBuilder<S extends BaseBuilder<S>> extends BaseStepBuilder<S> {
+      private String file;
+      private boolean skipComments;
+      private boolean removeQuotes;
+      private boolean sliceByAgent;
+      private final List<String> builderColumns = new ArrayList<>();
+      protected Selection selection = Selection.RANDOM;
+
+      @Override
+      public List<Step> build() {
+         if (file == null) {
+            throw new BenchmarkDefinitionException("Missing CSV file name.");
+         }
+         int[] srcIndex = new int[(int) builderColumns.stream().filter(Objects::nonNull).count()];
+         int next = 0;
+         for (int i = 0; i < builderColumns.size(); ++i) {
+            if (builderColumns.get(i) != null) {
+               srcIndex[next++] = i;
+            }
+         }
+         assert next == srcIndex.length;
+
+         BenchmarkBuilder benchmark = Locator.current().benchmark();
+         CsvIndex index;
+         Path localCopy = benchmark.data().localPath(file);
+         if (localCopy != null) {
+            // Agent building the benchmark from source maps the fetched copy rather than loading it to heap
+            index = CsvIndex.map(localCopy, skipComments, removeQuotes);
+         } else {
+            try (InputStream inputStream = benchmark.data().readFile(file)) {
+               index = CsvIndex.wrap(Util.toByteArray(inputStream), skipComments, removeQuotes);
+            } catch (IOException ioe) {
+               throw new BenchmarkDefinitionException("Failed to read file " + file, ioe);
+            }
+         }
+         if (index.rows() == 0) {
+            throw new BenchmarkDefinitionException("Missing CSV row data. Rows were not detected after initial processing of file.");
+         }
+         benchmark.addAgentFile(file);
+
+         Access[] columnVars = builderColumns.stream().filter(Objects::nonNull).map(SessionFactory::access).toArray(Access[]::new);
+         return Collections.singletonList(new CsvRowStep(file, skipComments, removeQuotes, srcIndex, columnVars, selection, sliceByAgent, index));
+      }
+
+      /**
+       * Defines mapping from columns to session variables.
+       *
+       * @return Builder.
+       */
+      public ColumnsBuilder columns() {
+         return new ColumnsBuilder();
+      }
+
+      /**
+       * Path to the CSV file that should be loaded.
+       *
+       * @param file Path to file.
+       * @return Self.
+       */
+      public S file(String file) {
+         this.file = file;
+         return self();
+      }
+
+      /**
+       * Skip lines starting with character '#'.
+       *
+       * @param skipComments Skip?
+       * @return Self.
+       */
+      public S skipComments(boolean skipComments) {
+         this.skipComments = skipComments;
+         return self();
+      }
+
+      /**
+       * Automatically unquote the columns.
+       *
+       * @param removeQuotes Remove?
+       * @return Self.
+       */
+      public S removeQuotes(boolean removeQuotes) {
+         this.removeQuotes = removeQuotes;
+         return self();
+      }
+
+      /**
+       * Split the rows evenly between agents; each agent selects rows only from its own part of the file.
+       *
+       * @param sliceByAgent Slice?
+       * @return Self.
+       */
+      public S sliceByAgent(boolean sliceByAgent) {
+         this.sliceByAgent = sliceByAgent;
+         return self();
+      }
+
+      @SuppressWarnings("unchecked")
+      private S self() {
+         return (S) this;
+      }
+
+      public class ColumnsBuilder extends PairBuilder.OfString {
+         /**
+          * Use 0-based column as the key and variable name as the value.
+          *
+          * @param position  0-based column number.
+          * @param columnVar Variable name.
+          */
+         @Override
+         public void accept(String position, String columnVar) {
+            int pos = Integer.parseInt(position);
+            if (pos < 0) {
+               throw new BenchmarkDefinitionException("Negative column index is not supported.");
+            }
+            while (pos >= builderColumns.size()) {
+               builderColumns.add(null);
+            }
+            String prev = builderColumns.set(pos, columnVar);
+            if (prev != null) {
+               throw new BenchmarkDefinitionException("Column " + pos + " is already mapped to '" + prev + "', don't map to '" + columnVar + "'");
+            }
+         }
+      }
+   }
+}
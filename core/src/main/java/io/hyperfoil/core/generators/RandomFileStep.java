@@ -17,25 +17,31 @@ import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.util.SharedBytes;
 import io.hyperfoil.util.Util;
 
 public class RandomFileStep implements Step, ResourceUtilizer {
    private final WeightedGenerator generator;
-   private final byte[][] fileBytes;
+   private final SharedBytes[] fileBytes;
    private final Access toVar;
+   private final Access sharedVar;
    private final Access filenameVar;
 
-   public RandomFileStep(WeightedGenerator generator, byte[][] fileBytes, Access toVar, Access filenameVar) {
+   public RandomFileStep(WeightedGenerator generator, SharedBytes[] fileBytes, Access toVar, Access sharedVar, Access filenameVar) {
       this.generator = generator;
       this.fileBytes = fileBytes;
       this.toVar = toVar;
+      this.sharedVar = sharedVar;
       this.filenameVar = filenameVar;
    }
 
    @Override
    public boolean invoke(Session session) {
       int index = generator.randomIndex();
-      toVar.setObject(session, fileBytes[index]);
+      toVar.setObject(session, fileBytes[index].bytes());
+      if (sharedVar != null) {
+         sharedVar.setObject(session, fileBytes[index]);
+      }
       if (filenameVar != null) {
          filenameVar.setObject(session, generator.items()[index]);
       }
@@ -45,6 +51,9 @@ public class RandomFileStep implements Step, ResourceUtilizer {
    @Override
    public void reserve(Session session) {
       toVar.declareObject(session);
+      if (sharedVar != null) {
+         sharedVar.declareObject(session);
+      }
       if (filenameVar != null) {
          filenameVar.declareObject(session);
       }
@@ -52,6 +61,7 @@ public class RandomFileStep implements Step, ResourceUtilizer {
 
    /**
     * Reads bytes from a randomly chosen file into a variable.
+    * The files are loaded once; when the variable is sent as request body the contents are not copied.
     * Two formats are supported:
     * Example 1 - without weights:
     * <pre>
@@ -109,17 +119,21 @@ public class RandomFileStep implements Step, ResourceUtilizer {
 
       @Override
       public List<Step> build() {
+         if (toVar == null) {
+            throw new BenchmarkDefinitionException("Missing target variable ('toVar').");
+         }
          WeightedGenerator generator = weighted.build();
          BenchmarkData data = Locator.current().benchmark().data();
-         List<byte[]> fileBytes = new ArrayList<>();
+         List<SharedBytes> fileBytes = new ArrayList<>();
          for (String file : generator.items()) {
             try {
-               fileBytes.add(Util.toByteArray(data.readFile(file)));
+               fileBytes.add(new SharedBytes(Util.toByteArray(data.readFile(file))));
             } catch (IOException e) {
                throw new BenchmarkDefinitionException("Cannot read bytes from file " + file);
             }
          }
-         return Collections.singletonList(new RandomFileStep(generator, fileBytes.toArray(new byte[0][]), SessionFactory.access(toVar), SessionFactory.access(filenameVar)));
+         return Collections.singletonList(new RandomFileStep(generator, fileBytes.toArray(new SharedBytes[0]),
+               SessionFactory.access(toVar), SharedBytes.companionAccess(toVar), SessionFactory.access(filenameVar)));
       }
    }
 }
@@ -76,15 +76,15 @@ public class StringGeneratorImplBuilder<T> implements StringGeneratorBuilder, In
          Access access = SessionFactory.access(var);
          return session -> {
             Object value = access.getObject(session);
-            if (value instanceof String) {
+            if (value instanceof CharSequence) {
                if (urlEncode) {
                   try {
-                     return URLEncoder.encode((String) value, StandardCharsets.UTF_8.name());
+                     return URLEncoder.encode(value.toString(), StandardCharsets.UTF_8.name());
                   } catch (UnsupportedEncodingException e) {
                      throw new IllegalStateException(e);
                   }
                }
-               return (String) value;
+               return value.toString();
             } else {
                log.error("Cannot retrieve string from {}, the content is {}", var, value);
                return null;
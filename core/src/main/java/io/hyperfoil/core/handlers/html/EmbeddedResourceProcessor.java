@@ -58,8 +58,9 @@ class EmbeddedResourceProcessor extends Processor.BaseDelegating {
          delegate.process(session, data, offset, length, true);
       } else {
          HttpRequest request = (HttpRequest) session.currentRequest();
-         ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(request.path.length() + length);
-         Util.string2byteBuf(request.path, buffer);
+         ByteBuf path = request.pathBytes;
+         ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(path.readableBytes() + length);
+         buffer.writeBytes(path, path.readerIndex(), path.readableBytes());
          for (int i = buffer.writerIndex() - 1; i >= 0; --i) {
             if (buffer.getByte(i) == '/') {
                buffer.writerIndex(i + 1);
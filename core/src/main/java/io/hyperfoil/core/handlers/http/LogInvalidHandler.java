@@ -20,7 +20,7 @@ public class LogInvalidHandler implements Processor, HeaderHandler {
    public void process(Session session, ByteBuf data, int offset, int length, boolean isLast) {
       HttpRequest request = (HttpRequest) session.currentRequest();
       if (request != null && !request.isValid()) {
-         log.debug("#{}: {} {}/{}, {} bytes: {}", session.uniqueId(), request.method, request.authority, request.path, data.readableBytes(),
+         log.debug("#{}: {} {}/{}, {} bytes: {}", session.uniqueId(), request.method, request.authority, request.path(), data.readableBytes(),
                Util.toString(data, data.readerIndex(), data.readableBytes()));
       }
    }
@@ -28,7 +28,7 @@ public class LogInvalidHandler implements Processor, HeaderHandler {
    @Override
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
       if (!request.isValid()) {
-         log.debug("#{}: {} {}/{}, {}: {}", request.session.uniqueId(), request.method, request.authority, request.path, header, value);
+         log.debug("#{}: {} {}/{}, {}: {}", request.session.uniqueId(), request.method, request.authority, request.path(), header, value);
       }
    }
 
@@ -154,12 +154,12 @@ public class Redirect {
                if (!Util.startsWith(value, 0, HttpUtil.HTTP_PREFIX) && !Util.startsWith(value, 0, HttpUtil.HTTPS_PREFIX)) {
                   coords.authority = request.authority;
                   if (!Util.startsWith(value, 0, "/")) {
-                     int lastSlash = request.path.lastIndexOf('/');
+                     int lastSlash = request.path().lastIndexOf('/');
                      if (lastSlash < 0) {
-                        log.warn("#{} Did the request have a relative path? {}", session.uniqueId(), request.path);
+                        log.warn("#{} Did the request have a relative path? {}", session.uniqueId(), request.path());
                         value = "/" + value;
                      }
-                     value = request.path.substring(0, lastSlash + 1) + value;
+                     value = request.path().substring(0, lastSlash + 1) + value;
                   }
                }
 
@@ -178,7 +178,7 @@ public class Redirect {
       public void afterHeaders(HttpRequest request) {
          Session.Var var = inputVar.getVar(request.session);
          if (var.isSet() && !(var.objectValue(request.session) instanceof Coords)) {
-            log.error("Location header is missing in response from {} {}{}!", request.method, request.authority, request.path);
+            log.error("Location header is missing in response from {} {}{}!", request.method, request.authority, request.path());
             request.markInvalid();
          }
       }
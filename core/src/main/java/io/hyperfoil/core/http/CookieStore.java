@@ -156,7 +156,8 @@ class CookieStore implements Session.Resource {
 
    public void appendCookies(HttpRequestWriter requestWriter) {
       CharSequence domain = requestWriter.connection().host();
-      CharSequence path = requestWriter.request().path;
+      // The path is materialized only when there's a cookie for this domain
+      CharSequence path = null;
       long now = System.currentTimeMillis();
       for (int i = 0; i < cookies.length; ++i) {
          Cookie c = cookies[i];
@@ -164,13 +165,16 @@ class CookieStore implements Session.Resource {
             break;
          } else if (c.name.length() == 0) {
             // continue
-         } else if (((!c.exactDomain && isSubdomain(domain, c.domain)) || AsciiString.contentEquals(domain, c.domain)) &&
-               isSubpath(path, path.length(), c.path, c.path.length()) &&
-               (!c.secure || requestWriter.connection().isSecure())) {
-            if (now >= c.expires) {
-               c.name = "";
-            } else {
-               requestWriter.putHeader(HttpHeaderNames.COOKIE, c.nameValue);
+         } else if ((!c.exactDomain && isSubdomain(domain, c.domain)) || AsciiString.contentEquals(domain, c.domain)) {
+            if (path == null) {
+               path = requestWriter.request().path();
+            }
+            if (isSubpath(path, path.length(), c.path, c.path.length()) && (!c.secure || requestWriter.connection().isSecure())) {
+               if (now >= c.expires) {
+                  c.name = "";
+               } else {
+                  requestWriter.putHeader(HttpHeaderNames.COOKIE, c.nameValue);
+               }
             }
          }
       }
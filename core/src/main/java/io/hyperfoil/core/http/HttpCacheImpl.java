@@ -18,6 +18,7 @@ import io.hyperfoil.api.http.HttpCache;
 import io.hyperfoil.api.http.HttpMethod;
 import io.hyperfoil.core.util.Trie;
 import io.hyperfoil.util.Util;
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 
@@ -39,6 +40,12 @@ public class HttpCacheImpl implements HttpCache {
    private static final int ONLY_IF_CACHED = 5;
    private static final int MUST_REVALIDATE = 3;
 
+   // headers processed in responseHeader()
+   private static final AsciiString[] RESPONSE_HEADERS = {
+         HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.EXPIRES, HttpHeaderNames.AGE, HttpHeaderNames.DATE,
+         HttpHeaderNames.LAST_MODIFIED, HttpHeaderNames.ETAG, HttpHeaderNames.PRAGMA
+   };
+
    private final Clock clock;
    // TODO: optimize this structure
    private final Map<CharSequence, Map<CharSequence, List<Record>>> records = new HashMap<>();
@@ -50,6 +57,15 @@ public class HttpCacheImpl implements HttpCache {
       this.clock = clock;
    }
 
+   public static boolean isResponseHeader(ByteBuf buf, int offset, int length) {
+      for (AsciiString header : RESPONSE_HEADERS) {
+         if (io.hyperfoil.core.util.Util.contentEqualsIgnoreCase(buf, offset, length, header)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
    @Override
    public void beforeRequestHeaders(HttpRequest request) {
       switch (request.method) {
@@ -64,7 +80,7 @@ public class HttpCacheImpl implements HttpCache {
       if (authorityRecords == null) {
          return;
       }
-      List<Record> pathRecords = authorityRecords.get(request.path);
+      List<Record> pathRecords = authorityRecords.get(request.path());
       if (pathRecords == null || pathRecords.isEmpty()) {
          return;
       }
@@ -311,7 +327,7 @@ public class HttpCacheImpl implements HttpCache {
          return;
       }
       Map<CharSequence, List<Record>> authorityRecords = records.computeIfAbsent(request.authority, a -> new HashMap<>());
-      List<Record> pathRecords = authorityRecords.computeIfAbsent(request.path, newList);
+      List<Record> pathRecords = authorityRecords.computeIfAbsent(request.path(), newList);
       if (cc.responseEtag != null) {
          boolean weak = false;
          if (AsciiString.regionMatches(cc.responseEtag, false, 0, "W/", 0, 2)) {
@@ -1,5 +1,6 @@
 package io.hyperfoil.core.http;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.TimeZone;
 
@@ -7,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.hyperfoil.util.Util;
+import io.netty.buffer.ByteBuf;
 import io.netty.util.AsciiString;
 
 public final class HttpUtil {
@@ -17,9 +19,94 @@ public final class HttpUtil {
 
    public static final String HTTP_PREFIX = "http://";
    public static final String HTTPS_PREFIX = "https://";
+   private static final byte[] HTTP_PREFIX_BYTES = HTTP_PREFIX.getBytes(StandardCharsets.US_ASCII);
+   private static final byte[] HTTPS_PREFIX_BYTES = HTTPS_PREFIX.getBytes(StandardCharsets.US_ASCII);
 
    private HttpUtil() {}
 
+   /**
+    * @param url URL between reader and writer index.
+    * @return Length of <code>http://</code> or <code>https://</code> prefix or 0 if the URL has none.
+    */
+   public static int prefixLength(ByteBuf url) {
+      if (startsWith(url, url.readerIndex(), HTTP_PREFIX_BYTES)) {
+         return HTTP_PREFIX_BYTES.length;
+      } else if (startsWith(url, url.readerIndex(), HTTPS_PREFIX_BYTES)) {
+         return HTTPS_PREFIX_BYTES.length;
+      } else {
+         return 0;
+      }
+   }
+
+   /**
+    * @return True if the authority is at given position and it is followed by path, query or end of the URL.
+    */
+   public static boolean authorityMatch(ByteBuf url, int index, byte[] authority) {
+      if (!startsWith(url, index, authority)) {
+         return false;
+      }
+      int end = index + authority.length;
+      if (end == url.writerIndex()) {
+         return true;
+      }
+      byte b = url.getByte(end);
+      return b == '/' || b == '?';
+   }
+
+   private static boolean startsWith(ByteBuf buf, int index, byte[] prefix) {
+      if (buf.writerIndex() - index < prefix.length) {
+         return false;
+      }
+      for (int i = 0; i < prefix.length; ++i) {
+         if (buf.getByte(index + i) != prefix[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @return Number of bytes {@link #writeEscapedPath(ByteBuf, ByteBuf)} will write.
+    */
+   public static int escapedPathLength(ByteBuf path) {
+      int length = path.readableBytes();
+      int end = path.writerIndex();
+      for (int i = path.readerIndex(); i < end; ++i) {
+         byte b = path.getByte(i);
+         if (b == '?') {
+            break;
+         } else if (b == ' ') {
+            length += 2;
+         }
+      }
+      return length;
+   }
+
+   /**
+    * Copies readable bytes of the path, replacing spaces with <code>%20</code> before the query
+    * and with <code>+</code> in the query.
+    */
+   public static void writeEscapedPath(ByteBuf path, ByteBuf out) {
+      int start = path.readerIndex();
+      int end = path.writerIndex();
+      boolean beforeQuestion = true;
+      for (int i = start; i < end; ++i) {
+         byte b = path.getByte(i);
+         if (b == ' ') {
+            out.writeBytes(path, start, i - start);
+            if (beforeQuestion) {
+               out.writeByte('%').writeByte('2').writeByte('0');
+            } else {
+               out.writeByte('+');
+            }
+            start = i + 1;
+         } else if (b == '?') {
+            beforeQuestion = false;
+         }
+      }
+      out.writeBytes(path, start, end - start);
+   }
+
    static int indexOf(CharSequence seq, int begin, char c) {
       int length = seq.length();
       for (int i = begin; i < length; ++i) {
@@ -1,81 +1,199 @@
 package io.hyperfoil.core.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import io.hyperfoil.api.collection.ElasticPool;
+import io.netty.util.concurrent.EventExecutor;
 
+/**
+ * Pool split into one local queue per executor. Objects are always returned to the queue of the executor
+ * they are bound to; objects that don't fit to the local queue are kept in an overflow queue shared by all executors.
+ * <p>
+ * {@link #acquire()} prefers the queue of the executor it is invoked from and the overflow queue; when these
+ * are depleted it steals from the siblings (at most one pass over all of them). As any executor can poll any queue
+ * the local queues are bounded multi-producer multi-consumer queues. {@link #acquireLocal()} does not steal:
+ * it returns <code>null</code> when the local and overflow queues are empty but invokes the depletion supplier
+ * only if all the queues are empty.
+ *
+ * @param <T> The type of elements in this pool.
+ */
 public class ElasticPoolImpl<T> implements ElasticPool<T> {
+   private static final EventExecutor[] NO_EXECUTORS = new EventExecutor[0];
+   @SuppressWarnings("rawtypes")
+   private static final AtomicIntegerFieldUpdater<ElasticPoolImpl> MAX_USED =
+         AtomicIntegerFieldUpdater.newUpdater(ElasticPoolImpl.class, "maxUsed");
+
    private final Supplier<T> initSupplier;
    private final Supplier<T> depletionSupplier;
-   private ArrayBlockingQueue<T> primaryQueue;
-   private final BlockingQueue<T> secondaryQueue = new LinkedBlockingQueue<>();
-   private final LongAdder used = new LongAdder();
-   private volatile int minUsed = Integer.MAX_VALUE, maxUsed;
+   private final EventExecutor[] executors;
+   private final ToIntFunction<T> executorIndex;
+   private final int[] created;
+   private int totalCreated;
+   private Queue<T>[] localQueues;
+   // Polled from all executors
+   private final Queue<T> overflowQueue = new ConcurrentLinkedQueue<>();
+   // Only a hint, races are harmless
+   private int lastIndex;
+   private final AtomicInteger used = new AtomicInteger();
+   private final AtomicInteger minUsed = new AtomicInteger(Integer.MAX_VALUE);
+   private volatile int maxUsed;
 
    public ElasticPoolImpl(Supplier<T> initSupplier, Supplier<T> depletionSupplier) {
+      this(initSupplier, depletionSupplier, NO_EXECUTORS, o -> 0);
+   }
+
+   /**
+    * @param initSupplier      Creates objects when the pool is reserved.
+    * @param depletionSupplier Invoked when all local queues are depleted.
+    * @param executors         Executors that own the local queues.
+    * @param executorIndex     Index into <code>executors</code> the object is bound to.
+    */
+   public ElasticPoolImpl(Supplier<T> initSupplier, Supplier<T> depletionSupplier, EventExecutor[] executors, ToIntFunction<T> executorIndex) {
       this.initSupplier = initSupplier;
       this.depletionSupplier = depletionSupplier;
+      this.executors = executors;
+      this.executorIndex = executorIndex;
+      this.created = new int[Math.max(1, executors.length)];
+      this.localQueues = newQueues(created);
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> Queue<T>[] newQueues(int[] capacities) {
+      Queue<T>[] queues = new Queue[capacities.length];
+      for (int i = 0; i < queues.length; ++i) {
+         // The queue is usually accessed only by its own executor so the lock is not contended
+         queues[i] = new ArrayBlockingQueue<>(Math.max(1, capacities[i]));
+      }
+      return queues;
    }
 
    @Override
    public T acquire() {
-      // TODO: there's quite some contention on the primary queue.
-      //  Try to use queue per executor with work-stealing pattern.
-      T object = primaryQueue.poll();
-      if (object != null) {
-         incrementUsed();
-         return object;
+      Queue<T>[] queues = this.localQueues;
+      int start = currentIndex();
+      T object = queues[start].poll();
+      if (object == null) {
+         object = overflowQueue.poll();
+      }
+      if (object == null) {
+         for (int index = start + 1; ; ++index) {
+            if (index == queues.length) {
+               index = 0;
+            }
+            if (index == start) {
+               object = depletionSupplier.get();
+               break;
+            }
+            object = queues[index].poll();
+            if (object != null) {
+               break;
+            }
+         }
       }
-      object = secondaryQueue.poll();
       if (object != null) {
          incrementUsed();
-         return object;
       }
-      object = depletionSupplier.get();
+      return object;
+   }
+
+   @Override
+   public T acquireLocal() {
+      T object = localQueues[currentIndex()].poll();
+      if (object == null) {
+         object = overflowQueue.poll();
+      }
+      // When only this executor's share is used up the caller should just throttle, the pool is not depleted
+      if (object == null && isEmpty()) {
+         object = depletionSupplier.get();
+      }
       if (object != null) {
          incrementUsed();
       }
       return object;
    }
 
+   private boolean isEmpty() {
+      for (Queue<T> queue : localQueues) {
+         if (!queue.isEmpty()) {
+            return false;
+         }
+      }
+      return overflowQueue.isEmpty();
+   }
+
+   private int currentIndex() {
+      if (executors.length == 0) {
+         return 0;
+      }
+      int index = lastIndex;
+      if (executors[index].inEventLoop()) {
+         return index;
+      }
+      for (int i = 0; i < executors.length; ++i) {
+         if (executors[i].inEventLoop()) {
+            return lastIndex = i;
+         }
+      }
+      throw new IllegalStateException("The pool must be acquired from one of the executors.");
+   }
+
    private void incrementUsed() {
-      used.increment();
-      long currentlyUsed = used.longValue();
-      if (currentlyUsed > maxUsed) {
-         maxUsed = (int) currentlyUsed;
+      int currentlyUsed = used.incrementAndGet();
+      int max = maxUsed;
+      while (currentlyUsed > max && !MAX_USED.compareAndSet(this, max, currentlyUsed)) {
+         max = maxUsed;
       }
    }
 
    @Override
    public void release(T object) {
-      used.decrement();
-      long currentlyUsed = used.longValue();
-      if (currentlyUsed < minUsed) {
-         minUsed = (int) currentlyUsed;
+      int currentlyUsed = used.decrementAndGet();
+      int min = minUsed.get();
+      while (currentlyUsed < min && !minUsed.compareAndSet(min, currentlyUsed)) {
+         min = minUsed.get();
       }
-      if (primaryQueue.offer(object)) {
-         return;
+      if (!localQueues[executorIndex.applyAsInt(object)].offer(object)) {
+         overflowQueue.add(object);
       }
-      secondaryQueue.add(object);
    }
 
    @Override
    public void reserve(int capacity) {
-      if (primaryQueue == null || primaryQueue.size() < capacity) {
-         primaryQueue = new ArrayBlockingQueue<>(capacity);
+      if (totalCreated >= capacity) {
+         return;
+      }
+      // Reservation happens before the pool is used so we can safely replace the queues
+      List<T> objects = new ArrayList<>(capacity);
+      for (Queue<T> queue : localQueues) {
+         T object;
+         while ((object = queue.poll()) != null) {
+            objects.add(object);
+         }
+      }
+      while (totalCreated < capacity) {
+         T object = initSupplier.get();
+         created[executorIndex.applyAsInt(object)]++;
+         totalCreated++;
+         objects.add(object);
       }
-      while (primaryQueue.size() < capacity) {
-         primaryQueue.add(initSupplier.get());
+      Queue<T>[] queues = newQueues(created);
+      for (T object : objects) {
+         queues[executorIndex.applyAsInt(object)].add(object);
       }
+      localQueues = queues;
    }
 
    @Override
    public int minUsed() {
-      return minUsed;
+      return minUsed.get();
    }
 
    @Override
@@ -85,8 +203,8 @@ public class ElasticPoolImpl<T> implements ElasticPool<T> {
 
    @Override
    public void resetStats() {
-      int current = used.intValue();
-      minUsed = current;
+      int current = used.get();
+      minUsed.set(current);
       maxUsed = current;
    }
 }
@@ -0,0 +1,69 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.api.session.Scheduler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Scheduler submitting each timeout as a separate task to the executor.
+ */
+public class ExecutorScheduler implements Scheduler {
+   private static final Logger log = LoggerFactory.getLogger(ExecutorScheduler.class);
+
+   private final EventExecutor executor;
+
+   public ExecutorScheduler(EventExecutor executor) {
+      this.executor = executor;
+   }
+
+   @Override
+   public Timeout newTimeout(Runnable task) {
+      return new TimeoutImpl(task);
+   }
+
+   private class TimeoutImpl implements Timeout, Runnable {
+      private final Runnable task;
+      private ScheduledFuture<?> future;
+
+      TimeoutImpl(Runnable task) {
+         this.task = task;
+      }
+
+      @Override
+      public void schedule(long delay, TimeUnit timeUnit) {
+         if (future != null) {
+            future.cancel(false);
+         }
+         future = executor.schedule(this, delay, timeUnit);
+      }
+
+      @Override
+      public boolean cancel() {
+         if (future == null) {
+            return false;
+         }
+         future.cancel(false);
+         future = null;
+         return true;
+      }
+
+      @Override
+      public boolean isScheduled() {
+         return future != null;
+      }
+
+      @Override
+      public void run() {
+         future = null;
+         try {
+            task.run();
+         } catch (Throwable t) {
+            log.error("Scheduled task failed", t);
+         }
+      }
+   }
+}
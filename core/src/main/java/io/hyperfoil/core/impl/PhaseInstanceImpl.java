@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl;
 
 import io.hyperfoil.api.BenchmarkExecutionException;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.hyperfoil.api.config.BenchmarkDefinitionException;
 import io.hyperfoil.api.collection.ElasticPool;
@@ -11,14 +12,17 @@ import io.hyperfoil.api.session.PhaseInstance;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.IntStream;
 
 public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstance {
@@ -53,6 +57,8 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       constructors.put(Phase.Always.class, (BiFunction<Phase.Always, Integer, PhaseInstance>) Always::new);
       constructors.put(Phase.RampRate.class, (BiFunction<Phase.RampRate, Integer, PhaseInstance>) RampRate::new);
       constructors.put(Phase.ConstantRate.class, (BiFunction<Phase.ConstantRate, Integer, PhaseInstance>) ConstantRate::new);
+      constructors.put(Phase.RequestRate.class, (BiFunction<Phase.RequestRate, Integer, PhaseInstance>) RequestRate::new);
+      constructors.put(Phase.CapacitySearch.class, (BiFunction<Phase.CapacitySearch, Integer, PhaseInstance>) CapacitySearch::new);
       constructors.put(Phase.Sequentially.class, (BiFunction<Phase.Sequentially, Integer, PhaseInstance>) Sequentially::new);
       constructors.put(Phase.Noop.class, (BiFunction<Phase.Noop, Integer, PhaseInstance>) Noop::new);
    }
@@ -79,10 +85,10 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
    }
 
    @Override
-   public void start(EventExecutorGroup executorGroup) {
+   public void start(EventExecutorGroup executorGroup, long absoluteStartTime) {
       assert status == Status.NOT_STARTED : "Status is " + status;
       status = Status.RUNNING;
-      absoluteStartTime = System.currentTimeMillis();
+      this.absoluteStartTime = absoluteStartTime;
       log.debug("{} changing status to RUNNING", def.name);
       phaseChangeHandler.onChange(def, Status.RUNNING, false, error).thenRun(() -> proceed(executorGroup));
    }
@@ -136,6 +142,10 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       if (session != null) {
          sessionPool.release(session);
       }
+      decrementActive(session);
+   }
+
+   private void decrementActive(Session session) {
       int numActive = activeSessions.decrementAndGet();
       if (trace) {
          log.trace("#{} NotifyFinished, {} has {} active sessions", session == null ? -1 : session.uniqueId(), def.name, numActive);
@@ -191,7 +201,28 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       status = Status.STATS_COMPLETE;
    }
 
-   protected boolean startNewSession() {
+   /**
+    * Starts a session from the share of the executor this is invoked from, see {@link #acquireOnExecutors}.
+    *
+    * @return True if the session could not be started.
+    */
+   protected boolean startLocalSession() {
+      return startNewSession(Long.MIN_VALUE, true);
+   }
+
+   /**
+    * Must be invoked from one of the executors; the session is acquired from the share of this executor
+    * and when this is used up it is taken from the other executors.
+    *
+    * @param intendedStartNanos {@link System#nanoTime()} when the session should have started
+    *                           or {@link Long#MIN_VALUE} if this is not tracked.
+    * @return True if the session could not be started.
+    */
+   protected boolean startNewSession(long intendedStartNanos) {
+      return startNewSession(intendedStartNanos, false);
+   }
+
+   private boolean startNewSession(long intendedStartNanos, boolean local) {
       int numActive = activeSessions.incrementAndGet();
       if (numActive < 0) {
          // finished
@@ -202,7 +233,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       }
       Session session;
       try {
-         session = sessionPool.acquire();
+         session = local ? sessionPool.acquireLocal() : sessionPool.acquire();
       } catch (Throwable t) {
          log.error("Error during session acquisition", t);
          notifyFinished(null);
@@ -212,10 +243,56 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
          notifyFinished(null);
          return true;
       }
-      session.start(this);
+      if (intendedStartNanos == Long.MIN_VALUE) {
+         session.start(this);
+      } else {
+         session.start(this, intendedStartNanos);
+      }
       return false;
    }
 
+   /**
+    * Visits the executors one after another, each acquiring sessions from its own share of the pool
+    * (using {@link ElasticPool#acquireLocal()}) until it runs out of them; the sessions it could not provide
+    * are requested from the next executor.
+    * The phase cannot terminate until all executors are visited.
+    *
+    * @param executorGroup Executors the sessions are bound to.
+    * @param sessions      Number of sessions to acquire.
+    * @param acquire       Acquires a single session, returns false if that was not possible.
+    * @param onComplete    Invoked on the last visited executor.
+    */
+   protected void acquireOnExecutors(EventExecutorGroup executorGroup, int sessions, BooleanSupplier acquire, Runnable onComplete) {
+      if (activeSessions.incrementAndGet() < 0) {
+         // finished
+         return;
+      }
+      List<EventExecutor> executors = new ArrayList<>();
+      executorGroup.forEach(executors::add);
+      acquireOnExecutor(executors, 0, sessions, acquire, onComplete);
+   }
+
+   private void acquireOnExecutor(List<EventExecutor> executors, int index, int sessions, BooleanSupplier acquire, Runnable onComplete) {
+      executors.get(index).execute(() -> {
+         int remaining = sessions;
+         while (remaining > 0 && acquire.getAsBoolean()) {
+            --remaining;
+         }
+         if (remaining > 0 && index + 1 < executors.size()) {
+            acquireOnExecutor(executors, index + 1, remaining, acquire, onComplete);
+            return;
+         }
+         try {
+            if (onComplete != null) {
+               onComplete.run();
+            }
+         } finally {
+            // Balances the increment in acquireOnExecutors
+            decrementActive(null);
+         }
+      });
+   }
+
    public static class AtOnce extends PhaseInstanceImpl<Phase.AtOnce> {
       private final int users;
 
@@ -227,9 +304,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
          assert activeSessions.get() == 0;
-         for (int i = 0; i < users; ++i) {
-            startNewSession();
-         }
+         acquireOnExecutors(executorGroup, users, () -> !startLocalSession(), null);
       }
 
       @Override
@@ -251,9 +326,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
          assert activeSessions.get() == 0;
-         for (int i = 0; i < users; ++i) {
-            startNewSession();
-         }
+         acquireOnExecutors(executorGroup, users, () -> !startLocalSession(), null);
       }
 
       @Override
@@ -277,7 +350,8 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       protected final int maxSessions;
       protected final Random random = new Random();
       protected double nextScheduled;
-      protected AtomicLong throttledUsers = new AtomicLong(0);
+      // Intended start times (System.nanoTime()) of users that could not start because the session pool was depleted
+      protected final IntendedStarts throttledUsers = new IntendedStarts();
       protected long startedOrThrottledUsers = 0;
 
       protected OpenModelPhase(P def, int agentId) {
@@ -287,17 +361,31 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
+         if (status.isFinished()) {
+            return;
+         }
+         if (def.pacing == Phase.Pacing.NANOS) {
+            startPacers(executorGroup);
+         } else {
+            // Sessions are acquired preferably from the share of the executor that runs the tick
+            executorGroup.execute(() -> tick(executorGroup));
+         }
+      }
+
+      private void tick(EventExecutorGroup executorGroup) {
          if (status.isFinished()) {
             return;
          }
          long now = System.currentTimeMillis();
+         long nowNanos = System.nanoTime();
          long delta = now - absoluteStartTime;
          long nextDelta;
 
          if (def.variance) {
             while (delta > nextScheduled) {
-               if (startNewSession()) {
-                  throttledUsers.incrementAndGet();
+               long intendedStart = nowNanos - (long) ((delta - nextScheduled) * 1_000_000);
+               if (startNewSession(recordsAllStarts() ? intendedStart : Long.MIN_VALUE)) {
+                  throttledUsers.add(intendedStart);
                }
                startedOrThrottledUsers++;
                // TODO: after many iterations there will be some skew due to imprecise double calculations
@@ -307,8 +395,9 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
          } else {
             long required = nextSessionMetronome(delta);
             for (long i = required - startedOrThrottledUsers; i > 0; --i) {
-               if (startNewSession()) {
-                  throttledUsers.addAndGet(i);
+               if (startNewSession(recordsAllStarts() ? nowNanos : Long.MIN_VALUE)) {
+                  // The users were due since last invocation, with millisecond precision we can consider that 'now'
+                  throttledUsers.add(nowNanos, i);
                   break;
                }
             }
@@ -318,15 +407,43 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
 
          if (trace) {
             log.trace("{}: {} after start, {} started ({} throttled), next user in {} ms", def.name, delta,
-                  startedOrThrottledUsers, throttledUsers.get(), nextDelta - delta);
+                  startedOrThrottledUsers, throttledUsers.size(), nextDelta - delta);
          }
-         executorGroup.schedule(() -> proceed(executorGroup), nextDelta - delta, TimeUnit.MILLISECONDS);
+         executorGroup.schedule(() -> tick(executorGroup), nextDelta - delta, TimeUnit.MILLISECONDS);
+      }
+
+      /**
+       * With {@link Phase.Pacing#MILLIS} pacing only the users that were throttled record their start
+       * in the pacing statistics; phases that need to know the number of started users override this.
+       *
+       * @return True if all sessions should be started with the intended start time.
+       */
+      protected boolean recordsAllStarts() {
+         return false;
       }
 
       protected abstract long nextSessionMetronome(long delta);
 
       protected abstract double nextSessionRandomized();
 
+      /**
+       * Inverse of the cumulative arrival function.
+       *
+       * @param arrivals Number of users that arrived since the phase start (not necessarily whole).
+       * @return Nanoseconds since phase start when the number of arrivals is reached, NaN or infinity if it never happens.
+       */
+      protected abstract double arrivalNanos(double arrivals);
+
+      private void startPacers(EventExecutorGroup executorGroup) {
+         List<EventExecutor> executors = new ArrayList<>();
+         executorGroup.forEach(executors::add);
+         long startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - absoluteStartTime));
+         for (int i = 0; i < executors.size(); ++i) {
+            EventExecutor executor = executors.get(i);
+            executor.execute(new Pacer(executor, i, executors.size(), startNanos));
+         }
+      }
+
       @Override
       public void reserveSessions() {
          log.debug("Phase {} reserving {} sessions", def.name, maxSessions);
@@ -336,20 +453,174 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       @Override
       public void notifyFinished(Session session) {
          if (session != null && !status.isFinished()) {
-            long throttled = throttledUsers.get();
-            while (throttled != 0) {
-               if (throttledUsers.compareAndSet(throttled, throttled - 1)) {
-                  // TODO: it would be nice to compensate response times
-                  // in these invocations for the fact that we're applying
-                  // SUT feedback, but that would be imprecise anyway.
-                  session.start(this);
+            long intendedStart = throttledUsers.poll();
+            if (intendedStart != Long.MIN_VALUE) {
+               // The session knows it started late and the response times are corrected accordingly
+               session.start(this, intendedStart);
+               return;
+            }
+         }
+         super.notifyFinished(session);
+      }
+
+      /**
+       * Starts every n-th arrival of the phase on a single executor, n being the number of executors;
+       * the arrivals of all executors interleave and together follow the rate of the phase.
+       * Sessions are acquired preferably from the executor's own share of the pool.
+       */
+      private final class Pacer implements Runnable {
+         private final EventExecutor executor;
+         private final Arrivals arrivals;
+
+         Pacer(EventExecutor executor, int index, int stride, long startNanos) {
+            this.executor = executor;
+            this.arrivals = new Arrivals(OpenModelPhase.this::arrivalNanos, def.variance, index, stride, startNanos);
+         }
+
+         @Override
+         public void run() {
+            long now = System.nanoTime();
+            while (arrivals.next <= now) {
+               if (status.isFinished()) {
                   return;
-               } else {
-                  throttled = throttledUsers.get();
                }
+               if (startNewSession(arrivals.next)) {
+                  throttledUsers.add(arrivals.next);
+               }
+               if (!arrivals.advance()) {
+                  return;
+               }
+            }
+            if (!status.isFinished()) {
+               executor.schedule(this, arrivals.next - now, TimeUnit.NANOSECONDS);
             }
          }
-         super.notifyFinished(session);
+      }
+   }
+
+   /**
+    * Arrival times ({@link System#nanoTime()}) of every n-th user, n being the stride; the arrivals of all strides
+    * interleave and together follow the cumulative arrival function. This is not thread-safe, each executor
+    * pacing the arrivals keeps its own instance.
+    */
+   protected static final class Arrivals {
+      private final DoubleUnaryOperator arrivalNanos;
+      private final boolean variance;
+      private final int stride;
+      private final long startNanos;
+      private double arrivals;
+      long next;
+
+      /**
+       * @param arrivalNanos Inverse of the cumulative arrival function: nanoseconds since start
+       *                     when given number of users arrived. NaN or infinity stop the arrivals.
+       * @param variance     Randomize the arrivals (Poisson process) instead of regular intervals.
+       * @param index        Index of this sequence, 0 to stride - 1.
+       * @param stride       Number of interleaved sequences.
+       * @param startNanos   Start of the arrivals.
+       */
+      Arrivals(DoubleUnaryOperator arrivalNanos, boolean variance, int index, int stride, long startNanos) {
+         this.arrivalNanos = arrivalNanos;
+         this.variance = variance;
+         this.stride = stride;
+         this.startNanos = startNanos;
+         arrivals = variance ? 0 : index + 1 - stride;
+         advance();
+      }
+
+      /**
+       * @return False if there won't be any more arrivals.
+       */
+      boolean advance() {
+         if (variance) {
+            // Superposition of Poisson processes with 1/stride of the rate is a Poisson process with full rate
+            arrivals += stride * -Math.log(Math.max(1e-20, ThreadLocalRandom.current().nextDouble()));
+         } else {
+            // Calculating from the number of arrivals does not accumulate rounding errors
+            arrivals += stride;
+         }
+         double nanos = arrivalNanos.applyAsDouble(arrivals);
+         if (!(nanos < Long.MAX_VALUE >> 1)) {
+            // Also covers NaN: the rate dropped to zero
+            next = Long.MAX_VALUE;
+            return false;
+         }
+         next = startNanos + (long) nanos;
+         return true;
+      }
+   }
+
+   /**
+    * FIFO of intended start timestamps; this is accessed from all executors finishing the sessions
+    * but it's used only when the phase is throttled so simple locking suffices.
+    * <p>
+    * Users due within {@link #COALESCE_NANOS} from the last entry share it (with the earlier timestamp);
+    * the number of entries is capped and when the cap is reached further users are added to the last entry,
+    * therefore a long throttled run does not grow the queue with the number of throttled users.
+    */
+   protected static final class IntendedStarts {
+      static final long COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+      static final int MAX_ENTRIES = 1 << 16;
+
+      private long[] timestamps = new long[16];
+      private long[] counts = new long[16];
+      private int head;
+      private int entries;
+      private long size;
+      private boolean overflowed;
+
+      void add(long timestamp) {
+         add(timestamp, 1);
+      }
+
+      synchronized void add(long timestamp, long count) {
+         if (entries > 0) {
+            int tail = (head + entries - 1) & (timestamps.length - 1);
+            if (timestamp - timestamps[tail] < COALESCE_NANOS || entries == MAX_ENTRIES) {
+               if (entries == MAX_ENTRIES && !overflowed) {
+                  overflowed = true;
+                  log.warn("Too many throttled users, the intended start times will be less precise.");
+               }
+               counts[tail] += count;
+               size += count;
+               return;
+            }
+         }
+         if (entries == timestamps.length) {
+            long[] newTimestamps = new long[timestamps.length * 2];
+            long[] newCounts = new long[counts.length * 2];
+            for (int i = 0; i < entries; ++i) {
+               newTimestamps[i] = timestamps[(head + i) & (timestamps.length - 1)];
+               newCounts[i] = counts[(head + i) & (counts.length - 1)];
+            }
+            timestamps = newTimestamps;
+            counts = newCounts;
+            head = 0;
+         }
+         int index = (head + entries++) & (timestamps.length - 1);
+         timestamps[index] = timestamp;
+         counts[index] = count;
+         size += count;
+      }
+
+      /**
+       * @return Oldest timestamp or {@link Long#MIN_VALUE} if there's none.
+       */
+      synchronized long poll() {
+         if (size == 0) {
+            return Long.MIN_VALUE;
+         }
+         long timestamp = timestamps[head];
+         if (--counts[head] == 0) {
+            head = (head + 1) & (timestamps.length - 1);
+            --entries;
+         }
+         --size;
+         return timestamp;
+      }
+
+      synchronized long size() {
+         return size;
       }
    }
 
@@ -386,6 +657,19 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
          double cCoef = def.duration * 1000 * Math.log(random.nextDouble());
          return nextScheduled + (-bCoef + Math.sqrt(bCoef * bCoef - 4 * aCoef * cCoef)) / (2 * aCoef);
       }
+
+      @Override
+      protected double arrivalNanos(double arrivals) {
+         // arrivals = initial * t + slope * t^2 / 2, solved for t
+         double slope = (targetUsersPerSec - initialUsersPerSec) * 1000 / def.duration;
+         double seconds;
+         if (Math.abs(slope) < 0.000001) {
+            seconds = arrivals / initialUsersPerSec;
+         } else {
+            seconds = (Math.sqrt(initialUsersPerSec * initialUsersPerSec + 2 * slope * arrivals) - initialUsersPerSec) / slope;
+         }
+         return seconds * 1_000_000_000;
+      }
    }
 
    public static class ConstantRate extends OpenModelPhase<Phase.ConstantRate> {
@@ -408,6 +692,264 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       protected double nextSessionRandomized() {
          return nextScheduled + (1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / usersPerSec);
       }
+
+      @Override
+      protected double arrivalNanos(double arrivals) {
+         return arrivals * 1_000_000_000 / usersPerSec;
+      }
+   }
+
+   /**
+    * The rate is piecewise constant; it starts at {@link Phase.CapacitySearch#initialUsersPerSec} and the controller
+    * changes it through {@link #setUsersPerSec(double)} as the search progresses. Each change starts a new segment
+    * that continues the cumulative arrival function of the previous one. Arrivals scheduled before the change
+    * are not rescheduled (the next one follows the new rate).
+    */
+   public static class CapacitySearch extends OpenModelPhase<Phase.CapacitySearch> {
+      private final int agentId;
+      private volatile Segment segment;
+
+      public CapacitySearch(Phase.CapacitySearch def, int agentId) {
+         super(def, agentId);
+         this.agentId = agentId;
+         segment = new Segment(0, 0, def.benchmark().slice(def.initialUsersPerSec, agentId));
+         nextScheduled = def.variance ? nextSessionRandomized() : 0;
+      }
+
+      /**
+       * @param usersPerSec Total rate of users for all agents.
+       */
+      public void setUsersPerSec(double usersPerSec) {
+         Segment current = segment;
+         long startMillis = Math.max(current.startMillis, System.currentTimeMillis() - absoluteStartTime);
+         segment = new Segment(startMillis, current.arrivals(startMillis), def.benchmark().slice(usersPerSec, agentId));
+         log.debug("{} changing rate to {} users per second", def.name, segment.usersPerSec);
+      }
+
+      @Override
+      protected boolean recordsAllStarts() {
+         // The controller checks that the phase did not fall behind the rate
+         return true;
+      }
+
+      @Override
+      protected long nextSessionMetronome(long delta) {
+         Segment segment = this.segment;
+         long required = (long) segment.arrivals(delta);
+         nextScheduled = Math.ceil(segment.arrivalMillis(startedOrThrottledUsers + 1));
+         return required;
+      }
+
+      @Override
+      protected double nextSessionRandomized() {
+         return nextScheduled + (1000 * -Math.log(Math.max(1e-20, random.nextDouble())) / segment.usersPerSec);
+      }
+
+      @Override
+      protected double arrivalNanos(double arrivals) {
+         return segment.arrivalMillis(arrivals) * 1_000_000;
+      }
+
+      private static final class Segment {
+         private final long startMillis;
+         private final double startArrivals;
+         private final double usersPerSec;
+
+         private Segment(long startMillis, double startArrivals, double usersPerSec) {
+            this.startMillis = startMillis;
+            this.startArrivals = startArrivals;
+            this.usersPerSec = usersPerSec;
+         }
+
+         private double arrivals(long delta) {
+            return startArrivals + (delta - startMillis) * usersPerSec / 1000;
+         }
+
+         private double arrivalMillis(double arrivals) {
+            return startMillis + (arrivals - startArrivals) * 1000 / usersPerSec;
+         }
+      }
+   }
+
+   /**
+    * All sessions are acquired when the phase starts, each executor taking them from its share of the pool,
+    * and each executor paces the arrivals for the sessions bound to it, using {@link System#nanoTime()}
+    * and a single scheduled task. When a session finishes
+    * it is either started again immediately (if an arrival is overdue) or kept aside until the next arrival;
+    * the sessions are returned to the pool only when the phase finishes.
+    */
+   public static class RequestRate extends PhaseInstanceImpl<Phase.RequestRate> {
+      private final int maxSessions;
+      private final double requestsPerSec;
+      private volatile Pacer[] pacers;
+
+      public RequestRate(Phase.RequestRate def, int agentId) {
+         super(def, agentId);
+         maxSessions = Math.max(1, def.benchmark().slice(def.maxSessions, agentId));
+         requestsPerSec = def.benchmark().slice(def.requestsPerSec, agentId);
+      }
+
+      @Override
+      public void reserveSessions() {
+         log.debug("Phase {} reserving {} sessions", def.name, maxSessions);
+         sessionPool.reserve(maxSessions);
+      }
+
+      @Override
+      public void proceed(EventExecutorGroup executorGroup) {
+         long startNanos = System.nanoTime();
+         // Filled by the executors one after another
+         List<List<Session>> slots = new ArrayList<>(agentThreads());
+         for (int i = 0; i < agentThreads(); ++i) {
+            slots.add(new ArrayList<>());
+         }
+         acquireOnExecutors(executorGroup, maxSessions, () -> {
+            if (activeSessions.incrementAndGet() < 0) {
+               // finished
+               return false;
+            }
+            Session session;
+            try {
+               session = sessionPool.acquireLocal();
+            } catch (Throwable t) {
+               log.error("Error during session acquisition", t);
+               notifyFinished(null);
+               return false;
+            }
+            if (session == null) {
+               notifyFinished(null);
+               return false;
+            }
+            slots.get(session.agentThreadId()).add(session);
+            return true;
+         }, () -> startPacers(slots, startNanos));
+      }
+
+      private void startPacers(List<List<Session>> slots, long startNanos) {
+         int acquired = slots.stream().mapToInt(List::size).sum();
+         Pacer[] pacers = new Pacer[agentThreads()];
+         for (int i = 0; i < pacers.length; ++i) {
+            List<Session> executorSlots = slots.get(i);
+            if (!executorSlots.isEmpty()) {
+               // Split the rate proportionally to the number of slots each executor got
+               double rate = requestsPerSec * executorSlots.size() / acquired;
+               pacers[i] = new Pacer(executorSlots.get(0).executor(), executorSlots.toArray(new Session[0]), rate, startNanos);
+            }
+         }
+         this.pacers = pacers;
+         for (Pacer pacer : pacers) {
+            if (pacer != null) {
+               pacer.executor.execute(pacer);
+            }
+         }
+         if (status.isFinished()) {
+            // The phase finished before the pacers were set; the acquired sessions won't be started
+            releaseIdle();
+         }
+      }
+
+      @Override
+      public void notifyFinished(Session session) {
+         Pacer[] pacers = this.pacers;
+         if (session == null || status.isFinished() || pacers == null) {
+            super.notifyFinished(session);
+         } else {
+            pacers[session.agentThreadId()].reuse(session);
+         }
+      }
+
+      @Override
+      public void finish() {
+         super.finish();
+         releaseIdle();
+      }
+
+      @Override
+      public void terminate() {
+         super.terminate();
+         releaseIdle();
+      }
+
+      private void releaseIdle() {
+         Pacer[] pacers = this.pacers;
+         if (pacers != null) {
+            for (Pacer pacer : pacers) {
+               if (pacer != null) {
+                  pacer.executor.execute(pacer::releaseIdle);
+               }
+            }
+         }
+      }
+
+      /**
+       * Arrival schedule for one executor; all methods must be invoked from this executor.
+       * The sessions record the difference between scheduled and actual start in the pacing statistics.
+       */
+      private final class Pacer implements Runnable {
+         private final EventExecutor executor;
+         private final Session[] idle;
+         private final Arrivals arrivals;
+         private int idleCount;
+         private boolean scheduled;
+
+         private Pacer(EventExecutor executor, Session[] sessions, double requestsPerSec, long startNanos) {
+            this.executor = executor;
+            this.idle = sessions;
+            this.idleCount = sessions.length;
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSec;
+            this.arrivals = new Arrivals(n -> n * intervalNanos, def.variance, 0, 1, startNanos);
+         }
+
+         @Override
+         public void run() {
+            scheduled = false;
+            if (status.isFinished()) {
+               return;
+            }
+            long now = System.nanoTime();
+            while (arrivals.next <= now) {
+               if (idleCount == 0) {
+                  // We'll continue when some session finishes
+                  setSessionLimitExceeded();
+                  return;
+               }
+               Session session = idle[--idleCount];
+               idle[idleCount] = null;
+               start(session);
+            }
+            schedule(now);
+         }
+
+         private void reuse(Session session) {
+            long now = System.nanoTime();
+            if (arrivals.next <= now) {
+               start(session);
+            } else {
+               idle[idleCount++] = session;
+               if (!scheduled) {
+                  schedule(now);
+               }
+            }
+         }
+
+         private void start(Session session) {
+            session.start(RequestRate.this, arrivals.next);
+            arrivals.advance();
+         }
+
+         private void schedule(long now) {
+            scheduled = true;
+            executor.schedule(this, arrivals.next - now, TimeUnit.NANOSECONDS);
+         }
+
+         private void releaseIdle() {
+            while (idleCount > 0) {
+               Session session = idle[--idleCount];
+               idle[idleCount] = null;
+               RequestRate.super.notifyFinished(session);
+            }
+         }
+      }
    }
 
    public static class Sequentially extends PhaseInstanceImpl<Phase.Sequentially> {
@@ -420,7 +962,7 @@ public abstract class PhaseInstanceImpl<D extends Phase> implements PhaseInstanc
       @Override
       public void proceed(EventExecutorGroup executorGroup) {
          assert activeSessions.get() == 0;
-         startNewSession();
+         acquireOnExecutors(executorGroup, 1, () -> !startLocalSession(), null);
       }
 
       @Override
@@ -1,17 +1,21 @@
 package io.hyperfoil.core.impl;
 
 import io.hyperfoil.api.BenchmarkExecutionException;
+import io.hyperfoil.api.config.Agent;
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.Scheduling;
 import io.hyperfoil.api.connection.HttpDestinationTable;
+import io.hyperfoil.api.session.Scheduler;
 import io.hyperfoil.api.session.SharedData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.core.client.netty.HttpDestinationTableImpl;
 import io.hyperfoil.core.client.netty.PrivateConnectionPool;
+import io.hyperfoil.core.session.AgentSharedData;
 import io.hyperfoil.core.session.SharedDataImpl;
 import io.hyperfoil.core.util.Util;
 import io.hyperfoil.internal.Properties;
 import io.netty.channel.EventLoop;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 import io.hyperfoil.api.config.Http;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.connection.HttpClientPool;
@@ -45,6 +49,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.net.ssl.SSLException;
@@ -61,8 +66,10 @@ public class SimulationRunnerImpl implements SimulationRunner {
    protected final Map<String, PhaseInstance> instances = new HashMap<>();
    protected final List<Session> sessions = new ArrayList<>();
    private final Map<String, SharedResources> sharedResources = new HashMap<>();
-   protected final NioEventLoopGroup eventLoopGroup;
+   protected final Transport transport;
+   protected final EventLoopGroup eventLoopGroup;
    protected final EventLoop[] executors;
+   protected final Scheduler[] schedulers;
    protected final Map<String, HttpClientPool> httpClientPools = new HashMap<>();
    protected final HttpDestinationTableImpl[] httpDestinations;
    private final Queue<Phase> toPrune;
@@ -72,8 +79,13 @@ public class SimulationRunnerImpl implements SimulationRunner {
    private Thread jitterWatchdog;
 
    public SimulationRunnerImpl(Benchmark benchmark, int agentId) {
-      this.eventLoopGroup = new NioEventLoopGroup(benchmark.threads(agentId));
+      Agent agent = benchmark.agents().length == 0 ? null : benchmark.agents()[agentId];
+      String transportName = agent == null ? null : agent.transport();
+      this.transport = Transport.select(transportName == null ? Properties.get(Properties.AGENT_TRANSPORT, null) : transportName);
+      log.info("Using {} transport", transport);
+      this.eventLoopGroup = transport.createEventLoopGroup(benchmark.threads(agentId));
       this.executors = StreamSupport.stream(eventLoopGroup.spliterator(), false).map(EventLoop.class::cast).toArray(EventLoop[]::new);
+      this.schedulers = Stream.of(executors).map(executor -> createScheduler(benchmark.scheduling(), executor)).toArray(Scheduler[]::new);
       this.benchmark = benchmark;
       this.agentId = agentId;
       this.httpDestinations = new HttpDestinationTableImpl[executors.length];
@@ -82,7 +94,7 @@ public class SimulationRunnerImpl implements SimulationRunner {
       Map<String, HttpConnectionPool>[] httpConnectionPools = new Map[executors.length];
       for (Map.Entry<String, Http> http : benchmark.http().entrySet()) {
          try {
-            HttpClientPool httpClientPool = new HttpClientPoolImpl(http.getValue(), executors, benchmark, agentId);
+            HttpClientPool httpClientPool = new HttpClientPoolImpl(http.getValue(), executors, schedulers, transport, benchmark, agentId);
             httpClientPools.put(http.getKey(), httpClientPool);
             if (http.getValue().isDefault()) {
                httpClientPools.put(null, httpClientPool);
@@ -109,6 +121,17 @@ public class SimulationRunnerImpl implements SimulationRunner {
       }
    }
 
+   private static Scheduler createScheduler(Scheduling scheduling, EventLoop executor) {
+      if (scheduling == null || scheduling.type() == Scheduling.Type.EXECUTOR) {
+         return new ExecutorScheduler(executor);
+      }
+      return new WheelScheduler(executor, scheduling.tickDurationNanos(), scheduling.wheelSize());
+   }
+
+   public Transport transport() {
+      return transport;
+   }
+
    public void setPhaseChangeHandler(PhaseChangeHandler phaseChangeHandler) {
       this.phaseChangeHandler = phaseChangeHandler;
    }
@@ -145,7 +168,7 @@ public class SimulationRunnerImpl implements SimulationRunner {
                if (benchmark.ergonomics().privateHttpPools()) {
                   httpDestinations = new HttpDestinationTableImpl(httpDestinations, PrivateConnectionPool::new);
                }
-               session.attach(executors[executorId], data[executorId], httpDestinations, statistics[executorId]);
+               session.attach(executors[executorId], schedulers[executorId], data[executorId], httpDestinations, statistics[executorId]);
                session.reserve(def.scenario);
                return session;
             };
@@ -159,7 +182,7 @@ public class SimulationRunnerImpl implements SimulationRunner {
                }
                finalSharedResources.currentPhase.setSessionLimitExceeded();
                return null;
-            });
+            }, executors, Session::agentThreadId);
             this.sharedResources.put(def.sharedResources, sharedResources);
          }
          PhaseInstance phase = PhaseInstanceImpl.newInstance(def, agentId);
@@ -274,6 +297,9 @@ public class SimulationRunnerImpl implements SimulationRunner {
       for (HttpClientPool pool : httpClientPools.values()) {
          pool.shutdown();
       }
+      for (SharedResources resources : sharedResources.values()) {
+         resources.agentData.logStats();
+      }
       eventLoopGroup.shutdownGracefully(0, 10, TimeUnit.SECONDS);
    }
 
@@ -352,20 +378,24 @@ public class SimulationRunnerImpl implements SimulationRunner {
 
    @Override
    public void startPhase(String phase) {
+      startPhase(phase, System.currentTimeMillis());
+   }
+
+   @Override
+   public void startPhase(String phase, long startTime) {
       PhaseInstance phaseInstance = instances.get(phase);
       SharedResources sharedResources = this.sharedResources.get(phaseInstance.definition().sharedResources);
       if (sharedResources != null) {
          // Avoid NPE in noop phases
          sharedResources.currentPhase = phaseInstance;
          if (sharedResources.statistics != null) {
-            long now = System.currentTimeMillis();
             for (int i = 0; i < executors.length; ++i) {
                SessionStatistics statistics = sharedResources.statistics[i];
-               executors[i].execute(() -> applyToPhase(statistics, phaseInstance.definition(), now, Statistics::start));
+               executors[i].execute(() -> applyToPhase(statistics, phaseInstance.definition(), startTime, Statistics::start));
             }
          }
       }
-      phaseInstance.start(eventLoopGroup);
+      phaseInstance.start(eventLoopGroup, startTime);
    }
 
    private void applyToPhase(SessionStatistics statistics, Phase phase, long now, BiConsumer<Statistics, Long> f) {
@@ -383,6 +413,15 @@ public class SimulationRunnerImpl implements SimulationRunner {
       instances.get(phase).finish();
    }
 
+   @Override
+   public void adjustRate(String phase, double usersPerSec) {
+      PhaseInstance instance = instances.get(phase);
+      if (!(instance instanceof PhaseInstanceImpl.CapacitySearch)) {
+         throw new IllegalStateException("Phase " + phase + " does not support adjusting rate.");
+      }
+      ((PhaseInstanceImpl.CapacitySearch) instance).setUsersPerSec(usersPerSec);
+   }
+
    @Override
    public void tryTerminatePhase(String phase) {
       instances.get(phase).tryTerminate();
@@ -428,13 +467,15 @@ public class SimulationRunnerImpl implements SimulationRunner {
       List<Session> sessions;
       SessionStatistics[] statistics;
       SharedData[] data;
+      AgentSharedData agentData;
 
       SharedResources(int executorCount) {
          statistics = new SessionStatistics[executorCount];
          data = new SharedData[executorCount];
+         agentData = new AgentSharedData(executorCount);
          for (int executorId = 0; executorId < executorCount; ++executorId) {
             this.statistics[executorId] = new SessionStatistics();
-            this.data[executorId] = new SharedDataImpl();
+            this.data[executorId] = new SharedDataImpl(agentData, executorId);
          }
       }
    }
@@ -0,0 +1,198 @@
+package io.hyperfoil.core.impl;
+
+import java.lang.reflect.Method;
+import java.util.function.Predicate;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Netty transport driving the agent's event loops and the connections opened by HTTP client pools.
+ * <p>
+ * The event loop group and the channel class must always come from the same transport; use
+ * {@link #select(String)} once per agent and pass the result to all components that bootstrap channels.
+ */
+public enum Transport {
+   NIO {
+      @Override
+      public boolean isAvailable() {
+         return true;
+      }
+
+      @Override
+      public Throwable unavailabilityCause() {
+         return null;
+      }
+
+      @Override
+      public EventLoopGroup createEventLoopGroup(int threads) {
+         return new NioEventLoopGroup(threads);
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannelClass() {
+         return NioSocketChannel.class;
+      }
+   },
+   EPOLL {
+      @Override
+      public boolean isAvailable() {
+         return Epoll.isAvailable();
+      }
+
+      @Override
+      public Throwable unavailabilityCause() {
+         return Epoll.unavailabilityCause();
+      }
+
+      @Override
+      public EventLoopGroup createEventLoopGroup(int threads) {
+         return new EpollEventLoopGroup(threads);
+      }
+
+      @Override
+      public Class<? extends SocketChannel> socketChannelClass() {
+         return EpollSocketChannel.class;
+      }
+
+      @Override
+      protected void configureNative(Bootstrap bootstrap, boolean reusePort) {
+         if (reusePort) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+         }
+      }
+   },
+   /**
+    * The io_uring transport is provided by the (optional) <code>netty-incubator-transport-native-io_uring</code>
+    * artifact; we access it reflectively so that it is not required on the classpath.
+    */
+   IO_URING {
+      private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+      @Override
+      public boolean isAvailable() {
+         try {
+            return (Boolean) Class.forName(PACKAGE + "IOUring").getMethod("isAvailable").invoke(null);
+         } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+         }
+      }
+
+      @Override
+      public Throwable unavailabilityCause() {
+         try {
+            Method method = Class.forName(PACKAGE + "IOUring").getMethod("unavailabilityCause");
+            return (Throwable) method.invoke(null);
+         } catch (ReflectiveOperationException | LinkageError e) {
+            return e;
+         }
+      }
+
+      @Override
+      public EventLoopGroup createEventLoopGroup(int threads) {
+         try {
+            return (EventLoopGroup) Class.forName(PACKAGE + "IOUringEventLoopGroup").getConstructor(int.class).newInstance(threads);
+         } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create io_uring event loop group", e);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public Class<? extends SocketChannel> socketChannelClass() {
+         try {
+            return (Class<? extends SocketChannel>) Class.forName(PACKAGE + "IOUringSocketChannel");
+         } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot load io_uring socket channel", e);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      protected void configureNative(Bootstrap bootstrap, boolean reusePort) {
+         if (reusePort) {
+            try {
+               Object option = Class.forName(PACKAGE + "IOUringChannelOption").getField("SO_REUSEPORT").get(null);
+               bootstrap.option((ChannelOption<Boolean>) option, true);
+            } catch (ReflectiveOperationException e) {
+               log.warn("Cannot set SO_REUSEPORT on io_uring transport", e);
+            }
+         }
+      }
+   };
+
+   private static final Logger log = LoggerFactory.getLogger(Transport.class);
+   private static final String AUTO = "auto";
+
+   public abstract boolean isAvailable();
+
+   public abstract Throwable unavailabilityCause();
+
+   public abstract EventLoopGroup createEventLoopGroup(int threads);
+
+   public abstract Class<? extends SocketChannel> socketChannelClass();
+
+   /**
+    * Set the channel class and socket options common to all connections.
+    *
+    * @param bootstrap Client bootstrap.
+    * @param reusePort Set <code>SO_REUSEPORT</code> (ignored on NIO).
+    */
+   public void configure(Bootstrap bootstrap, boolean reusePort) {
+      bootstrap.channel(socketChannelClass());
+      bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
+      bootstrap.option(ChannelOption.SO_REUSEADDR, true);
+      bootstrap.option(ChannelOption.TCP_NODELAY, true);
+      configureNative(bootstrap, reusePort);
+   }
+
+   protected void configureNative(Bootstrap bootstrap, boolean reusePort) {
+      if (reusePort) {
+         log.debug("SO_REUSEPORT is not supported on {} transport", this);
+      }
+   }
+
+   /**
+    * Pick the transport by name; <code>null</code> or <code>auto</code> selects the best available transport.
+    * If the requested transport is not available on this machine we fall back to the automatic selection.
+    *
+    * @param name One of <code>nio</code>, <code>epoll</code>, <code>io_uring</code> or <code>auto</code>.
+    * @return Selected transport.
+    */
+   public static Transport select(String name) {
+      return select(name, Transport::isAvailable);
+   }
+
+   static Transport select(String name, Predicate<Transport> isAvailable) {
+      if (name == null || name.isEmpty() || AUTO.equalsIgnoreCase(name)) {
+         return auto(isAvailable);
+      }
+      Transport transport;
+      try {
+         transport = valueOf(name.toUpperCase().replace('-', '_'));
+      } catch (IllegalArgumentException e) {
+         throw new BenchmarkDefinitionException("Unknown transport '" + name + "', use one of: nio, epoll, io_uring, auto");
+      }
+      if (isAvailable.test(transport)) {
+         return transport;
+      }
+      Transport fallback = auto(isAvailable);
+      log.warn("Transport {} is not available, falling back to {}", transport, fallback, transport.unavailabilityCause());
+      return fallback;
+   }
+
+   private static Transport auto(Predicate<Transport> isAvailable) {
+      return isAvailable.test(EPOLL) ? EPOLL : NIO;
+   }
+}
@@ -0,0 +1,159 @@
+package io.hyperfoil.core.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.api.session.Scheduler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Hashed timing wheel bound to single executor. Timeouts are kept in intrusive doubly-linked lists
+ * (one per slot) so that scheduling and cancelling is O(1) and does not allocate; the wheel is advanced
+ * by a periodic task on the executor that runs only while there are any pending timeouts.
+ * <p>
+ * The deadline is rounded up to the next tick: a task is never executed before its delay elapses
+ * but it can be executed up to one tick (plus the executor's latency) later.
+ */
+public class WheelScheduler implements Scheduler {
+   private static final Logger log = LoggerFactory.getLogger(WheelScheduler.class);
+
+   private final EventExecutor executor;
+   private final long tickNanos;
+   private final int mask;
+   private final Node[] wheel;
+   // Timeouts that have expired but haven't been executed yet
+   private final Node expired = new Node(null);
+   private final long startNanos = System.nanoTime();
+   private final Runnable tickTask = this::tick;
+   private long currentTick;
+   private int pending;
+   private ScheduledFuture<?> tickFuture;
+
+   public WheelScheduler(EventExecutor executor, long tickNanos, int wheelSize) {
+      this.executor = executor;
+      this.tickNanos = tickNanos;
+      int size = Integer.highestOneBit(wheelSize);
+      if (size < wheelSize) {
+         size <<= 1;
+      }
+      this.mask = size - 1;
+      this.wheel = new Node[size];
+      for (int i = 0; i < size; ++i) {
+         wheel[i] = new Node(null);
+      }
+   }
+
+   @Override
+   public Timeout newTimeout(Runnable task) {
+      return new Node(task);
+   }
+
+   private long elapsedTicks(long now) {
+      return (now - startNanos) / tickNanos;
+   }
+
+   private void add(Node node, long delayNanos) {
+      assert executor.inEventLoop();
+      long now = System.nanoTime();
+      if (pending++ == 0) {
+         // The wheel was idle; no need to process the ticks we've skipped
+         currentTick = elapsedTicks(now);
+         if (tickFuture == null) {
+            tickFuture = executor.scheduleAtFixedRate(tickTask, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+         }
+      }
+      long deadline = now - startNanos + Math.max(delayNanos, 0);
+      // round up
+      long deadlineTick = (deadline + tickNanos - 1) / tickNanos;
+      node.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+      node.linkBefore(wheel[(int) (node.deadlineTick & mask)]);
+   }
+
+   private void tick() {
+      long targetTick = elapsedTicks(System.nanoTime());
+      // When we are late by more than a full round we visit each slot only once
+      long lastTick = Math.min(targetTick, currentTick + wheel.length);
+      for (long t = currentTick + 1; t <= lastTick; ++t) {
+         Node head = wheel[(int) (t & mask)];
+         Node node = head.next;
+         while (node != head) {
+            Node next = node.next;
+            if (node.deadlineTick <= targetTick) {
+               node.unlink();
+               node.linkBefore(expired);
+            }
+            node = next;
+         }
+      }
+      currentTick = Math.max(currentTick, targetTick);
+      Node node;
+      // Executed tasks can cancel or reschedule other expired timeouts, therefore we pick them one by one
+      while ((node = expired.next) != expired) {
+         node.unlink();
+         --pending;
+         try {
+            node.task.run();
+         } catch (Throwable t) {
+            log.error("Scheduled task failed", t);
+         }
+      }
+      if (pending == 0 && tickFuture != null) {
+         tickFuture.cancel(false);
+         tickFuture = null;
+      }
+   }
+
+   private class Node implements Timeout {
+      private final Runnable task;
+      private Node prev;
+      private Node next;
+      private long deadlineTick;
+
+      Node(Runnable task) {
+         this.task = task;
+         if (task == null) {
+            // sentinel
+            prev = next = this;
+         }
+      }
+
+      void linkBefore(Node sentinel) {
+         prev = sentinel.prev;
+         next = sentinel;
+         sentinel.prev.next = this;
+         sentinel.prev = this;
+      }
+
+      void unlink() {
+         prev.next = next;
+         next.prev = prev;
+         prev = next = null;
+      }
+
+      @Override
+      public void schedule(long delay, TimeUnit timeUnit) {
+         if (next != null) {
+            unlink();
+            --pending;
+         }
+         add(this, timeUnit.toNanos(delay));
+      }
+
+      @Override
+      public boolean cancel() {
+         if (next == null) {
+            return false;
+         }
+         unlink();
+         --pending;
+         return true;
+      }
+
+      @Override
+      public boolean isScheduled() {
+         return next != null;
+      }
+   }
+}
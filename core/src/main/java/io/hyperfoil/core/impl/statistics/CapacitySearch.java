@@ -0,0 +1,177 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SLA;
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * State of the search for maximum sustainable rate in {@link Phase.CapacitySearch}, driven by the controller.
+ * <p>
+ * Each step runs at constant rate; statistics from all agents recorded between the end of warmup and the end of step
+ * are merged per metric and validated against the phase SLAs (whole step is the window, {@link SLA#window()} is
+ * ignored). The step fails, too, when the agents did not start the users at the requested rate: when the system slows
+ * down the sessions pile up and new users are throttled, while the requests that were sent might still pass the SLA.
+ * The rate is doubled until a step fails, then the interval between the highest passing and the lowest failing
+ * rate is bisected until it is narrower than the precision. The highest passing rate is the knee point.
+ * <p>
+ * This class is not thread-safe; the controller uses it from its event loop.
+ */
+public class CapacitySearch {
+   private static final Logger log = LoggerFactory.getLogger(CapacitySearch.class);
+
+   private final Phase.CapacitySearch def;
+   private final long phaseStart;
+   private final Map<String, StatisticsSnapshot> stepStats = new HashMap<>();
+   private double low = 0;
+   private double high = Double.POSITIVE_INFINITY;
+   private double usersPerSec;
+   private long stepStart;
+   private int firstSequenceId;
+   private int endSequenceId;
+   private long startedUsers;
+   private boolean converged;
+   private String lastFailure;
+
+   /**
+    * @param def        Phase definition.
+    * @param phaseStart Timestamp when the phase starts (and first step with initial rate begins).
+    */
+   public CapacitySearch(Phase.CapacitySearch def, long phaseStart) {
+      this.def = def;
+      this.phaseStart = phaseStart;
+      startStep(def.initialUsersPerSec, phaseStart);
+   }
+
+   public double usersPerSec() {
+      return usersPerSec;
+   }
+
+   /**
+    * @return Timestamp when enough statistics from current step should be available on the controller.
+    */
+   public long evaluationTime() {
+      return stepStart + def.stepDuration + Statistics.SAMPLING_PERIOD_MILLIS + 2 * def.benchmark().statisticsCollectionPeriod();
+   }
+
+   public boolean isConverged() {
+      return converged;
+   }
+
+   /**
+    * @return Highest rate that passed the SLAs so far, 0 if there's none.
+    */
+   public double knee() {
+      return low;
+   }
+
+   /**
+    * @return Message of the SLA violation in the last failed step, or null.
+    */
+   public String lastFailure() {
+      return lastFailure;
+   }
+
+   public void record(String metric, StatisticsSnapshot snapshot) {
+      if (converged || snapshot.sequenceId < firstSequenceId || snapshot.sequenceId >= endSequenceId) {
+         return;
+      }
+      StatisticsSnapshot stats = stepStats.computeIfAbsent(metric, m -> new StatisticsSnapshot(snapshot.histogramSpec));
+      snapshot.addInto(stats);
+   }
+
+   /**
+    * @param snapshot Pacing statistics: each started user records one response.
+    */
+   public void recordStarts(StatisticsSnapshot snapshot) {
+      if (converged || snapshot.sequenceId < firstSequenceId || snapshot.sequenceId >= endSequenceId) {
+         return;
+      }
+      startedUsers += snapshot.responseCount;
+   }
+
+   /**
+    * Validates the statistics of current step and decides next rate.
+    *
+    * @param nextStepStart Timestamp when the next step (if any) will start.
+    * @return True if the search continues with {@link #usersPerSec()}, false if it has converged.
+    */
+   public boolean evaluate(long nextStepStart) {
+      if (converged) {
+         return false;
+      }
+      String failure = validate();
+      double next;
+      if (failure == null) {
+         log.info("Phase {} sustained {} users per second", def.name, usersPerSec);
+         low = usersPerSec;
+         if (usersPerSec >= def.maxUsersPerSec) {
+            return converge();
+         }
+         next = Double.isInfinite(high) ? Math.min(usersPerSec * 2, def.maxUsersPerSec) : (low + high) / 2;
+      } else {
+         log.info("Phase {} failed at {} users per second: {}", def.name, usersPerSec, failure);
+         lastFailure = failure;
+         high = usersPerSec;
+         if (low == 0) {
+            next = usersPerSec / 2;
+            if (next < def.initialUsersPerSec * def.precision) {
+               return converge();
+            }
+         } else {
+            next = (low + high) / 2;
+         }
+      }
+      if (!Double.isInfinite(high) && high - low <= def.precision * high) {
+         return converge();
+      }
+      startStep(next, nextStepStart);
+      return true;
+   }
+
+   private boolean converge() {
+      converged = true;
+      stepStats.clear();
+      startedUsers = 0;
+      return false;
+   }
+
+   private String validate() {
+      long requests = 0;
+      for (Map.Entry<String, StatisticsSnapshot> entry : stepStats.entrySet()) {
+         requests += entry.getValue().requestCount;
+         for (SLA sla : def.sla) {
+            SLA.Failure failure = sla.validate(def.name, entry.getKey(), entry.getValue());
+            if (failure != null) {
+               return entry.getKey() + ": " + failure.message();
+            }
+         }
+      }
+      if (requests == 0) {
+         return "No requests were executed.";
+      }
+      double expectedUsers = usersPerSec * (endSequenceId - firstSequenceId) * Statistics.SAMPLING_PERIOD_MILLIS / 1000;
+      // With low rates the number of arrivals in the window varies more than the precision
+      double tolerance = Math.max(def.precision, 3 / Math.sqrt(Math.max(1, expectedUsers)));
+      if (startedUsers < expectedUsers * (1 - tolerance)) {
+         return String.format("Started only %d users out of %.0f, new users were throttled.", startedUsers, expectedUsers);
+      }
+      return null;
+   }
+
+   private void startStep(double usersPerSec, long stepStart) {
+      this.usersPerSec = usersPerSec;
+      this.stepStart = stepStart;
+      long period = Statistics.SAMPLING_PERIOD_MILLIS;
+      // Only periods that are fully within the step (after warmup) are considered
+      firstSequenceId = (int) ((stepStart + def.warmup - phaseStart + period - 1) / period);
+      endSequenceId = (int) ((stepStart + def.stepDuration - phaseStart) / period);
+      stepStats.clear();
+      startedUsers = 0;
+   }
+}
@@ -7,8 +7,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -35,8 +34,9 @@ public class CsvWriter {
       if (!statsDir.exists() && !statsDir.mkdirs()) {
          throw new IOException("Cannot create directory " + dir);
       }
-      Data[] sorted = store.data.values().stream().flatMap(map -> map.values().stream()).toArray(Data[]::new);
-      Arrays.sort(sorted, Comparator.comparing((Data d) -> d.phase).thenComparing(d -> d.metric).thenComparingInt(d -> d.stepId));
+      Data[] sorted = store.sortedData(true);
+      // Pacing lag is not listed with requests but its histogram and series are written, too
+      Data[] sortedWithPacing = store.sortedData(false);
 
       try (PrintWriter writer = new PrintWriter(dir + File.separator + "total.csv")) {
          writer.print("Phase,Metric,Start,End,");
@@ -66,9 +66,9 @@ public class CsvWriter {
             writer.println();
          }
       }
-      for (Data data : sorted) {
+      for (Data data : sortedWithPacing) {
          String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId;
-         writeHistogramAndSeries(filePrefix, data.total, data.series);
+         writeHistogramAndSeries(filePrefix, data.total, data.series());
       }
       writeCustomStats(sorted, data -> data.total, dir + File.separator + "custom.csv");
       String[] agents = store.data.values().stream()
@@ -110,9 +110,9 @@ public class CsvWriter {
                writer.println();
             }
          }
-         for (Data data : sorted) {
+         for (Data data : sortedWithPacing) {
             String filePrefix = dir + File.separator + sanitize(data.phase) + "." + sanitize(data.metric) + "." + data.stepId + ".agent." + agent;
-            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), data.agentSeries.get(agent));
+            writeHistogramAndSeries(filePrefix, data.perAgent.get(agent), data.agentSeries(agent));
          }
          writeCustomStats(sorted, data -> data.perAgent.get(agent), dir + File.separator + "agent." + sanitize(agent) + ".custom.csv");
       }
@@ -170,6 +170,47 @@ public class CsvWriter {
       }
    }
 
+   /**
+    * Writes series and histograms from the series persisted by a controller that did not complete the run,
+    * using the same file names as {@link #writeCsv(Path, StatisticsStore)}. Totals and custom statistics
+    * are not available.
+    *
+    * @param dir       Target directory.
+    * @param seriesDir Directory with the segments of the series.
+    * @throws IOException When the series cannot be read or written.
+    */
+   public static void writeRecoveredCsv(Path dir, Path seriesDir) throws IOException {
+      File statsDir = dir.toFile();
+      if (!statsDir.exists() && !statsDir.mkdirs()) {
+         throw new IOException("Cannot create directory " + dir);
+      }
+      try (SeriesStore store = SeriesStore.recover(seriesDir)) {
+         for (int id = 0; id < store.seriesCount(); ++id) {
+            SeriesStore.Key key = store.key(id);
+            if (key == null) {
+               continue;
+            }
+            StatisticsSnapshot total = null;
+            List<StatisticsSummary> series = new ArrayList<>();
+            for (StatisticsSnapshot snapshot : store.read(id)) {
+               if (total == null) {
+                  total = new StatisticsSnapshot(snapshot.histogramSpec);
+               }
+               snapshot.addInto(total);
+               series.add(snapshot.summary(StatisticsStore.PERCENTILES));
+            }
+            if (total == null) {
+               continue;
+            }
+            String filePrefix = dir + File.separator + sanitize(key.phase) + "." + sanitize(key.metric) + "." + key.stepId;
+            if (!key.agent.isEmpty()) {
+               filePrefix += ".agent." + key.agent;
+            }
+            writeHistogramAndSeries(filePrefix, total, series);
+         }
+      }
+   }
+
    private static void writeCustomStats(Data[] sorted, Function<Data, StatisticsSnapshot> selector, String fileName) throws FileNotFoundException {
       try (PrintWriter writer = new PrintWriter(fileName)) {
          writer.println("Phase,Metric,Custom,Value");
@@ -196,7 +237,7 @@ public class CsvWriter {
       return phase.replaceAll(File.separator, "_");
    }
 
-   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, List<StatisticsSummary> series) throws FileNotFoundException {
+   private static void writeHistogramAndSeries(String filePrefix, StatisticsSnapshot total, Iterable<StatisticsSummary> series) throws FileNotFoundException {
       if (total != null) {
          try (PrintStream stream = new PrintStream(new FileOutputStream(filePrefix + ".histogram.csv"))) {
             total.histogram.outputPercentileDistribution(stream, 5, 1000_000.0, true);
@@ -1,10 +1,10 @@
 package io.hyperfoil.core.impl.statistics;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
 import io.hyperfoil.api.statistics.StatisticsSummary;
@@ -24,30 +24,47 @@ final class Data {
    final String phase;
    final int stepId;
    final String metric;
+   final HistogramSpec histogramSpec;
    // for reporting
-   final StatisticsSnapshot total = new StatisticsSnapshot();
+   final StatisticsSnapshot total;
    final Map<String, StatisticsSnapshot> perAgent = new HashMap<>();
    final Map<String, IntObjectMap<StatisticsSnapshot>> lastStats = new HashMap<>();
-   final List<StatisticsSummary> series = new ArrayList<>();
-   final Map<String, List<StatisticsSummary>> agentSeries = new HashMap<>();
+   // the series are kept on disk
+   private final SeriesStore seriesStore;
+   private final int seriesId;
+   private final Map<String, Integer> agentSeriesIds = new HashMap<>();
+   private long seriesRequestCount;
+   private long agentSeriesRequestCount;
    // floating statistics for SLAs
    private final Map<SLA, StatisticsStore.Window> windowSlas;
    private final SLA[] totalSlas;
    private int highestSequenceId = 0;
    private boolean completed;
+   // sum of the penultimate period (the last one is likely not completed yet), maintained as snapshots arrive
+   private StatisticsSnapshot recent;
+   private StatisticsSummary recentSummary;
 
-   Data(StatisticsStore statisticsStore, String phase, int stepId, String metric, Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
+   Data(StatisticsStore statisticsStore, String phase, int stepId, String metric, HistogramSpec histogramSpec,
+        Map<SLA, StatisticsStore.Window> periodSlas, SLA[] totalSlas) {
       this.statisticsStore = statisticsStore;
       this.phase = phase;
       this.stepId = stepId;
       this.metric = metric;
+      this.histogramSpec = histogramSpec;
+      this.total = new StatisticsSnapshot(histogramSpec);
+      this.seriesStore = statisticsStore.seriesStore;
+      this.seriesId = seriesStore.define(phase, stepId, metric, null);
       this.windowSlas = periodSlas;
       this.totalSlas = totalSlas;
    }
 
    void record(String address, StatisticsSnapshot stats) {
+      if (!completed) {
+         // The period is appended to the series only after MERGE_DELAY; journal it to survive a crash
+         seriesStore.journal(agentSeriesId(address), stats);
+      }
       stats.addInto(total);
-      stats.addInto(perAgent.computeIfAbsent(address, a -> new StatisticsSnapshot()));
+      stats.addInto(perAgent.computeIfAbsent(address, a -> new StatisticsSnapshot(histogramSpec)));
       IntObjectMap<StatisticsSnapshot> partialSnapshots = lastStats.computeIfAbsent(address, a -> new IntObjectHashMap<>());
       StatisticsSnapshot partialSnapshot = partialSnapshots.get(stats.sequenceId);
       if (partialSnapshot == null) {
@@ -55,27 +72,69 @@ final class Data {
       } else {
          stats.addInto(partialSnapshot);
       }
-      while (stats.sequenceId > highestSequenceId) {
-         ++highestSequenceId;
-         int mergedSequenceId = highestSequenceId - MERGE_DELAY;
-         if (mergedSequenceId < 0) {
-            continue;
+      if (stats.sequenceId > highestSequenceId) {
+         while (stats.sequenceId > highestSequenceId) {
+            ++highestSequenceId;
+            int mergedSequenceId = highestSequenceId - MERGE_DELAY;
+            if (mergedSequenceId < 0) {
+               continue;
+            }
+            mergeSnapshots(mergedSequenceId);
+         }
+         updateRecent();
+      } else if (!completed && stats.sequenceId == highestSequenceId - 1) {
+         // late snapshot from another agent
+         if (recent == null) {
+            updateRecent();
+         } else {
+            stats.addInto(recent);
+            recentSummary = null;
          }
-         mergeSnapshots(mergedSequenceId);
       }
    }
 
+   private void updateRecent() {
+      int penultimateId = highestSequenceId - 1;
+      StatisticsSnapshot sum = new StatisticsSnapshot(histogramSpec);
+      for (IntObjectMap<StatisticsSnapshot> snapshots : lastStats.values()) {
+         StatisticsSnapshot snapshot = snapshots.get(penultimateId);
+         if (snapshot != null) {
+            snapshot.addInto(sum);
+         }
+      }
+      sum.sequenceId = penultimateId;
+      recentSummary = null;
+      if (sum.isEmpty()) {
+         recent = null;
+      } else {
+         recent = sum;
+         statisticsStore.recentUpdated(this);
+      }
+   }
+
+   /**
+    * @return Summary of the last completed period or <code>null</code> if there is none.
+    */
+   StatisticsSummary recent() {
+      if (recentSummary == null && recent != null) {
+         recentSummary = recent.summary(StatisticsStore.PERCENTILES);
+      }
+      return recentSummary;
+   }
+
    private void mergeSnapshots(int sequenceId) {
-      StatisticsSnapshot sum = new StatisticsSnapshot();
+      StatisticsSnapshot sum = new StatisticsSnapshot(histogramSpec);
       for (Map.Entry<String, IntObjectMap<StatisticsSnapshot>> entry : lastStats.entrySet()) {
          StatisticsSnapshot snapshot = entry.getValue().remove(sequenceId);
          if (snapshot != null) {
             snapshot.addInto(sum);
-            agentSeries.computeIfAbsent(entry.getKey(), a -> new ArrayList<>()).add(snapshot.summary(StatisticsStore.PERCENTILES));
+            seriesStore.append(agentSeriesId(entry.getKey()), snapshot);
+            agentSeriesRequestCount += snapshot.requestCount;
          }
       }
       if (!sum.isEmpty()) {
-         series.add(sum.summary(StatisticsStore.PERCENTILES));
+         seriesStore.append(seriesId, sum);
+         seriesRequestCount += sum.requestCount;
       }
       for (Map.Entry<SLA, StatisticsStore.Window> entry : windowSlas.entrySet()) {
          SLA sla = entry.getKey();
@@ -91,15 +150,19 @@ final class Data {
       }
    }
 
+   private int agentSeriesId(String address) {
+      return agentSeriesIds.computeIfAbsent(address, a -> seriesStore.define(phase, stepId, metric, a));
+   }
+
    void completePhase() {
       for (int i = Math.max(0, highestSequenceId - MERGE_DELAY); i <= highestSequenceId; ++i) {
          mergeSnapshots(i);
       }
       // Just sanity checks
-      if (series.stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (seriesRequestCount != total.requestCount) {
          log.error("We lost some data (series) in phase {} metric {}", phase, metric);
       }
-      if (agentSeries.values().stream().flatMap(List::stream).mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
+      if (agentSeriesRequestCount != total.requestCount) {
          log.error("We lost some data (agent series) in phase {} metric {}", phase, metric);
       }
       if (perAgent.values().stream().mapToLong(ss -> ss.requestCount).sum() != total.requestCount) {
@@ -111,10 +174,41 @@ final class Data {
             statisticsStore.addFailure(failure);
          }
       }
+      recent = null;
+      recentSummary = null;
       completed = true;
    }
 
    boolean isCompleted() {
       return completed;
    }
+
+   Iterable<StatisticsSummary> series() {
+      return summaries(seriesStore.read(seriesId));
+   }
+
+   /**
+    * @return Series for given agent or <code>null</code> if the agent did not report any statistics.
+    */
+   Iterable<StatisticsSummary> agentSeries(String agent) {
+      Integer agentSeriesId = agentSeriesIds.get(agent);
+      return agentSeriesId == null ? null : summaries(seriesStore.read(agentSeriesId));
+   }
+
+   private static Iterable<StatisticsSummary> summaries(Iterable<StatisticsSnapshot> snapshots) {
+      return () -> {
+         Iterator<StatisticsSnapshot> it = snapshots.iterator();
+         return new Iterator<StatisticsSummary>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public StatisticsSummary next() {
+               return it.next().summary(StatisticsStore.PERCENTILES);
+            }
+         };
+      };
+   }
 }
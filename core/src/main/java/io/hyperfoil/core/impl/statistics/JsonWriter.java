@@ -15,9 +15,7 @@ import org.HdrHistogram.HistogramIterationValue;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,8 +25,7 @@ public class JsonWriter {
    private static final String RUN_SCHEMA = "http://hyperfoil.io/run-schema/v2.0";
 
    public static void writeArrayJsons(StatisticsStore store, JsonGenerator jGenerator, JsonObject info) throws IOException {
-      Data[] sorted = store.data.values().stream().flatMap(map -> map.values().stream()).toArray(Data[]::new);
-      Arrays.sort(sorted, Comparator.comparing((Data data) -> data.phase).thenComparing(d -> d.metric).thenComparingInt(d -> d.stepId));
+      Data[] sorted = store.sortedData(true);
 
       jGenerator.writeStartObject(); //root of object
 
@@ -53,6 +50,7 @@ public class JsonWriter {
          jGenerator.writeNumberField("start", summary.startTime);
          jGenerator.writeNumberField("end", summary.endTime);
          jGenerator.writeObjectField("percentileResponseTime", summary.percentileResponseTime);
+         jGenerator.writeObjectField("percentileCorrectedResponseTime", summary.percentileCorrectedResponseTime);
          jGenerator.writeEndObject();
       }
       jGenerator.writeEndArray();
@@ -81,12 +79,14 @@ public class JsonWriter {
          jGenerator.writeStartObject();
          jGenerator.writeFieldName("percentiles");
          histogramArray(jGenerator, data.total.histogram.percentiles(5).iterator(), 100);
+         jGenerator.writeFieldName("correctedPercentiles");
+         histogramArray(jGenerator, data.total.correctedHistogram().percentiles(5).iterator(), 100);
          jGenerator.writeFieldName("linear");
          histogramArray(jGenerator, data.total.histogram.linearBucketValues(1_000_000).iterator(), 95);
          jGenerator.writeEndObject(); //histogram
 
          jGenerator.writeFieldName("series");
-         seriesArray(jGenerator, data.series);
+         seriesArray(jGenerator, data.series());
 
          jGenerator.writeEndObject(); //entry
       }
@@ -185,13 +185,16 @@ public class JsonWriter {
                jGenerator.writeFieldName("percentiles");
                histogramArray(jGenerator, data.perAgent.get(agent).histogram.percentiles(5).iterator(), 100);
 
+               jGenerator.writeFieldName("correctedPercentiles");
+               histogramArray(jGenerator, data.perAgent.get(agent).correctedHistogram().percentiles(5).iterator(), 100);
+
                jGenerator.writeFieldName("linear");
                histogramArray(jGenerator, data.perAgent.get(agent).histogram.linearBucketValues(1_000_000).iterator(), 95);
 
                jGenerator.writeEndObject(); // histograms
 
                jGenerator.writeFieldName("series");
-               seriesArray(jGenerator, data.agentSeries.get(agent));
+               seriesArray(jGenerator, data.agentSeries(agent));
 
                jGenerator.writeEndObject(); // agent stats entry
             }
@@ -299,7 +302,7 @@ public class JsonWriter {
       jGenerator.writeEndObject();
    }
 
-   private static void seriesArray(JsonGenerator jGenerator, List<StatisticsSummary> series) throws IOException {
+   private static void seriesArray(JsonGenerator jGenerator, Iterable<StatisticsSummary> series) throws IOException {
       jGenerator.writeStartArray(); //series
       if (series != null) {
          for (StatisticsSummary summary : series) {
@@ -0,0 +1,128 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSummary;
+
+/**
+ * Renders statistics in the Prometheus text exposition format (accepted by OpenMetrics scrapers, too).
+ * <p>
+ * Counters are read from the running totals and response time percentiles from the summary of the last completed
+ * period; both are maintained by {@link StatisticsStore} as the statistics arrive so no histogram is scanned here.
+ */
+public class OpenMetricsWriter {
+   public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+   private static final String[] STATUSES = { "2xx", "3xx", "4xx", "5xx", "other" };
+   private static final String[] ERRORS = { "connect", "reset", "timeout", "internal", "invalid" };
+
+   /**
+    * @param sb        Output.
+    * @param runId     Value of the <code>run</code> label.
+    * @param store     Statistics of the run.
+    * @param agentName Translates agent address to agent name.
+    */
+   public static void writeMetrics(StringBuilder sb, String runId, StatisticsStore store, Function<String, String> agentName) {
+      List<Data> data = store.getData();
+      double periodSeconds = store.collectionPeriod() / 1000d;
+
+      family(sb, "hyperfoil_requests_total", "counter", "Requests sent.");
+      for (Data d : data) {
+         sample(sb, "hyperfoil_requests_total", runId, d).append("} ").append(d.total.requestCount).append('\n');
+      }
+      family(sb, "hyperfoil_responses_total", "counter", "Responses received, by status.");
+      for (Data d : data) {
+         StatisticsSnapshot total = d.total;
+         int[] counts = { total.status_2xx, total.status_3xx, total.status_4xx, total.status_5xx, total.status_other };
+         for (int i = 0; i < STATUSES.length; ++i) {
+            sample(sb, "hyperfoil_responses_total", runId, d).append(",status=\"").append(STATUSES[i]).append("\"} ")
+                  .append(counts[i]).append('\n');
+         }
+      }
+      family(sb, "hyperfoil_errors_total", "counter", "Failed requests, by type.");
+      for (Data d : data) {
+         StatisticsSnapshot total = d.total;
+         int[] counts = { total.connectFailureCount, total.resetCount, total.timeouts, total.internalErrors, total.invalid };
+         for (int i = 0; i < ERRORS.length; ++i) {
+            sample(sb, "hyperfoil_errors_total", runId, d).append(",type=\"").append(ERRORS[i]).append("\"} ")
+                  .append(counts[i]).append('\n');
+         }
+      }
+      family(sb, "hyperfoil_recent_request_rate", "gauge", "Requests per second in the last completed period.");
+      for (Data d : data) {
+         StatisticsSummary recent = d.recent();
+         if (recent != null) {
+            sample(sb, "hyperfoil_recent_request_rate", runId, d).append("} ")
+                  .append(recent.requestCount / periodSeconds).append('\n');
+         }
+      }
+      family(sb, "hyperfoil_recent_response_time_seconds", "gauge", "Response time percentiles in the last completed period.");
+      for (Data d : data) {
+         StatisticsSummary recent = d.recent();
+         if (recent == null) {
+            continue;
+         }
+         // the summary keys are percents
+         for (Map.Entry<Double, Long> entry : recent.percentileResponseTime.entrySet()) {
+            sample(sb, "hyperfoil_recent_response_time_seconds", runId, d).append(",quantile=\"").append(entry.getKey() / 100)
+                  .append("\"} ").append(entry.getValue() / 1e9).append('\n');
+         }
+      }
+      sessions(sb, runId, store, agentName, "hyperfoil_sessions_min", "Lowest number of used sessions in the last report.", r -> r.low);
+      sessions(sb, runId, store, agentName, "hyperfoil_sessions_max", "Highest number of used sessions in the last report.", r -> r.high);
+   }
+
+   private static void sessions(StringBuilder sb, String runId, StatisticsStore store, Function<String, String> agentName,
+                                String name, String help, ToLongFunction<StatisticsStore.SessionPoolRecord> value) {
+      family(sb, name, "gauge", help);
+      for (Map.Entry<String, StatisticsStore.SessionPoolStats> phaseEntry : store.sessionPoolStats.entrySet()) {
+         for (Map.Entry<String, List<StatisticsStore.SessionPoolRecord>> addressEntry : phaseEntry.getValue().records.entrySet()) {
+            List<StatisticsStore.SessionPoolRecord> records = addressEntry.getValue();
+            if (records.isEmpty()) {
+               continue;
+            }
+            sb.append(name).append("{run=\"");
+            escape(sb, runId).append("\",phase=\"");
+            escape(sb, phaseEntry.getKey()).append("\",agent=\"");
+            escape(sb, agentName.apply(addressEntry.getKey())).append("\"} ")
+                  .append(value.applyAsLong(records.get(records.size() - 1))).append('\n');
+         }
+      }
+   }
+
+   private static void family(StringBuilder sb, String name, String type, String help) {
+      sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+   }
+
+   private static StringBuilder sample(StringBuilder sb, String name, String runId, Data data) {
+      sb.append(name).append("{run=\"");
+      escape(sb, runId).append("\",phase=\"");
+      escape(sb, data.phase).append("\",metric=\"");
+      return escape(sb, data.metric).append('"');
+   }
+
+   private static StringBuilder escape(StringBuilder sb, String value) {
+      for (int i = 0; i < value.length(); ++i) {
+         char c = value.charAt(i);
+         switch (c) {
+            case '\\':
+               sb.append("\\\\");
+               break;
+            case '"':
+               sb.append("\\\"");
+               break;
+            case '\n':
+               sb.append("\\n");
+               break;
+            default:
+               sb.append(c);
+         }
+      }
+      return sb;
+   }
+}
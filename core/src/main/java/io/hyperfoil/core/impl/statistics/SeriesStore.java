@@ -0,0 +1,541 @@
+package io.hyperfoil.core.impl.statistics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.api.statistics.StatisticsSnapshotCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Append-only store of per-period {@link StatisticsSnapshot snapshots} backed by memory-mapped segment files.
+ * <p>
+ * Each record is prefixed by its length; a zero length marks the unused end of a segment. Series definitions
+ * (phase, step, metric and agent) are written as records, too, therefore the segments are self-describing:
+ * {@link #recover(Path)} rebuilds the index from the files left by a controller that did not close the store.
+ * The heap holds only the start timestamps and positions of the records, ordered by time within each series.
+ * <p>
+ * Snapshots are merged into the series only after a delay (late snapshots from agents are added to the period);
+ * to not lose the recent periods in a crash the snapshots are also {@link #journal(int, StatisticsSnapshot) journaled}
+ * as soon as these arrive. Recovery merges journaled snapshots of periods that were not appended.
+ * <p>
+ * The records are encoded by the caller but written (and the segments mapped and flushed) by a background thread,
+ * so that appending does not block the event loop. Reads wait until the records appended before are written;
+ * these must not be invoked from the event loop. {@link #close()} unmaps the segments once all the iterators
+ * that were started before are exhausted; the store cannot be read after that.
+ */
+final class SeriesStore implements Closeable {
+   private static final Logger log = LoggerFactory.getLogger(SeriesStore.class);
+   static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+   private static final String SEGMENT_SUFFIX = ".segment";
+   private static final byte DEFINITION = 1;
+   private static final byte SNAPSHOT = 2;
+   private static final byte JOURNAL = 3;
+
+   private final Path dir;
+   private final int segmentSize;
+   private final ExecutorService writer;
+   private final List<FileChannel> channels = new ArrayList<>();
+   private final List<Series> series = new ArrayList<>();
+   private final Map<Key, Integer> seriesIds = new HashMap<>();
+   // modified only by the writer thread
+   private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+   private MappedByteBuffer current;
+   // guarded by this
+   private boolean closed;
+   private int readers;
+   private boolean unmapped;
+
+   SeriesStore(Path dir) {
+      this(dir, DEFAULT_SEGMENT_SIZE);
+   }
+
+   SeriesStore(Path dir, int segmentSize) {
+      this.dir = dir;
+      this.segmentSize = segmentSize;
+      this.writer = Executors.newSingleThreadExecutor(runnable -> {
+         Thread thread = new Thread(runnable, "statistics-series-writer");
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * Opens segments written by a store that was not closed (e.g. when the controller crashed). Journaled snapshots
+    * of periods that were not appended yet are merged and appended to the series (in a new segment), therefore
+    * recovering the store again finds these as regular records.
+    *
+    * @param dir Directory with the segments.
+    * @return Recovered store.
+    * @throws IOException When the segments cannot be read.
+    */
+   static SeriesStore recover(Path dir) throws IOException {
+      List<Path> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+         stream.forEach(files::add);
+      }
+      files.sort(null);
+      MappedByteBuffer[] segments = new MappedByteBuffer[files.size()];
+      for (int i = 0; i < segments.length; ++i) {
+         try (FileChannel channel = FileChannel.open(files.get(i), StandardOpenOption.READ)) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         }
+      }
+      SeriesStore store = new SeriesStore(dir);
+      store.segments = segments;
+      // Positions of journaled snapshots by series and sequence; removed when the period is found appended
+      Map<Long, List<Long>> journaled = new HashMap<>();
+      Set<Long> appended = new HashSet<>();
+      for (int i = 0; i < segments.length; ++i) {
+         ByteBuffer segment = segments[i];
+         int offset = 0;
+         while (offset + 4 <= segment.limit()) {
+            int length = segment.getInt(offset);
+            if (length <= 0 || offset + 4 + length > segment.limit()) {
+               // unused end of the segment or a record that was not written completely
+               break;
+            }
+            ByteBuf buf = record(segment, offset, length);
+            try {
+               byte type = buf.readByte();
+               int seriesId = (int) StatisticsSnapshotCodec.readVarLong(buf);
+               if (type == DEFINITION) {
+                  Key key = new Key(StatisticsSnapshotCodec.readString(buf), (int) StatisticsSnapshotCodec.readVarLong(buf),
+                        StatisticsSnapshotCodec.readString(buf), StatisticsSnapshotCodec.readString(buf));
+                  while (store.series.size() <= seriesId) {
+                     store.series.add(new Series(null));
+                  }
+                  store.series.get(seriesId).key = key;
+                  store.seriesIds.put(key, seriesId);
+               } else if (type == SNAPSHOT && seriesId < store.series.size()) {
+                  StatisticsSnapshot snapshot = StatisticsSnapshotCodec.decode(buf);
+                  store.series.get(seriesId).add(snapshot.histogram.getStartTimeStamp(), ((long) i << 32) | offset);
+                  long period = ((long) seriesId << 32) | snapshot.sequenceId;
+                  appended.add(period);
+                  journaled.remove(period);
+               } else if (type == JOURNAL && seriesId < store.series.size()) {
+                  // Encoded snapshot starts with the sequence id
+                  long period = ((long) seriesId << 32) | StatisticsSnapshotCodec.readVarLong(buf);
+                  if (!appended.contains(period)) {
+                     journaled.computeIfAbsent(period, p -> new ArrayList<>()).add(((long) i << 32) | offset);
+                  }
+               }
+            } catch (RuntimeException e) {
+               log.warn("Corrupted statistics record in {} segment {} at {}, ignoring the rest of segment", e, dir, i, offset);
+               break;
+            }
+            offset += 4 + length;
+         }
+      }
+      if (!journaled.isEmpty()) {
+         store.appendJournaled(journaled, appended);
+      }
+      return store;
+   }
+
+   private void appendJournaled(Map<Long, List<Long>> journaled, Set<Long> appended) {
+      // Merge the snapshots of each period in order of periods
+      Map<Long, StatisticsSnapshot> totals = new HashMap<>();
+      journaled.entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparingLong(period -> (int) (long) period)))
+            .forEach(entry -> {
+               int seriesId = (int) (entry.getKey() >>> 32);
+               int sequenceId = (int) (long) entry.getKey();
+               StatisticsSnapshot sum = null;
+               for (long position : entry.getValue()) {
+                  StatisticsSnapshot snapshot = readSnapshot(segments, position);
+                  if (sum == null) {
+                     sum = new StatisticsSnapshot(snapshot.histogramSpec);
+                     sum.sequenceId = sequenceId;
+                  }
+                  snapshot.addInto(sum);
+               }
+               append(seriesId, sum);
+               Key key = series.get(seriesId).key;
+               if (key != null && !key.agent.isEmpty()) {
+                  int totalId = define(key.phase, key.stepId, key.metric, null);
+                  long totalPeriod = ((long) totalId << 32) | sequenceId;
+                  if (!appended.contains(totalPeriod)) {
+                     StatisticsSnapshot total = totals.get(totalPeriod);
+                     if (total == null) {
+                        total = new StatisticsSnapshot(sum.histogramSpec);
+                        total.sequenceId = sequenceId;
+                        totals.put(totalPeriod, total);
+                     }
+                     sum.addInto(total);
+                  }
+               }
+            });
+      totals.entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparingLong(period -> (int) (long) period)))
+            .forEach(entry -> append((int) (entry.getKey() >>> 32), entry.getValue()));
+      log.info("Recovered {} periods of statistics series in {}", journaled.size(), dir);
+   }
+
+   int define(String phase, int stepId, String metric, String agent) {
+      Key key = new Key(phase, stepId, metric, agent == null ? "" : agent);
+      int id;
+      synchronized (this) {
+         Integer existing = seriesIds.get(key);
+         if (existing != null) {
+            return existing;
+         }
+         id = series.size();
+         series.add(new Series(key));
+         seriesIds.put(key, id);
+      }
+      ByteBuf buf = Unpooled.buffer();
+      buf.writeByte(DEFINITION);
+      StatisticsSnapshotCodec.writeVarLong(buf, id);
+      StatisticsSnapshotCodec.writeString(buf, key.phase);
+      StatisticsSnapshotCodec.writeVarLong(buf, key.stepId);
+      StatisticsSnapshotCodec.writeString(buf, key.metric);
+      StatisticsSnapshotCodec.writeString(buf, key.agent);
+      submit(buf, -1, 0);
+      return id;
+   }
+
+   synchronized int seriesCount() {
+      return series.size();
+   }
+
+   /**
+    * @return Definition of the series or <code>null</code> if the definition was lost.
+    */
+   synchronized Key key(int seriesId) {
+      return series.get(seriesId).key;
+   }
+
+   /**
+    * @return Identifier of the series or -1 if it was not defined.
+    */
+   synchronized int find(String phase, int stepId, String metric, String agent) {
+      Integer id = seriesIds.get(new Key(phase, stepId, metric, agent == null ? "" : agent));
+      return id == null ? -1 : id;
+   }
+
+   /**
+    * Encodes the snapshot in the calling thread; the snapshot can be modified after this method returns.
+    */
+   void append(int seriesId, StatisticsSnapshot snapshot) {
+      ByteBuf buf = Unpooled.buffer();
+      buf.writeByte(SNAPSHOT);
+      StatisticsSnapshotCodec.writeVarLong(buf, seriesId);
+      StatisticsSnapshotCodec.encode(snapshot, buf);
+      submit(buf, seriesId, snapshot.histogram.getStartTimeStamp());
+   }
+
+   /**
+    * Persists snapshot that will be merged into the series later; the record is used only by {@link #recover(Path)}.
+    * Encodes the snapshot in the calling thread; the snapshot can be modified after this method returns.
+    */
+   void journal(int seriesId, StatisticsSnapshot snapshot) {
+      ByteBuf buf = Unpooled.buffer();
+      buf.writeByte(JOURNAL);
+      StatisticsSnapshotCodec.writeVarLong(buf, seriesId);
+      StatisticsSnapshotCodec.encode(snapshot, buf);
+      submit(buf, -1, 0);
+   }
+
+   private void submit(ByteBuf buf, int seriesId, long startTimestamp) {
+      if (writer.isShutdown()) {
+         // statistics arriving after the run was persisted
+         log.debug("Statistics series in {} are closed, ignoring record", dir);
+         buf.release();
+         return;
+      }
+      writer.execute(() -> {
+         try {
+            long position = write(buf);
+            if (seriesId >= 0) {
+               synchronized (this) {
+                  series.get(seriesId).add(startTimestamp, position);
+               }
+            }
+         } catch (Throwable t) {
+            log.error("Cannot write statistics series to {}", t, dir);
+         } finally {
+            buf.release();
+         }
+      });
+   }
+
+   /**
+    * Lazily decodes the snapshots of given series, in the order these were appended.
+    */
+   Iterable<StatisticsSnapshot> read(int seriesId) {
+      return read(seriesId, Long.MIN_VALUE, Long.MAX_VALUE);
+   }
+
+   /**
+    * Lazily decodes the snapshots of given series that started within given interval. Iterators started before
+    * {@link #close()} keep the segments mapped until these are exhausted.
+    *
+    * @param seriesId Series identifier.
+    * @param fromTimestamp Inclusive lower bound of the snapshot start timestamp.
+    * @param toTimestamp Exclusive upper bound of the snapshot start timestamp.
+    * @return Snapshots in the order these were appended.
+    */
+   Iterable<StatisticsSnapshot> read(int seriesId, long fromTimestamp, long toTimestamp) {
+      sync();
+      MappedByteBuffer[] segments;
+      long[] positions;
+      int from, to;
+      synchronized (this) {
+         if (closed) {
+            throw new IllegalStateException("Statistics series were already closed.");
+         }
+         segments = this.segments;
+         Series series = this.series.get(seriesId);
+         positions = series.positions;
+         from = series.indexOf(fromTimestamp);
+         to = series.indexOf(toTimestamp);
+      }
+      return () -> {
+         acquireReader();
+         return new Iterator<StatisticsSnapshot>() {
+            int index = from;
+            boolean released;
+
+            @Override
+            public boolean hasNext() {
+               if (index < to) {
+                  return true;
+               }
+               if (!released) {
+                  released = true;
+                  releaseReader();
+               }
+               return false;
+            }
+
+            @Override
+            public StatisticsSnapshot next() {
+               if (!hasNext()) {
+                  throw new NoSuchElementException();
+               }
+               return readSnapshot(segments, positions[index++]);
+            }
+         };
+      };
+   }
+
+   private synchronized void acquireReader() {
+      if (unmapped) {
+         throw new IllegalStateException("Statistics series were already closed.");
+      }
+      ++readers;
+   }
+
+   private synchronized void releaseReader() {
+      if (--readers == 0 && closed) {
+         unmap();
+      }
+   }
+
+   private static StatisticsSnapshot readSnapshot(MappedByteBuffer[] segments, long position) {
+      ByteBuffer segment = segments[(int) (position >>> 32)];
+      int offset = (int) position;
+      ByteBuf buf = record(segment, offset, segment.getInt(offset));
+      buf.skipBytes(1);
+      StatisticsSnapshotCodec.readVarLong(buf);
+      return StatisticsSnapshotCodec.decode(buf);
+   }
+
+   private static ByteBuf record(ByteBuffer segment, int offset, int length) {
+      ByteBuffer duplicate = segment.duplicate();
+      duplicate.position(offset + 4).limit(offset + 4 + length);
+      return Unpooled.wrappedBuffer(duplicate.slice());
+   }
+
+   /**
+    * Waits until all records appended so far are written.
+    */
+   private void sync() {
+      if (writer.isShutdown()) {
+         return;
+      }
+      try {
+         writer.submit(() -> { }).get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   private long write(ByteBuf buf) {
+      int length = buf.readableBytes();
+      if (current == null || current.remaining() < length + 4) {
+         nextSegment(length + 4);
+      }
+      long position = ((long) (segments.length - 1) << 32) | current.position();
+      current.putInt(length);
+      current.put(buf.nioBuffer());
+      return position;
+   }
+
+   private void nextSegment(int minSize) {
+      if (current != null) {
+         current.force();
+      }
+      Path file = dir.resolve(String.format("%08d" + SEGMENT_SUFFIX, segments.length));
+      MappedByteBuffer next;
+      try {
+         Files.createDirectories(dir);
+         FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+         channels.add(channel);
+         next = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, minSize));
+      } catch (IOException e) {
+         throw new IllegalStateException("Cannot create statistics segment " + file, e);
+      }
+      MappedByteBuffer[] segments = Arrays.copyOf(this.segments, this.segments.length + 1);
+      segments[segments.length - 1] = next;
+      synchronized (this) {
+         this.segments = segments;
+      }
+      current = next;
+   }
+
+   /**
+    * Flushes the series to disk and unmaps the segments; if there are unfinished iterators the segments
+    * are unmapped when the last of them is exhausted.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         if (closed) {
+            return;
+         }
+      }
+      writer.shutdown();
+      try {
+         if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.error("Timed out writing statistics series to {}", dir);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      synchronized (this) {
+         closed = true;
+         if (current != null) {
+            current.force();
+            current = null;
+         }
+         if (readers == 0) {
+            unmap();
+         }
+      }
+      for (FileChannel channel : channels) {
+         try {
+            channel.close();
+         } catch (IOException e) {
+            log.error("Cannot close statistics segment", e);
+         }
+      }
+      channels.clear();
+   }
+
+   private void unmap() {
+      assert Thread.holdsLock(this);
+      unmapped = true;
+      for (MappedByteBuffer segment : segments) {
+         PlatformDependent.freeDirectBuffer(segment);
+      }
+      segments = new MappedByteBuffer[0];
+   }
+
+   private static class Series {
+      Key key;
+      long[] timestamps = new long[16];
+      long[] positions = new long[16];
+      int size;
+
+      Series(Key key) {
+         this.key = key;
+      }
+
+      void add(long timestamp, long position) {
+         if (size == positions.length) {
+            // Readers keep the old arrays
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+         }
+         timestamps[size] = timestamp;
+         positions[size++] = position;
+      }
+
+      /**
+       * @return Index of the first record starting at or after the timestamp.
+       */
+      int indexOf(long timestamp) {
+         // The snapshots are appended in order of periods
+         int low = 0, high = size;
+         while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+               low = mid + 1;
+            } else {
+               high = mid;
+            }
+         }
+         return low;
+      }
+   }
+
+   static final class Key {
+      final String phase;
+      final int stepId;
+      final String metric;
+      final String agent;
+
+      Key(String phase, int stepId, String metric, String agent) {
+         this.phase = phase;
+         this.stepId = stepId;
+         this.metric = metric;
+         this.agent = agent;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof Key)) {
+            return false;
+         }
+         Key key = (Key) o;
+         return stepId == key.stepId && phase.equals(key.phase) && metric.equals(key.metric) && agent.equals(key.agent);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(phase, stepId, metric, agent);
+      }
+   }
+}
@@ -45,7 +45,7 @@ public class StatisticsCollector implements Consumer<SessionStatistics> {
                assert snapshot.sequenceId >= 0;
                StatisticsSnapshot existing = snapshots.get(snapshot.sequenceId);
                if (existing == null) {
-                  existing = new StatisticsSnapshot();
+                  existing = new StatisticsSnapshot(snapshot.histogramSpec);
                   existing.sequenceId = snapshot.sequenceId;
                   snapshots.put(snapshot.sequenceId, existing);
                }
@@ -1,6 +1,7 @@
 package io.hyperfoil.core.impl.statistics;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.config.SLA;
 import io.hyperfoil.api.statistics.CustomValue;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
@@ -9,8 +10,11 @@ import io.hyperfoil.controller.HistogramConverter;
 import io.hyperfoil.controller.model.CustomStats;
 import io.hyperfoil.controller.model.Histogram;
 import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.core.util.LowHigh;
 
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -19,13 +23,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalInt;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public class StatisticsStore {
+public class StatisticsStore implements Closeable {
    static final double[] PERCENTILES = new double[]{ 0.5, 0.9, 0.99, 0.999, 0.9999 };
    private static final Comparator<RequestStats> REQUEST_STATS_COMPARATOR =
          Comparator.<RequestStats, Long>comparing(rs -> rs.summary.startTime)
@@ -38,9 +41,17 @@ public class StatisticsStore {
    private final int maxFailures = 100;
    private final Map<Integer, SLA.Provider> slaProviders;
    final Map<String, SessionPoolStats> sessionPoolStats = new HashMap<>();
+   final SeriesStore seriesStore;
+   private final List<Consumer<RequestStats>> recentListeners = new ArrayList<>();
 
-   public StatisticsStore(Benchmark benchmark, Consumer<SLA.Failure> failureHandler) {
+   /**
+    * @param benchmark Benchmark definition.
+    * @param seriesDir Directory where the time series are streamed (created on first write).
+    * @param failureHandler Invoked when a SLA is violated.
+    */
+   public StatisticsStore(Benchmark benchmark, Path seriesDir, Consumer<SLA.Failure> failureHandler) {
       this.benchmark = benchmark;
+      this.seriesStore = new SeriesStore(seriesDir);
       this.failureHandler = failureHandler;
       this.slaProviders = benchmark.steps()
             .filter(SLA.Provider.class::isInstance).map(SLA.Provider.class::cast)
@@ -61,11 +72,11 @@ public class StatisticsStore {
          Map<SLA, Window> rings = slaProvider == null || slaProvider.sla() == null ? Collections.emptyMap() :
                Stream.of(slaProvider.sla()).filter(sla -> sla.window() > 0).collect(
                      Collectors.toMap(Function.identity(),
-                           sla -> new Window((int) (sla.window() / collectionPeriod))));
+                           sla -> new Window((int) (sla.window() / collectionPeriod), stats.histogramSpec)));
          SLA[] total = slaProvider == null || slaProvider.sla() == null ? new SLA[0] : Stream.of(slaProvider.sla())
                .filter(sla -> sla.window() <= 0).toArray(SLA[]::new);
          String phase = benchmark.phases().stream().filter(p -> p.id() == phaseId).findFirst().get().name();
-         map.put(metric, data = new Data(this, phase, stepId, metric, rings, total));
+         map.put(metric, data = new Data(this, phase, stepId, metric, stats.histogramSpec, rings, total));
       }
       data.record(address, stats);
    }
@@ -87,6 +98,10 @@ public class StatisticsStore {
       }
    }
 
+   long collectionPeriod() {
+      return benchmark.statisticsCollectionPeriod();
+   }
+
    public boolean validateSlas() {
       return failures.isEmpty();
    }
@@ -95,39 +110,58 @@ public class StatisticsStore {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
-            OptionalInt lastSequenceId = data.lastStats.values().stream()
-                  .flatMapToInt(map -> map.keySet().stream().mapToInt(Integer::intValue)).max();
-            if (!lastSequenceId.isPresent()) {
+            if (!isRequestMetric(data)) {
                continue;
             }
-            // We'll use one id before the last one since the last one is likely not completed yet
-            int penultimateId = lastSequenceId.getAsInt() - 1;
-            StatisticsSnapshot sum = new StatisticsSnapshot();
-            data.lastStats.values().stream().map(map -> map.get(penultimateId))
-                  .filter(snapshot -> snapshot != null)
-                  .forEach(snapshot -> snapshot.addInto(sum));
-            if (sum.isEmpty() || sum.histogram.getStartTimeStamp() < minValidTimestamp) {
+            StatisticsSummary summary = data.recent();
+            if (summary == null || summary.startTime < minValidTimestamp) {
                continue;
             }
-            List<String> failures = this.failures.stream()
-                  .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
-                  .map(f -> f.message()).collect(Collectors.toList());
-            result.add(new RequestStats(data.phase, data.stepId, data.metric, sum.summary(PERCENTILES), failures));
+            result.add(new RequestStats(data.phase, data.stepId, data.metric, summary, failures(data)));
          }
       }
       result.sort(REQUEST_STATS_COMPARATOR);
       return result;
    }
 
+   private List<String> failures(Data data) {
+      return this.failures.stream()
+            .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
+            .map(f -> f.message()).collect(Collectors.toList());
+   }
+
+   /**
+    * Registers a listener invoked whenever a period for some phase and metric is completed.
+    *
+    * @param listener Receives the summary of the completed period.
+    */
+   public void addRecentListener(Consumer<RequestStats> listener) {
+      recentListeners.add(listener);
+   }
+
+   public void removeRecentListener(Consumer<RequestStats> listener) {
+      recentListeners.remove(listener);
+   }
+
+   void recentUpdated(Data data) {
+      if (recentListeners.isEmpty() || !isRequestMetric(data)) {
+         return;
+      }
+      RequestStats stats = new RequestStats(data.phase, data.stepId, data.metric, data.recent(), failures(data));
+      for (Consumer<RequestStats> listener : recentListeners) {
+         listener.accept(stats);
+      }
+   }
+
    public List<RequestStats> totalSummary() {
       ArrayList<RequestStats> result = new ArrayList<>();
       for (Map<String, Data> m : this.data.values()) {
          for (Data data : m.values()) {
+            if (!isRequestMetric(data)) {
+               continue;
+            }
             StatisticsSummary last = data.total.summary(PERCENTILES);
-            List<String> failures = this.failures.stream()
-                  .filter(f -> f.phase().equals(data.phase) && (f.metric() == null || f.metric().equals(data.metric)))
-                  .map(f -> f.message()).collect(Collectors.toList());
-            result.add(new RequestStats(data.phase, data.stepId, data.metric, last, failures));
+            result.add(new RequestStats(data.phase, data.stepId, data.metric, last, failures(data)));
          }
       }
       result.sort(REQUEST_STATS_COMPARATOR);
@@ -205,12 +239,13 @@ public class StatisticsStore {
 
    static final class Window {
       private final StatisticsSnapshot[] ring;
-      private final StatisticsSnapshot sum = new StatisticsSnapshot();
+      private final StatisticsSnapshot sum;
       private int ptr = 0;
 
-      Window(int size) {
+      Window(int size, HistogramSpec histogramSpec) {
          assert size > 0;
          ring = new StatisticsSnapshot[size];
+         sum = new StatisticsSnapshot(histogramSpec);
       }
 
       void add(StatisticsSnapshot stats) {
@@ -238,16 +273,41 @@ public class StatisticsStore {
       failureHandler.accept(failure);
    }
 
+   /**
+    * @return Data for metrics recording requests, sorted by phase, metric and step.
+    */
    public List<Data> getData() {
-      Data[] rtrn = data.values().stream().flatMap(map -> map.values().stream()).toArray(Data[]::new);
+      return Arrays.asList(sortedData(true));
+   }
+
+   Data[] sortedData(boolean requestsOnly) {
+      Data[] rtrn = data.values().stream().flatMap(map -> map.values().stream())
+            .filter(d -> !requestsOnly || isRequestMetric(d)).toArray(Data[]::new);
       Arrays.sort(rtrn, Comparator.comparing((Data data) -> data.phase).thenComparing(d -> d.metric).thenComparingInt(d -> d.stepId));
-      return Arrays.asList(rtrn);
+      return rtrn;
+   }
+
+   /**
+    * Pacing lag is recorded under {@link StatisticsStep#PACING_ID} as responses (the histogram holds the delays
+    * of session starts) but no requests; it must not be reported (or validated) as requests.
+    */
+   static boolean isRequestMetric(Data data) {
+      return data.stepId != StatisticsStep.PACING_ID;
    }
 
    public List<SLA.Failure> getFailures() {
       return failures;
    }
 
+   /**
+    * Flushes the time series to disk and releases the memory-mapped segments. The series (and therefore
+    * the reports) cannot be written after closing the store; totals remain available.
+    */
+   @Override
+   public void close() {
+      seriesStore.close();
+   }
+
    static class SessionPoolStats {
       Map<String, List<SessionPoolRecord>> records = new HashMap<>();
 
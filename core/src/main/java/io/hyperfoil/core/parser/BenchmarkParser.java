@@ -55,6 +55,8 @@ public class BenchmarkParser extends AbstractMappingParser<BenchmarkBuilder> {
       register("name", new PropertyParser.String<>(BenchmarkBuilder::name));
       register("agents", new AgentsParser());
       register("ergonomics", new ErgonomicsParser());
+      register("scheduling", new SchedulingParser());
+      register("histogram", new HistogramParser());
       register("http", new HttpParser());
       register("phases", new PhasesParser());
       register("threads", new PropertyParser.Int<>(BenchmarkBuilder::threads));
@@ -0,0 +1,18 @@
+package io.hyperfoil.core.parser;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.HistogramSpecBuilder;
+
+class HistogramParser extends AbstractParser<BenchmarkBuilder, HistogramSpecBuilder<BenchmarkBuilder>> {
+   HistogramParser() {
+      register("highestTrackableValue", new PropertyParser.String<>(HistogramSpecBuilder::highestTrackableValue));
+      register("significantDigits", new PropertyParser.Int<>(HistogramSpecBuilder::significantDigits));
+      register("autoResize", new PropertyParser.Boolean<>(HistogramSpecBuilder::autoResize));
+      register("packed", new PropertyParser.Boolean<>(HistogramSpecBuilder::packed));
+   }
+
+   @Override
+   public void parse(Context ctx, BenchmarkBuilder target) throws ParserException {
+      callSubBuilders(ctx, target.histogram());
+   }
+}
@@ -19,6 +19,7 @@ class HttpParser extends AbstractParser<BenchmarkBuilder, HttpBuilder> {
       register("maxHttp2Streams", new PropertyParser.Int<>(HttpBuilder::maxHttp2Streams));
       register("sharedConnections", new PropertyParser.Int<>(HttpBuilder::sharedConnections));
       register("pipeliningLimit", new PropertyParser.Int<>(HttpBuilder::pipeliningLimit));
+      register("maxRequestsPerFlush", new PropertyParser.Int<>(HttpBuilder::maxRequestsPerFlush));
       register("directHttp2", new PropertyParser.Boolean<>(HttpBuilder::directHttp2));
       register("requestTimeout", new PropertyParser.String<>(HttpBuilder::requestTimeout));
       register("addresses", HttpParser::parseAddresses);
@@ -2,8 +2,11 @@ package io.hyperfoil.core.parser;
 
 import java.util.function.Predicate;
 
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.PhaseBuilder;
+import io.hyperfoil.api.config.SLABuilder;
 
 abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBuilder<?>> {
 
@@ -52,6 +55,7 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
          register("maxSessions", new PropertyParser.Int<>((builder, sessions) -> ((PhaseBuilder.OpenModel<?>) builder).maxSessions(sessions)));
          register("variance", new PropertyParser.Boolean<>((builder, variance) -> ((PhaseBuilder.OpenModel<?>) builder).variance(variance)));
          register("sessionLimitPolicy", new PropertyParser.Enum<>(Phase.SessionLimitPolicy.values(), (builder, policy) -> ((PhaseBuilder.OpenModel<?>) builder).sessionLimitPolicy(policy)));
+         register("pacing", new PropertyParser.Enum<>(Phase.Pacing.values(), (builder, pacing) -> ((PhaseBuilder.OpenModel<?>) builder).pacing(pacing)));
       }
    }
 
@@ -86,4 +90,43 @@ abstract class PhaseParser extends AbstractParser<PhaseBuilder.Catalog, PhaseBui
          return catalog.constantRate(-1);
       }
    }
+
+   static class RequestRate extends OpenModel {
+      RequestRate() {
+         register("requestsPerSec", new IncrementPropertyParser.Double<>((builder, base, inc) -> ((PhaseBuilder.RequestRate) builder).requestsPerSec(base, inc)));
+      }
+
+      @Override
+      protected PhaseBuilder.RequestRate type(PhaseBuilder.Catalog catalog) {
+         return catalog.requestRate(-1);
+      }
+   }
+
+   static class CapacitySearch extends OpenModel {
+      CapacitySearch() {
+         register("initialUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.CapacitySearch) builder).initialUsersPerSec(rate)));
+         register("maxUsersPerSec", new PropertyParser.Double<>((builder, rate) -> ((PhaseBuilder.CapacitySearch) builder).maxUsersPerSec(rate)));
+         register("stepDuration", new PropertyParser.String<>((builder, duration) -> ((PhaseBuilder.CapacitySearch) builder).stepDuration(duration)));
+         register("warmup", new PropertyParser.String<>((builder, duration) -> ((PhaseBuilder.CapacitySearch) builder).warmup(duration)));
+         register("precision", new PropertyParser.Double<>((builder, precision) -> ((PhaseBuilder.CapacitySearch) builder).precision(precision)));
+         register("sla", CapacitySearch::parseSla);
+      }
+
+      @Override
+      protected PhaseBuilder.CapacitySearch type(PhaseBuilder.Catalog catalog) {
+         return catalog.capacitySearch(-1);
+      }
+
+      private static void parseSla(Context ctx, PhaseBuilder<?> builder) throws ParserException {
+         SLABuilder.ListBuilder<PhaseBuilder.CapacitySearch> sla = ((PhaseBuilder.CapacitySearch) builder).sla();
+         ReflectionParser<SLABuilder.ListBuilder<PhaseBuilder.CapacitySearch>, SLABuilder<?>> itemParser =
+               new ReflectionParser<>(SLABuilder.ListBuilder::addItem);
+         // Single SLA can be defined directly without wrapping it in a list
+         if (ctx.peek() instanceof SequenceStartEvent) {
+            ctx.parseList(sla, itemParser);
+         } else {
+            itemParser.parse(ctx, sla);
+         }
+      }
+   }
 }
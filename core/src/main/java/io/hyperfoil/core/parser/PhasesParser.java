@@ -52,6 +52,8 @@ class PhasesParser extends AbstractParser<BenchmarkBuilder, PhaseBuilder.Catalog
          }
       });
       register("constantRate", new PhaseParser.ConstantRate());
+      register("requestRate", new PhaseParser.RequestRate());
+      register("capacitySearch", new PhaseParser.CapacitySearch());
    }
 
    @Override
@@ -0,0 +1,18 @@
+package io.hyperfoil.core.parser;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Scheduling;
+import io.hyperfoil.api.config.SchedulingBuilder;
+
+class SchedulingParser extends AbstractParser<BenchmarkBuilder, SchedulingBuilder> {
+   SchedulingParser() {
+      register("type", new PropertyParser.Enum<>(Scheduling.Type.values(), SchedulingBuilder::type));
+      register("tickDuration", new PropertyParser.String<>(SchedulingBuilder::tickDuration));
+      register("wheelSize", new PropertyParser.Int<>(SchedulingBuilder::wheelSize));
+   }
+
+   @Override
+   public void parse(Context ctx, BenchmarkBuilder target) throws ParserException {
+      callSubBuilders(ctx, target.scheduling());
+   }
+}
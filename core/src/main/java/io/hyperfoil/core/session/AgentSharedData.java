@@ -0,0 +1,254 @@
+package io.hyperfoil.core.session;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.hyperfoil.api.session.SharedData;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Shared maps visible to sessions on all executors in the agent.
+ * <p>
+ * Each key is split into one shard per executor; a shard is a fixed array of slots that are claimed and emptied
+ * using compare-and-swap, therefore pushing or pulling a map never blocks nor allocates. Sessions pull maps
+ * from the shard of their own executor and only when this is empty they steal from the siblings. When the own
+ * shard is full the map is pushed to a sibling and only when all shards are full the eviction policy applies.
+ * Maps released after pulling are recycled through similar shards; these typically flow from the consumers'
+ * executors to the producers' executors.
+ */
+public class AgentSharedData {
+   private static final Logger log = LoggerFactory.getLogger(AgentSharedData.class);
+
+   private final int executors;
+   private final Map<String, Shards> shards = new ConcurrentHashMap<>();
+
+   public AgentSharedData(int executors) {
+      this.executors = Math.max(1, executors);
+   }
+
+   /**
+    * The capacity and eviction policy are set by the first reservation for given key.
+    */
+   Shards reserve(String key, int capacity, SharedData.Eviction eviction) {
+      return shards.computeIfAbsent(key, k -> new Shards(executors, capacity, eviction));
+   }
+
+   Shards shards(String key) {
+      return shards.get(key);
+   }
+
+   /**
+    * @param key Name of the shared map.
+    * @return Counters for the map or <code>null</code> if this map was not reserved.
+    */
+   public Stats stats(String key) {
+      Shards s = shards.get(key);
+      return s == null ? null : new Stats(s.hits.sum(), s.steals.sum(), s.misses.sum(), s.evictions.sum());
+   }
+
+   public Set<String> keys() {
+      return Collections.unmodifiableSet(shards.keySet());
+   }
+
+   public void logStats() {
+      for (String key : shards.keySet()) {
+         Stats stats = stats(key);
+         log.info("Shared map {}: {} pulled from own executor, {} stolen from other executors, {} missed, {} evicted",
+               key, stats.hits, stats.steals, stats.misses, stats.evictions);
+      }
+   }
+
+   /**
+    * Counters since the map was reserved.
+    */
+   public static final class Stats {
+      /**
+       * Maps pulled from the shard of the executor.
+       */
+      public final long hits;
+      /**
+       * Maps pulled from shards of other executors.
+       */
+      public final long steals;
+      /**
+       * Pulls that did not find any map.
+       */
+      public final long misses;
+      /**
+       * Maps pushed when all shards were full.
+       */
+      public final long evictions;
+
+      Stats(long hits, long steals, long misses, long evictions) {
+         this.hits = hits;
+         this.steals = steals;
+         this.misses = misses;
+         this.evictions = evictions;
+      }
+   }
+
+   static final class Shards {
+      private final Slots[] pushed;
+      private final Slots[] free;
+      private final SharedData.Eviction eviction;
+      final LongAdder hits = new LongAdder();
+      final LongAdder steals = new LongAdder();
+      final LongAdder misses = new LongAdder();
+      final LongAdder evictions = new LongAdder();
+
+      private Shards(int executors, int capacity, SharedData.Eviction eviction) {
+         this.eviction = eviction;
+         pushed = new Slots[executors];
+         free = new Slots[executors];
+         for (int i = 0; i < executors; ++i) {
+            pushed[i] = new Slots(capacity);
+            free[i] = new Slots(capacity);
+         }
+      }
+
+      void push(int executor, SharedData.SharedMap map) {
+         if (pushed[executor].offer(map) || offerToSiblings(pushed, executor, map)) {
+            return;
+         }
+         evictions.increment();
+         if (eviction == SharedData.Eviction.DROP_RANDOM) {
+            SharedData.SharedMap victim = pushed[executor].poll();
+            if (victim != null) {
+               recycle(executor, victim);
+            }
+            if (pushed[executor].offer(map)) {
+               return;
+            }
+         }
+         recycle(executor, map);
+      }
+
+      SharedData.SharedMap pull(int executor) {
+         SharedData.SharedMap map = pushed[executor].poll();
+         if (map != null) {
+            hits.increment();
+            return map;
+         }
+         map = pollSiblings(pushed, executor);
+         if (map != null) {
+            steals.increment();
+         } else {
+            misses.increment();
+         }
+         return map;
+      }
+
+      /**
+       * @return Map that was released by some executor or null.
+       */
+      SharedData.SharedMap reuse(int executor) {
+         SharedData.SharedMap map = free[executor].poll();
+         return map != null ? map : pollSiblings(free, executor);
+      }
+
+      void recycle(int executor, SharedData.SharedMap map) {
+         map.clear();
+         // If the own shard is full the map is left for GC
+         free[executor].offer(map);
+      }
+
+      private static boolean offerToSiblings(Slots[] slots, int executor, SharedData.SharedMap map) {
+         for (int i = 1; i < slots.length; ++i) {
+            int index = executor + i;
+            if (index >= slots.length) {
+               index -= slots.length;
+            }
+            if (slots[index].offer(map)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private static SharedData.SharedMap pollSiblings(Slots[] slots, int executor) {
+         for (int i = 1; i < slots.length; ++i) {
+            int index = executor + i;
+            if (index >= slots.length) {
+               index -= slots.length;
+            }
+            SharedData.SharedMap map = slots[index].poll();
+            if (map != null) {
+               return map;
+            }
+         }
+         return null;
+      }
+   }
+
+   /**
+    * Fixed-capacity set of maps. Both operations first claim a free slot or a stored map by decrementing
+    * the respective counter, therefore {@link #offer(SharedData.SharedMap)} to a full set or {@link #poll()}
+    * from an empty one returns immediately. When the claim succeeds there certainly is a free slot or map
+    * in the array; probing starts at random position so that {@link #poll()} returns a random map.
+    */
+   private static final class Slots {
+      private final AtomicReferenceArray<SharedData.SharedMap> slots;
+      // Number of empty slots that were not claimed yet
+      private final AtomicInteger free;
+      // Number of stored maps that were not claimed yet
+      private final AtomicInteger stored = new AtomicInteger();
+
+      Slots(int capacity) {
+         slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+         free = new AtomicInteger(slots.length());
+      }
+
+      boolean offer(SharedData.SharedMap map) {
+         if (!claim(free)) {
+            return false;
+         }
+         int capacity = slots.length();
+         int index = ThreadLocalRandom.current().nextInt(capacity);
+         // The slot is emptied before it is released to the free counter so this finishes in one pass
+         // unless other threads fill the slots in front of us
+         while (slots.get(index) != null || !slots.compareAndSet(index, null, map)) {
+            if (++index == capacity) {
+               index = 0;
+            }
+         }
+         stored.incrementAndGet();
+         return true;
+      }
+
+      SharedData.SharedMap poll() {
+         if (!claim(stored)) {
+            return null;
+         }
+         int capacity = slots.length();
+         int index = ThreadLocalRandom.current().nextInt(capacity);
+         for (;;) {
+            SharedData.SharedMap map = slots.get(index);
+            if (map != null && slots.compareAndSet(index, map, null)) {
+               free.incrementAndGet();
+               return map;
+            }
+            if (++index == capacity) {
+               index = 0;
+            }
+         }
+      }
+
+      private static boolean claim(AtomicInteger counter) {
+         int value;
+         do {
+            value = counter.get();
+            if (value <= 0) {
+               return false;
+            }
+         } while (!counter.compareAndSet(value, value - 1));
+         return true;
+      }
+   }
+}
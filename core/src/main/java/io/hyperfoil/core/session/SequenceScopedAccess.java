@@ -3,20 +3,19 @@ package io.hyperfoil.core.session;
 import java.lang.reflect.Array;
 import java.util.List;
 
-import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.VariableSlots;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
-class SequenceScopedAccess implements Access {
+class SequenceScopedAccess extends VarAccess {
    private static final Logger log = LoggerFactory.getLogger(SequenceScopedAccess.class);
    private static final boolean trace = log.isTraceEnabled();
 
-   private final Object key;
    private final int maxConcurrency;
 
-   SequenceScopedAccess(Object key, int maxConcurrency) {
-      this.key = key;
+   SequenceScopedAccess(Object key, VariableSlots slots, int maxConcurrency) {
+      super(key, slots);
       this.maxConcurrency = maxConcurrency;
    }
 
@@ -25,8 +24,8 @@ class SequenceScopedAccess implements Access {
       // When a step/action sets a variable, it doesn't know if that's a global or sequence-scoped
       // and must declare it, just in case.
       SessionImpl impl = (SessionImpl) session;
-      impl.declareObject(key);
-      ObjectVar var = impl.getVar(key);
+      impl.declareObject(this);
+      ObjectVar var = impl.getVar(this);
       if (!var.isSet() && var.objectValue(session) == null) {
          var.set(ObjectVar.newArray(session, maxConcurrency));
       }
@@ -35,8 +34,8 @@ class SequenceScopedAccess implements Access {
    @Override
    public void declareInt(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.declareObject(key);
-      ObjectVar var = impl.getVar(key);
+      impl.declareObject(this);
+      ObjectVar var = impl.getVar(this);
       if (!var.isSet() && var.objectValue(session) == null) {
          var.set(IntVar.newArray(session, maxConcurrency));
       }
@@ -45,7 +44,7 @@ class SequenceScopedAccess implements Access {
    @Override
    public boolean isSet(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      Session.Var var = impl.getVar(key);
+      Session.Var var = impl.getVar(this);
       if (!var.isSet()) {
          return false;
       }
@@ -127,7 +126,7 @@ class SequenceScopedAccess implements Access {
 
    private Session.Var getVarToSet(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      Session.Var var = impl.getVar(key);
+      Session.Var var = impl.getVar(this);
       if (var instanceof ObjectVar) {
          ((ObjectVar) var).set = true;
       } else {
@@ -215,7 +214,7 @@ class SequenceScopedAccess implements Access {
 
    private Object getItem(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      Session.Var var = impl.getVar(key);
+      Session.Var var = impl.getVar(this);
       if (!var.isSet()) {
          throw new IllegalStateException("Variable " + key + " is not set!");
       }
@@ -231,7 +230,10 @@ class SequenceScopedAccess implements Access {
       if (index >= maxConcurrency) {
          throw new IllegalStateException("Variable " + key + " reads item at index " + index + " but the maximum concurrency is " + maxConcurrency);
       }
-      if (collection.getClass().isArray()) {
+      if (collection instanceof Object[]) {
+         // Arrays of vars created in declareObject/declareInt; avoid reflection
+         return ((Object[]) collection)[index];
+      } else if (collection.getClass().isArray()) {
          return Array.get(collection, index);
       } else if (collection instanceof List) {
          return ((List<?>) collection).get(index);
@@ -12,8 +12,11 @@ import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.ImmediateEventExecutor;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.ScenarioBuilder;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.VariableSlots;
+import io.hyperfoil.core.impl.ExecutorScheduler;
 import io.hyperfoil.core.impl.PhaseInstanceImpl;
 
 public final class SessionFactory {
@@ -57,7 +60,7 @@ public final class SessionFactory {
          public void reserveSessions() {
          }
       });
-      session.attach(ImmediateEventExecutor.INSTANCE, null, null, null);
+      session.attach(ImmediateEventExecutor.INSTANCE, new ExecutorScheduler(ImmediateEventExecutor.INSTANCE), null, null, null);
       session.reserve(dummyScenario);
       return session;
    }
@@ -82,16 +85,16 @@ public final class SessionFactory {
             }
             throw new BenchmarkDefinitionException("No special variable " + expression);
          } else {
-            return new SimpleAccess(key);
+            return new SimpleAccess(key, variableSlots());
          }
       } else if (key instanceof Unique) {
          if (((Unique) key).isSequenceScoped()) {
             return sequenceScopedAccess(key);
          } else {
-            return new SimpleAccess(key);
+            return new SimpleAccess(key, variableSlots());
          }
       } else {
-         return new SimpleAccess(key);
+         return new SimpleAccess(key, variableSlots());
       }
    }
 
@@ -103,6 +106,11 @@ public final class SessionFactory {
          throw new BenchmarkDefinitionException(locator.step() + " in sequence " + locator.sequence().name() +
                " uses sequence-scoped access but this sequence is not declared as concurrent.");
       }
-      return new SequenceScopedAccess(key, maxConcurrency);
+      return new SequenceScopedAccess(key, variableSlots(), maxConcurrency);
+   }
+
+   private static VariableSlots variableSlots() {
+      ScenarioBuilder scenario = Locator.current().scenario();
+      return scenario == null ? null : scenario.variableSlots();
    }
 }
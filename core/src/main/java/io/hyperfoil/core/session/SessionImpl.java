@@ -1,14 +1,17 @@
 package io.hyperfoil.core.session;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.connection.HttpDestinationTable;
 import io.hyperfoil.api.connection.HttpRequest;
 import io.hyperfoil.api.connection.Request;
 import io.hyperfoil.api.http.HttpCache;
+import io.hyperfoil.api.session.Scheduler;
 import io.hyperfoil.api.session.SessionStopException;
 import io.hyperfoil.api.session.SharedData;
 import io.hyperfoil.api.statistics.SessionStatistics;
 import io.hyperfoil.core.http.HttpCacheImpl;
+import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.core.util.Util;
 import io.netty.util.concurrent.EventExecutor;
 import io.hyperfoil.api.collection.LimitedPool;
@@ -18,6 +21,7 @@ import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.connection.HttpConnectionPool;
 import io.hyperfoil.api.session.SequenceInstance;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.VariableSlots;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.api.session.PhaseInstance;
 import io.vertx.core.logging.Logger;
@@ -37,9 +41,12 @@ class SessionImpl implements Session {
    private static final Logger log = LoggerFactory.getLogger(SessionImpl.class);
    private static final boolean trace = log.isTraceEnabled();
 
-   // Note: HashMap.get() is allocation-free, so we can use it for direct lookups. Replacing put() is also
-   // allocation-free, so vars are OK to write as long as we have them declared.
-   private final Map<Object, Var> vars = new HashMap<>();
+   // Variables indexed by slots assigned when the scenario was built
+   private final VariableSlots variableSlots;
+   private final Var[] vars;
+   // Variables accessed through Access instances not bound to this scenario (e.g. created in tests);
+   // note that HashMap.get() is allocation-free.
+   private Map<Object, Var> unboundVars;
    private final Map<ResourceKey<?>, Object> resources = new HashMap<>();
    private final List<Var> allVars = new ArrayList<>();
    private final List<Resource> allResources = new ArrayList<>();
@@ -55,9 +62,13 @@ class SessionImpl implements Session {
    private SequenceInstance currentSequence;
    private Request currentRequest;
    private boolean scheduled;
+   private long intendedStartNanos;
+   private long startDelay;
+   private Statistics pacingStatistics;
 
    private HttpDestinationTable httpDestinations;
    private EventExecutor executor;
+   private Scheduler scheduler;
    private SharedData sharedData;
    private SessionStatistics statistics;
 
@@ -80,6 +91,8 @@ class SessionImpl implements Session {
       this.usedSequences = new BitSet(scenario.sumConcurrency());
       this.uniqueId = uniqueId;
       this.httpCache = new HttpCacheImpl(clock);
+      this.variableSlots = scenario.variableSlots();
+      this.vars = new Var[variableSlots.size()];
    }
 
    @Override
@@ -94,10 +107,16 @@ class SessionImpl implements Session {
          currentSequence = null;
       }
       for (String var : scenario.objectVars()) {
-         declareObject(var);
+         int index = variableSlots.indexOf(var);
+         if (findVar(var, index) == null) {
+            putVar(var, index, new ObjectVar(this));
+         }
       }
       for (String var : scenario.intVars()) {
-         declareInt(var);
+         int index = variableSlots.indexOf(var);
+         if (findVar(var, index) == null) {
+            putVar(var, index, new IntVar(this));
+         }
       }
    }
 
@@ -147,6 +166,11 @@ class SessionImpl implements Session {
       return executor;
    }
 
+   @Override
+   public Scheduler scheduler() {
+      return scheduler;
+   }
+
    @Override
    public SharedData sharedData() {
       return sharedData;
@@ -166,53 +190,48 @@ class SessionImpl implements Session {
       allVars.add(var);
    }
 
-   public Session declareObject(Object key) {
-      if (!vars.containsKey(key)) {
-         ObjectVar var = new ObjectVar(this);
-         vars.put(key, var);
+   public void declareObject(VarAccess access) {
+      if (findVar(access) == null) {
+         putVar(access, new ObjectVar(this));
       }
-      return this;
    }
 
-   public Object getObject(Object key) {
-      return ((ObjectVar) requireSet(key)).get();
+   public Object getObject(VarAccess access) {
+      return ((ObjectVar) requireSet(access)).get();
    }
 
-   public Session setObject(Object key, Object value) {
+   public void setObject(VarAccess access, Object value) {
       if (trace) {
-         log.trace("#{} {} <- {}", uniqueId, key, Util.prettyPrintObject(value));
+         log.trace("#{} {} <- {}", uniqueId, access.key, Util.prettyPrintObject(value));
       }
-      ObjectVar var = getVar(key);
+      ObjectVar var = getVar(access);
       var.value = value;
       var.set = true;
-      return this;
    }
 
-   public Session declareInt(Object key) {
-      if (!vars.containsKey(key)) {
-         IntVar var = new IntVar(this);
-         vars.put(key, var);
+   public void declareInt(VarAccess access) {
+      if (findVar(access) == null) {
+         putVar(access, new IntVar(this));
       }
-      return this;
    }
 
-   public int getInt(Object key) {
-      IntVar var = requireSet(key);
+   public int getInt(VarAccess access) {
+      IntVar var = requireSet(access);
       return var.get();
    }
 
-   public void setInt(Object key, int value) {
+   public void setInt(VarAccess access, int value) {
       if (trace) {
-         log.trace("#{} {} <- {}", uniqueId, key, value);
+         log.trace("#{} {} <- {}", uniqueId, access.key, value);
       }
-      this.<IntVar>getVar(key).set(value);
+      this.<IntVar>getVar(access).set(value);
    }
 
-   public int addToInt(Object key, int delta) {
-      IntVar var = requireSet(key);
+   public int addToInt(VarAccess access, int delta) {
+      IntVar var = requireSet(access);
       int prev = var.get();
       if (trace) {
-         log.trace("#{} {} <- {}", uniqueId, key, prev + delta);
+         log.trace("#{} {} <- {}", uniqueId, access.key, prev + delta);
       }
       var.set(prev + delta);
       return prev;
@@ -260,25 +279,54 @@ class SessionImpl implements Session {
    }
 
    @SuppressWarnings("unchecked")
-   public <V extends Var> V getVar(Object key) {
-      Var var = vars.get(key);
+   public <V extends Var> V getVar(VarAccess access) {
+      Var var = findVar(access);
       if (var == null) {
-         throw new IllegalStateException("Variable " + key + " was not defined!");
+         throw new IllegalStateException("Variable " + access.key + " was not defined!");
       }
       return (V) var;
    }
 
    @SuppressWarnings("unchecked")
-   private <V extends Var> V requireSet(Object key) {
-      Var var = vars.get(key);
+   private <V extends Var> V requireSet(VarAccess access) {
+      Var var = findVar(access);
       if (var == null) {
-         throw new IllegalStateException("Variable " + key + " was not defined!");
+         throw new IllegalStateException("Variable " + access.key + " was not defined!");
       } else if (!var.isSet()) {
-         throw new IllegalStateException("Variable " + key + " was not set yet!");
+         throw new IllegalStateException("Variable " + access.key + " was not set yet!");
       }
       return (V) var;
    }
 
+   private Var findVar(VarAccess access) {
+      if (access.slots == variableSlots) {
+         return vars[access.index];
+      }
+      return findVar(access.key, variableSlots.indexOf(access.key));
+   }
+
+   private Var findVar(Object key, int index) {
+      if (index >= 0) {
+         return vars[index];
+      }
+      return unboundVars == null ? null : unboundVars.get(key);
+   }
+
+   private void putVar(VarAccess access, Var var) {
+      putVar(access.key, access.slots == variableSlots ? access.index : variableSlots.indexOf(access.key), var);
+   }
+
+   private void putVar(Object key, int index, Var var) {
+      if (index >= 0) {
+         vars[index] = var;
+      } else {
+         if (unboundVars == null) {
+            unboundVars = new HashMap<>();
+         }
+         unboundVars.put(key, var);
+      }
+   }
+
    @Override
    public Void call() {
       scheduled = false;
@@ -428,9 +476,10 @@ class SessionImpl implements Session {
    }
 
    @Override
-   public void attach(EventExecutor executor, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics) {
+   public void attach(EventExecutor executor, Scheduler scheduler, SharedData sharedData, HttpDestinationTable httpDestinations, SessionStatistics statistics) {
       assert this.executor == null;
       this.executor = executor;
+      this.scheduler = scheduler;
       this.sharedData = sharedData;
       this.httpDestinations = httpDestinations;
       this.statistics = statistics;
@@ -438,14 +487,35 @@ class SessionImpl implements Session {
 
    @Override
    public void start(PhaseInstance phase) {
+      start(phase, Long.MIN_VALUE);
+   }
+
+   @Override
+   public void start(PhaseInstance phase, long intendedStartNanos) {
       if (trace) {
          log.trace("#{} Session starting in {}", uniqueId, phase.definition().name);
       }
       resetPhase(phase);
+      this.intendedStartNanos = intendedStartNanos;
       executor.submit(deferredStart);
    }
 
+   @Override
+   public long startDelay() {
+      return startDelay;
+   }
+
    private Void deferredStart() {
+      if (intendedStartNanos == Long.MIN_VALUE) {
+         startDelay = 0;
+      } else {
+         startDelay = Math.max(0, System.nanoTime() - intendedStartNanos);
+         if (pacingStatistics == null) {
+            pacingStatistics = statistics(StatisticsStep.PACING_ID, StatisticsStep.PACING_METRIC);
+         }
+         // Only the histogram is recorded, the start is not counted as a request
+         pacingStatistics.recordResponse(System.currentTimeMillis(), 0, startDelay);
+      }
       for (Sequence sequence : phase.definition().scenario().initialSequences()) {
          startSequence(sequence, false, ConcurrencyPolicy.FAIL);
       }
@@ -536,7 +606,16 @@ class SessionImpl implements Session {
 
    @Override
    public Statistics statistics(int stepId, String name) {
-      return statistics.getOrCreate(phase.definition(), stepId, name, phase.absoluteStartTime());
+      return statistics(stepId, name, null);
+   }
+
+   @Override
+   public Statistics statistics(int stepId, String name, HistogramSpec histogramSpec) {
+      Phase phase = this.phase.definition();
+      if (histogramSpec == null) {
+         histogramSpec = phase.benchmark().histogram();
+      }
+      return statistics.getOrCreate(phase, stepId, name, this.phase.absoluteStartTime(), histogramSpec);
    }
 
    @Override
@@ -569,6 +648,7 @@ class SessionImpl implements Session {
       assert phase == null || newPhase.definition().sharedResources.equals(phase.definition().sharedResources);
       assert phase == null || phase.status().isTerminated();
       phase = newPhase;
+      pacingStatistics = null;
    }
 
    @Override
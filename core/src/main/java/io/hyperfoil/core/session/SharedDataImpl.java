@@ -11,11 +11,27 @@ import io.hyperfoil.api.session.SharedData;
 
 public class SharedDataImpl implements SharedData {
    private final Map<String, SharedMapSet> maps = new HashMap<>();
+   private final AgentSharedData agentData;
+   private final int executorId;
+
+   public SharedDataImpl() {
+      this(new AgentSharedData(1), 0);
+   }
+
+   public SharedDataImpl(AgentSharedData agentData, int executorId) {
+      this.agentData = agentData;
+      this.executorId = executorId;
+   }
 
    @Override
    public void reserveMap(String key, Access match, int entries) {
       SharedMapSet existing = maps.get(key);
-      if (existing != null) {
+      if (existing instanceof AgentMapSet) {
+         if (match != null) {
+            throw new IllegalStateException("Shared map '" + key + "' is shared by all executors, cannot pull it matching " + match);
+         }
+         existing.ensureEntries(entries);
+      } else if (existing != null) {
          if (match != null) {
             if (existing instanceof IndexedSharedMapSet) {
                ((IndexedSharedMapSet) existing).ensureIndex(match).ensureEntries(entries);
@@ -34,6 +50,19 @@ public class SharedDataImpl implements SharedData {
       }
    }
 
+   @Override
+   public void reserveAgentMap(String key, int entries, int capacity, Eviction eviction) {
+      SharedMapSet existing = maps.get(key);
+      if (existing instanceof AgentMapSet) {
+         existing.ensureEntries(entries);
+         return;
+      } else if (existing instanceof IndexedSharedMapSet) {
+         throw new IllegalStateException("Shared map '" + key + "' is pulled matching a variable, cannot share it by all executors.");
+      }
+      int maxEntries = existing == null ? entries : Math.max(existing.maxEntries, entries);
+      maps.put(key, new AgentMapSet(agentData.reserve(key, capacity, eviction), executorId, maxEntries));
+   }
+
    @Override
    public SharedMap newMap(String key) {
       SharedMapSet set = maps.get(key);
@@ -149,6 +178,51 @@ public class SharedDataImpl implements SharedData {
       }
    }
 
+   /**
+    * Delegates to the shards shared by all executors; maps are created locally if there's none to recycle.
+    */
+   private static class AgentMapSet extends SharedMapSet {
+      private final AgentSharedData.Shards shards;
+      private final int executorId;
+
+      AgentMapSet(AgentSharedData.Shards shards, int executorId, int entries) {
+         super(0);
+         this.shards = shards;
+         this.executorId = executorId;
+         this.maxEntries = entries;
+      }
+
+      @Override
+      void ensureEntries(int entries) {
+         maxEntries = Math.max(maxEntries, entries);
+      }
+
+      @Override
+      SharedMap newMap() {
+         SharedMap map = shards.reuse(executorId);
+         if (map == null || map.capacity() < maxEntries) {
+            return new MapImpl(maxEntries, 0);
+         }
+         return map;
+      }
+
+      @Override
+      public SharedMap acquireRandom() {
+         return shards.pull(executorId);
+      }
+
+      @Override
+      public int insert(SharedMap map) {
+         shards.push(executorId, map);
+         return -1;
+      }
+
+      @Override
+      public void release(SharedMap map) {
+         shards.recycle(executorId, map);
+      }
+   }
+
    private static class Positions {
       private int[] array = new int[16];
       private int size;
@@ -1,80 +1,71 @@
 package io.hyperfoil.core.session;
 
-import java.util.Objects;
-
-import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
+import io.hyperfoil.api.session.VariableSlots;
 
-// TODO: In the future it would be great if we could just hold an index into Session and do array access
-// instead of map lookup by name. However that would require us to know all Access instances ahead;
-// we cannot get them through .declareObject()/.declareInt() as this happens on a live session and Access
-// objects are not bound to any session. Steps (and other scenario objects) could implement an interface
-// to provide all Access objects but often we hold just functions and that would prohibit use of lambdas.
-class SimpleAccess implements Access {
-   private final Object key;
-
-   SimpleAccess(Object key) {
-      this.key = Objects.requireNonNull(key);
+class SimpleAccess extends VarAccess {
+   SimpleAccess(Object key, VariableSlots slots) {
+      super(key, slots);
    }
 
    @Override
    public void declareObject(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.declareObject(key);
+      impl.declareObject(this);
    }
 
    @Override
    public void declareInt(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.declareInt(key);
+      impl.declareInt(this);
    }
 
    @Override
    public boolean isSet(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getVar(key).isSet();
+      return impl.getVar(this).isSet();
    }
 
    @Override
    public Object getObject(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getObject(key);
+      return impl.getObject(this);
    }
 
    @Override
    public void setObject(Session session, Object value) {
       SessionImpl impl = (SessionImpl) session;
-      impl.setObject(key, value);
+      impl.setObject(this, value);
    }
 
    @Override
    public int getInt(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getInt(key);
+      return impl.getInt(this);
    }
 
    @Override
    public void setInt(Session session, int value) {
       SessionImpl impl = (SessionImpl) session;
-      impl.setInt(key, value);
+      impl.setInt(this, value);
    }
 
    @Override
    public Session.Var getVar(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.getVar(key);
+      return impl.getVar(this);
    }
 
    @Override
    public int addToInt(Session session, int delta) {
       SessionImpl impl = (SessionImpl) session;
-      return impl.addToInt(key, delta);
+      return impl.addToInt(this, delta);
    }
 
    @Override
    public Object activate(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      ObjectVar var = impl.getVar(key);
+      ObjectVar var = impl.getVar(this);
       var.set = true;
       return var.get();
    }
@@ -82,7 +73,7 @@ class SimpleAccess implements Access {
    @Override
    public void unset(Session session) {
       SessionImpl impl = (SessionImpl) session;
-      impl.getVar(key).unset();
+      impl.getVar(this).unset();
    }
 
    @Override
@@ -0,0 +1,23 @@
+package io.hyperfoil.core.session;
+
+import java.util.Objects;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.VariableSlots;
+
+/**
+ * Access to a variable stored in {@link SessionImpl}. When the access is created while building a scenario
+ * it gets a slot in the session's variable table and the session can find the variable by index.
+ */
+abstract class VarAccess implements Access {
+   final Object key;
+   // null when created outside of a scenario (e.g. in tests)
+   final VariableSlots slots;
+   final int index;
+
+   VarAccess(Object key, VariableSlots slots) {
+      this.key = Objects.requireNonNull(key);
+      this.slots = slots;
+      this.index = slots == null ? -1 : slots.assign(key);
+   }
+}
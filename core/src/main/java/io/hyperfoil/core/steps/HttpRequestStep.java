@@ -14,6 +14,8 @@ import io.hyperfoil.api.BenchmarkExecutionException;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BuilderBase;
 import io.hyperfoil.api.config.ErgonomicsBuilder;
+import io.hyperfoil.api.config.HistogramSpec;
+import io.hyperfoil.api.config.HistogramSpecBuilder;
 import io.hyperfoil.api.config.Http;
 import io.hyperfoil.api.config.InitFromParam;
 import io.hyperfoil.api.config.Locator;
@@ -30,6 +32,7 @@ import io.hyperfoil.api.processor.HttpRequestProcessorBuilder;
 import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Action;
 import io.hyperfoil.api.session.SequenceInstance;
+import io.hyperfoil.api.statistics.LongValue;
 import io.hyperfoil.api.statistics.Statistics;
 import io.hyperfoil.core.generators.BodyBuilder;
 import io.hyperfoil.core.generators.HttpMethodBuilder;
@@ -47,6 +50,7 @@ import io.hyperfoil.core.util.BitSetResource;
 import io.hyperfoil.core.util.DoubleIncrementBuilder;
 import io.hyperfoil.core.util.Unique;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.hyperfoil.api.config.PairBuilder;
 import io.hyperfoil.api.config.PartialBuilder;
 import io.hyperfoil.api.connection.Connection;
@@ -61,6 +65,7 @@ import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.function.SerializableBiConsumer;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.hyperfoil.function.SerializableFunction;
+import io.hyperfoil.internal.Properties;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.util.AsciiString;
 import io.vertx.core.logging.Logger;
@@ -69,10 +74,13 @@ import io.vertx.core.logging.LoggerFactory;
 public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer, SLA.Provider {
    private static final Logger log = LoggerFactory.getLogger(HttpRequestStep.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final int METRIC_CACHE_SIZE = Properties.getInt(Properties.METRIC_CACHE_SIZE, 256);
+   private static final String METRIC_CACHE_MISSES = "metric cache misses";
+   private static final String METRIC_CACHE_EVICTIONS = "metric cache evictions";
 
    final SerializableFunction<Session, HttpMethod> method;
    final SerializableFunction<Session, String> authority;
-   final SerializableFunction<Session, String> pathGenerator;
+   final SerializableBiConsumer<Session, ByteBuf> pathGenerator;
    final SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator;
    final SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders;
    @Visitor.Ignore
@@ -81,16 +89,19 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
    final long timeout;
    final HttpResponseHandlersImpl handler;
    final SLA[] sla;
+   final HistogramSpec histogramSpec;
+   // Selecting metric for every request is expensive so the metric name is cached per executor
+   private transient volatile MetricCache[] metricCaches;
 
    public HttpRequestStep(int stepId,
                           SerializableFunction<Session, HttpMethod> method,
                           SerializableFunction<Session, String> authority,
-                          SerializableFunction<Session, String> pathGenerator,
+                          SerializableBiConsumer<Session, ByteBuf> pathGenerator,
                           SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator,
                           SerializableBiConsumer<Session, HttpRequestWriter>[] headerAppenders,
                           boolean injectHostHeader,
                           SerializableBiFunction<String, String, String> metricSelector,
-                          long timeout, HttpResponseHandlersImpl handler, SLA[] sla) {
+                          long timeout, HttpResponseHandlersImpl handler, SLA[] sla, HistogramSpec histogramSpec) {
       super(stepId);
       this.method = method;
       this.authority = authority;
@@ -102,6 +113,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       this.timeout = timeout;
       this.handler = handler;
       this.sla = sla;
+      this.histogramSpec = histogramSpec;
    }
 
    @Override
@@ -114,29 +126,54 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       }
       request.method = method.apply(session);
       HttpConnectionPool connectionPool;
-      String path;
       String authority;
       try {
          authority = this.authority == null ? null : this.authority.apply(session);
-         path = pathGenerator.apply(session);
-         boolean isHttp;
-         if (authority == null && ((isHttp = path.startsWith(HttpUtil.HTTP_PREFIX)) || path.startsWith(HttpUtil.HTTPS_PREFIX))) {
-            for (String hostPort : session.httpDestinations().authorities()) {
-               // TODO: fixme: this does consider default port match
-               if (path.regionMatches(prefixLength(isHttp), hostPort, 0, hostPort.length())) {
-                  authority = hostPort;
+         // The path is rendered directly into reusable buffer and the string is created only if someone needs it
+         ByteBuf path = request.pathBytes;
+         path.clear();
+         pathGenerator.accept(session, path);
+         int prefixLength;
+         if (authority == null && (prefixLength = HttpUtil.prefixLength(path)) > 0) {
+            String[] authorities = session.httpDestinations().authorities();
+            byte[][] authorityBytes = session.httpDestinations().authorityBytes();
+            for (int i = 0; i < authorities.length; ++i) {
+               if (HttpUtil.authorityMatch(path, path.readerIndex() + prefixLength, authorityBytes[i])) {
+                  authority = authorities[i];
+                  path.skipBytes(prefixLength + authorityBytes[i].length);
+                  break;
                }
             }
             if (authority == null) {
-               log.error("Cannot access {}: no base url configured", path);
+               log.error("Cannot access {}: no base url configured", request.path());
                return true;
             }
-            path = path.substring(prefixLength(isHttp) + authority.length());
          }
-         String metric = metricSelector.apply(authority, path);
-         Statistics statistics = session.statistics(id(), metric);
-         request.path = path;
-         request.start(handler, sequence, statistics);
+         Statistics statistics;
+         if (metricSelector instanceof Builder.ProvidedMetricSelector) {
+            statistics = session.statistics(id(), ((Builder.ProvidedMetricSelector) metricSelector).name, histogramSpec);
+            request.start(handler, sequence, statistics);
+         } else {
+            MetricCache metricCache = metricCache(session);
+            String metric = metricCache == null ? null : metricCache.get(authority, path);
+            if (metric != null) {
+               // Statistics are looked up in the session as they belong to the current phase (iteration)
+               statistics = session.statistics(id(), metric, histogramSpec);
+               request.start(handler, sequence, statistics);
+            } else {
+               metric = metricSelector.apply(authority, request.path());
+               statistics = session.statistics(id(), metric, histogramSpec);
+               request.start(handler, sequence, statistics);
+               if (metricCache != null) {
+                  // Hit ratio can be inferred from the number of requests
+                  long timestamp = request.startTimestampMillis();
+                  statistics.getCustom(timestamp, METRIC_CACHE_MISSES, LongValue::new).add(1);
+                  if (metricCache.put(authority, path, metric)) {
+                     statistics.getCustom(timestamp, METRIC_CACHE_EVICTIONS, LongValue::new).add(1);
+                  }
+               }
+            }
+         }
 
          connectionPool = session.httpDestinations().getConnectionPool(authority);
          if (connectionPool == null) {
@@ -188,14 +225,30 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       }
 
       if (trace) {
-         log.trace("#{} sent to {} request on {}", session.uniqueId(), path, request.connection());
+         log.trace("#{} sent to {} request on {}", session.uniqueId(), request.path(), request.connection());
       }
       request.statistics().incrementRequests(request.startTimestampMillis());
       return true;
    }
 
-   private int prefixLength(boolean isHttp) {
-      return isHttp ? HttpUtil.HTTP_PREFIX.length() : HttpUtil.HTTPS_PREFIX.length();
+   private MetricCache metricCache(Session session) {
+      if (METRIC_CACHE_SIZE <= 0) {
+         return null;
+      }
+      MetricCache[] caches = metricCaches;
+      if (caches == null) {
+         synchronized (this) {
+            caches = metricCaches;
+            if (caches == null) {
+               caches = new MetricCache[Math.max(1, session.agentThreads())];
+               for (int i = 0; i < caches.length; ++i) {
+                  caches[i] = new MetricCache(METRIC_CACHE_SIZE);
+               }
+               metricCaches = caches;
+            }
+         }
+      }
+      return caches[session.agentThreadId()];
    }
 
    @Override
@@ -230,6 +283,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
       private SLABuilder.ListBuilder<Builder> sla = null;
       private CompensationBuilder compensation;
       private CompressionBuilder compression = new CompressionBuilder(this);
+      private HistogramSpecBuilder<Builder> histogram;
 
       /**
        * HTTP method used for the request.
@@ -649,6 +703,22 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          return compression;
       }
 
+      /**
+       * Range and precision of response time histograms for this request; overrides benchmark-wide <code>histogram</code>.
+       *
+       * @return Builder.
+       */
+      public HistogramSpecBuilder<Builder> histogram() {
+         if (histogram == null) {
+            histogram = new HistogramSpecBuilder<>(this);
+         }
+         return histogram;
+      }
+
+      HistogramSpec buildHistogramSpec() {
+         return histogram == null ? null : histogram.build();
+      }
+
       @Override
       public int id() {
          assert stepId >= 0;
@@ -723,10 +793,31 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
          SLA[] sla = this.sla != null ? this.sla.build() : SLA.DEFAULT;
          SerializableBiFunction<Session, Connection, ByteBuf> bodyGenerator = this.body != null ? this.body.build() : null;
 
-         HttpRequestStep step = new HttpRequestStep(stepId, method.build(), authority, pathGenerator, bodyGenerator, headerAppenders, injectHostHeader, metricSelector, timeout, handler.build(), sla);
+         // Pattern renders the path into a buffer without creating the string
+         SerializableBiConsumer<Session, ByteBuf> pathWriter = pathGenerator instanceof Pattern || pathGenerator == null ?
+               (Pattern) pathGenerator : new StringPathWriter(pathGenerator);
+         HttpRequestStep step = new HttpRequestStep(stepId, method.build(), authority, pathWriter, bodyGenerator, headerAppenders, injectHostHeader, metricSelector, timeout, handler.build(), sla, buildHistogramSpec());
          return Collections.singletonList(step);
       }
 
+      private static class StringPathWriter implements SerializableBiConsumer<Session, ByteBuf>, ResourceUtilizer {
+         private final SerializableFunction<Session, String> generator;
+
+         private StringPathWriter(SerializableFunction<Session, String> generator) {
+            this.generator = generator;
+         }
+
+         @Override
+         public void accept(Session session, ByteBuf buf) {
+            ByteBufUtil.writeUtf8(buf, generator.apply(session));
+         }
+
+         @Override
+         public void reserve(Session session) {
+            ResourceUtilizer.reserve(session, generator);
+         }
+      }
+
       private static class ProvidedMetricSelector implements SerializableBiFunction<String, String, String> {
          private final String name;
 
@@ -1036,17 +1127,19 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
    public static class CompensatedResponseRecorder implements Action {
       private final int stepId;
       private final SerializableBiFunction<String, String, String> metricSelector;
+      private final HistogramSpec histogramSpec;
 
-      public CompensatedResponseRecorder(int stepId, SerializableBiFunction<String, String, String> metricSelector) {
+      public CompensatedResponseRecorder(int stepId, SerializableBiFunction<String, String, String> metricSelector, HistogramSpec histogramSpec) {
          this.stepId = stepId;
          this.metricSelector = metricSelector;
+         this.histogramSpec = histogramSpec;
       }
 
       @Override
       public void run(Session session) {
          HttpRequest request = (HttpRequest) session.currentRequest();
-         String metric = metricSelector.apply(request.authority, request.path);
-         Statistics statistics = session.statistics(stepId, metric);
+         String metric = metricSelector.apply(request.authority, request.path());
+         Statistics statistics = session.statistics(stepId, metric, histogramSpec);
 
          DelaySessionStartStep.Holder holder = session.getResource(DelaySessionStartStep.KEY);
          long startTimeMs = holder.lastStartTime();
@@ -1070,7 +1163,7 @@ public class HttpRequestStep extends StatisticsStep implements ResourceUtilizer,
             if (metricSelector == null) {
                metricSelector = new HttpRequestStep.Builder.PrefixMetricSelector("compensated-", stepBuilder.metricSelector);
             }
-            return new CompensatedResponseRecorder(stepBuilder.id(), metricSelector);
+            return new CompensatedResponseRecorder(stepBuilder.id(), metricSelector, stepBuilder.buildHistogramSpec());
          }
 
          public Builder metric(SerializableBiFunction<String, String, String> metricSelector) {
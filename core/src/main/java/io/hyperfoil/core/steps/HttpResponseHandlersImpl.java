@@ -40,7 +40,9 @@ import io.hyperfoil.core.handlers.ConditionalProcessor;
 import io.hyperfoil.core.handlers.http.RangeStatusValidator;
 import io.hyperfoil.core.handlers.http.Redirect;
 import io.hyperfoil.core.http.CookieRecorder;
+import io.hyperfoil.core.http.HttpCacheImpl;
 import io.hyperfoil.core.util.Unique;
+import io.hyperfoil.core.util.Util;
 import io.hyperfoil.function.SerializableToLongFunction;
 import io.netty.buffer.ByteBuf;
 import io.hyperfoil.api.http.HeaderHandler;
@@ -104,7 +106,7 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
             case DELETE:
             case PATCH:
                if (status >= 200 && status <= 399) {
-                  request.session.httpCache().invalidate(request.authority, request.path);
+                  request.session.httpCache().invalidate(request.authority, request.path());
                   request.cacheControl.invalidate = true;
                }
                request.cacheControl.noStore = true;
@@ -138,6 +140,15 @@ public class HttpResponseHandlersImpl implements HttpResponseHandlers, ResourceU
       }
    }
 
+   @Override
+   public boolean requiresHeader(HttpRequest request, ByteBuf buf, int offset, int length) {
+      if (headerHandlers != null || trace || HttpCacheImpl.isResponseHeader(buf, offset, length)) {
+         return true;
+      }
+      return request.cacheControl.invalidate && (Util.contentEqualsIgnoreCase(buf, offset, length, HttpHeaderNames.LOCATION)
+            || Util.contentEqualsIgnoreCase(buf, offset, length, HttpHeaderNames.CONTENT_LOCATION));
+   }
+
    @Override
    public void handleHeader(HttpRequest request, CharSequence header, CharSequence value) {
       Session session = request.session;
@@ -0,0 +1,141 @@
+package io.hyperfoil.core.steps;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Bounded cache mapping authority and path of the request to the metric name selected by the metric selector.
+ * There should be one instance per executor: this class is not thread-safe. The name rather than the statistics
+ * is cached because the step is shared by all iterations of a phase and each of them records its own statistics.
+ * <p>
+ * The cache is set-associative: the hash selects a set of {@link #WAYS} entries and when the set is full
+ * an entry is evicted using the CLOCK algorithm (entries that were hit since the hand passed them are spared).
+ * Lookup compares the path bytes in place and does not allocate.
+ */
+class MetricCache {
+   static final int WAYS = 4;
+
+   private final int mask;
+   private final int[] hashes;
+   private final String[] authorities;
+   private final byte[][] paths;
+   private final String[] metrics;
+   private final boolean[] referenced;
+   private final byte[] hands;
+   private long hits;
+   private long misses;
+   private long evictions;
+
+   /**
+    * @param capacity Maximum number of entries, rounded up to a multiple of {@link #WAYS} and power of two.
+    */
+   MetricCache(int capacity) {
+      int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS) * 2 - 1);
+      mask = sets - 1;
+      int entries = sets * WAYS;
+      hashes = new int[entries];
+      authorities = new String[entries];
+      paths = new byte[entries][];
+      metrics = new String[entries];
+      referenced = new boolean[entries];
+      hands = new byte[sets];
+   }
+
+   /**
+    * @param authority Authority of the request (can be null).
+    * @param path      Path of the request in readable bytes; indices of the buffer are not modified.
+    * @return Cached metric name or null.
+    */
+   String get(String authority, ByteBuf path) {
+      int hash = hash(authority, path);
+      int first = (hash & mask) * WAYS;
+      for (int i = first; i < first + WAYS; ++i) {
+         if (metrics[i] != null && hashes[i] == hash && equals(authority, path, i)) {
+            referenced[i] = true;
+            ++hits;
+            return metrics[i];
+         }
+      }
+      ++misses;
+      return null;
+   }
+
+   /**
+    * @return True if another entry had to be evicted.
+    */
+   boolean put(String authority, ByteBuf path, String metric) {
+      int hash = hash(authority, path);
+      int set = hash & mask;
+      int first = set * WAYS;
+      int index = -1;
+      for (int i = first; i < first + WAYS; ++i) {
+         if (metrics[i] == null) {
+            index = i;
+            break;
+         }
+      }
+      boolean evicted = false;
+      if (index < 0) {
+         int hand = hands[set];
+         while (referenced[first + hand]) {
+            referenced[first + hand] = false;
+            hand = (hand + 1) % WAYS;
+         }
+         index = first + hand;
+         hands[set] = (byte) ((hand + 1) % WAYS);
+         ++evictions;
+         evicted = true;
+      }
+      hashes[index] = hash;
+      authorities[index] = authority;
+      byte[] bytes = paths[index];
+      if (bytes == null || bytes.length != path.readableBytes()) {
+         bytes = new byte[path.readableBytes()];
+         paths[index] = bytes;
+      }
+      path.getBytes(path.readerIndex(), bytes);
+      metrics[index] = metric;
+      referenced[index] = false;
+      return evicted;
+   }
+
+   long hits() {
+      return hits;
+   }
+
+   long misses() {
+      return misses;
+   }
+
+   long evictions() {
+      return evictions;
+   }
+
+   private boolean equals(String authority, ByteBuf path, int index) {
+      String cachedAuthority = authorities[index];
+      if (cachedAuthority != authority && (cachedAuthority == null || !cachedAuthority.equals(authority))) {
+         return false;
+      }
+      byte[] bytes = paths[index];
+      int length = path.readableBytes();
+      if (bytes.length != length) {
+         return false;
+      }
+      int offset = path.readerIndex();
+      for (int i = 0; i < length; ++i) {
+         if (bytes[i] != path.getByte(offset + i)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static int hash(String authority, ByteBuf path) {
+      int hash = authority == null ? 0 : authority.hashCode();
+      int end = path.writerIndex();
+      for (int i = path.readerIndex(); i < end; ++i) {
+         hash = 31 * hash + path.getByte(i);
+      }
+      // spread higher bits as only the lower bits select the set
+      return hash ^ (hash >>> 16);
+   }
+}
@@ -18,6 +18,9 @@ import io.hyperfoil.function.SerializableFunction;
  * <li><code>regexp</code> (don't do any replaces and use the full path), e.g. <code>.*.jpg</code>
  * <li><code>-&gt; name</code> (metric applied if none of the previous expressions match).
  * </ul>
+ * The selected metric is cached for each combination of authority and path (the size of the cache is set through
+ * <code>io.hyperfoil.metric.cache.size</code>, 0 disables caching); cache misses and evictions are reported
+ * as custom statistics.
  */
 public class PathMetricSelector implements ListBuilder, SerializableBiFunction<String, String, String> {
    public List<SerializableFunction<String, String>> tests = new ArrayList<>();
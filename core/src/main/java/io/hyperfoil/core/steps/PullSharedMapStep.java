@@ -69,6 +69,8 @@ public class PullSharedMapStep implements Step, ResourceUtilizer {
     * This step moves variables from either a random entry (if no <code>match</code> is set) or with an entry
     * that has the same value for given variable as the current session.
     * When data is moved to the current session the entry is dropped from the shared map.
+    * If the map was pushed with <code>scope: AGENT</code> and the executor has no entry
+    * it is taken from another executor.
     */
    @MetaInfServices(StepBuilder.class)
    @Name("pullSharedMap")
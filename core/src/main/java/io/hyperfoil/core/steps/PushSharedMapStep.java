@@ -23,10 +23,16 @@ import io.hyperfoil.core.session.SessionFactory;
 public class PushSharedMapStep implements Step, ResourceUtilizer {
    private final String key;
    private final Access[] vars;
+   private final SharedData.Scope scope;
+   private final int capacity;
+   private final SharedData.Eviction eviction;
 
-   public PushSharedMapStep(String key, Access[] vars) {
+   public PushSharedMapStep(String key, Access[] vars, SharedData.Scope scope, int capacity, SharedData.Eviction eviction) {
       this.key = key;
       this.vars = vars;
+      this.scope = scope;
+      this.capacity = capacity;
+      this.eviction = eviction;
    }
 
    @Override
@@ -42,7 +48,11 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
 
    @Override
    public void reserve(Session session) {
-      session.sharedData().reserveMap(key, null, vars.length);
+      if (scope == SharedData.Scope.AGENT) {
+         session.sharedData().reserveAgentMap(key, vars.length, capacity, eviction);
+      } else {
+         session.sharedData().reserveMap(key, null, vars.length);
+      }
    }
 
    /**
@@ -50,20 +60,28 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
     * <p>
     * The executor can host multiple shared maps, each holding an entry with several variables.
     * This step creates one entry in the map, copying values from session variables into the entry.
+    * With <code>scope: AGENT</code> the entries are available to sessions on all executors in the agent.
     */
    @MetaInfServices(StepBuilder.class)
    @Name("pushSharedMap")
    public static class Builder extends BaseStepBuilder<Builder> {
       private String key;
       private Collection<String> vars = new ArrayList<>();
+      private SharedData.Scope scope = SharedData.Scope.EXECUTOR;
+      private int capacity = 1024;
+      private SharedData.Eviction eviction = SharedData.Eviction.DROP_NEW;
 
       @Override
       public List<Step> build() {
          if (vars.isEmpty()) {
             throw new BenchmarkDefinitionException("No variables pushed for key " + key);
          }
+         if (capacity <= 0) {
+            throw new BenchmarkDefinitionException("Capacity of shared map " + key + " must be positive.");
+         }
          final String[] vars1 = vars.toArray(new String[0]);
-         return Collections.singletonList(new PushSharedMapStep(key, Stream.of(vars1).map(SessionFactory::access).toArray(Access[]::new)));
+         return Collections.singletonList(new PushSharedMapStep(key, Stream.of(vars1).map(SessionFactory::access).toArray(Access[]::new),
+               scope, capacity, eviction));
       }
 
       /**
@@ -85,5 +103,39 @@ public class PushSharedMapStep implements Step, ResourceUtilizer {
       public ListBuilder vars() {
          return vars::add;
       }
+
+      /**
+       * Share the entries among sessions on the same executor (default) or among all sessions in the agent.
+       * Entries shared by the agent cannot be pulled using <code>match</code>.
+       *
+       * @param scope Sharing scope.
+       * @return Self.
+       */
+      public Builder scope(SharedData.Scope scope) {
+         this.scope = scope;
+         return this;
+      }
+
+      /**
+       * Maximum number of entries held for each executor when the scope is <code>AGENT</code>. Default is 1024.
+       *
+       * @param capacity Number of entries.
+       * @return Self.
+       */
+      public Builder capacity(int capacity) {
+         this.capacity = capacity;
+         return this;
+      }
+
+      /**
+       * What to do with the entry when all executors hold <code>capacity</code> entries. Default is <code>DROP_NEW</code>.
+       *
+       * @param eviction Eviction policy.
+       * @return Self.
+       */
+      public Builder eviction(SharedData.Eviction eviction) {
+         this.eviction = eviction;
+         return this;
+      }
    }
 }
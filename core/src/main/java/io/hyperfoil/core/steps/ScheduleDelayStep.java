@@ -15,6 +15,7 @@ import io.hyperfoil.api.config.Name;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.Scheduler;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.config.BaseSequenceBuilder;
@@ -61,7 +62,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
       long delay = blockedUntil.timestamp - now;
       if (delay > 0) {
          log.trace("Scheduling #{} to run in {}", session.uniqueId(), delay);
-         session.executor().schedule(session, delay, TimeUnit.MILLISECONDS);
+         blockedUntil.timeout.schedule(delay, TimeUnit.MILLISECONDS);
       } else {
          log.trace("Continuing, duration {} resulted in delay {}", duration, delay);
       }
@@ -71,7 +72,7 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
    @Override
    public void reserve(Session session) {
       key.declareObject(session);
-      key.setObject(session, new Timestamp());
+      key.setObject(session, new Timestamp(session.scheduler().newTimeout(session::call)));
    }
 
    public enum Type {
@@ -96,7 +97,12 @@ public class ScheduleDelayStep implements Step, ResourceUtilizer {
    }
 
    static class Timestamp {
+      final Scheduler.Timeout timeout;
       long timestamp = Long.MAX_VALUE;
+
+      Timestamp(Scheduler.Timeout timeout) {
+         this.timeout = timeout;
+      }
    }
 
    /**
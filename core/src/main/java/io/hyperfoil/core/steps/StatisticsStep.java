@@ -1,18 +1,30 @@
 package io.hyperfoil.core.steps;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
+import io.hyperfoil.api.config.Locator;
 import io.hyperfoil.api.config.Step;
 import io.hyperfoil.api.config.Visitor;
 
 public abstract class StatisticsStep implements Step {
-   private static final AtomicInteger ID_COUNTER = new AtomicInteger();
+   /**
+    * Step ID reserved for the delay between intended and actual start of sessions in open-model phases.
+    * The histogram of this metric holds the delays (one response per started session) but no requests are recorded;
+    * the metric is not included in request statistics.
+    */
+   public static final int PACING_ID = 0;
+   public static final String PACING_METRIC = "pacing";
 
    @Visitor.Ignore
    private final int id;
 
+   /**
+    * Must be invoked when the benchmark is being built (with {@link Locator} set).
+    *
+    * @return Identifier unique within the benchmark.
+    */
    public static int nextId() {
-      return ID_COUNTER.getAndIncrement();
+      int id = Locator.current().benchmark().nextStatisticsStepId();
+      assert id != PACING_ID;
+      return id;
    }
 
    protected StatisticsStep(int id) {
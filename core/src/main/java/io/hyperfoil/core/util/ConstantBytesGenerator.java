@@ -4,20 +4,18 @@ import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 
 public class ConstantBytesGenerator implements SerializableBiFunction<Session, Connection, ByteBuf> {
-   private final byte[] bytes;
+   private final SharedBytes bytes;
 
    public ConstantBytesGenerator(byte[] bytes) {
-      this.bytes = bytes;
+      this.bytes = new SharedBytes(bytes);
    }
 
    @Override
    public ByteBuf apply(Session session, Connection connection) {
-      // TODO: implement pooling of wrapping buffers.
-      // We cannot cache this buffer since despite the wrapped array is constant the code
-      // writing the buffer to socket would mutate the ByteBuf (move readerIndex/writerIndex, decrement refCnt...)
-      return Unpooled.wrappedBuffer(bytes);
+      // The code writing the buffer to socket mutates the ByteBuf (moves readerIndex, decrements refCnt...)
+      // so we give it a duplicate of the shared buffer.
+      return bytes.duplicate();
    }
 }
@@ -2,6 +2,7 @@ package io.hyperfoil.core.util;
 
 import io.hyperfoil.api.connection.Connection;
 import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.ResourceUtilizer;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.function.SerializableBiFunction;
 import io.netty.buffer.ByteBuf;
@@ -9,28 +10,45 @@ import io.netty.buffer.Unpooled;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
-public class FromVarBytesGenerator implements SerializableBiFunction<Session, Connection, ByteBuf> {
+public class FromVarBytesGenerator implements SerializableBiFunction<Session, Connection, ByteBuf>, ResourceUtilizer {
    private static final Logger log = LoggerFactory.getLogger(FromVarBytesGenerator.class);
 
    private final Access fromVar;
+   private final Access sharedVar;
 
-   public FromVarBytesGenerator(Access fromVar) {
+   public FromVarBytesGenerator(Access fromVar, Access sharedVar) {
       this.fromVar = fromVar;
+      this.sharedVar = sharedVar;
    }
 
    @Override
    public ByteBuf apply(Session session, Connection connection) {
       Object value = fromVar.getObject(session);
       if (value instanceof ByteBuf) {
-         return (ByteBuf) value;
-      } else if (value instanceof String) {
-         String str = (String) value;
+         // The variable keeps its reference, the write will release the duplicate
+         return ((ByteBuf) value).retainedDuplicate();
+      } else if (value instanceof CharSequence) {
+         String str = value.toString();
          return Util.string2byteBuf(str, connection.context().alloc().buffer(str.length()));
       } else if (value instanceof byte[]) {
+         if (sharedVar != null && sharedVar.isSet(session)) {
+            SharedBytes shared = (SharedBytes) sharedVar.getObject(session);
+            // The variable might have been overwritten since
+            if (shared.bytes() == value) {
+               return shared.duplicate();
+            }
+         }
          return Unpooled.wrappedBuffer((byte[]) value);
       } else {
          log.error("#{} Cannot encode contents of var {}: {}", session.uniqueId(), fromVar, value);
          return null;
       }
    }
+
+   @Override
+   public void reserve(Session session) {
+      if (sharedVar != null) {
+         sharedVar.declareObject(session);
+      }
+   }
 }
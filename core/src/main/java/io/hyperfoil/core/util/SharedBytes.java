@@ -0,0 +1,82 @@
+package io.hyperfoil.core.util;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Constant payload that is copied into a read-only direct buffer once per agent (lazily, after the benchmark
+ * is deserialized) and then written to any number of connections without further copies.
+ * <p>
+ * {@link #duplicate()} returns a view with its own indices; the underlying buffer is not reference-counted
+ * so releasing the view (as Netty does after the write) has no effect. The memory is reclaimed by GC
+ * when the benchmark is gone.
+ */
+public final class SharedBytes implements Serializable {
+   private final byte[] bytes;
+   private transient volatile ByteBuf buffer;
+
+   public SharedBytes(byte[] bytes) {
+      this.bytes = bytes;
+   }
+
+   /**
+    * Access to the variable that holds the {@link SharedBytes} for the byte array stored in <code>var</code>.
+    * Steps storing shared payloads into variables set both so that the request body can be sent without copying.
+    *
+    * @param var Name of the variable holding the byte array.
+    * @return Access to the companion variable or <code>null</code> for special (read-only) variables.
+    */
+   public static Access companionAccess(String var) {
+      if (var.startsWith("hyperfoil.")) {
+         return null;
+      } else if (var.endsWith("[.]")) {
+         return SessionFactory.sequenceScopedAccess(new CompanionKey(var.substring(0, var.length() - 3)));
+      } else {
+         return SessionFactory.access(new CompanionKey(var));
+      }
+   }
+
+   public byte[] bytes() {
+      return bytes;
+   }
+
+   public ByteBuf duplicate() {
+      ByteBuf buffer = this.buffer;
+      if (buffer == null) {
+         // Racing threads might create more copies but all except one become garbage
+         ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+         direct.put(bytes).flip();
+         this.buffer = buffer = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(direct.asReadOnlyBuffer()));
+      }
+      return buffer.duplicate();
+   }
+
+   private static final class CompanionKey implements Serializable {
+      private final String var;
+
+      private CompanionKey(String var) {
+         this.var = var;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof CompanionKey && ((CompanionKey) o).var.equals(var);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(CompanionKey.class, var);
+      }
+
+      @Override
+      public String toString() {
+         return var + "(shared bytes)";
+      }
+   }
+}
@@ -1,9 +1,5 @@
 package io.hyperfoil.core.util;
 
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.util.BitSet;
 import java.util.HashSet;
@@ -11,6 +7,8 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.AsciiString;
 
 public class Util {
    public static final CompletableFuture<Void> COMPLETED_VOID_FUTURE = CompletableFuture.completedFuture(null);
@@ -61,6 +59,18 @@ public class Util {
       }
    }
 
+   public static boolean contentEqualsIgnoreCase(ByteBuf buf, int offset, int length, AsciiString string) {
+      if (length != string.length()) {
+         return false;
+      }
+      for (int i = 0; i < length; ++i) {
+         if (!compareIgnoreCase(buf.getByte(offset + i), string.byteAt(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
    public static String toString(ByteBuf buf, int offset, int length) {
       if (buf.hasArray()) {
          return new String(buf.array(), buf.arrayOffset() + offset, length, StandardCharsets.UTF_8);
@@ -72,27 +82,9 @@ public class Util {
    }
 
    public static ByteBuf string2byteBuf(CharSequence str, ByteBuf buffer) {
-      // TODO: allocations everywhere but at least not the bytes themselves...
-      CharBuffer input = CharBuffer.wrap(str);
-      ByteBuffer output = buffer.nioBuffer(buffer.writerIndex(), buffer.capacity() - buffer.writerIndex());
-      CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
-      int accumulatedBytes = buffer.writerIndex();
-      for (; ; ) {
-         CoderResult result = encoder.encode(input, output, true);
-         if (result.isError()) {
-            throw new RuntimeException("Cannot encode: " + result + ", string is " + str);
-         } else if (result.isUnderflow()) {
-            buffer.writerIndex(accumulatedBytes + output.position());
-            return buffer;
-         } else if (result.isOverflow()) {
-            buffer.capacity(buffer.capacity() * 2);
-            int writtenBytes = output.position();
-            accumulatedBytes += writtenBytes;
-            output = buffer.nioBuffer(accumulatedBytes, buffer.capacity() - accumulatedBytes);
-         } else {
-            throw new IllegalStateException();
-         }
-      }
+      // Netty encodes the characters right into the buffer, expanding it as needed
+      ByteBufUtil.writeUtf8(buffer, str);
+      return buffer;
    }
 
    public static String explainCauses(Throwable e) {
@@ -19,6 +19,7 @@
 package io.hyperfoil.core.builder;
 
 import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.config.Phase;
 import io.hyperfoil.api.config.Sequence;
 import io.hyperfoil.api.config.Step;
@@ -31,6 +32,7 @@ import io.hyperfoil.core.steps.HttpRequestStep;
 import io.hyperfoil.core.steps.HttpRequestStepUtil;
 import io.hyperfoil.core.steps.NoopStep;
 import io.hyperfoil.core.steps.ScheduleDelayStep;
+import io.hyperfoil.core.steps.StatisticsStep;
 import io.hyperfoil.core.test.TestUtil;
 import io.hyperfoil.util.Util;
 
@@ -41,9 +43,14 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.Percentage.withPercentage;
@@ -131,6 +138,8 @@ public class YamlParserTest {
    @Test
    public void testHttpRequestYaml() {
       Benchmark benchmark = buildBenchmark("scenarios/httpRequest.hf.yaml");
+      assertThat(benchmark.histogram().highestTrackableValue()).isEqualTo(TimeUnit.SECONDS.toNanos(10));
+      assertThat(benchmark.histogram().significantDigits()).isEqualTo(3);
       Phase testPhase = benchmark.phases().iterator().next();
       Sequence testSequence = testPhase.scenario().sequences()[0];
       Iterator<Step> iterator = Arrays.asList(testSequence.steps()).iterator();
@@ -140,6 +149,8 @@ public class YamlParserTest {
       assertThat(statusHandlers1).isNotNull().hasSize(1);
       assertCondition((RangeStatusValidator) statusHandlers1[0], v -> v.min == 200);
       assertCondition((RangeStatusValidator) statusHandlers1[0], v -> v.max == 299);
+      // falls back to benchmark default
+      assertThat(HttpRequestStepUtil.histogramSpec(request1)).isNull();
 
       HttpRequestStep request2 = next(HttpRequestStep.class, iterator);
       StatusHandler[] statusHandlers2 = HttpRequestStepUtil.statusHandlers(request2);
@@ -148,6 +159,11 @@ public class YamlParserTest {
       assertCondition((RangeStatusValidator) statusHandlers2[0], v -> v.max == 259);
       assertCondition((RangeStatusValidator) statusHandlers2[1], v -> v.min == 200);
       assertCondition((RangeStatusValidator) statusHandlers2[1], v -> v.max == 210);
+      HistogramSpec histogramSpec2 = HttpRequestStepUtil.histogramSpec(request2);
+      assertThat(histogramSpec2.highestTrackableValue()).isEqualTo(TimeUnit.MINUTES.toNanos(5));
+      assertThat(histogramSpec2.significantDigits()).isEqualTo(2);
+      assertThat(histogramSpec2.autoResize()).isTrue();
+      assertThat(histogramSpec2.packed()).isTrue();
    }
 
    @Test
@@ -175,6 +191,39 @@ public class YamlParserTest {
       }
    }
 
+   @Test
+   public void testCapacitySearch() {
+      Benchmark benchmark = buildBenchmark("scenarios/capacitySearch.hf.yaml");
+      Phase.CapacitySearch search = phase(benchmark, "search", Phase.CapacitySearch.class);
+      assertThat(search.initialUsersPerSec).isEqualTo(10);
+      assertThat(search.maxUsersPerSec).isEqualTo(1000);
+      assertThat(search.stepDuration).isEqualTo(20000);
+      assertThat(search.warmup).isEqualTo(5000);
+      assertThat(search.precision).isEqualTo(0.1);
+      assertThat(search.maxSessions).isEqualTo(1000);
+      assertThat(search.sessionLimitPolicy).isEqualTo(Phase.SessionLimitPolicy.CONTINUE);
+      assertThat(search.sla).hasSize(2);
+      assertThat(search.sla[0].meanResponseTime()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+      assertThat(search.sla[1].percentileLimits()).hasSize(1);
+   }
+
+   @Test
+   public void testStatisticsStepIdsAreStable() {
+      // Agents build the benchmark from source and must use the same step ids as the controller
+      assertThat(statisticsStepIds(buildBenchmark("scenarios/simple.hf.yaml")))
+            .isNotEmpty()
+            .isEqualTo(statisticsStepIds(buildBenchmark("scenarios/simple.hf.yaml")));
+   }
+
+   private static List<Integer> statisticsStepIds(Benchmark benchmark) {
+      return benchmark.phases().stream().sorted(Comparator.comparingInt(Phase::id))
+            .flatMap(phase -> Stream.of(phase.scenario().sequences()))
+            .flatMap(sequence -> Stream.of(sequence.steps()))
+            .filter(StatisticsStep.class::isInstance)
+            .map(step -> ((StatisticsStep) step).id())
+            .collect(Collectors.toList());
+   }
+
    @Test
    public void testMutualTls() {
       Benchmark benchmark = buildBenchmark("scenarios/mutualTls.hf.yaml");
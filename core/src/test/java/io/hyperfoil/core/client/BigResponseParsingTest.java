@@ -108,7 +108,7 @@ public class BigResponseParsingTest extends VertxBaseTest {
                }).build();
          HttpRequest newRequest = session.httpRequestPool().acquire();
          newRequest.method = HttpMethod.GET;
-         newRequest.path = "/";
+         newRequest.setPath("/");
          SequenceInstance sequence = new SequenceInstance().reset(null, 0, new Step[0], null);
          newRequest.start(handlers, sequence, new Statistics(System.currentTimeMillis()));
          ctx.assertTrue(client.next().request(newRequest, null, true, null, false));
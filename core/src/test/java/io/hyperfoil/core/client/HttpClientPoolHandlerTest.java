@@ -108,7 +108,7 @@ public class HttpClientPoolHandlerTest {
                .onCompletion(s -> latch.countDown())
                .build();
          request.method = HttpMethod.GET;
-         request.path = "/";
+         request.setPath("/");
          request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
          pool.request(request, null, true, null, false);
       });
@@ -132,7 +132,7 @@ public class HttpDecodeSpaceTest extends VertxBaseTest {
                            }
                         }).build();
                   request.method = HttpMethod.GET;
-                  request.path = path;
+                  request.setPath(path);
                   request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
 
                   client.next().request(request, null, true, null, false);
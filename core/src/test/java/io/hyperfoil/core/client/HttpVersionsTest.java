@@ -117,7 +117,7 @@ public class HttpVersionsTest extends VertxBaseTest {
                            }
                         }).build();
                   request.method = HttpMethod.GET;
-                  request.path = "/ping";
+                  request.setPath("/ping");
                   request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
 
                   client.next().request(request, null, true, null, false);
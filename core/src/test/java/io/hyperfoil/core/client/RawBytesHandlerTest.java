@@ -89,7 +89,7 @@ public class RawBytesHandlerTest extends VertxBaseTest {
    private void doRequest(TestContext ctx, Session session, AtomicReference<HttpResponseHandlers> handlersRef, HttpConnectionPool pool) {
       HttpRequest newRequest = session.httpRequestPool().acquire();
       newRequest.method = HttpMethod.GET;
-      newRequest.path = "/ping";
+      newRequest.setPath("/ping");
       newRequest.cacheControl.noCache = true;
       SequenceInstance sequence = new SequenceInstance();
       sequence.reset(null, 0, new Step[0], null);
@@ -0,0 +1,211 @@
+package io.hyperfoil.core.client.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.core.http.BaseMockConnection;
+import io.hyperfoil.core.util.Util;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class Http1xResponseHandlerTest {
+   private static final String RESPONSES = "" +
+         "HTTP/1.1 200 OK\r\n" +
+         "Content-Length: 11\r\n" +
+         "Content-Type: text/plain\r\n" +
+         "X-Very-Long-Header-Name-Spanning-Multiple-Words: some value with spaces\r\n" +
+         "\r\n" +
+         "Hello world" +
+         "HTTP/1.1 204 No Content\r\n" +
+         "Date: Mon, 19 Oct 2020 10:00:00 GMT\r\n" +
+         "\r\n" +
+         "HTTP/1.1 200 OK\r\n" +
+         "Transfer-Encoding: chunked\r\n" +
+         "Cache-Control: no-cache\r\n" +
+         "\r\n" +
+         "5\r\n" +
+         "Hello\r\n" +
+         "1a\r\n" +
+         "abcdefghijklmnopqrstuvwxyz\r\n" +
+         "0\r\n" +
+         "Trailer: foo\r\n" +
+         "\r\n" +
+         "HTTP/1.1 404 Not Found\r\n" +
+         "content-length:4\r\n" +
+         "Set-Cookie: foo=bar; Path=/\r\n" +
+         "\r\n" +
+         "Nope";
+
+   private static final String EXPECTED = "[" +
+         "S200, H[Content-Length=11], H[Content-Type=text/plain], " +
+         "H[X-Very-Long-Header-Name-Spanning-Multiple-Words=some value with spaces], B[Hello world], " +
+         "S204, H[Date=Mon, 19 Oct 2020 10:00:00 GMT], " +
+         "S200, H[Transfer-Encoding=chunked], H[Cache-Control=no-cache], B[Helloabcdefghijklmnopqrstuvwxyz], " +
+         "S404, H[content-length=4], H[Set-Cookie=foo=bar; Path=/], B[Nope]]";
+
+   @Test
+   public void testIndexOf() {
+      ByteBuf buf = Unpooled.wrappedBuffer("0123456789abcdef\n\u0080ÿ:".getBytes(StandardCharsets.ISO_8859_1));
+      for (int from = 0; from < buf.writerIndex(); ++from) {
+         for (int to = from; to <= buf.writerIndex(); ++to) {
+            for (byte b : new byte[]{ '\n', ':', '0', 'f', (byte) 0x80, (byte) 0xFF, 'x' }) {
+               int expected = -1;
+               for (int i = from; i < to; ++i) {
+                  if (buf.getByte(i) == b) {
+                     expected = i;
+                     break;
+                  }
+               }
+               long pattern = (b & 0xFFL) * 0x0101010101010101L;
+               assertThat(SwarHttp1xResponseHandler.indexOf(buf, from, to, pattern)).isEqualTo(expected);
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testLegacy() {
+      testParser(Recording::new);
+   }
+
+   @Test
+   public void testSwar() {
+      testParser(SwarRecording::new);
+   }
+
+   private void testParser(Function<List<String>, Http1xResponseHandler> factory) {
+      byte[] bytes = RESPONSES.getBytes(StandardCharsets.US_ASCII);
+      assertThat(parse(factory, bytes, new int[]{ bytes.length }).toString()).isEqualTo(EXPECTED);
+      Random random = new Random(42);
+      for (int i = 0; i < 1000; ++i) {
+         int[] fragments = new int[bytes.length];
+         int remaining = bytes.length, n = 0;
+         while (remaining > 0) {
+            int fragment = Math.min(remaining, 1 + random.nextInt(i % 2 == 0 ? 4 : 64));
+            fragments[n++] = fragment;
+            remaining -= fragment;
+         }
+         int[] split = new int[n];
+         System.arraycopy(fragments, 0, split, 0, n);
+         assertThat(parse(factory, bytes, split).toString()).as(Arrays.toString(split)).isEqualTo(EXPECTED);
+      }
+   }
+
+   private List<String> parse(Function<List<String>, Http1xResponseHandler> factory, byte[] bytes, int[] fragments) {
+      List<String> events = new ArrayList<>();
+      EmbeddedChannel channel = new EmbeddedChannel(factory.apply(events));
+      int offset = 0;
+      for (int fragment : fragments) {
+         ByteBuf buf = channel.alloc().buffer(fragment);
+         buf.writeBytes(bytes, offset, fragment);
+         channel.writeInbound(buf);
+         offset += fragment;
+      }
+      channel.finishAndReleaseAll();
+      return events;
+   }
+
+   private static class Recorder {
+      private final List<String> events;
+      private StringBuilder body;
+
+      Recorder(List<String> events) {
+         this.events = events;
+      }
+
+      void status(int status) {
+         events.add("S" + status);
+      }
+
+      void header(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+         events.add("H[" + Util.toString(buf, startOfName, endOfName - startOfName) + "="
+               + Util.toString(buf, startOfValue, endOfValue - startOfValue) + "]");
+      }
+
+      void bodyPart(ByteBuf buf, int startOffset, int length, boolean isLastPart) {
+         // Fragmentation of the body depends on the buffer boundaries so we compare whole bodies
+         if (length > 0) {
+            if (body == null) {
+               body = new StringBuilder();
+               events.add(null);
+            }
+            body.append(Util.toString(buf, startOffset, length));
+            events.set(events.size() - 1, "B[" + body + "]");
+         }
+         if (isLastPart) {
+            body = null;
+         }
+      }
+   }
+
+   private static class Recording extends Http1xResponseHandler {
+      private final Recorder recorder;
+
+      Recording(List<String> events) {
+         super(new BaseMockConnection());
+         this.recorder = new Recorder(events);
+      }
+
+      @Override
+      protected void onStatus(int status) {
+         recorder.status(status);
+      }
+
+      @Override
+      protected void onHeaderRead(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+         recorder.header(buf, startOfName, endOfName, startOfValue, endOfValue);
+      }
+
+      @Override
+      protected void onBodyPart(ByteBuf buf, int startOffset, int length, boolean isLastPart) {
+         recorder.bodyPart(buf, startOffset, length, isLastPart);
+      }
+
+      @Override
+      protected void onCompletion(HttpRequest request) {
+      }
+   }
+
+   private static class SwarRecording extends SwarHttp1xResponseHandler {
+      private final Recorder recorder;
+
+      SwarRecording(List<String> events) {
+         super(new BaseMockConnection());
+         this.recorder = new Recorder(events);
+      }
+
+      @Override
+      boolean isHeaderRequired(ByteBuf buf, int startOfName, int endOfName) {
+         return true;
+      }
+
+      @Override
+      protected void onStatus(int status) {
+         recorder.status(status);
+      }
+
+      @Override
+      protected void onHeaderRead(ByteBuf buf, int startOfName, int endOfName, int startOfValue, int endOfValue) {
+         recorder.header(buf, startOfName, endOfName, startOfValue, endOfValue);
+      }
+
+      @Override
+      protected void onBodyPart(ByteBuf buf, int startOffset, int length, boolean isLastPart) {
+         recorder.bodyPart(buf, startOffset, length, isLastPart);
+      }
+
+      @Override
+      protected void onCompletion(HttpRequest request) {
+      }
+   }
+}
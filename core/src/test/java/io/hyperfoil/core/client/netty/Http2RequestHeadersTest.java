@@ -0,0 +1,108 @@
+package io.hyperfoil.core.client.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersDecoder;
+import io.netty.handler.codec.http2.DefaultHttp2HeadersEncoder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2Headers;
+import io.netty.util.AsciiString;
+
+public class Http2RequestHeadersTest {
+   private static final AsciiString PATH = AsciiString.of("/foo/bar?x=y");
+   private static final AsciiString AUTHORITY = AsciiString.of("localhost:8080");
+   private static final AsciiString ACCEPT_VALUE = AsciiString.of("application/json");
+
+   @Test
+   public void testEncode() throws Http2Exception {
+      Http2RequestHeaders headers = new Http2RequestHeaders();
+      fill(headers);
+      headers.add("x-foo", "bar");
+      headers.add("x-foo", "goo");
+      assertThat(headers.size()).isEqualTo(7);
+      assertThat(headers.get(":path")).isEqualTo(PATH);
+      assertThat(headers.getAll("X-Foo")).containsExactly("bar", "goo");
+      assertThat(headers.contains(HttpHeaderNames.ACCEPT, "APPLICATION/JSON", true)).isTrue();
+      assertThat(headers.contains(HttpHeaderNames.ACCEPT, "APPLICATION/JSON", false)).isFalse();
+
+      // pseudo-headers must be encoded first even if added later
+      headers.remove(HttpHeaderNames.ACCEPT);
+      headers.path("/");
+      Map.Entry<CharSequence, CharSequence> first = headers.iterator().next();
+      assertThat(first.getKey().toString()).isEqualTo(":method");
+
+      ByteBuf buf = Unpooled.buffer();
+      new DefaultHttp2HeadersEncoder().encodeHeaders(1, headers, buf);
+      Http2Headers decoded = new DefaultHttp2HeadersDecoder(true).decodeHeaders(1, buf);
+      assertThat(decoded.method().toString()).isEqualTo("GET");
+      assertThat(decoded.path().toString()).isEqualTo("/");
+      assertThat(decoded.authority().toString()).isEqualTo(AUTHORITY.toString());
+      assertThat(decoded.getAll("x-foo")).hasSize(2);
+      assertThat(decoded.contains(HttpHeaderNames.ACCEPT)).isFalse();
+      assertThat(decoded.size()).isEqualTo(headers.size());
+
+      headers.clear();
+      assertThat(headers.isEmpty()).isTrue();
+      assertThat(headers.iterator().hasNext()).isFalse();
+   }
+
+   @Test
+   public void testValidation() {
+      Http2RequestHeaders headers = new Http2RequestHeaders();
+      assertThatThrownBy(() -> headers.add("X-Foo", "bar")).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> headers.set(":foo", "bar")).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> headers.add("", "bar")).isInstanceOf(IllegalArgumentException.class);
+      assertThat(headers.isEmpty()).isTrue();
+
+      // Mutators that are not implemented must not be silently ignored
+      assertThatThrownBy(() -> headers.addInt("x-foo", 1)).isInstanceOf(UnsupportedOperationException.class);
+      assertThatThrownBy(() -> headers.setAll(new Http2RequestHeaders())).isInstanceOf(UnsupportedOperationException.class);
+      assertThatThrownBy(() -> headers.getAndRemove("x-foo")).isInstanceOf(UnsupportedOperationException.class);
+   }
+
+   @Test
+   public void testNoAllocation() throws Http2Exception {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+      com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+      assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+      Http2RequestHeaders headers = new Http2RequestHeaders();
+      DefaultHttp2HeadersEncoder encoder = new DefaultHttp2HeadersEncoder();
+      ByteBuf buf = Unpooled.buffer(1024);
+      // warm up, also fills the HPACK dynamic table
+      for (int i = 0; i < 1000; ++i) {
+         encode(headers, encoder, buf);
+      }
+      long threadId = Thread.currentThread().getId();
+      long before = threadBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < 10000; ++i) {
+         encode(headers, encoder, buf);
+      }
+      long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+      // Allow some noise from the measurement itself, allocations would be in megabytes
+      assertThat(allocated).isLessThan(10000);
+   }
+
+   private void encode(Http2RequestHeaders headers, DefaultHttp2HeadersEncoder encoder, ByteBuf buf) throws Http2Exception {
+      headers.clear();
+      fill(headers);
+      buf.clear();
+      encoder.encodeHeaders(1, headers, buf);
+   }
+
+   private static void fill(Http2RequestHeaders headers) {
+      headers.method("GET").scheme("http").path(PATH).authority(AUTHORITY);
+      headers.add(HttpHeaderNames.ACCEPT, ACCEPT_VALUE);
+   }
+}
@@ -0,0 +1,68 @@
+package io.hyperfoil.core.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class CsvIndexTest {
+   private static final String DATA = "# comment\r\none,\"two\",three\r\n\n   # indented comment\nfour,fünf\nsix,seven,eight";
+
+   @Test
+   public void testWrap() {
+      CsvIndex index = CsvIndex.wrap(DATA.getBytes(StandardCharsets.UTF_8), true, true);
+      assertEquals(3, index.rows());
+      CsvIndex.Value[] values = values(2);
+      index.read(0, new int[]{ 1, 2 }, values);
+      assertEquals("two", values[0].toString());
+      assertEquals("three", values[1].toString());
+      index.read(1, new int[]{ 1, 2 }, values);
+      assertEquals("fünf", values[0].toString());
+      assertEquals(4, values[0].length());
+      assertEquals("", values[1].toString());
+   }
+
+   @Test
+   public void testComments() {
+      CsvIndex index = CsvIndex.wrap(DATA.getBytes(StandardCharsets.UTF_8), false, false);
+      assertEquals(5, index.rows());
+      CsvIndex.Value[] values = values(1);
+      index.read(1, new int[]{ 1 }, values);
+      assertEquals("\"two\"", values[0].toString());
+   }
+
+   @Test
+   public void testMapRegions() throws IOException {
+      Path file = Files.createTempFile("hyperfoil-csv", ".csv");
+      try {
+         StringBuilder sb = new StringBuilder();
+         for (int i = 0; i < 1000; ++i) {
+            sb.append(i).append(',').append("value").append(i).append('\n');
+         }
+         Files.write(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+         // rows cross region boundaries
+         CsvIndex index = CsvIndex.map(file, false, false, 100);
+         assertEquals(1000, index.rows());
+         CsvIndex.Value[] values = values(2);
+         for (int i = 0; i < 1000; ++i) {
+            index.read(i, new int[]{ 0, 1 }, values);
+            assertEquals(String.valueOf(i), values[0].toString());
+            assertEquals("value" + i, values[1].toString());
+         }
+      } finally {
+         Files.delete(file);
+      }
+   }
+
+   private static CsvIndex.Value[] values(int n) {
+      CsvIndex.Value[] values = new CsvIndex.Value[n];
+      for (int i = 0; i < n; ++i) {
+         values[i] = new CsvIndex.Value();
+      }
+      return values;
+   }
+}
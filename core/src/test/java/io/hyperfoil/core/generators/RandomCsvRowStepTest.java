@@ -3,13 +3,25 @@ package io.hyperfoil.core.generators;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.junit.Test;
 
+import io.hyperfoil.api.config.BaseSequenceBuilder;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.BenchmarkData;
 import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.config.ScenarioBuilder;
 import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.config.StepBuilder;
 import io.hyperfoil.api.session.Access;
 import io.hyperfoil.api.session.Session;
 import io.hyperfoil.core.session.SessionFactory;
@@ -47,13 +59,22 @@ public class RandomCsvRowStepTest {
       List<Step> steps = builder.build();
       Access[] access = Stream.of(vars).map(var -> var != null ? SessionFactory.access(var) : null).toArray(Access[]::new);
       Locator.pop();
-      RandomCsvRowStep csvRowStep = (RandomCsvRowStep) steps.get(0);
+      CsvRowStep csvRowStep = (CsvRowStep) steps.get(0);
 
       Session session = SessionFactory.forTesting(vars, new String[0]);
+      csvRowStep.reserve(session);
+      Object previous = null;
       OUTER:
       for (int i = 0; i < 10; ++i) {
          csvRowStep.invoke(session);
+         // values from previous invocation must not change when the next row is read
+         if (previous != null) {
+            Object prev = previous;
+            assertThat(DATA).anyMatch(row -> row[0].equals(prev));
+         }
          Object first = access[0].getObject(session);
+         assertThat(first).isInstanceOf(String.class);
+         previous = first;
          for (String[] row : DATA) {
             if (row[0].equals(first)) {
                for (int j = 1; j < row.length; ++j) {
@@ -67,4 +88,65 @@ public class RandomCsvRowStepTest {
          fail("No match for row: %s", first);
       }
    }
+
+   @Test
+   public void testLocalCopy() throws IOException {
+      Path localCopy = Files.createTempFile("local-copy", ".csv");
+      try {
+         Files.write(localCopy, "local,copy\n".getBytes(StandardCharsets.UTF_8));
+         BenchmarkData data = new BenchmarkData() {
+            @Override
+            public InputStream readFile(String file) {
+               throw new AssertionError("The local copy should be mapped instead");
+            }
+
+            @Override
+            public Map<String, byte[]> files() {
+               return Collections.emptyMap();
+            }
+
+            @Override
+            public Path localPath(String file) {
+               return "data/testdata.csv".equals(file) ? localCopy : null;
+            }
+         };
+         RandomCsvRowStep.Builder builder = new RandomCsvRowStep.Builder().file("data/testdata.csv");
+         builder.columns().accept("1", "second");
+         Locator.push(new Locator() {
+            @Override
+            public StepBuilder<?> step() {
+               throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public BaseSequenceBuilder sequence() {
+               throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ScenarioBuilder scenario() {
+               return null;
+            }
+
+            @Override
+            public BenchmarkBuilder benchmark() {
+               return new BenchmarkBuilder(null, data);
+            }
+         });
+         CsvRowStep csvRowStep;
+         Access access;
+         try {
+            csvRowStep = (CsvRowStep) builder.build().get(0);
+            access = SessionFactory.access("second");
+         } finally {
+            Locator.pop();
+         }
+         Session session = SessionFactory.forTesting(new String[]{ "second" }, new String[0]);
+         csvRowStep.reserve(session);
+         csvRowStep.invoke(session);
+         assertThat(access.getObject(session)).isEqualTo("copy");
+      } finally {
+         Files.delete(localCopy);
+      }
+   }
 }
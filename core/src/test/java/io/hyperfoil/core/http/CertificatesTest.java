@@ -135,7 +135,7 @@ public class CertificatesTest {
                      }
                   }).build();
             request.method = HttpMethod.GET;
-            request.path = "/ping";
+            request.setPath("/ping");
             request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
 
             client.next().request(request, null, true, null, false);
@@ -168,7 +168,7 @@ public class CookieStoreTest {
       @Override
       public HttpRequest request() {
          HttpRequest httpRequest = new HttpRequest(null);
-         httpRequest.path = path;
+         httpRequest.setPath(path);
          return httpRequest;
       }
 
@@ -40,11 +40,11 @@ public class HttpCacheTest extends VertxBaseTest {
    private static final TestClock CLOCK = new TestClock();
    private static final Consumer<HttpRequest> GET_TEST = request -> {
       request.method = HttpMethod.GET;
-      request.path = "/test";
+      request.setPath("/test");
    };
    private static final Consumer<HttpRequest> POST_TEST = request -> {
       request.method = HttpMethod.POST;
-      request.path = "/test";
+      request.setPath("/test");
    };
 
    @Test
@@ -249,7 +249,7 @@ public class HttpCacheTest extends VertxBaseTest {
             })
             .build();
       configurator.accept(request);
-      log.trace("Sending {} request to {}", request.method, request.path);
+      log.trace("Sending {} request to {}", request.method, request.path());
       request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
       @SuppressWarnings("unchecked")
       BiConsumer<Session, HttpRequestWriter>[] appenders = new BiConsumer[]{ headerAppender };
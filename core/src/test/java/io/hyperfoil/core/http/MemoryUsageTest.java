@@ -122,7 +122,7 @@ public class MemoryUsageTest {
             })
             .onCompletion(s -> pool.executor().schedule(() -> doRequest(pool, session, context, async, seenMemoryUsage), 1, TimeUnit.MILLISECONDS))
             .build();
-      request.path = "/";
+      request.setPath("/");
       request.method = HttpMethod.GET;
       request.handlers = handlers;
       request.start(handlers, new SequenceInstance(), new Statistics(System.currentTimeMillis()));
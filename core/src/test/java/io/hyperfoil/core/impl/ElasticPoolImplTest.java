@@ -0,0 +1,226 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+
+public class ElasticPoolImplTest {
+   @Test
+   public void testStats() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         // object value modulo number of executors is the executor index
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> null,
+               executors, i -> i % executors.length);
+         pool.reserve(10);
+         assertThat(counter.get()).isEqualTo(10);
+         pool.reserve(5);
+         assertThat(counter.get()).isEqualTo(10);
+
+         Set<Integer> acquired = new HashSet<>();
+         for (EventExecutor executor : executors) {
+            acquired.addAll(executor.submit(() -> drain(pool)).get(10, TimeUnit.SECONDS));
+         }
+         assertThat(acquired).hasSize(10);
+         assertThat(pool.maxUsed()).isEqualTo(10);
+
+         List<Integer> list = new ArrayList<>(acquired);
+         for (int i = 0; i < 4; ++i) {
+            pool.release(list.get(i));
+         }
+         assertThat(pool.minUsed()).isEqualTo(6);
+         pool.resetStats();
+         assertThat(pool.minUsed()).isEqualTo(6);
+         assertThat(pool.maxUsed()).isEqualTo(6);
+         int reacquired = 0;
+         for (EventExecutor executor : executors) {
+            reacquired += executor.submit(() -> drain(pool)).get(10, TimeUnit.SECONDS).size();
+         }
+         assertThat(reacquired).isEqualTo(4);
+         assertThat(pool.maxUsed()).isEqualTo(10);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testAcquireOutsideExecutor() {
+      EventExecutor[] executors = { new DefaultEventExecutor() };
+      try {
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(() -> 0, () -> null, executors, i -> 0);
+         pool.reserve(1);
+         pool.acquire();
+      } finally {
+         executors[0].shutdownGracefully(0, 0, TimeUnit.SECONDS);
+      }
+   }
+
+   @Test
+   public void testAcquireLocal() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> null,
+               executors, i -> i % executors.length);
+         pool.reserve(6);
+         for (int e = 0; e < executors.length; ++e) {
+            int index = e;
+            List<Integer> acquired = executors[e].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS);
+            // Does not take objects bound to the other executor
+            assertThat(acquired).hasSize(3).allMatch(i -> i % executors.length == index);
+         }
+         assertThat(pool.maxUsed()).isEqualTo(6);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testAcquireLocalDepletion() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         AtomicInteger depleted = new AtomicInteger();
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> {
+            depleted.incrementAndGet();
+            return null;
+         }, executors, i -> i % executors.length);
+         pool.reserve(4);
+         Callable<Integer> drain = () -> {
+            int acquired = 0;
+            while (pool.acquireLocal() != null) {
+               ++acquired;
+            }
+            return acquired;
+         };
+         assertThat(executors[0].submit(drain).get(10, TimeUnit.SECONDS)).isEqualTo(2);
+         // The other executor still has free objects
+         assertThat(depleted.get()).isZero();
+         assertThat(executors[1].submit(drain).get(10, TimeUnit.SECONDS)).isEqualTo(2);
+         assertThat(depleted.get()).isEqualTo(1);
+
+         pool.release(1);
+         assertThat(executors[0].submit(() -> pool.acquireLocal()).get(10, TimeUnit.SECONDS)).isNull();
+         assertThat(depleted.get()).isEqualTo(1);
+         assertThat(executors[1].submit(() -> pool.acquireLocal()).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testSteal() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         AtomicInteger depleted = new AtomicInteger();
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> {
+            depleted.incrementAndGet();
+            return null;
+         }, executors, i -> i % executors.length);
+         pool.reserve(6);
+         // The first executor uses up its share...
+         assertThat(executors[0].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(0, 2, 4);
+         assertThat(depleted.get()).isZero();
+         // ...but still gets the sessions idle on the other executor
+         assertThat(executors[0].submit(() -> drain(pool)).get(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(1, 3, 5);
+         assertThat(depleted.get()).isEqualTo(1);
+         assertThat(pool.maxUsed()).isEqualTo(6);
+
+         // Own share is preferred
+         pool.release(0);
+         pool.release(1);
+         assertThat(executors[1].submit(pool::acquire).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+         assertThat(executors[1].submit(pool::acquire).get(10, TimeUnit.SECONDS)).isEqualTo(0);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testMaxUsedConcurrent() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor(), new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> null,
+               executors, i -> i % executors.length);
+         pool.reserve(400);
+         List<io.netty.util.concurrent.Future<List<Integer>>> futures = new ArrayList<>();
+         for (EventExecutor executor : executors) {
+            futures.add(executor.submit(() -> drainLocal(pool)));
+         }
+         for (io.netty.util.concurrent.Future<List<Integer>> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS)).hasSize(100);
+         }
+         // A lower value written by a racing executor must not overwrite the maximum
+         assertThat(pool.maxUsed()).isEqualTo(400);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   @Test
+   public void testOverflow() throws Exception {
+      EventExecutor[] executors = { new DefaultEventExecutor(), new DefaultEventExecutor() };
+      try {
+         AtomicInteger counter = new AtomicInteger();
+         AtomicReference<Integer> extra = new AtomicReference<>(4);
+         ElasticPoolImpl<Integer> pool = new ElasticPoolImpl<>(counter::getAndIncrement, () -> extra.getAndSet(null),
+               executors, i -> i % executors.length);
+         pool.reserve(4);
+         assertThat(executors[0].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(0, 2);
+         assertThat(executors[1].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(1, 3, 4);
+         // Object 4 is bound to the first executor but does not fit into its queue
+         pool.release(0);
+         pool.release(2);
+         pool.release(4);
+         assertThat(executors[1].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS)).containsExactly(4);
+         assertThat(executors[0].submit(() -> drainLocal(pool)).get(10, TimeUnit.SECONDS)).containsExactlyInAnyOrder(0, 2);
+      } finally {
+         for (EventExecutor executor : executors) {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+         }
+      }
+   }
+
+   private static List<Integer> drain(ElasticPoolImpl<Integer> pool) {
+      List<Integer> list = new ArrayList<>();
+      Integer object;
+      while ((object = pool.acquire()) != null) {
+         list.add(object);
+      }
+      return list;
+   }
+
+   private static List<Integer> drainLocal(ElasticPoolImpl<Integer> pool) {
+      List<Integer> list = new ArrayList<>();
+      Integer object;
+      while ((object = pool.acquireLocal()) != null) {
+         list.add(object);
+      }
+      return list;
+   }
+}
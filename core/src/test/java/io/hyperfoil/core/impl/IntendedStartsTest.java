@@ -0,0 +1,41 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class IntendedStartsTest {
+   private static final long MS = PhaseInstanceImpl.IntendedStarts.COALESCE_NANOS;
+
+   @Test
+   public void testRunLength() {
+      PhaseInstanceImpl.IntendedStarts starts = new PhaseInstanceImpl.IntendedStarts();
+      starts.add(0, 1_000_000_000L);
+      starts.add(10 * MS);
+      starts.add(10 * MS + 1);
+      assertThat(starts.size()).isEqualTo(1_000_000_002L);
+      for (int i = 0; i < 1000; ++i) {
+         assertThat(starts.poll()).isEqualTo(0);
+      }
+      assertThat(starts.size()).isEqualTo(999_999_002L);
+   }
+
+   @Test
+   public void testOrderAndCap() {
+      PhaseInstanceImpl.IntendedStarts starts = new PhaseInstanceImpl.IntendedStarts();
+      int users = PhaseInstanceImpl.IntendedStarts.MAX_ENTRIES + 100;
+      for (int i = 0; i < users; ++i) {
+         starts.add(i * MS);
+      }
+      assertThat(starts.size()).isEqualTo(users);
+      long previous = Long.MIN_VALUE;
+      for (int i = 0; i < users; ++i) {
+         long timestamp = starts.poll();
+         assertThat(timestamp).isGreaterThanOrEqualTo(previous);
+         assertThat(timestamp).isLessThanOrEqualTo(i * MS);
+         previous = timestamp;
+      }
+      assertThat(starts.poll()).isEqualTo(Long.MIN_VALUE);
+      assertThat(starts.size()).isZero();
+   }
+}
@@ -0,0 +1,50 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.BenchmarkDefinitionException;
+
+public class TransportTest {
+   @Test
+   public void testAvailable() {
+      Set<Transport> available = EnumSet.allOf(Transport.class);
+      assertThat(Transport.select("nio", available::contains)).isEqualTo(Transport.NIO);
+      assertThat(Transport.select("epoll", available::contains)).isEqualTo(Transport.EPOLL);
+      assertThat(Transport.select("io-uring", available::contains)).isEqualTo(Transport.IO_URING);
+      assertThat(Transport.select("IO_URING", available::contains)).isEqualTo(Transport.IO_URING);
+      assertThat(Transport.select("auto", available::contains)).isEqualTo(Transport.EPOLL);
+      assertThat(Transport.select(null, available::contains)).isEqualTo(Transport.EPOLL);
+   }
+
+   @Test
+   public void testFallback() {
+      Set<Transport> onlyNio = EnumSet.of(Transport.NIO);
+      assertThat(Transport.select("epoll", onlyNio::contains)).isEqualTo(Transport.NIO);
+      assertThat(Transport.select("io_uring", onlyNio::contains)).isEqualTo(Transport.NIO);
+      assertThat(Transport.select("auto", onlyNio::contains)).isEqualTo(Transport.NIO);
+
+      Set<Transport> noIoUring = EnumSet.of(Transport.NIO, Transport.EPOLL);
+      assertThat(Transport.select("io_uring", noIoUring::contains)).isEqualTo(Transport.EPOLL);
+   }
+
+   @Test
+   public void testUnknown() {
+      assertThatThrownBy(() -> Transport.select("kqueue", t -> true))
+            .isInstanceOf(BenchmarkDefinitionException.class)
+            .hasMessageContaining("kqueue");
+   }
+
+   @Test
+   public void testSelectedIsUsable() {
+      // Whatever is picked on this machine must be actually available
+      Transport transport = Transport.select("io_uring");
+      assertThat(transport.isAvailable()).isTrue();
+      assertThat(Transport.select("nio")).isEqualTo(Transport.NIO);
+   }
+}
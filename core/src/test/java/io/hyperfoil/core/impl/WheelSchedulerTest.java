@@ -0,0 +1,56 @@
+package io.hyperfoil.core.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.session.Scheduler;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.EventExecutor;
+
+public class WheelSchedulerTest {
+   @Test
+   public void testNotEarlyAndCancel() throws Exception {
+      EventExecutor executor = new DefaultEventExecutor();
+      try {
+         // small wheel to make sure that timeouts survive several rounds
+         WheelScheduler scheduler = new WheelScheduler(executor, TimeUnit.MILLISECONDS.toNanos(1), 4);
+         CountDownLatch latch = new CountDownLatch(2);
+         AtomicLong firedShort = new AtomicLong();
+         AtomicLong firedLong = new AtomicLong();
+         AtomicBoolean cancelledFired = new AtomicBoolean();
+         AtomicLong start = new AtomicLong();
+         executor.execute(() -> {
+            start.set(System.nanoTime());
+            Scheduler.Timeout cancelled = scheduler.newTimeout(() -> cancelledFired.set(true));
+            cancelled.schedule(5, TimeUnit.MILLISECONDS);
+            Scheduler.Timeout shortTimeout = scheduler.newTimeout(() -> {
+               firedShort.set(System.nanoTime());
+               latch.countDown();
+            });
+            shortTimeout.schedule(3, TimeUnit.MILLISECONDS);
+            Scheduler.Timeout longTimeout = scheduler.newTimeout(() -> {
+               firedLong.set(System.nanoTime());
+               latch.countDown();
+            });
+            // reschedule replaces the previous deadline
+            longTimeout.schedule(1, TimeUnit.MILLISECONDS);
+            longTimeout.schedule(20, TimeUnit.MILLISECONDS);
+            assertThat(cancelled.cancel()).isTrue();
+            assertThat(cancelled.cancel()).isFalse();
+            assertThat(cancelled.isScheduled()).isFalse();
+         });
+         assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+         assertThat(firedShort.get() - start.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(3));
+         assertThat(firedLong.get() - start.get()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+         assertThat(cancelledFired.get()).isFalse();
+      } finally {
+         executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+      }
+   }
+}
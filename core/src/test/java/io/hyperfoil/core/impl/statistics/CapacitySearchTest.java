@@ -0,0 +1,137 @@
+package io.hyperfoil.core.impl.statistics;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoublePredicate;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+public class CapacitySearchTest {
+   private static final long STEP_DURATION = 10_000;
+
+   @Test
+   public void testConverges() {
+      Phase.CapacitySearch def = phase(10, 1000);
+      CapacitySearch search = new CapacitySearch(def, 0);
+      int steps = run(search, rate -> rate <= 300);
+      assertThat(search.isConverged()).isTrue();
+      assertThat(search.knee()).isBetween(300 * (1 - def.precision), 300.0);
+      // 10 -> 20 -> ... -> 320 fails, then bisecting the interval 160 - 320
+      assertThat(steps).isLessThan(15);
+      assertThat(search.lastFailure()).contains("Mean response time exceeded");
+   }
+
+   @Test
+   public void testReachesMaximum() {
+      CapacitySearch search = new CapacitySearch(phase(10, 100), 0);
+      run(search, rate -> true);
+      assertThat(search.knee()).isEqualTo(100);
+   }
+
+   @Test
+   public void testGivesUp() {
+      CapacitySearch search = new CapacitySearch(phase(10, 100), 0);
+      run(search, rate -> false);
+      assertThat(search.isConverged()).isTrue();
+      assertThat(search.knee()).isEqualTo(0);
+   }
+
+   @Test
+   public void testIgnoresWarmup() {
+      CapacitySearch search = new CapacitySearch(phase(10, 100), 0);
+      // slow responses during warmup (first 2 seconds) and after the step must not fail the step
+      search.record("foo", snapshot(0, 100, 50_000_000));
+      search.record("foo", snapshot(1, 100, 50_000_000));
+      for (int i = 2; i < STEP_DURATION / 1000; ++i) {
+         search.record("foo", snapshot(i, 100, 1_000_000));
+         search.recordStarts(starts(i, 10));
+      }
+      search.record("foo", snapshot((int) (STEP_DURATION / 1000), 100, 50_000_000));
+      assertThat(search.evaluate(search.evaluationTime())).isTrue();
+      assertThat(search.knee()).isEqualTo(10);
+      assertThat(search.usersPerSec()).isEqualTo(20);
+   }
+
+   @Test
+   public void testThrottledFails() {
+      Phase.CapacitySearch def = phase(10, 1000);
+      CapacitySearch search = new CapacitySearch(def, 0);
+      // Response times are fine but the sessions can't start more than 200 users per second
+      run(search, rate -> true, 200);
+      assertThat(search.isConverged()).isTrue();
+      // within precision the knee can be slightly above the achievable rate
+      assertThat(search.knee()).isBetween(200 * (1 - def.precision), 200 / (1 - def.precision));
+      assertThat(search.lastFailure()).contains("throttled");
+   }
+
+   private static int run(CapacitySearch search, DoublePredicate sustainable) {
+      return run(search, sustainable, Integer.MAX_VALUE);
+   }
+
+   private static int run(CapacitySearch search, DoublePredicate sustainable, int maxStartRate) {
+      long stepStart = 0;
+      int steps = 0;
+      do {
+         ++steps;
+         long responseTime = sustainable.test(search.usersPerSec()) ? 1_000_000 : 50_000_000;
+         int started = Math.min((int) search.usersPerSec(), maxStartRate);
+         for (long t = stepStart; t < stepStart + STEP_DURATION; t += 1000) {
+            search.record("foo", snapshot((int) (t / 1000), started, responseTime));
+            search.recordStarts(starts((int) (t / 1000), started));
+         }
+         stepStart = search.evaluationTime();
+         assertThat(steps).isLessThan(100);
+      } while (search.evaluate(stepStart));
+      return steps;
+   }
+
+   private static Phase.CapacitySearch phase(double initialUsersPerSec, double maxUsersPerSec) {
+      // @formatter:off
+      Benchmark benchmark = BenchmarkBuilder.builder()
+            .http("http://localhost:8080").endHttp()
+            .addPhase("search").capacitySearch(maxUsersPerSec)
+               .initialUsersPerSec(initialUsersPerSec)
+               .stepDuration(STEP_DURATION)
+               .warmup(2000)
+               .duration("1h")
+               .sla().addItem().meanResponseTime(10, TimeUnit.MILLISECONDS).endSLA().endList()
+               .scenario()
+                  .initialSequence("foo")
+                     .step(SC).httpRequest(HttpMethod.GET).path("foo").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase()
+            .build();
+      // @formatter:on
+      return (Phase.CapacitySearch) benchmark.phases().stream().filter(p -> p.name().equals("search")).findFirst().get();
+   }
+
+   private static StatisticsSnapshot starts(int sequenceId, int users) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.responseCount = users;
+      return snapshot;
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, int requests, long responseTime) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      snapshot.status_2xx = requests;
+      for (int i = 0; i < requests; ++i) {
+         snapshot.histogram.recordValue(responseTime);
+      }
+      snapshot.histogram.setStartTimeStamp(1000L * sequenceId);
+      snapshot.histogram.setEndTimeStamp(1000L * (sequenceId + 1));
+      return snapshot;
+   }
+}
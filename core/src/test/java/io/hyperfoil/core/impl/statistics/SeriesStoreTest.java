@@ -0,0 +1,193 @@
+package io.hyperfoil.core.impl.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+public class SeriesStoreTest {
+   private Path dir;
+
+   @Before
+   public void createDir() throws IOException {
+      dir = Files.createTempDirectory("hyperfoil-series");
+   }
+
+   @After
+   public void deleteDir() {
+      File[] files = dir.toFile().listFiles();
+      if (files != null) {
+         for (File file : files) {
+            file.delete();
+         }
+      }
+      dir.toFile().delete();
+   }
+
+   @Test
+   public void testAppendAndRead() {
+      // small segments to test rolling over
+      SeriesStore store = new SeriesStore(dir, 4096);
+      int foo = store.define("phase", 1, "foo", null);
+      int bar = store.define("phase", 1, "bar", "agent");
+      int periods = 100;
+      for (int i = 0; i < periods; ++i) {
+         store.append(foo, snapshot(i, i));
+         store.append(bar, snapshot(i, 2 * i));
+      }
+      // reader sees only what has been written before it started
+      Iterable<StatisticsSnapshot> fooSeries = store.read(foo);
+      store.append(foo, snapshot(periods, 0));
+
+      int index = 0;
+      for (StatisticsSnapshot snapshot : fooSeries) {
+         assertEquals(index, snapshot.sequenceId);
+         assertEquals(index, snapshot.requestCount);
+         assertEquals(1, snapshot.histogram.getTotalCount());
+         assertEquals(1000L * index, snapshot.histogram.getStartTimeStamp());
+         ++index;
+      }
+      assertEquals(periods, index);
+
+      Iterator<StatisticsSnapshot> it = store.read(bar).iterator();
+      for (int i = 0; i < periods; ++i) {
+         assertEquals(2 * i, it.next().requestCount);
+      }
+      assertFalse(it.hasNext());
+      assertEquals(periods + 1, count(store.read(foo)));
+
+      assertEquals(bar, store.find("phase", 1, "bar", "agent"));
+      assertEquals(-1, store.find("phase", 1, "bar", null));
+      it = store.read(foo, 10_000, 20_000).iterator();
+      for (int i = 10; i < 20; ++i) {
+         assertEquals(i, it.next().sequenceId);
+      }
+      assertFalse(it.hasNext());
+
+      store.close();
+      assertTrue(dir.toFile().listFiles().length > 1);
+   }
+
+   @Test
+   public void testLargeRecord() {
+      SeriesStore store = new SeriesStore(dir, 64);
+      int id = store.define("phase", 0, "metric", null);
+      StatisticsSnapshot snapshot = snapshot(0, 1);
+      for (int i = 1; i < 1000; ++i) {
+         snapshot.histogram.recordValue(i * 1000);
+      }
+      store.append(id, snapshot);
+      assertEquals(1000, store.read(id).iterator().next().histogram.getTotalCount());
+      store.close();
+   }
+
+   @Test
+   public void testRecover() throws IOException {
+      SeriesStore store = new SeriesStore(dir, 4096);
+      int foo = store.define("phase", 1, "foo", null);
+      for (int i = 0; i < 100; ++i) {
+         store.append(foo, snapshot(i, i));
+      }
+      int bar = store.define("phase", 2, "bar", "agent");
+      store.append(bar, snapshot(0, 42));
+      // wait until the records are written; the store is not closed as if the controller crashed
+      assertEquals(1, count(store.read(bar)));
+
+      SeriesStore recovered = SeriesStore.recover(dir);
+      int recoveredFoo = recovered.find("phase", 1, "foo", null);
+      assertEquals(foo, recoveredFoo);
+      assertEquals(100, count(recovered.read(recoveredFoo)));
+      assertEquals(50, recovered.read(recoveredFoo, 50_000, Long.MAX_VALUE).iterator().next().requestCount);
+      assertEquals(42, recovered.read(recovered.find("phase", 2, "bar", "agent")).iterator().next().requestCount);
+      recovered.close();
+      store.close();
+   }
+
+   @Test
+   public void testRecoverJournal() throws IOException {
+      SeriesStore store = new SeriesStore(dir, 4096);
+      int total = store.define("phase", 1, "foo", null);
+      int agent = store.define("phase", 1, "foo", "agent");
+      for (int i = 0; i < 10; ++i) {
+         store.journal(agent, snapshot(i, i));
+      }
+      // late snapshot for the last period
+      store.journal(agent, snapshot(9, 100));
+      // only the first periods were merged before the crash
+      for (int i = 0; i < 5; ++i) {
+         store.append(agent, snapshot(i, i));
+         store.append(total, snapshot(i, i));
+      }
+      assertEquals(5, count(store.read(agent)));
+
+      SeriesStore recovered = SeriesStore.recover(dir);
+      Iterator<StatisticsSnapshot> it = recovered.read(recovered.find("phase", 1, "foo", "agent")).iterator();
+      for (int i = 0; i < 9; ++i) {
+         assertEquals(i, it.next().requestCount);
+      }
+      assertEquals(109, it.next().requestCount);
+      assertFalse(it.hasNext());
+      assertEquals(10, count(recovered.read(recovered.find("phase", 1, "foo", null))));
+      recovered.close();
+
+      // merged periods were appended to the segments, recovering again does not duplicate them
+      recovered = SeriesStore.recover(dir);
+      assertEquals(10, count(recovered.read(recovered.find("phase", 1, "foo", "agent"))));
+      assertEquals(10, count(recovered.read(recovered.find("phase", 1, "foo", null))));
+      recovered.close();
+      store.close();
+   }
+
+   @Test
+   public void testCloseWhileReading() {
+      SeriesStore store = new SeriesStore(dir, 4096);
+      int foo = store.define("phase", 1, "foo", null);
+      for (int i = 0; i < 10; ++i) {
+         store.append(foo, snapshot(i, i));
+      }
+      Iterator<StatisticsSnapshot> it = store.read(foo).iterator();
+      assertEquals(0, it.next().requestCount);
+      store.close();
+      // the segments are unmapped only after the reader is done
+      for (int i = 1; i < 10; ++i) {
+         assertEquals(i, it.next().requestCount);
+      }
+      assertFalse(it.hasNext());
+      try {
+         store.read(foo);
+         fail("Store is closed");
+      } catch (IllegalStateException e) {
+         // expected
+      }
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, int requests) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.requestCount = requests;
+      snapshot.histogram.recordValue(1_000_000);
+      snapshot.histogram.setStartTimeStamp(1000L * sequenceId);
+      snapshot.histogram.setEndTimeStamp(1000L * (sequenceId + 1));
+      return snapshot;
+   }
+
+   private static int count(Iterable<?> iterable) {
+      int count = 0;
+      for (Object ignored : iterable) {
+         ++count;
+      }
+      return count;
+   }
+}
@@ -0,0 +1,145 @@
+package io.hyperfoil.core.impl.statistics;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Benchmark;
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.controller.model.RequestStats;
+import io.hyperfoil.core.steps.StatisticsStep;
+
+public class StatisticsStoreTest {
+   private Path dir;
+   private StatisticsStore store;
+   private int phaseId;
+
+   @Before
+   public void setup() throws IOException {
+      dir = Files.createTempDirectory("hyperfoil-stats");
+      // @formatter:off
+      Benchmark benchmark = BenchmarkBuilder.builder()
+            .http("http://localhost:8080").endHttp()
+            .addPhase("foo").always(1)
+               .duration("3s")
+               .scenario()
+                  .initialSequence("foo")
+                     .step(SC).httpRequest(HttpMethod.GET).path("foo").endStep()
+                  .endSequence()
+               .endScenario()
+            .endPhase()
+            .build();
+      // @formatter:on
+      phaseId = benchmark.phases().stream().filter(p -> p.name().equals("foo")).findFirst().get().id();
+      store = new StatisticsStore(benchmark, dir, failure -> {
+      });
+   }
+
+   @After
+   public void cleanup() {
+      store.close();
+      File[] files = dir.toFile().listFiles();
+      if (files != null) {
+         for (File file : files) {
+            file.delete();
+         }
+      }
+      dir.toFile().delete();
+   }
+
+   @Test
+   public void testRecent() {
+      List<RequestStats> completed = new ArrayList<>();
+      store.addRecentListener(completed::add);
+
+      store.record("agent1", phaseId, 1, "foo", snapshot(0, 10, 1_000_000));
+      store.record("agent1", phaseId, 1, "foo", snapshot(1, 20, 2_000_000));
+      assertThat(completed).hasSize(1);
+      assertThat(completed.get(0).summary.requestCount).isEqualTo(10);
+
+      // late snapshot for the completed period is added to the recent summary
+      store.record("agent2", phaseId, 1, "foo", snapshot(0, 5, 3_000_000));
+      List<RequestStats> recent = store.recentSummary(0);
+      assertThat(recent).hasSize(1);
+      assertThat(recent.get(0).summary.requestCount).isEqualTo(15);
+      assertThat(recent.get(0).summary.maxResponseTime).isGreaterThanOrEqualTo(3_000_000);
+      // the period is still in progress
+      assertThat(store.recentSummary(2000)).isEmpty();
+
+      store.completePhase("foo");
+      assertThat(store.recentSummary(0)).isEmpty();
+      assertThat(completed).hasSize(1);
+   }
+
+   @Test
+   public void testOpenMetrics() {
+      store.record("agent1", phaseId, 1, "foo", snapshot(0, 10, 1_000_000));
+      store.record("agent1", phaseId, 1, "foo", snapshot(1, 20, 2_000_000));
+      store.recordSessionStats("agent1", 1000, "foo", 3, 7);
+
+      StringBuilder sb = new StringBuilder();
+      OpenMetricsWriter.writeMetrics(sb, "0001", store, address -> "a\"1");
+      String metrics = sb.toString();
+      assertThat(metrics).contains("# TYPE hyperfoil_requests_total counter\n");
+      assertThat(metrics).contains("hyperfoil_requests_total{run=\"0001\",phase=\"foo\",metric=\"foo\"} 30\n");
+      assertThat(metrics).contains("hyperfoil_responses_total{run=\"0001\",phase=\"foo\",metric=\"foo\",status=\"2xx\"} 30\n");
+      assertThat(metrics).contains("hyperfoil_recent_request_rate{run=\"0001\",phase=\"foo\",metric=\"foo\"} 10.0\n");
+      assertThat(metrics).contains("hyperfoil_recent_response_time_seconds{run=\"0001\",phase=\"foo\",metric=\"foo\",quantile=\"0.5\"} 0.001");
+      assertThat(metrics).contains("hyperfoil_sessions_max{run=\"0001\",phase=\"foo\",agent=\"a\\\"1\"} 7\n");
+   }
+
+   @Test
+   public void testPacingIsNotRequest() {
+      List<RequestStats> completed = new ArrayList<>();
+      store.addRecentListener(completed::add);
+
+      store.record("agent1", phaseId, 1, "foo", snapshot(0, 10, 1_000_000));
+      for (int i = 0; i < 2; ++i) {
+         StatisticsSnapshot pacing = snapshot(i, 0, 0);
+         // each start records its delay as a response without request
+         for (int j = 0; j < 10; ++j) {
+            pacing.histogram.recordValue(1000 * (j + 1));
+         }
+         pacing.responseCount = 10;
+         store.record("agent1", phaseId, StatisticsStep.PACING_ID, StatisticsStep.PACING_METRIC, pacing);
+      }
+      store.record("agent1", phaseId, 1, "foo", snapshot(1, 20, 2_000_000));
+      store.completePhase("foo");
+
+      assertThat(completed).extracting(rs -> rs.metric).containsOnly("foo");
+      assertThat(store.totalSummary()).extracting(rs -> rs.metric).containsExactly("foo");
+      assertThat(store.getData()).extracting(d -> d.metric).containsExactly("foo");
+      // the distribution of delays is kept
+      Data pacing = Arrays.stream(store.sortedData(false)).filter(d -> d.stepId == StatisticsStep.PACING_ID).findFirst().orElseThrow(AssertionError::new);
+      assertThat(pacing.total.requestCount).isZero();
+      assertThat(pacing.total.histogram.getTotalCount()).isEqualTo(20);
+      assertThat(pacing.total.histogram.getValueAtPercentile(99)).isBetween(9900L, 10100L);
+   }
+
+   private static StatisticsSnapshot snapshot(int sequenceId, int requests, long responseTime) {
+      StatisticsSnapshot snapshot = new StatisticsSnapshot();
+      snapshot.sequenceId = sequenceId;
+      snapshot.requestCount = requests;
+      snapshot.responseCount = requests;
+      snapshot.status_2xx = requests;
+      for (int i = 0; i < requests; ++i) {
+         snapshot.histogram.recordValue(responseTime);
+      }
+      snapshot.histogram.setStartTimeStamp(1000L * sequenceId);
+      snapshot.histogram.setEndTimeStamp(1000L * (sequenceId + 1));
+      return snapshot;
+   }
+}
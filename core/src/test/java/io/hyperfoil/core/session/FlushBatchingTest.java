@@ -0,0 +1,77 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class FlushBatchingTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end("Hello!"));
+   }
+
+   @Override
+   protected int threads() {
+      return 1;
+   }
+
+   @Test
+   public void testFlushEachRequest() {
+      StatisticsSnapshot stats = runWithMaxRequestsPerFlush(1);
+      assertThat(stats.flushCount).isEqualTo(stats.requestCount);
+   }
+
+   @Test
+   public void testFlushPerIteration() {
+      StatisticsSnapshot stats = runWithMaxRequestsPerFlush(0);
+      // all sessions start in the same event loop iteration and their requests share the flush
+      assertThat(stats.flushCount).isGreaterThanOrEqualTo(1).isLessThan(stats.requestCount);
+   }
+
+   @Test
+   public void testFlushBatch() {
+      StatisticsSnapshot stats = runWithMaxRequestsPerFlush(3);
+      // at most 3 requests per flush, but there must be some batching
+      assertThat(stats.flushCount).isGreaterThanOrEqualTo((stats.requestCount + 2) / 3).isLessThan(stats.requestCount);
+   }
+
+   @Test
+   public void testFlushMixedMetrics() {
+      benchmarkBuilder.http().sharedConnections(1).pipeliningLimit(10).maxRequestsPerFlush(0);
+      // @formatter:off
+      parallelScenario(5)
+            .initialSequence("foo")
+               .step(SC).httpRequest(HttpMethod.GET).path("/test").endStep()
+            .endSequence()
+            .initialSequence("bar")
+               .step(SC).httpRequest(HttpMethod.GET).path("/test").endStep()
+            .endSequence();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      // every metric in a batch is credited with its flush
+      for (String metric : new String[]{ "foo", "bar" }) {
+         assertThat(stats.get(metric).requestCount).isEqualTo(5);
+         assertThat(stats.get(metric).flushCount).isBetween(1, 5);
+      }
+   }
+
+   private StatisticsSnapshot runWithMaxRequestsPerFlush(int maxRequestsPerFlush) {
+      benchmarkBuilder.http().sharedConnections(1).pipeliningLimit(10).maxRequestsPerFlush(maxRequestsPerFlush);
+      parallelScenario(10).initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET).path("/test").endStep()
+            .endSequence();
+      StatisticsSnapshot stats = runScenario().get("test");
+      assertThat(stats.requestCount).isEqualTo(10);
+      assertThat(stats.responseCount).isEqualTo(10);
+      return stats;
+   }
+}
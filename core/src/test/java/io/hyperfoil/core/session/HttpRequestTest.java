@@ -120,6 +120,26 @@ public class HttpRequestTest extends BaseScenarioTest {
       runScenario();
    }
 
+   @Test
+   public void testAbsoluteUrlWithSpaces(TestContext ctx) {
+      // @formatter:off
+      scenario()
+            .objectVar("x")
+            .initialSequence("test")
+               .step(SC).action(new SetAction.Builder()
+                  .var("x")
+                  .value("b a r"))
+               .step(SC).httpRequest(HttpMethod.POST)
+                  .path("http://localhost:" + server.actualPort() + "/test?expect=${x}")
+                  .body("b a r")
+                  .handler().status(verifyStatus(ctx))
+                  .endHandler()
+               .endStep();
+      // @formatter:on
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      assertThat(stats.get("test").status_2xx).isEqualTo(1);
+   }
+
    @Test
    public void testPattern(TestContext ctx) {
       // @formatter:off
@@ -0,0 +1,67 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.HttpBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.StatisticsStep;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class NanoPacingTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end("Hello!"));
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.sharedConnections(30);
+   }
+
+   @Test
+   public void testConstantRate() {
+      benchmarkBuilder.addPhase("test").constantRate(300).duration(1000).maxSessions(30)
+            .variance(false).pacing(Phase.Pacing.NANOS)
+            .scenario().initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET).path("/test").metric("test").endStep()
+            .endSequence();
+
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      StatisticsSnapshot snapshot = stats.get("test");
+      assertThat(snapshot.requestCount).isBetween(270, 330);
+      assertThat(snapshot.responseCount).isEqualTo(snapshot.requestCount);
+      assertPacing(stats.get(StatisticsStep.PACING_METRIC), snapshot.requestCount);
+   }
+
+   @Test
+   public void testRampRate() {
+      benchmarkBuilder.addPhase("test").rampRate(100, 500).duration(1000).maxSessions(50)
+            .pacing(Phase.Pacing.NANOS)
+            .scenario().initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET).path("/test").metric("test").endStep()
+            .endSequence();
+
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      StatisticsSnapshot snapshot = stats.get("test");
+      // On average 300 users start during the phase
+      assertThat(snapshot.requestCount).isBetween(200, 400);
+      assertPacing(stats.get(StatisticsStep.PACING_METRIC), snapshot.requestCount);
+   }
+
+   private void assertPacing(StatisticsSnapshot pacing, int startedUsers) {
+      // Each started user records how late it started in the histogram, but these are not requests
+      assertThat(pacing.requestCount).isZero();
+      assertThat(pacing.responseCount).isEqualTo(startedUsers);
+      assertThat(pacing.histogram.getTotalCount()).isEqualTo(startedUsers);
+      assertThat(pacing.histogram.getMinValue()).isNotNegative();
+   }
+}
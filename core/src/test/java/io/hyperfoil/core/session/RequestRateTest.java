@@ -0,0 +1,46 @@
+package io.hyperfoil.core.session;
+
+import static io.hyperfoil.core.builders.StepCatalog.SC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.hyperfoil.api.config.HttpBuilder;
+import io.hyperfoil.api.http.HttpMethod;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.steps.StatisticsStep;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class RequestRateTest extends BaseScenarioTest {
+   @Override
+   protected void initRouter() {
+      router.route("/test").handler(ctx -> ctx.response().end("Hello!"));
+   }
+
+   @Override
+   protected void initHttp(HttpBuilder http) {
+      http.sharedConnections(30);
+   }
+
+   @Test
+   public void test() {
+      benchmarkBuilder.addPhase("test").requestRate(500).duration(1000).maxSessions(30).variance(false)
+            .scenario().initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET).path("/test").metric("test").endStep()
+            .endSequence();
+
+      Map<String, StatisticsSnapshot> stats = runScenario();
+      StatisticsSnapshot snapshot = stats.get("test");
+      // The arrivals are scheduled evenly from the phase start until it is finished
+      assertThat(snapshot.requestCount).isBetween(450, 550);
+      assertThat(snapshot.responseCount).isEqualTo(snapshot.requestCount);
+      assertThat(snapshot.status_2xx).isEqualTo(snapshot.requestCount);
+      // Each arrival records its pacing error
+      StatisticsSnapshot pacing = stats.get(StatisticsStep.PACING_METRIC);
+      assertThat(pacing.histogram.getTotalCount()).isEqualTo(snapshot.requestCount);
+   }
+}
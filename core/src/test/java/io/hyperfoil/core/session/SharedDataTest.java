@@ -3,6 +3,7 @@ package io.hyperfoil.core.session;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
@@ -77,4 +78,78 @@ public class SharedDataTest {
       }
       assertThat(data.pullMap(FOO)).isNull();
    }
+
+   @Test
+   public void testAgentData() {
+      AgentSharedData agentData = new AgentSharedData(2);
+      SharedData producer = new SharedDataImpl(agentData, 0);
+      SharedData consumer = new SharedDataImpl(agentData, 1);
+      // Pull step reserving the map before the push step
+      consumer.reserveMap(FOO, null, 0);
+      consumer.reserveAgentMap(FOO, 2, 2, SharedData.Eviction.DROP_NEW);
+      producer.reserveAgentMap(FOO, 2, 2, SharedData.Eviction.DROP_NEW);
+      for (int i = 0; i < 5; ++i) {
+         SharedData.SharedMap map = producer.newMap(FOO);
+         map.put(NUMBERA, i);
+         producer.pushMap(FOO, map);
+      }
+      // Two maps for each executor, the last one is dropped
+      assertThat(agentData.stats(FOO).evictions).isEqualTo(1);
+      int sum = 0;
+      for (int i = 0; i < 4; ++i) {
+         SharedData.SharedMap map = consumer.pullMap(FOO);
+         sum += (Integer) map.find(NUMBERA);
+         consumer.releaseMap(FOO, map);
+      }
+      assertThat(sum).isEqualTo(6);
+      assertThat(consumer.pullMap(FOO)).isNull();
+      // The maps that overflowed to consumer's executor were hits, the others were stolen
+      AgentSharedData.Stats stats = agentData.stats(FOO);
+      assertThat(stats.hits).isEqualTo(2);
+      assertThat(stats.steals).isEqualTo(2);
+      assertThat(stats.misses).isEqualTo(1);
+      assertThat(agentData.stats("bar")).isNull();
+      // Released maps are recycled
+      assertThat(producer.newMap(FOO).size()).isEqualTo(0);
+   }
+
+   @Test
+   public void testAgentDataConcurrent() throws InterruptedException {
+      int threads = 4;
+      int maps = 100_000;
+      AgentSharedData agentData = new AgentSharedData(threads);
+      AtomicLong pulled = new AtomicLong();
+      Thread[] workers = new Thread[threads];
+      for (int t = 0; t < threads; ++t) {
+         SharedData data = new SharedDataImpl(agentData, t);
+         data.reserveAgentMap(FOO, 1, 1024, SharedData.Eviction.DROP_NEW);
+         boolean producer = t % 2 == 0;
+         workers[t] = new Thread(() -> {
+            for (int i = 0; i < maps; ++i) {
+               if (producer) {
+                  SharedData.SharedMap map = data.newMap(FOO);
+                  map.put(NUMBERA, i);
+                  data.pushMap(FOO, map);
+               } else {
+                  SharedData.SharedMap map = data.pullMap(FOO);
+                  if (map != null) {
+                     pulled.incrementAndGet();
+                     data.releaseMap(FOO, map);
+                  }
+               }
+            }
+         });
+         workers[t].start();
+      }
+      for (Thread worker : workers) {
+         worker.join();
+      }
+      SharedData data = new SharedDataImpl(agentData, 0);
+      data.reserveAgentMap(FOO, 1, 1024, SharedData.Eviction.DROP_NEW);
+      while (data.pullMap(FOO) != null) {
+         pulled.incrementAndGet();
+      }
+      // Every map pushed by producers was either pulled or evicted
+      assertThat(pulled.get() + agentData.stats(FOO).evictions).isEqualTo(2L * maps);
+   }
 }
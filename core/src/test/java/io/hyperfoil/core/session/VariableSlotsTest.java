@@ -0,0 +1,53 @@
+package io.hyperfoil.core.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+
+import org.junit.Test;
+
+import io.hyperfoil.api.config.Scenario;
+import io.hyperfoil.api.config.Sequence;
+import io.hyperfoil.api.session.VariableSlots;
+
+public class VariableSlotsTest {
+   @Test
+   public void testBoundAndUnbound() {
+      VariableSlots slots = new VariableSlots();
+      SimpleAccess foo = new SimpleAccess("foo", slots);
+      SimpleAccess bar = new SimpleAccess("bar", slots);
+      SimpleAccess foo2 = new SimpleAccess("foo", slots);
+      assertThat(foo.index).isEqualTo(0);
+      assertThat(bar.index).isEqualTo(1);
+      assertThat(foo2.index).isEqualTo(0);
+      assertThat(slots.indexOf("counter")).isEqualTo(-1);
+      slots.assign("counter");
+
+      Scenario scenario = new Scenario(new Sequence[0], new Sequence[0], new String[0], new String[]{ "counter" }, slots, 16, 16);
+      SessionImpl session = new SessionImpl(scenario, 0, 0, 0, Clock.systemUTC());
+      session.reserve(scenario);
+
+      foo.declareObject(session);
+      bar.declareInt(session);
+      foo.setObject(session, "xxx");
+      bar.setInt(session, 42);
+      assertThat(foo2.getObject(session)).isEqualTo("xxx");
+      assertThat(bar.addToInt(session, 1)).isEqualTo(42);
+
+      // Access created outside of the scenario must see the same variables
+      SimpleAccess unboundFoo = new SimpleAccess("foo", null);
+      SimpleAccess unboundCounter = new SimpleAccess("counter", null);
+      assertThat(unboundFoo.getObject(session)).isEqualTo("xxx");
+      unboundCounter.setInt(session, 7);
+      assertThat(new SimpleAccess("counter", slots).getInt(session)).isEqualTo(7);
+
+      // Variables not known to the scenario are still supported
+      SimpleAccess other = new SimpleAccess("other", new VariableSlots());
+      other.declareInt(session);
+      other.setInt(session, 3);
+      assertThat(new SimpleAccess("other", null).getInt(session)).isEqualTo(3);
+
+      unboundFoo.unset(session);
+      assertThat(foo.isSet(session)).isFalse();
+   }
+}
@@ -3,14 +3,19 @@ package io.hyperfoil.core.statistics;
 import static io.hyperfoil.core.builders.StepCatalog.SC;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import io.hyperfoil.api.config.PhaseReference;
+import io.hyperfoil.api.config.RelativeIteration;
 import io.hyperfoil.api.http.HttpMethod;
 import io.hyperfoil.api.statistics.StatisticsSnapshot;
+import io.hyperfoil.core.impl.LocalSimulationRunner;
+import io.hyperfoil.core.impl.statistics.StatisticsCollector;
 import io.hyperfoil.core.session.BaseScenarioTest;
 import io.hyperfoil.core.steps.PathMetricSelector;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -54,4 +59,24 @@ public class PathMetricsTest extends BaseScenarioTest {
       assertThat(stats.get("others").requestCount).isEqualTo(1);
    }
 
+   @Test
+   public void testIterations() {
+      PathMetricSelector selector = new PathMetricSelector();
+      selector.nextItem(".*\\.js");
+      // The step (and its metric cache) is shared by both iterations
+      benchmarkBuilder.addPhase("test").sequentially(2).maxIterations(2)
+            .startAfter(new PhaseReference("test", RelativeIteration.PREVIOUS, null))
+            .scenario().initialSequence("test")
+            .step(SC).httpRequest(HttpMethod.GET)
+            .path("/foo.js")
+            .metric(selector)
+            .endStep();
+
+      Map<String, StatisticsSnapshot> stats = new HashMap<>();
+      StatisticsCollector.StatisticsConsumer consumer = (phase, stepId, metric, snapshot, countDown) ->
+            snapshot.addInto(stats.computeIfAbsent(phase.name() + "/" + metric, n -> new StatisticsSnapshot()));
+      new LocalSimulationRunner(benchmarkBuilder.build(), consumer, null).run();
+      assertThat(stats.get("test/000//foo.js").requestCount).isEqualTo(2);
+      assertThat(stats.get("test/001//foo.js").requestCount).isEqualTo(2);
+   }
 }
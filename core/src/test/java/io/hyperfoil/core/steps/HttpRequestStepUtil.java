@@ -1,5 +1,6 @@
 package io.hyperfoil.core.steps;
 
+import io.hyperfoil.api.config.HistogramSpec;
 import io.hyperfoil.api.http.HttpResponseHandlers;
 import io.hyperfoil.api.http.StatusHandler;
 
@@ -11,4 +12,8 @@ public final class HttpRequestStepUtil {
    public static StatusHandler[] statusHandlers(HttpRequestStep step) {
       return step.handler.statusHandlers.clone();
    }
+
+   public static HistogramSpec histogramSpec(HttpRequestStep step) {
+      return step.histogramSpec;
+   }
 }
@@ -0,0 +1,57 @@
+package io.hyperfoil.core.steps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class MetricCacheTest {
+   @Test
+   public void testHitAndMiss() {
+      MetricCache cache = new MetricCache(16);
+      String foo = "foo";
+      ByteBuf path = path("/foo");
+      assertThat(cache.get("localhost:8080", path)).isNull();
+      assertThat(cache.put("localhost:8080", path, foo)).isFalse();
+      assertThat(cache.get("localhost:8080", path("/foo"))).isSameAs(foo);
+      assertThat(cache.get(new String("localhost:8080"), path("/foo"))).isSameAs(foo);
+      assertThat(cache.get("localhost:8081", path("/foo"))).isNull();
+      assertThat(cache.get("localhost:8080", path("/fo"))).isNull();
+      assertThat(cache.get(null, path("/foo"))).isNull();
+
+      // only readable bytes are considered
+      ByteBuf prefixed = path("http://localhost:8080/foo");
+      prefixed.skipBytes("http://localhost:8080".length());
+      assertThat(cache.get("localhost:8080", prefixed)).isSameAs(foo);
+      assertThat(prefixed.readerIndex()).isEqualTo("http://localhost:8080".length());
+
+      assertThat(cache.hits()).isEqualTo(3);
+      assertThat(cache.misses()).isEqualTo(4);
+   }
+
+   @Test
+   public void testEviction() {
+      MetricCache cache = new MetricCache(MetricCache.WAYS);
+      String[] metrics = new String[MetricCache.WAYS + 1];
+      for (int i = 0; i < MetricCache.WAYS; ++i) {
+         metrics[i] = "metric" + i;
+         assertThat(cache.put(null, path("/" + i), metrics[i])).isFalse();
+      }
+      // referenced entries are spared
+      assertThat(cache.get(null, path("/0"))).isSameAs(metrics[0]);
+      metrics[MetricCache.WAYS] = "x";
+      assertThat(cache.put(null, path("/x"), metrics[MetricCache.WAYS])).isTrue();
+      assertThat(cache.evictions()).isEqualTo(1);
+      assertThat(cache.get(null, path("/0"))).isSameAs(metrics[0]);
+      assertThat(cache.get(null, path("/1"))).isNull();
+      assertThat(cache.get(null, path("/x"))).isSameAs(metrics[MetricCache.WAYS]);
+   }
+
+   private static ByteBuf path(String path) {
+      return Unpooled.wrappedBuffer(path.getBytes(StandardCharsets.UTF_8));
+   }
+}
@@ -43,7 +43,8 @@ public class TestUtil {
 
       @Override
       public ScenarioBuilder scenario() {
-         throw new UnsupportedOperationException();
+         // variables are not bound to any scenario
+         return null;
       }
 
       @Override
@@ -0,0 +1,30 @@
+package io.hyperfoil.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+
+public class SharedBytesTest {
+   @Test
+   public void testDuplicates() {
+      SharedBytes shared = new SharedBytes("Hello world!".getBytes(StandardCharsets.UTF_8));
+      ByteBuf first = shared.duplicate();
+      ByteBuf second = shared.duplicate();
+      assertNotSame(first, second);
+      assertTrue(first.isDirect());
+      assertTrue(first.isReadOnly());
+
+      // Consuming and releasing one duplicate as the channel would do must not affect the others
+      first.skipBytes(first.readableBytes());
+      first.release();
+      assertEquals("Hello world!", second.toString(StandardCharsets.UTF_8));
+      second.release();
+      assertEquals("Hello world!", shared.duplicate().toString(StandardCharsets.UTF_8));
+   }
+}
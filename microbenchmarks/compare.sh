@@ -0,0 +1,63 @@
+#!/bin/bash
+#
+# Builds the microbenchmarks from two commits, runs them one after another on this machine
+# (with the GC profiler to report allocations) and prints a comparison of the results.
+#
+# Usage: microbenchmarks/compare.sh <baseline-commit> <candidate-commit> [JMH options...]
+#
+# Any extra options are passed to JMH, e.g. a regexp selecting the benchmarks:
+#    microbenchmarks/compare.sh master HEAD Http1xResponseHandlerBenchmark -p fragmentSize=1460
+#
+# Environment variables:
+#    CPUS       - CPU list for taskset to pin the benchmarks, e.g. "2-5" (recommended on a shared machine)
+#    THRESHOLD  - change in percent that is considered significant (default 5)
+#    WORKDIR    - directory for the checkouts and results (default: a new temporary directory)
+#
+# Both commits must contain the microbenchmarks module. The script exits with status 1 if any regression
+# was found.
+
+set -eo pipefail
+
+if [ $# -lt 2 ]; then
+   sed -n '3,17p' "$0" | sed 's/^# \?//'
+   exit 2
+fi
+
+BASELINE=$(git rev-parse --verify "$1^{commit}")
+CANDIDATE=$(git rev-parse --verify "$2^{commit}")
+shift 2
+
+ROOT=$(git rev-parse --show-toplevel)
+WORKDIR=${WORKDIR:-$(mktemp -d -t hyperfoil-microbenchmarks-XXXXXX)}
+THRESHOLD=${THRESHOLD:-5}
+RUNNER=()
+if [ -n "$CPUS" ]; then
+   RUNNER=(taskset -c "$CPUS")
+fi
+
+run() {
+   local NAME=$1
+   local COMMIT=$2
+   local DIR=$WORKDIR/$NAME
+   echo "Building $NAME ($COMMIT) in $DIR"
+   git -C "$ROOT" worktree add --force --detach "$DIR" "$COMMIT" > /dev/null
+   # package (not install) so that the local repository is not polluted with the snapshots
+   (cd "$DIR" && mvn -B -q package -DskipTests -pl microbenchmarks -am)
+   echo "Running $NAME"
+   "${RUNNER[@]}" java -jar "$DIR/microbenchmarks/target/benchmarks.jar" \
+      -prof gc -rf json -rff "$WORKDIR/$NAME.json" "${@:3}" | tee "$WORKDIR/$NAME.log"
+}
+
+cleanup() {
+   git -C "$ROOT" worktree remove --force "$WORKDIR/baseline" 2> /dev/null || true
+   git -C "$ROOT" worktree remove --force "$WORKDIR/candidate" 2> /dev/null || true
+}
+trap cleanup EXIT
+
+run baseline "$BASELINE" "$@"
+run candidate "$CANDIDATE" "$@"
+
+echo
+echo "Results are stored in $WORKDIR"
+java -cp "$WORKDIR/candidate/microbenchmarks/target/benchmarks.jar" io.hyperfoil.microbenchmarks.CompareResults \
+   "$WORKDIR/baseline.json" "$WORKDIR/candidate.json" "$THRESHOLD" | tee "$WORKDIR/report.txt"
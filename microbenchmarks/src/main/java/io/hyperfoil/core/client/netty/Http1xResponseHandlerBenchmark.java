@@ -0,0 +1,171 @@
+package io.hyperfoil.core.client.netty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.connection.HttpRequest;
+import io.hyperfoil.core.http.BaseMockConnection;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Parsing a canned stream of pipelined HTTP 1.x responses, delivered in fragments of given size
+ * through an {@link EmbeddedChannel}. The score is time per response. The <code>swar-all-headers</code> variant
+ * splits all headers into name and value as if some handler needed them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class Http1xResponseHandlerBenchmark {
+   private static final int RESPONSES = 64;
+
+   @Param({ "swar", "swar-all-headers", "legacy" })
+   String parser;
+
+   @Param({ "small", "headers", "chunked" })
+   String response;
+
+   @Param({ "1460", "16384" })
+   int fragmentSize;
+
+   private EmbeddedChannel channel;
+   private ChannelPipeline pipeline;
+   private ByteBuf[] fragments;
+
+   @Setup
+   public void setup() {
+      BaseMockConnection connection = new BaseMockConnection();
+      // There are no requests in flight: we measure just the parsing, not the handlers
+      Http1xResponseHandler handler;
+      switch (parser) {
+         case "legacy":
+            handler = new Http1xResponseHandler(connection) {
+               @Override
+               protected void onStatus(int status) {
+               }
+
+               @Override
+               protected void onCompletion(HttpRequest request) {
+               }
+            };
+            break;
+         case "swar":
+         case "swar-all-headers":
+            boolean allHeaders = "swar-all-headers".equals(parser);
+            handler = new SwarHttp1xResponseHandler(connection) {
+               @Override
+               boolean isHeaderRequired(ByteBuf buf, int startOfName, int endOfName) {
+                  // Without a request in flight the default implementation would skip all headers
+                  return allHeaders;
+               }
+
+               @Override
+               protected void onStatus(int status) {
+               }
+
+               @Override
+               protected void onCompletion(HttpRequest request) {
+               }
+            };
+            break;
+         default:
+            throw new IllegalArgumentException(parser);
+      }
+      channel = new EmbeddedChannel(handler, new ChannelInboundHandlerAdapter() {
+         @Override
+         public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+         }
+      });
+      pipeline = channel.pipeline();
+
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < RESPONSES; ++i) {
+         sb.append(response(response));
+      }
+      byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+      int numFragments = (bytes.length + fragmentSize - 1) / fragmentSize;
+      fragments = new ByteBuf[numFragments];
+      for (int i = 0; i < numFragments; ++i) {
+         int offset = i * fragmentSize;
+         int length = Math.min(fragmentSize, bytes.length - offset);
+         fragments[i] = Unpooled.directBuffer(length).writeBytes(bytes, offset, length);
+      }
+   }
+
+   private static String response(String type) {
+      switch (type) {
+         case "small":
+            return "HTTP/1.1 200 OK\r\n" +
+                  "Content-Length: 13\r\n" +
+                  "\r\n" +
+                  "Hello world!\n";
+         case "headers":
+            return "HTTP/1.1 200 OK\r\n" +
+                  "Date: Mon, 19 Oct 2020 10:00:00 GMT\r\n" +
+                  "Server: Apache/2.4.41 (Unix)\r\n" +
+                  "Content-Type: application/json; charset=utf-8\r\n" +
+                  "Cache-Control: private, max-age=0, no-cache\r\n" +
+                  "Set-Cookie: JSESSIONID=8A9E2C52A2D4B8F8E8B7A36F7B3DCA41; Path=/; HttpOnly\r\n" +
+                  "X-Request-Id: 5b6d3c1e-2bfc-4e7b-a8e4-3f5e1a9c0d7f\r\n" +
+                  "Vary: Accept-Encoding, Origin\r\n" +
+                  "ETag: \"33a64df551425fcc55e4d42a148795d9f25f89d4\"\r\n" +
+                  "Content-Length: 28\r\n" +
+                  "\r\n" +
+                  "{\"id\":42,\"name\":\"hyperfoil\"}";
+         case "chunked":
+            return "HTTP/1.1 200 OK\r\n" +
+                  "Content-Type: text/plain\r\n" +
+                  "Transfer-Encoding: chunked\r\n" +
+                  "\r\n" +
+                  "1a\r\n" +
+                  "abcdefghijklmnopqrstuvwxyz\r\n" +
+                  "40\r\n" +
+                  "0123456789012345678901234567890123456789012345678901234567890123\r\n" +
+                  "0\r\n" +
+                  "\r\n";
+         default:
+            throw new IllegalArgumentException(type);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      channel.finishAndReleaseAll();
+      for (ByteBuf fragment : fragments) {
+         fragment.release();
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(RESPONSES)
+   public void parse() {
+      for (ByteBuf fragment : fragments) {
+         // The buffer (or its slices) is released at the end of the pipeline
+         fragment.retain().readerIndex(0);
+         pipeline.fireChannelRead(fragment);
+      }
+   }
+}
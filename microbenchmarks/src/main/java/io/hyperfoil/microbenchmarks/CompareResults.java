@@ -0,0 +1,118 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Compares two JMH result files (produced with <code>-rf json</code>) and prints the differences in score
+ * and allocation rate (when the results were recorded with <code>-prof gc</code>). Change in score is reported
+ * as regression only if it exceeds both the threshold and the combined error of the measurements.
+ * <p>
+ * Usage: <code>CompareResults baseline.json candidate.json [threshold-percent]</code>. Exits with status 1
+ * if any regression was found.
+ */
+public class CompareResults {
+   private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+   public static void main(String[] args) throws IOException {
+      if (args.length < 2) {
+         System.err.println("Usage: " + CompareResults.class.getName() + " baseline.json candidate.json [threshold-percent]");
+         System.exit(2);
+      }
+      Map<String, JsonObject> baseline = load(args[0]);
+      Map<String, JsonObject> candidate = load(args[1]);
+      double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+      int regressions = compare(baseline, candidate, threshold, System.out);
+      System.out.printf("%nFound %d regression(s) (threshold %.1f%%)%n", regressions, threshold);
+      System.exit(regressions > 0 ? 1 : 0);
+   }
+
+   private static Map<String, JsonObject> load(String file) throws IOException {
+      JsonArray results = new JsonArray(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+      Map<String, JsonObject> byKey = new TreeMap<>();
+      for (int i = 0; i < results.size(); ++i) {
+         JsonObject result = results.getJsonObject(i);
+         byKey.put(key(result), result);
+      }
+      return byKey;
+   }
+
+   private static String key(JsonObject result) {
+      StringBuilder sb = new StringBuilder(result.getString("benchmark"));
+      JsonObject params = result.getJsonObject("params");
+      if (params != null && !params.isEmpty()) {
+         sb.append('(');
+         // sort the params for stable output
+         Map<String, Object> sorted = new TreeMap<>(params.getMap());
+         sorted.forEach((name, value) -> sb.append(name).append('=').append(value).append(", "));
+         sb.setLength(sb.length() - 2);
+         sb.append(')');
+      }
+      sb.append(' ').append(result.getString("mode"));
+      return sb.toString();
+   }
+
+   private static int compare(Map<String, JsonObject> baseline, Map<String, JsonObject> candidate, double threshold, PrintStream out) {
+      Map<String, JsonObject> all = new LinkedHashMap<>(baseline);
+      candidate.forEach(all::putIfAbsent);
+      int regressions = 0;
+      out.printf("%-90s %24s %24s %9s %14s %14s%n", "Benchmark", "Baseline", "Candidate", "Change", "Base B/op", "Cand B/op");
+      for (String key : all.keySet()) {
+         JsonObject base = baseline.get(key);
+         JsonObject cand = candidate.get(key);
+         if (base == null || cand == null) {
+            out.printf("%-90s %s%n", key, base == null ? "only in candidate" : "only in baseline");
+            continue;
+         }
+         JsonObject basePrimary = base.getJsonObject("primaryMetric");
+         JsonObject candPrimary = cand.getJsonObject("primaryMetric");
+         double baseScore = basePrimary.getDouble("score");
+         double candScore = candPrimary.getDouble("score");
+         double error = error(basePrimary) + error(candPrimary);
+         double change = baseScore == 0 ? 0 : (candScore - baseScore) / baseScore * 100;
+         // For throughput higher is better, for all other modes lower is better
+         boolean higherIsBetter = "thrpt".equals(base.getString("mode"));
+         double worse = higherIsBetter ? baseScore - candScore : candScore - baseScore;
+         String verdict = "";
+         if (worse > error && Math.abs(change) > threshold) {
+            verdict = "REGRESSION";
+            ++regressions;
+         } else if (-worse > error && Math.abs(change) > threshold) {
+            verdict = "improvement";
+         }
+         String unit = basePrimary.getString("scoreUnit");
+         out.printf("%-90s %24s %24s %+8.1f%% %14s %14s %s%n", key,
+               String.format("%.3f +- %.3f %s", baseScore, error(basePrimary), unit),
+               String.format("%.3f +- %.3f %s", candScore, error(candPrimary), unit),
+               change, allocation(base), allocation(cand), verdict);
+      }
+      return regressions;
+   }
+
+   private static double error(JsonObject metric) {
+      Object error = metric.getValue("scoreError");
+      // JMH reports NaN as a string when there are not enough samples
+      return error instanceof Number ? ((Number) error).doubleValue() : 0;
+   }
+
+   private static String allocation(JsonObject result) {
+      JsonObject secondary = result.getJsonObject("secondaryMetrics");
+      if (secondary != null) {
+         for (String name : secondary.fieldNames()) {
+            if (name.endsWith(ALLOC_RATE_NORM)) {
+               return String.format("%.1f", secondary.getJsonObject(name).getDouble("score"));
+            }
+         }
+      }
+      return "-";
+   }
+}
@@ -0,0 +1,90 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.processor.Processor;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.handlers.json.JsonHandler;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Selecting values from a JSON response with {@link JsonHandler} (the streaming {@link io.hyperfoil.core.handlers.json.JsonParser}).
+ * The response is delivered in fragments of given size to exercise the handling of values split across buffers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JsonParserBenchmark {
+   @Param({ "100" })
+   int items;
+
+   @Param({ "1460", "65536" })
+   int fragmentSize;
+
+   private JsonHandler handler;
+   private Session session;
+   private ByteBuf[] fragments;
+
+   @Setup
+   public void setup(Blackhole blackhole) {
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < items; ++i) {
+         if (i != 0) {
+            sb.append(",\n");
+         }
+         sb.append("{ \"id\" : ").append(i)
+               .append(", \"name\" : \"Item \\\"").append(i).append("\\\"\"")
+               .append(", \"tags\" : [ \"foo\", \"bar\" ], \"nested\" : { \"id\" : -1, \"price\" : 12.34 } }");
+      }
+      sb.append("]");
+      byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+      int numFragments = (bytes.length + fragmentSize - 1) / fragmentSize;
+      fragments = new ByteBuf[numFragments];
+      for (int i = 0; i < numFragments; ++i) {
+         int offset = i * fragmentSize;
+         int length = Math.min(fragmentSize, bytes.length - offset);
+         fragments[i] = Unpooled.directBuffer(length).writeBytes(bytes, offset, length);
+      }
+      Processor processor = (s, data, offset, length, isLastPart) -> blackhole.consume(length);
+      handler = new JsonHandler(".[].id", false, null, processor);
+      session = SessionFactory.forTesting();
+      handler.reserve(session);
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (ByteBuf fragment : fragments) {
+         fragment.release();
+      }
+   }
+
+   @Benchmark
+   public void parse() {
+      handler.before(session);
+      for (int i = 0; i < fragments.length; ++i) {
+         ByteBuf fragment = fragments[i];
+         handler.process(session, fragment, fragment.readerIndex(), fragment.readableBytes(), i == fragments.length - 1);
+      }
+      handler.after(session);
+   }
+}
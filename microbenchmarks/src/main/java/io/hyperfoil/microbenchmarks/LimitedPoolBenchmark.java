@@ -0,0 +1,62 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.collection.LimitedPool;
+
+/**
+ * Acquiring and releasing objects from {@link LimitedPool} (used e.g. for requests and sequence instances).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LimitedPoolBenchmark {
+   @Param({ "16", "1024" })
+   int capacity;
+
+   private LimitedPool<Object> pool;
+   private Object[] acquired;
+
+   @Setup
+   public void setup() {
+      pool = new LimitedPool<>(capacity, Object::new);
+      acquired = new Object[capacity / 2];
+   }
+
+   @Benchmark
+   public Object acquireRelease() {
+      Object object = pool.acquire();
+      pool.release(object);
+      return object;
+   }
+
+   @Benchmark
+   public Object acquireReleaseHalf() {
+      // Release in different order than acquired to let the pool fragment
+      for (int i = 0; i < acquired.length; ++i) {
+         acquired[i] = pool.acquire();
+      }
+      for (int i = 0; i < acquired.length; i += 2) {
+         pool.release(acquired[i]);
+      }
+      for (int i = 1; i < acquired.length; i += 2) {
+         pool.release(acquired[i]);
+      }
+      return acquired[0];
+   }
+}
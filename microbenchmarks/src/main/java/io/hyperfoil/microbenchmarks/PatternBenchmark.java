@@ -0,0 +1,84 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.Locator;
+import io.hyperfoil.api.session.Access;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.generators.Pattern;
+import io.hyperfoil.core.session.SessionFactory;
+import io.hyperfoil.core.test.TestUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Generating paths and bodies from a {@link Pattern}, both into a String and directly into a buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PatternBenchmark {
+   private Pattern pattern;
+   private Pattern urlEncoded;
+   private Session session;
+   private ByteBuf buf;
+
+   @Setup
+   public void setup() {
+      Locator.push(TestUtil.locator());
+      try {
+         pattern = new Pattern("/api/users/${user}/orders?page=${page}&id=${%08x:page}", false);
+         urlEncoded = new Pattern("/search?q=${query}", true);
+         session = SessionFactory.forTesting();
+         Access user = SessionFactory.access("user");
+         Access page = SessionFactory.access("page");
+         Access query = SessionFactory.access("query");
+         user.declareObject(session);
+         page.declareInt(session);
+         query.declareObject(session);
+         user.setObject(session, "john.doe");
+         page.setInt(session, 42);
+         query.setObject(session, "hyper foil & friends");
+      } finally {
+         Locator.pop();
+      }
+      buf = ByteBufAllocator.DEFAULT.directBuffer(256);
+   }
+
+   @TearDown
+   public void tearDown() {
+      buf.release();
+   }
+
+   @Benchmark
+   public String applyString() {
+      return pattern.apply(session);
+   }
+
+   @Benchmark
+   public ByteBuf acceptBuffer() {
+      buf.clear();
+      pattern.accept(session, buf);
+      return buf;
+   }
+
+   @Benchmark
+   public String applyUrlEncoded() {
+      return urlEncoded.apply(session);
+   }
+}
@@ -0,0 +1,96 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.hyperfoil.api.config.BenchmarkBuilder;
+import io.hyperfoil.api.config.Phase;
+import io.hyperfoil.api.config.SequenceBuilder;
+import io.hyperfoil.api.config.Step;
+import io.hyperfoil.api.session.PhaseInstance;
+import io.hyperfoil.api.session.Session;
+import io.hyperfoil.core.client.netty.HttpDestinationTableImpl;
+import io.hyperfoil.core.impl.ExecutorScheduler;
+import io.hyperfoil.core.impl.PhaseInstanceImpl;
+import io.hyperfoil.core.session.SessionFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Overhead of the session loop: starting the session with its initial sequence and running it
+ * to the completion. The steps don't do anything and one of them blocks the sequence
+ * once to make the session yield.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SessionBenchmark {
+   @Param({ "1", "10" })
+   int steps;
+
+   private Session session;
+   private PhaseInstance phaseInstance;
+
+   @Setup
+   public void setup() {
+      // The target is never contacted
+      BenchmarkBuilder builder = BenchmarkBuilder.builder().http("http://localhost:8080").endHttp();
+      SequenceBuilder sequence = builder.addPhase("test").atOnce(1).scenario().initialSequence("test");
+      for (int i = 0; i < steps; ++i) {
+         sequence.step(s -> true);
+      }
+      sequence.step(new BlockOnce());
+      io.hyperfoil.api.config.Benchmark benchmark = builder.build();
+      Phase phase = benchmark.phases().iterator().next();
+      session = SessionFactory.create(phase.scenario(), 0, 0, 0);
+      session.attach(ImmediateEventExecutor.INSTANCE, new ExecutorScheduler(ImmediateEventExecutor.INSTANCE),
+            null, new HttpDestinationTableImpl(Collections.emptyMap()), null);
+      session.reserve(phase.scenario());
+      phaseInstance = new PhaseInstanceImpl<Phase>(phase, 0) {
+         @Override
+         public void proceed(EventExecutorGroup executorGroup) {
+         }
+
+         @Override
+         public void reserveSessions() {
+         }
+
+         @Override
+         public void notifyFinished(Session session) {
+         }
+      };
+   }
+
+   @Benchmark
+   public boolean runSession() {
+      // the executor is immediate so this runs the session until the blocking step
+      session.start(phaseInstance);
+      session.call();
+      return session.isActive();
+   }
+
+   private static class BlockOnce implements Step {
+      private boolean blocked;
+
+      @Override
+      public boolean invoke(Session session) {
+         blocked = !blocked;
+         return !blocked;
+      }
+   }
+}
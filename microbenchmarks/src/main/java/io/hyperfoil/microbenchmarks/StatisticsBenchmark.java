@@ -0,0 +1,72 @@
+package io.hyperfoil.microbenchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.hyperfoil.api.statistics.Statistics;
+import io.hyperfoil.api.statistics.StatisticsSnapshot;
+
+/**
+ * Recording into {@link Statistics} as done for each completed request, optionally with the collector
+ * concurrently fetching the snapshots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class StatisticsBenchmark {
+   private Statistics statistics;
+   private final StatisticsSnapshot total = new StatisticsSnapshot();
+
+   @Setup
+   public void setup() {
+      statistics = new Statistics(System.currentTimeMillis());
+   }
+
+   @Benchmark
+   @Group("uncontended")
+   public void recordResponse() {
+      record();
+   }
+
+   @Benchmark
+   @Group("collected")
+   @GroupThreads(1)
+   public void recordWhileCollecting() {
+      record();
+   }
+
+   @Benchmark
+   @Group("collected")
+   @GroupThreads(1)
+   public void collect(Blackhole blackhole) {
+      // The collector runs periodically, not in a tight loop
+      Blackhole.consumeCPU(10000);
+      statistics.visitSnapshots(snapshot -> snapshot.addInto(total));
+      blackhole.consume(total.responseCount);
+   }
+
+   private void record() {
+      long now = System.currentTimeMillis();
+      long responseTime = ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(100));
+      statistics.incrementRequests(now);
+      statistics.recordResponse(now, 1000, responseTime);
+      statistics.addStatus(now, 200);
+   }
+}